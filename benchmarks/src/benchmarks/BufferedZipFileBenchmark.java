@@ -21,6 +21,7 @@ import com.google.caliper.Param;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Random;
 import java.util.zip.ZipEntry;
@@ -30,6 +31,7 @@ import java.util.zip.ZipOutputStream;
 public final class BufferedZipFileBenchmark {
     @Param({"128", "1024", "8192", "65536"}) int compressedSize;
     @Param({"4", "32", "128"}) int readSize;
+    @Param({"1", "4"}) int threads;
 
     private File file;
 
@@ -78,4 +80,36 @@ public final class BufferedZipFileBenchmark {
             zipFile.close();
         }
     }
+
+    /**
+     * Reads the entry through a single shared ZipFile from {@code threads}
+     * threads at once.
+     */
+    public void timeConcurrentBufferedRead(final int reps) throws Exception {
+        final ZipFile zipFile = new ZipFile(file);
+        final ZipEntry entry = zipFile.getEntry("entry.data");
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    byte[] buffer = new byte[readSize];
+                    try {
+                        for (int rep = 0; rep < reps; ++rep) {
+                            InputStream in = new BufferedInputStream(zipFile.getInputStream(entry));
+                            while (in.read(buffer) != -1) {
+                            }
+                            in.close();
+                        }
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        zipFile.close();
+    }
 }
@@ -16,6 +16,14 @@
 
 package benchmarks;
 
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Enumeration;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import junit.framework.Assert;
 
 public class ClassLoaderResourceBenchmark {
@@ -23,6 +31,34 @@ public class ClassLoaderResourceBenchmark {
   private static final String EXISTENT_RESOURCE = "java/util/logging/logging.properties";
   private static final String MISSING_RESOURCE = "missing_entry";
 
+  /** The number of entries in the archive used by the large archive benchmarks. */
+  private static final int LARGE_ARCHIVE_ENTRIES = 20000;
+
+  private File largeArchive;
+  private String[] largeArchiveEntryNames;
+  private JarFile largeJarFile;
+
+  @BeforeExperiment
+  protected void setUp() throws Exception {
+    System.setProperty("java.io.tmpdir", "/data/local/tmp");
+    largeArchive = File.createTempFile(getClass().getName(), ".jar");
+    largeArchive.deleteOnExit();
+    largeArchiveEntryNames = new String[LARGE_ARCHIVE_ENTRIES];
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(largeArchive));
+    for (int i = 0; i < LARGE_ARCHIVE_ENTRIES; ++i) {
+      largeArchiveEntryNames[i] = "com/example/package" + (i % 100) + "/Resource" + i + ".class";
+      out.putNextEntry(new ZipEntry(largeArchiveEntryNames[i]));
+      out.closeEntry();
+    }
+    out.close();
+    largeJarFile = new JarFile(largeArchive);
+  }
+
+  @AfterExperiment
+  protected void tearDown() throws Exception {
+    largeJarFile.close();
+  }
+
   public void timeGetBootResource_hit(int reps) {
     ClassLoader currentClassLoader = getClass().getClassLoader();
     Assert.assertNotNull(currentClassLoader.getResource(EXISTENT_RESOURCE));
@@ -41,4 +77,25 @@ public class ClassLoaderResourceBenchmark {
     }
   }
 
+  public void timeOpenAndIterateLargeArchive(int reps) throws Exception {
+    for (int rep = 0; rep < reps; ++rep) {
+      JarFile jarFile = new JarFile(largeArchive);
+      for (Enumeration<? extends ZipEntry> e = jarFile.entries(); e.hasMoreElements(); ) {
+        e.nextElement();
+      }
+      jarFile.close();
+    }
+  }
+
+  public void timeGetLargeArchiveEntry_hit(int reps) {
+    for (int rep = 0; rep < reps; ++rep) {
+      largeJarFile.getEntry(largeArchiveEntryNames[rep % LARGE_ARCHIVE_ENTRIES]);
+    }
+  }
+
+  public void timeGetLargeArchiveEntry_miss(int reps) {
+    for (int rep = 0; rep < reps; ++rep) {
+      largeJarFile.getEntry(MISSING_RESOURCE);
+    }
+  }
 }
@@ -17,9 +17,15 @@
 package benchmarks;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.IntHashMap;
 import java.util.LinkedHashMap;
+import java.util.LongHashMap;
+import java.util.LongHashSet;
 import java.util.concurrent.ConcurrentHashMap;
+import libcore.util.offheap.OffHeapLongLongMap;
+import libcore.util.offheap.OffHeapLongSet;
 
 /**
  * How do the various hash maps compare?
@@ -64,4 +70,116 @@ public class HashedCollectionsBenchmark {
             map.get("hello");
         }
     }
+
+    public void timeHashMapLongGet(int reps) {
+        HashMap<Long, Long> map = new HashMap<Long, Long>();
+        for (long k = 0; k < 1024; ++k) {
+            map.put(k * 7919, k);
+        }
+        for (int i = 0; i < reps; ++i) {
+            map.get((i & 1023) * 7919L);
+        }
+    }
+    public void timeOffHeapLongLongMapGet(int reps) {
+        OffHeapLongLongMap map = new OffHeapLongLongMap();
+        for (long k = 0; k < 1024; ++k) {
+            map.put(k * 7919, k);
+        }
+        for (int i = 0; i < reps; ++i) {
+            map.get((i & 1023) * 7919L);
+        }
+        map.close();
+    }
+    public void timeHashMapLongPut(int reps) {
+        HashMap<Long, Long> map = new HashMap<Long, Long>();
+        for (int i = 0; i < reps; ++i) {
+            if ((i & 0xffff) == 0) {
+                map.clear();
+            }
+            map.put((long) i, (long) i);
+        }
+    }
+    public void timeOffHeapLongLongMapPut(int reps) {
+        OffHeapLongLongMap map = new OffHeapLongLongMap();
+        for (int i = 0; i < reps; ++i) {
+            if ((i & 0xffff) == 0) {
+                map.clear();
+            }
+            map.put(i, i);
+        }
+        map.close();
+    }
+    public void timeHashSetLongContains(int reps) {
+        HashSet<Long> set = new HashSet<Long>();
+        for (long k = 0; k < 1024; ++k) {
+            set.add(k * 7919);
+        }
+        for (int i = 0; i < reps; ++i) {
+            set.contains((i & 1023) * 7919L);
+        }
+    }
+    public void timeOffHeapLongSetContains(int reps) {
+        OffHeapLongSet set = new OffHeapLongSet();
+        for (long k = 0; k < 1024; ++k) {
+            set.add(k * 7919);
+        }
+        for (int i = 0; i < reps; ++i) {
+            set.contains((i & 1023) * 7919L);
+        }
+        set.close();
+    }
+    public void timeHashMapIntegerGet(int reps) {
+        HashMap<Integer, String> map = new HashMap<Integer, String>();
+        for (int k = 0; k < 1024; ++k) {
+            map.put(k * 7919, "v");
+        }
+        for (int i = 0; i < reps; ++i) {
+            map.get((i & 1023) * 7919);
+        }
+    }
+    public void timeIntHashMapGet(int reps) {
+        IntHashMap<String> map = new IntHashMap<String>();
+        for (int k = 0; k < 1024; ++k) {
+            map.put(k * 7919, "v");
+        }
+        for (int i = 0; i < reps; ++i) {
+            map.get((i & 1023) * 7919);
+        }
+    }
+    public void timeLongHashMapGet(int reps) {
+        LongHashMap<Long> map = new LongHashMap<Long>();
+        for (long k = 0; k < 1024; ++k) {
+            map.put(k * 7919, k);
+        }
+        for (int i = 0; i < reps; ++i) {
+            map.get((i & 1023) * 7919L);
+        }
+    }
+    public void timeLongHashMapPut(int reps) {
+        LongHashMap<String> map = new LongHashMap<String>();
+        for (int i = 0; i < reps; ++i) {
+            if ((i & 0xffff) == 0) {
+                map.clear();
+            }
+            map.put(i, "v");
+        }
+    }
+    public void timeLongHashSetContains(int reps) {
+        LongHashSet set = new LongHashSet();
+        for (long k = 0; k < 1024; ++k) {
+            set.add(k * 7919);
+        }
+        for (int i = 0; i < reps; ++i) {
+            set.contains((i & 1023) * 7919L);
+        }
+    }
+    public void timeLongHashSetStreamSum(int reps) {
+        LongHashSet set = new LongHashSet();
+        for (long k = 0; k < 1024; ++k) {
+            set.add(k * 7919);
+        }
+        for (int i = 0; i < reps; ++i) {
+            set.stream().sum();
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.google.caliper.Param;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.Random;
 import java.util.zip.ZipEntry;
@@ -32,13 +33,14 @@ public class ZipFileBenchmark {
 
     private File file;
     @Param({"128", "1024", "8192"}) int numEntries;
+    @Param({"1", "4"}) int threads;
 
     @BeforeExperiment
     protected void setUp() throws Exception {
         System.setProperty("java.io.tmpdir", "/data/local/tmp");
         file = File.createTempFile(getClass().getName(), ".zip");
         file.deleteOnExit();
-        writeEntries(new ZipOutputStream(new FileOutputStream(file)), numEntries, 0);
+        writeEntries(new ZipOutputStream(new FileOutputStream(file)), numEntries, 1024);
         ZipFile zipFile = new ZipFile(file);
         for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
             ZipEntry zipEntry = e.nextElement();
@@ -52,6 +54,39 @@ public class ZipFileBenchmark {
         }
     }
 
+    /**
+     * Reads different entries of one shared ZipFile from {@code threads}
+     * threads at once, as class and resource loading from a large archive does.
+     */
+    public void timeConcurrentEntryReads(final int reps) throws Exception {
+        final ZipFile zipFile = new ZipFile(file);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int first = i * (numEntries / threads);
+            workers[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    byte[] buffer = new byte[512];
+                    try {
+                        for (int rep = 0; rep < reps; ++rep) {
+                            String name = Integer.toHexString((first + rep) % numEntries);
+                            InputStream in = zipFile.getInputStream(zipFile.getEntry(name));
+                            while (in.read(buffer) != -1) {
+                            }
+                            in.close();
+                        }
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        zipFile.close();
+    }
+
     /**
      * Compresses the given number of files, each of the given size, into a .zip archive.
      */
@@ -146,6 +146,37 @@ public class AnnotatedElementBenchmark {
     }
 
 
+    // repeated lookups, as done by dependency injection and serialization frameworks
+
+    public void timeGetMethodAnnotationFromNewMethod(int reps) throws Exception {
+        for (int i = 0; i < reps; i++) {
+            Type.class.getMethod("method", String.class).getAnnotation(Marker.class);
+        }
+    }
+
+    public void timeGetFieldAnnotationsByType(int reps) {
+        for (int i = 0; i < reps; i++) {
+            field.getAnnotationsByType(Marker.class);
+        }
+    }
+
+    public void timeGetAnnotationMembers(int reps) {
+        for (int i = 0; i < reps; i++) {
+            Small small = HasSmallAnnotation.class.getAnnotation(Small.class);
+            small.e();
+            small.f();
+            small.g();
+        }
+    }
+
+    public void timeAnnotationHashCode(int reps) {
+        Large large = HasLargeAnnotation.class.getAnnotation(Large.class);
+        for (int i = 0; i < reps; i++) {
+            large.hashCode();
+        }
+    }
+
+
     // get annotations with enclosing / inner classes
 
     public void timeGetDeclaredClasses(int reps) {
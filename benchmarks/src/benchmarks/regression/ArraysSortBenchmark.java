@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.Param;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmarks Arrays.sort and Arrays.parallelSort of int and long arrays
+ * whose elements follow various distributions.
+ */
+public class ArraysSortBenchmark {
+    public static enum Distribution {
+        RANDOM,
+        SORTED,
+        REVERSED,
+        SAWTOOTH,
+        NEARLY_SORTED,
+        FEW_DISTINCT;
+
+        void fill(long[] array, Random random) {
+            int n = array.length;
+            for (int i = 0; i < n; ++i) {
+                switch (this) {
+                    case RANDOM: array[i] = random.nextLong(); break;
+                    case SORTED: array[i] = i; break;
+                    case REVERSED: array[i] = n - i; break;
+                    case SAWTOOTH: array[i] = i % 1000; break;
+                    case NEARLY_SORTED:
+                        array[i] = (random.nextInt(100) == 0) ? random.nextInt() : i;
+                        break;
+                    case FEW_DISTINCT: array[i] = random.nextInt(16); break;
+                }
+            }
+        }
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param private Distribution distribution;
+
+    private int[] ints;
+    private long[] longs;
+
+    protected void setUp() throws Exception {
+        Random random = new Random(0);
+        longs = new long[size];
+        distribution.fill(longs, random);
+        ints = new int[size];
+        for (int i = 0; i < size; ++i) {
+            // Keep the full range of random values rather than truncating them.
+            ints[i] = (distribution == Distribution.RANDOM) ? random.nextInt() : (int) longs[i];
+        }
+    }
+
+    public void timeSortInt(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Arrays.sort(ints.clone());
+        }
+    }
+
+    public void timeParallelSortInt(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Arrays.parallelSort(ints.clone());
+        }
+    }
+
+    public void timeSortLong(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Arrays.sort(longs.clone());
+        }
+    }
+
+    public void timeParallelSortLong(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Arrays.parallelSort(longs.clone());
+        }
+    }
+}
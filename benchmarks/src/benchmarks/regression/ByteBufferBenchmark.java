@@ -206,6 +206,16 @@ public class ByteBufferBenchmark {
         }
     }
 
+    public void timeIntBuffer_getInt(int reps) throws Exception {
+        IntBuffer src = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType).asIntBuffer();
+        for (int rep = 0; rep < reps; ++rep) {
+            src.position(0);
+            for (int i = 0; i < 1024; ++i) {
+                src.get();
+            }
+        }
+    }
+
     public void timeByteBuffer_getLong(int reps) throws Exception {
         ByteBuffer src = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType);
         for (int rep = 0; rep < reps; ++rep) {
@@ -357,6 +367,16 @@ public class ByteBufferBenchmark {
         }
     }
 
+    public void timeIntBuffer_putInt(int reps) throws Exception {
+        IntBuffer dst = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType).asIntBuffer();
+        for (int rep = 0; rep < reps; ++rep) {
+            dst.position(0);
+            for (int i = 0; i < 1024; ++i) {
+                dst.put(0);
+            }
+        }
+    }
+
     public void timeByteBuffer_putLong(int reps) throws Exception {
         ByteBuffer src = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType);
         for (int rep = 0; rep < reps; ++rep) {
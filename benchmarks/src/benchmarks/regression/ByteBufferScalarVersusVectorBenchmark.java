@@ -18,6 +18,7 @@ package benchmarks.regression;
 
 import com.google.caliper.Param;
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 public class ByteBufferScalarVersusVectorBenchmark {
   @Param private ByteBufferBenchmark.MyByteOrder byteOrder;
@@ -36,6 +37,31 @@ public class ByteBufferScalarVersusVectorBenchmark {
     }
   }
 
+  public void timeManualIntBufferCopy(int reps) throws Exception {
+    IntBuffer src = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType).asIntBuffer();
+    IntBuffer dst = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType).asIntBuffer();
+    for (int rep = 0; rep < reps; ++rep) {
+      src.position(0);
+      dst.position(0);
+      for (int i = 0; i < 2048; ++i) {
+        dst.put(src.get());
+      }
+    }
+  }
+
+  public void timeManualByteBufferSumInts(int reps) throws Exception {
+    ByteBuffer src = ByteBufferBenchmark.newBuffer(byteOrder, aligned, bufferType);
+    int sum = 0;
+    for (int rep = 0; rep < reps; ++rep) {
+      for (int i = 0; i < 8192; i += 4) {
+        sum += src.getInt(i);
+      }
+    }
+    if (sum == 42) {
+      System.out.println(sum);
+    }
+  }
+
   public void timeByteBufferBulkGet(int reps) throws Exception {
     ByteBuffer src = ByteBuffer.allocate(aligned ? 8192 : 8192 + 1);
     byte[] dst = new byte[8192];
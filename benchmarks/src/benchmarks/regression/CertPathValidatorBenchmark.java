@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import libcore.java.security.TestKeyStore;
+
+public class CertPathValidatorBenchmark {
+    private CertPath path;
+    private PKIXParameters params;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        Certificate[] chain = TestKeyStore.getServer().getPrivateKey("RSA", "RSA")
+                .getCertificateChain();
+        X509Certificate root = (X509Certificate) chain[chain.length - 1];
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+        path = cf.generateCertPath(Arrays.asList(chain).subList(0, chain.length - 1));
+        params = new PKIXParameters(Collections.singleton(new TrustAnchor(root, null)));
+        params.setRevocationEnabled(false);
+    }
+
+    public void timeValidate(int reps) throws Exception {
+        CertPathValidator validator = CertPathValidator.getInstance("PKIX");
+        for (int i = 0; i < reps; ++i) {
+            validator.validate(path, params);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package benchmarks.regression;
 
+import java.nio.ByteBuffer;
 import java.util.zip.Adler32;
 import java.util.zip.CRC32;
 
@@ -27,6 +28,24 @@ public class ChecksumBenchmark {
             adler.update(bytes);
         }
     }
+    public void timeAdler_directBuffer(int reps) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10000);
+        Adler32 adler = new Adler32();
+        for (int i = 0; i < reps; ++i) {
+            buffer.clear();
+            adler.update(buffer);
+        }
+    }
+    public void timeAdler_copiedDirectBuffer(int reps) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10000);
+        byte[] bytes = new byte[10000];
+        Adler32 adler = new Adler32();
+        for (int i = 0; i < reps; ++i) {
+            buffer.clear();
+            buffer.get(bytes);
+            adler.update(bytes);
+        }
+    }
     public void timeAdler_byte(int reps) throws Exception {
         Adler32 adler = new Adler32();
         for (int i = 0; i < reps; ++i) {
@@ -40,6 +59,24 @@ public class ChecksumBenchmark {
             crc.update(bytes);
         }
     }
+    public void timeCrc_directBuffer(int reps) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10000);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < reps; ++i) {
+            buffer.clear();
+            crc.update(buffer);
+        }
+    }
+    public void timeCrc_copiedDirectBuffer(int reps) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10000);
+        byte[] bytes = new byte[10000];
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < reps; ++i) {
+            buffer.clear();
+            buffer.get(bytes);
+            crc.update(bytes);
+        }
+    }
     public void timeCrc_byte(int reps) throws Exception {
         CRC32 crc = new CRC32();
         for (int i = 0; i < reps; ++i) {
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import java.util.Date;
+import libcore.net.http.HttpDate;
+
+public class HttpDateBenchmark {
+    private static final String IMF_FIXDATE = "Sun, 06 Nov 1994 08:49:37 GMT";
+    private static final String RFC_850 = "Sunday, 06-Nov-94 08:49:37 GMT";
+    private static final String ASCTIME = "Sun Nov  6 08:49:37 1994";
+    private static final String BROWSER_COMPATIBLE = "Sun, 06-Nov-1994 08:49:37 GMT";
+
+    public void timeParseImfFixdate(int reps) {
+        for (int i = 0; i < reps; i++) {
+            HttpDate.parse(IMF_FIXDATE);
+        }
+    }
+
+    public void timeParseRfc850(int reps) {
+        for (int i = 0; i < reps; i++) {
+            HttpDate.parse(RFC_850);
+        }
+    }
+
+    public void timeParseAsctime(int reps) {
+        for (int i = 0; i < reps; i++) {
+            HttpDate.parse(ASCTIME);
+        }
+    }
+
+    public void timeParseBrowserCompatible(int reps) {
+        for (int i = 0; i < reps; i++) {
+            HttpDate.parse(BROWSER_COMPATIBLE);
+        }
+    }
+
+    public void timeFormatCurrentTime(int reps) {
+        for (int i = 0; i < reps; i++) {
+            HttpDate.format(new Date());
+        }
+    }
+
+    public void timeFormatDistinctSeconds(int reps) {
+        Date date = new Date(784111777000L);
+        for (int i = 0; i < reps; i++) {
+            date.setTime(date.getTime() + 1000);
+            HttpDate.format(date);
+        }
+    }
+}
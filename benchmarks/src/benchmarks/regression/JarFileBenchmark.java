@@ -18,6 +18,9 @@ package benchmarks.regression;
 
 import com.google.caliper.Param;
 import java.io.File;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
@@ -36,4 +39,34 @@ public class JarFileBenchmark {
             jf.close();
         }
     }
+
+    /**
+     * Verifies a signed jar the traditional way, by reading every entry in
+     * turn. For an unsigned jar this just reads it.
+     */
+    public void timeVerifyByReadingEntries(int reps) throws Exception {
+        File f = new File(filename);
+        byte[] buffer = new byte[8192];
+        for (int i = 0; i < reps; ++i) {
+            JarFile jf = new JarFile(f, true);
+            for (Enumeration<JarEntry> e = jf.entries(); e.hasMoreElements(); ) {
+                JarEntry entry = e.nextElement();
+                InputStream is = jf.getInputStream(entry);
+                while (is.read(buffer) != -1) {
+                }
+                is.close();
+                entry.getCodeSigners();
+            }
+            jf.close();
+        }
+    }
+
+    public void timeVerifyAllEntries(int reps) throws Exception {
+        File f = new File(filename);
+        for (int i = 0; i < reps; ++i) {
+            JarFile jf = new JarFile(f, true);
+            jf.verifyAllEntries();
+            jf.close();
+        }
+    }
 }
@@ -35,6 +35,8 @@ public class MessageDigestBenchmark {
 
     @Param private Provider provider;
 
+    private static final int THREADS = 4;
+
     public enum Provider { AndroidOpenSSL, BC };
 
     public void time(int reps) throws Exception {
@@ -45,4 +47,31 @@ public class MessageDigestBenchmark {
             digest.digest();
         }
     }
+
+    public void timeGetInstance(int reps) throws Exception {
+        for (int i = 0; i < reps; ++i) {
+            MessageDigest.getInstance(algorithm.toString(), provider.toString());
+        }
+    }
+
+    public void timeGetInstanceConcurrent(final int reps) throws Exception {
+        Thread[] workers = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        for (int rep = 0; rep < reps; ++rep) {
+                            MessageDigest.getInstance(algorithm.toString(), provider.toString());
+                        }
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
 }
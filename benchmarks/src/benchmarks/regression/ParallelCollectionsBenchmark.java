@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Compares the parallel bulk operations on ArrayList and sorted arrays with
+ * their sequential counterparts.
+ */
+public class ParallelCollectionsBenchmark {
+    @Param({"1024", "65536", "1048576"})
+    private int size;
+
+    private ArrayList<Integer> list;
+    private int[] sortedA;
+    private int[] sortedB;
+
+    protected void setUp() throws Exception {
+        Random random = new Random(0);
+        list = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; ++i) {
+            list.add(random.nextInt());
+        }
+        sortedA = random.ints(size).sorted().toArray();
+        sortedB = random.ints(size).sorted().toArray();
+    }
+
+    public void timeSort(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            new ArrayList<Integer>(list).sort(null);
+        }
+    }
+
+    public void timeParallelSort(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            new ArrayList<Integer>(list).parallelSort(null);
+        }
+    }
+
+    public void timeCollectionsParallelSort(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Collections.parallelSort(new ArrayList<Integer>(list), null);
+        }
+    }
+
+    public void timeReplaceAll(int reps) {
+        ArrayList<Integer> copy = new ArrayList<Integer>(list);
+        for (int i = 0; i < reps; ++i) {
+            copy.replaceAll(x -> x ^ 1);
+        }
+    }
+
+    public void timeParallelReplaceAll(int reps) {
+        ArrayList<Integer> copy = new ArrayList<Integer>(list);
+        for (int i = 0; i < reps; ++i) {
+            copy.parallelReplaceAll(x -> x ^ 1);
+        }
+    }
+
+    public void timeRemoveIf(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            new ArrayList<Integer>(list).removeIf(x -> (x & 1) == 0);
+        }
+    }
+
+    public void timeParallelRemoveIf(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            new ArrayList<Integer>(list).parallelRemoveIf(x -> (x & 1) == 0);
+        }
+    }
+
+    public void timeSortConcatenated(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            int[] merged = Arrays.copyOf(sortedA, size * 2);
+            System.arraycopy(sortedB, 0, merged, size, size);
+            Arrays.sort(merged);
+        }
+    }
+
+    public void timeParallelMerge(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Arrays.parallelMerge(sortedA, sortedB);
+        }
+    }
+
+    public void timeBinarySearch(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            int[] result = new int[size];
+            for (int j = 0; j < size; ++j) {
+                result[j] = Arrays.binarySearch(sortedA, sortedB[j]);
+            }
+        }
+    }
+
+    public void timeParallelBinarySearch(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Arrays.parallelBinarySearch(sortedA, sortedB);
+        }
+    }
+}
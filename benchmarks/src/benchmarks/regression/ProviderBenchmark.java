@@ -21,12 +21,35 @@ import java.security.Security;
 import javax.crypto.Cipher;
 
 public class ProviderBenchmark {
+    private static final int THREADS = 4;
+
     public void timeStableProviders(int reps) throws Exception {
         for (int i = 0; i < reps; ++i) {
             Cipher c = Cipher.getInstance("RSA");
         }
     }
 
+    public void timeStableProvidersConcurrent(final int reps) throws Exception {
+        Thread[] workers = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        for (int rep = 0; rep < reps; ++rep) {
+                            Cipher c = Cipher.getInstance("RSA");
+                        }
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
     public void timeWithNewProvider(int reps) throws Exception {
         for (int i = 0; i < reps; ++i) {
             Security.addProvider(new MockProvider());
@@ -49,6 +49,34 @@ public class ReflectionBenchmark {
         }
     }
 
+    public void timeClass_getMethods(int reps) throws Exception {
+        Class<?> klass = C.class;
+        for (int rep = 0; rep < reps; ++rep) {
+            klass.getMethods();
+        }
+    }
+
+    public void timeClass_getDeclaredMethods(int reps) throws Exception {
+        Class<?> klass = C.class;
+        for (int rep = 0; rep < reps; ++rep) {
+            klass.getDeclaredMethods();
+        }
+    }
+
+    public void timeClass_getFields(int reps) throws Exception {
+        Class<?> klass = G.class;
+        for (int rep = 0; rep < reps; ++rep) {
+            klass.getFields();
+        }
+    }
+
+    public void timeClass_getDeclaredConstructors(int reps) throws Exception {
+        Class<?> klass = C.class;
+        for (int rep = 0; rep < reps; ++rep) {
+            klass.getDeclaredConstructors();
+        }
+    }
+
     public void timeClass_newInstance(int reps) throws Exception {
         Class<?> klass = C.class;
         Constructor constructor = klass.getConstructor();
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.Param;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches patterns typical of log parsing and request routing. Simple patterns
+ * are matched in Java; the last two need ICU, as a baseline.
+ */
+public class RegexBenchmark {
+    static enum Regex {
+        LITERAL("connection reset"),
+        ANCHORED_PREFIX("^GET /api/"),
+        CHARACTER_CLASS("[0-9a-f]{8}"),
+        DIGITS("\\d+ms"),
+        ALTERNATION("ERROR|WARN|FATAL"),
+        GROUPS("(\\w+)=(\\d+)"),
+        LOOKAHEAD("\\d+(?=ms)");
+
+        private final String value;
+
+        private Regex(String value) {
+            this.value = value;
+        }
+    }
+
+    private static final String LINE = "2016-10-04 12:00:01.123 I/Network: GET /api/v1/users"
+            + " completed in 125ms, request id 0f3a9c2e, status=200, bytes=5120;"
+            + " connection reset by peer after 3 retries";
+
+    @Param private Regex regex;
+
+    public void timeCompile(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            Pattern.compile(regex.value);
+        }
+    }
+
+    public void timeMatcher(int reps) {
+        Pattern p = Pattern.compile(regex.value);
+        for (int i = 0; i < reps; ++i) {
+            p.matcher(LINE);
+        }
+    }
+
+    public void timeFind(int reps) {
+        Matcher m = Pattern.compile(regex.value).matcher(LINE);
+        for (int i = 0; i < reps; ++i) {
+            m.reset();
+            m.find();
+        }
+    }
+
+    public void timeFindAll(int reps) {
+        Matcher m = Pattern.compile(regex.value).matcher(LINE);
+        for (int i = 0; i < reps; ++i) {
+            m.reset();
+            while (m.find()) {
+            }
+        }
+    }
+
+    public void timeLookingAt(int reps) {
+        Matcher m = Pattern.compile(regex.value).matcher(LINE);
+        for (int i = 0; i < reps; ++i) {
+            m.reset();
+            m.lookingAt();
+        }
+    }
+
+    public void timeStringMatches(int reps) {
+        String regex = this.regex.value;
+        for (int i = 0; i < reps; ++i) {
+            LINE.matches(regex);
+        }
+    }
+}
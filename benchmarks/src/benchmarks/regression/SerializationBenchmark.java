@@ -176,6 +176,34 @@ public class SerializationBenchmark {
         readSingleObject(reps, new SerializableReference());
     }
 
+    public void timeRoundTripObjectGraph(int reps) throws Exception {
+        Node graph = Node.graph(64);
+        for (int rep = 0; rep < reps; ++rep) {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes(graph)));
+            in.readObject();
+            in.close();
+        }
+    }
+
+    public void timeRoundTripSmallObjects(int reps) throws Exception {
+        // Many short streams of a few objects each, as an RPC layer would write.
+        LittleBitOfEverything object = new LittleBitOfEverything();
+        object.l = new SerializableInt();
+        for (int rep = 0; rep < reps; ++rep) {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes(object)));
+            in.readObject();
+            in.close();
+        }
+    }
+
+    public void timeWriteObjectGraph(int reps) throws Exception {
+        writeSingleObject(reps, Node.graph(64));
+    }
+
+    public void timeReadObjectGraph(int reps) throws Exception {
+        readSingleObject(reps, Node.graph(64));
+    }
+
     public static class SerializableBoolean implements Serializable {
         boolean z;
     }
@@ -215,4 +243,26 @@ public class SerializationBenchmark {
         short s;
         Object l;
     }
+
+    /** A node of a graph with shared references and cycles. */
+    public static class Node implements Serializable {
+        int id;
+        String name;
+        Node next;
+        Node[] children;
+
+        static Node graph(int size) {
+            Node[] nodes = new Node[size];
+            for (int i = 0; i < size; ++i) {
+                nodes[i] = new Node();
+                nodes[i].id = i;
+                nodes[i].name = "node" + i;
+            }
+            for (int i = 0; i < size; ++i) {
+                nodes[i].next = nodes[(i + 1) % size];
+                nodes[i].children = new Node[] { nodes[(i * 7) % size], nodes[(i * 13) % size] };
+            }
+            return nodes[0];
+        }
+    }
 }
@@ -86,4 +86,22 @@ public class StringReplaceBenchmark {
             s.value.replace("qrst", "0");
         }
     }
+
+    public void timeReplaceAllRegex(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            s.value.replaceAll("[aeiou]+", "0");
+        }
+    }
+
+    public void timeReplaceAllRegexGroups(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            s.value.replaceAll("(ab)(cd)", "$2$1");
+        }
+    }
+
+    public void timeReplaceFirstRegex(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            s.value.replaceFirst("q.s", "0");
+        }
+    }
 }
@@ -56,4 +56,28 @@ public class StringSplitBenchmark {
             "this,is,a,harder,example".split("[,]");
         }
     }
+
+    public void timeStringSplitWhitespace(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            "this  is\ta simple\n example".split("\\s+");
+        }
+    }
+
+    public void timeStringSplitCommaSpaces(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            "this, is,a,  simple, example".split(", *");
+        }
+    }
+
+    public void timeStringSplitAlternationGroup(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            "this,is;a,simple;example".split("(,|;)");
+        }
+    }
+
+    public void timeStringMatches(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            "this,is,a,simple,example".matches("[a-z,]+");
+        }
+    }
 }
@@ -16,6 +16,9 @@
 
 package benchmarks.regression;
 
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+
 public class ThreadLocalBenchmark {
     private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
         @Override protected char[] initialValue() {
@@ -23,9 +26,56 @@ public class ThreadLocalBenchmark {
         }
     };
 
+    private static final ThreadLocal<char[]> FAST_BUFFER = new ThreadLocal<char[]>(true) {
+        @Override protected char[] initialValue() {
+            return new char[20];
+        }
+    };
+
+    // The number of other ThreadLocals the current thread has values for.
+    @Param({"0", "300"}) private int otherThreadLocals;
+
+    // The percentage of the other ThreadLocals that are no longer reachable.
+    @Param({"0", "90"}) private int stalePercent;
+
+    private ThreadLocal<?>[] live;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        int stale = otherThreadLocals * stalePercent / 100;
+        live = new ThreadLocal<?>[otherThreadLocals - stale];
+        for (int i = 0; i < otherThreadLocals; i++) {
+            ThreadLocal<Object> threadLocal = new ThreadLocal<Object>();
+            threadLocal.set(i);
+            if (i >= stale) {
+                live[i - stale] = threadLocal;
+            }
+        }
+        // Clear the weak keys of the unreachable ThreadLocals, as happens in long-lived
+        // pool threads, without giving the map a chance to expunge them.
+        System.gc();
+        System.runFinalization();
+        System.gc();
+    }
+
     public void timeThreadLocal_get(int reps) {
         for (int rep = 0; rep < reps; ++rep) {
             BUFFER.get();
         }
     }
+
+    public void timeThreadLocal_getFastSlot(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            FAST_BUFFER.get();
+        }
+    }
+
+    public void timeThreadLocal_getAll(int reps) {
+        ThreadLocal<?>[] live = this.live;
+        for (int rep = 0; rep < reps; ++rep) {
+            for (ThreadLocal<?> threadLocal : live) {
+                threadLocal.get();
+            }
+        }
+    }
 }
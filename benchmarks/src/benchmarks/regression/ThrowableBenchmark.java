@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.Param;
+
+public class ThrowableBenchmark {
+    @Param({"10", "50"}) private int depth;
+
+    public void timeThrowAndCatch(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            try {
+                recurseAndThrow(depth);
+            } catch (IllegalStateException expected) {
+            }
+        }
+    }
+
+    public void timeGetStackTrace(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            try {
+                recurseAndThrow(depth);
+            } catch (IllegalStateException e) {
+                e.getStackTrace();
+            }
+        }
+    }
+
+    public void timeGetStackTraceTopFrames(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            try {
+                recurseAndThrow(depth);
+            } catch (IllegalStateException e) {
+                e.getStackTrace(5);
+            }
+        }
+    }
+
+    public void timeGetStackTraceRetained(int reps) {
+        // Mimics a logger that keeps the most recent exceptions around.
+        Throwable[] retained = new Throwable[64];
+        for (int rep = 0; rep < reps; ++rep) {
+            try {
+                recurseAndThrow(depth);
+            } catch (IllegalStateException e) {
+                e.getStackTrace();
+                retained[rep & (retained.length - 1)] = e;
+            }
+        }
+    }
+
+    private static void recurseAndThrow(int depth) {
+        if (depth == 0) {
+            throw new IllegalStateException();
+        }
+        recurseAndThrow(depth - 1);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimingWheelScheduledExecutor;
+
+/**
+ * Schedules and cancels timeouts the way a network stack does: almost every
+ * timeout is cancelled long before it would fire.
+ */
+public class TimerChurnBenchmark {
+    public enum Scheduler {
+        SCHEDULED_THREAD_POOL {
+            @Override ScheduledExecutorService create() {
+                ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+                executor.setRemoveOnCancelPolicy(true);
+                return executor;
+            }
+        },
+        TIMING_WHEEL {
+            @Override ScheduledExecutorService create() {
+                return new TimingWheelScheduledExecutor();
+            }
+        };
+
+        abstract ScheduledExecutorService create();
+    }
+
+    @Param private Scheduler scheduler;
+
+    @Param({"1", "4"}) private int threads;
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override public void run() {
+        }
+    };
+
+    private ScheduledExecutorService executor;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        executor = scheduler.create();
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public void timeScheduleAndCancel(final int reps) throws Exception {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    for (int rep = 0; rep < reps; ++rep) {
+                        executor.schedule(NOOP, 30, TimeUnit.SECONDS).cancel(false);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    public void timeScheduleManyThenCancel(int reps) {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[1000];
+        for (int rep = 0; rep < reps; ++rep) {
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.schedule(NOOP, 30 + i, TimeUnit.SECONDS);
+            }
+            for (int i = futures.length - 1; i >= 0; i--) {
+                futures[i].cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import java.io.ByteArrayInputStream;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import libcore.java.security.TestKeyStore;
+import sun.security.x509.X509CertImpl;
+
+public class X509CertificateBenchmark {
+    private static final byte[] ENCODED;
+    static {
+        try {
+            Certificate[] chain = TestKeyStore.getServer().getPrivateKey("RSA", "RSA")
+                    .getCertificateChain();
+            ENCODED = chain[0].getEncoded();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public void timeParseEager(int reps) throws Exception {
+        for (int i = 0; i < reps; ++i) {
+            new X509CertImpl(ENCODED);
+        }
+    }
+
+    public void timeParseLazy(int reps) throws Exception {
+        for (int i = 0; i < reps; ++i) {
+            new X509CertImpl(ENCODED, true);
+        }
+    }
+
+    // The accessors that certification path building and validation use.
+    public void timeParseEagerAndMatch(int reps) throws Exception {
+        for (int i = 0; i < reps; ++i) {
+            match(new X509CertImpl(ENCODED));
+        }
+    }
+
+    public void timeParseLazyAndMatch(int reps) throws Exception {
+        for (int i = 0; i < reps; ++i) {
+            match(new X509CertImpl(ENCODED, true));
+        }
+    }
+
+    public void timeCertificateFactory(int reps) throws Exception {
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+        for (int i = 0; i < reps; ++i) {
+            cf.generateCertificate(new ByteArrayInputStream(ENCODED));
+        }
+    }
+
+    private static void match(X509Certificate cert) {
+        cert.getSubjectX500Principal();
+        cert.getIssuerX500Principal();
+        cert.getNotAfter();
+        cert.getBasicConstraints();
+    }
+}
@@ -29,16 +29,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.UTFDataFormatException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.AbstractList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.RandomAccess;
 import java.util.zip.Adler32;
 import java.util.zip.ZipEntry;
@@ -60,12 +60,19 @@ public final class Dex {
     private ByteBuffer data;
     private final TableOfContents tableOfContents = new TableOfContents();
     private int nextSectionStart = 0;
+    /**
+     * Whether decoded table entries and class data are kept. False for a dex
+     * that is being written, whose tables may still change.
+     */
+    private final boolean memoize;
     private final StringTable strings = new StringTable();
     private final TypeIndexToDescriptorIndexTable typeIds = new TypeIndexToDescriptorIndexTable();
     private final TypeIndexToDescriptorTable typeNames = new TypeIndexToDescriptorTable();
     private final ProtoIdTable protoIds = new ProtoIdTable();
     private final FieldIdTable fieldIds = new FieldIdTable();
     private final MethodIdTable methodIds = new MethodIdTable();
+    private final ClassDefTable classDefs = new ClassDefTable();
+    private final ClassDataTable classData = new ClassDataTable();
 
     /**
      * Creates a new dex that reads from {@code data}. It is an error to modify
@@ -78,6 +85,7 @@ public final class Dex {
     private Dex(ByteBuffer data) throws IOException {
         this.data = data;
         this.data.order(ByteOrder.LITTLE_ENDIAN);
+        this.memoize = true;
         this.tableOfContents.readFrom(this);
     }
 
@@ -87,12 +95,14 @@ public final class Dex {
     public Dex(int byteCount) throws IOException {
         this.data = ByteBuffer.wrap(new byte[byteCount]);
         this.data.order(ByteOrder.LITTLE_ENDIAN);
+        this.memoize = false;
     }
 
     /**
      * Creates a new dex buffer of the dex in {@code in}, and closes {@code in}.
      */
     public Dex(InputStream in) throws IOException {
+        this.memoize = true;
         loadFrom(in);
     }
 
@@ -100,6 +110,7 @@ public final class Dex {
      * Creates a new dex buffer from the dex file {@code file}.
      */
     public Dex(File file) throws IOException {
+        this.memoize = true;
         if (FileUtils.hasArchiveSuffix(file.getName())) {
             ZipFile zipFile = new ZipFile(file);
             ZipEntry entry = zipFile.getEntry(DexFormat.DEX_IN_JAR_NAME);
@@ -141,6 +152,24 @@ public final class Dex {
         return new Dex(data);
     }
 
+    /**
+     * Creates a new dex that reads directly from the memory-mapped contents of
+     * {@code file}, a {@code .dex} or {@code .odex} file, rather than from a
+     * copy on the heap. The returned dex is read-only: writing to its sections
+     * throws {@link java.nio.ReadOnlyBufferException}. It is an error to modify
+     * {@code file} while the dex is in use.
+     */
+    public static Dex map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            // The mapping remains valid after the channel is closed.
+            return create(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
     private void loadFrom(InputStream in) throws IOException {
         ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
         byte[] buffer = new byte[8192];
@@ -253,7 +282,7 @@ public final class Dex {
     }
 
     public Iterable<ClassDef> classDefs() {
-        return new ClassDefIterable();
+        return classDefs;
     }
 
     public TypeList readTypeList(int offset) {
@@ -268,9 +297,54 @@ public final class Dex {
         if (offset == 0) {
             throw new IllegalArgumentException("offset == 0");
         }
+        if (memoize) {
+            // Only class defs returned by classDefs() are known to be from this dex.
+            int classDefIndex = classDefIndexFromOffset(classDef.getOffset());
+            if (classDefIndex != -1 && classDefs.get(classDefIndex) == classDef) {
+                return classData.get(classDefIndex);
+            }
+        }
         return open(offset).readClassData();
     }
 
+    /**
+     * Returns the index of the class def at {@code offset}, or -1 if there is
+     * no class def there.
+     */
+    private int classDefIndexFromOffset(int offset) {
+        int position = offset - tableOfContents.classDefs.off;
+        if (position < 0 || position % SizeOf.CLASS_DEF_ITEM != 0) {
+            return -1;
+        }
+        int classDefIndex = position / SizeOf.CLASS_DEF_ITEM;
+        return classDefIndex < tableOfContents.classDefs.size ? classDefIndex : -1;
+    }
+
+    /**
+     * Decodes the string data item at {@code offset}. This uses absolute reads
+     * of the dex's buffer, so it doesn't allocate a section.
+     */
+    private String readStringData(int offset) {
+        // The string's length in UTF-16 code units, as in Leb128.readUnsignedLeb128.
+        int utf16Length = 0;
+        int cur;
+        int count = 0;
+        do {
+            cur = data.get(offset++) & 0xff;
+            utf16Length |= (cur & 0x7f) << (count * 7);
+            count++;
+        } while (((cur & 0x80) == 0x80) && count < 5);
+        if ((cur & 0x80) == 0x80) {
+            throw new DexException("invalid LEB128 sequence");
+        }
+
+        try {
+            return Mutf8.decode(data, offset, utf16Length);
+        } catch (UTFDataFormatException e) {
+            throw new DexException(e);
+        }
+    }
+
     public Code readCode(ClassData.Method method) {
         int offset = method.getCodeOffset();
         if (offset == 0) {
@@ -582,25 +656,7 @@ public final class Dex {
         }
 
         public String readString() {
-            int offset = readInt();
-            int savedPosition = data.position();
-            int savedLimit = data.limit();
-            data.position(offset);
-            data.limit(data.capacity());
-            try {
-                int expectedLength = readUleb128();
-                String result = Mutf8.decode(this, new char[expectedLength]);
-                if (result.length() != expectedLength) {
-                    throw new DexException("Declared length " + expectedLength
-                            + " doesn't match decoded length of " + result.length());
-                }
-                return result;
-            } catch (UTFDataFormatException e) {
-                throw new DexException(e);
-            } finally {
-                data.position(savedPosition);
-                data.limit(savedLimit);
-            }
+            return readStringData(readInt());
         }
 
         public FieldId readFieldId() {
@@ -887,14 +943,53 @@ public final class Dex {
         }
     }
 
-    private final class StringTable extends AbstractList<String> implements RandomAccess {
-        @Override public String get(int index) {
-            checkBounds(index, tableOfContents.stringIds.size);
-            return open(tableOfContents.stringIds.off + (index * SizeOf.STRING_ID_ITEM))
-                    .readString();
+    /**
+     * A table whose entries are decoded on first use and then, unless this dex
+     * is being written, kept for later calls.
+     */
+    private abstract class MemoizedTable<T> extends AbstractList<T> implements RandomAccess {
+        private final TableOfContents.Section section;
+        // Created on first use. Racing threads may each create and fill an
+        // array, which only costs redundant decoding; entries are immutable.
+        private Object[] entries;
+
+        MemoizedTable(TableOfContents.Section section) {
+            this.section = section;
         }
-        @Override public int size() {
-            return tableOfContents.stringIds.size;
+
+        /** Decodes the entry at {@code index}, which is in bounds. */
+        abstract T read(int index);
+
+        @SuppressWarnings("unchecked")
+        @Override public final T get(int index) {
+            checkBounds(index, section.size);
+            if (!memoize) {
+                return read(index);
+            }
+            Object[] entries = this.entries;
+            if (entries == null) {
+                this.entries = entries = new Object[section.size];
+            }
+            T result = (T) entries[index];
+            if (result == null) {
+                result = read(index);
+                entries[index] = result;
+            }
+            return result;
+        }
+
+        @Override public final int size() {
+            return section.size;
+        }
+    }
+
+    private final class StringTable extends MemoizedTable<String> {
+        StringTable() {
+            super(tableOfContents.stringIds);
+        }
+        @Override String read(int index) {
+            return readStringData(data.getInt(
+                    tableOfContents.stringIds.off + (index * SizeOf.STRING_ID_ITEM)));
         }
     }
 
@@ -918,66 +1013,72 @@ public final class Dex {
         }
     }
 
-    private final class ProtoIdTable extends AbstractList<ProtoId> implements RandomAccess {
-        @Override public ProtoId get(int index) {
-            checkBounds(index, tableOfContents.protoIds.size);
-            return open(tableOfContents.protoIds.off + (SizeOf.PROTO_ID_ITEM * index))
-                    .readProtoId();
+    private final class ProtoIdTable extends MemoizedTable<ProtoId> {
+        ProtoIdTable() {
+            super(tableOfContents.protoIds);
         }
-        @Override public int size() {
-            return tableOfContents.protoIds.size;
+        @Override ProtoId read(int index) {
+            int position = tableOfContents.protoIds.off + (SizeOf.PROTO_ID_ITEM * index);
+            int shortyIndex = data.getInt(position);
+            int returnTypeIndex = data.getInt(position + SizeOf.UINT);
+            int parametersOffset = data.getInt(position + 2 * SizeOf.UINT);
+            return new ProtoId(Dex.this, shortyIndex, returnTypeIndex, parametersOffset);
         }
     }
 
-    private final class FieldIdTable extends AbstractList<FieldId> implements RandomAccess {
-        @Override public FieldId get(int index) {
-            checkBounds(index, tableOfContents.fieldIds.size);
-            return open(tableOfContents.fieldIds.off + (SizeOf.MEMBER_ID_ITEM * index))
-                    .readFieldId();
+    private final class FieldIdTable extends MemoizedTable<FieldId> {
+        FieldIdTable() {
+            super(tableOfContents.fieldIds);
         }
-        @Override public int size() {
-            return tableOfContents.fieldIds.size;
+        @Override FieldId read(int index) {
+            int position = tableOfContents.fieldIds.off + (SizeOf.MEMBER_ID_ITEM * index);
+            int declaringClassIndex = data.getShort(position) & 0xFFFF;
+            int typeIndex = data.getShort(position + SizeOf.USHORT) & 0xFFFF;
+            int nameIndex = data.getInt(position + 2 * SizeOf.USHORT);
+            return new FieldId(Dex.this, declaringClassIndex, typeIndex, nameIndex);
         }
     }
 
-    private final class MethodIdTable extends AbstractList<MethodId> implements RandomAccess {
-        @Override public MethodId get(int index) {
-            checkBounds(index, tableOfContents.methodIds.size);
-            return open(tableOfContents.methodIds.off + (SizeOf.MEMBER_ID_ITEM * index))
-                    .readMethodId();
+    private final class MethodIdTable extends MemoizedTable<MethodId> {
+        MethodIdTable() {
+            super(tableOfContents.methodIds);
         }
-        @Override public int size() {
-            return tableOfContents.methodIds.size;
+        @Override MethodId read(int index) {
+            int position = tableOfContents.methodIds.off + (SizeOf.MEMBER_ID_ITEM * index);
+            int declaringClassIndex = data.getShort(position) & 0xFFFF;
+            int protoIndex = data.getShort(position + SizeOf.USHORT) & 0xFFFF;
+            int nameIndex = data.getInt(position + 2 * SizeOf.USHORT);
+            return new MethodId(Dex.this, declaringClassIndex, protoIndex, nameIndex);
         }
     }
 
-    private final class ClassDefIterator implements Iterator<ClassDef> {
-        private final Dex.Section in = open(tableOfContents.classDefs.off);
-        private int count = 0;
-
-        @Override
-        public boolean hasNext() {
-            return count < tableOfContents.classDefs.size;
-        }
-        @Override
-        public ClassDef next() {
-            if (!hasNext()) {
-                throw new NoSuchElementException();
-            }
-            count++;
-            return in.readClassDef();
-        }
-        @Override
-            public void remove() {
-            throw new UnsupportedOperationException();
+    private final class ClassDefTable extends MemoizedTable<ClassDef> {
+        ClassDefTable() {
+            super(tableOfContents.classDefs);
+        }
+        @Override ClassDef read(int index) {
+            int position = tableOfContents.classDefs.off + (SizeOf.CLASS_DEF_ITEM * index);
+            int type = data.getInt(position);
+            int accessFlags = data.getInt(position + SizeOf.UINT);
+            int supertype = data.getInt(position + 2 * SizeOf.UINT);
+            int interfacesOffset = data.getInt(position + 3 * SizeOf.UINT);
+            int sourceFileIndex = data.getInt(position + 4 * SizeOf.UINT);
+            int annotationsOffset = data.getInt(position + 5 * SizeOf.UINT);
+            int classDataOffset = data.getInt(position + 6 * SizeOf.UINT);
+            int staticValuesOffset = data.getInt(position + 7 * SizeOf.UINT);
+            return new ClassDef(Dex.this, position, type, accessFlags, supertype,
+                    interfacesOffset, sourceFileIndex, annotationsOffset, classDataOffset,
+                    staticValuesOffset);
         }
     }
 
-    private final class ClassDefIterable implements Iterable<ClassDef> {
-        public Iterator<ClassDef> iterator() {
-            return !tableOfContents.classDefs.exists()
-               ? Collections.<ClassDef>emptySet().iterator()
-               : new ClassDefIterator();
+    /** The class data of each class def, by class def index. */
+    private final class ClassDataTable extends MemoizedTable<ClassData> {
+        ClassDataTable() {
+            super(tableOfContents.classDefs);
+        }
+        @Override ClassData read(int index) {
+            return open(classDefs.get(index).getClassDataOffset()).readClassData();
         }
     }
 }
@@ -18,6 +18,7 @@ package com.android.dex;
 
 import com.android.dex.util.ByteInput;
 import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
 
 /**
  * Modified UTF-8 as described in the dex file format spec.
@@ -25,6 +26,19 @@ import java.io.UTFDataFormatException;
  * <p>Derived from libcore's MUTF-8 encoder at java.nio.charset.ModifiedUtf8.
  */
 public final class Mutf8 {
+    /** The maximum length of cached strings; longer strings are rarely repeated. */
+    private static final int MAX_CACHED_LENGTH = 64;
+
+    /**
+     * Recently decoded ASCII strings, shared by all dex files, since most
+     * descriptors and member names appear in many of them. This is a lock-free,
+     * two-way set associative cache: each string hashes to a pair of adjacent
+     * slots, and a miss evicts the less recently inserted string of the pair.
+     * Racing threads may cause a string not to be cached, but because strings
+     * are immutable, a racy read always sees a complete string.
+     */
+    private static final String[] cache = new String[4096];
+
     private Mutf8() {}
 
     /**
@@ -60,6 +74,115 @@ public final class Mutf8 {
         }
     }
 
+    /**
+     * Decodes the {@code utf16Length} characters of modified UTF-8 at {@code
+     * offset} in {@code in}, which are followed by a delimiter 0x00. Unlike
+     * {@link #decode(ByteInput, char[])} this uses absolute reads, so it does
+     * not change the position of {@code in} and may be called concurrently.
+     * Short ASCII strings that were recently decoded, from any buffer, are
+     * returned without allocating.
+     *
+     * @throws UTFDataFormatException if the bytes are malformed or don't
+     *     decode to exactly {@code utf16Length} characters.
+     */
+    public static String decode(ByteBuffer in, int offset, int utf16Length)
+            throws UTFDataFormatException {
+        if (utf16Length <= MAX_CACHED_LENGTH) {
+            int hashCode = 0;
+            int i = 0;
+            for (; i < utf16Length; i++) {
+                byte b = in.get(offset + i);
+                if (b <= 0) {
+                    break;
+                }
+                hashCode = (hashCode * 31) + b;
+            }
+            if (i == utf16Length && in.get(offset + i) == 0) {
+                return decodeAsciiCached(in, offset, utf16Length, hashCode);
+            }
+        }
+
+        char[] out = new char[utf16Length];
+        int s = 0;
+        while (true) {
+            char a = (char) (in.get(offset++) & 0xff);
+            if (a == 0) {
+                break;
+            }
+            if (s == utf16Length) {
+                throw new UTFDataFormatException("more than " + utf16Length + " characters");
+            }
+            if (a < '\u0080') {
+                out[s++] = a;
+            } else if ((a & 0xe0) == 0xc0) {
+                int b = in.get(offset++) & 0xff;
+                if ((b & 0xC0) != 0x80) {
+                    throw new UTFDataFormatException("bad second byte");
+                }
+                out[s++] = (char) (((a & 0x1F) << 6) | (b & 0x3F));
+            } else if ((a & 0xf0) == 0xe0) {
+                int b = in.get(offset++) & 0xff;
+                int c = in.get(offset++) & 0xff;
+                if (((b & 0xC0) != 0x80) || ((c & 0xC0) != 0x80)) {
+                    throw new UTFDataFormatException("bad second or third byte");
+                }
+                out[s++] = (char) (((a & 0x0F) << 12) | ((b & 0x3F) << 6) | (c & 0x3F));
+            } else {
+                throw new UTFDataFormatException("bad byte");
+            }
+        }
+        if (s != utf16Length) {
+            throw new UTFDataFormatException("Declared length " + utf16Length
+                    + " doesn't match decoded length of " + s);
+        }
+        return new String(out);
+    }
+
+    /**
+     * Returns the string of the {@code length} ASCII bytes at {@code offset},
+     * from the decode cache if possible. {@code hashCode} is the string's hash
+     * code.
+     */
+    private static String decodeAsciiCached(ByteBuffer in, int offset, int length,
+            int hashCode) {
+        // Doug Lea's supplemental secondaryHash function (from HashMap).
+        hashCode ^= (hashCode >>> 20) ^ (hashCode >>> 12);
+        hashCode ^= (hashCode >>> 7) ^ (hashCode >>> 4);
+        int index = hashCode & (cache.length - 2);
+
+        String cached = cache[index];
+        if (cached != null && asciiContentEquals(cached, in, offset, length)) {
+            return cached;
+        }
+        String other = cache[index ^ 1];
+        if (other != null && asciiContentEquals(other, in, offset, length)) {
+            return other;
+        }
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) in.get(offset + i);
+        }
+        String result = new String(chars);
+        if (cached != null) {
+            cache[index ^ 1] = cached;
+        }
+        cache[index] = result;
+        return result;
+    }
+
+    private static boolean asciiContentEquals(String s, ByteBuffer in, int offset, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (in.get(offset + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the number of bytes the modified UTF8 representation of 's' would take.
      */
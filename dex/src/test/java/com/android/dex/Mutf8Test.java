@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.dex;
+
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import junit.framework.TestCase;
+
+public final class Mutf8Test extends TestCase {
+
+    public void testDecodeBufferAscii() throws Exception {
+        ByteBuffer buffer = bufferOf("xx", "Ljava/lang/Object;");
+        assertEquals("Ljava/lang/Object;", Mutf8.decode(buffer, 2, 18));
+        assertEquals(0, buffer.position());
+    }
+
+    public void testDecodeBufferAsciiIsShared() throws Exception {
+        String a = Mutf8.decode(bufferOf("", "Lfoo/Bar;"), 0, 9);
+        String b = Mutf8.decode(bufferOf("12345", "Lfoo/Bar;"), 5, 9);
+        assertEquals("Lfoo/Bar;", b);
+        assertSame(a, b);
+    }
+
+    public void testDecodeBufferEmpty() throws Exception {
+        assertEquals("", Mutf8.decode(bufferOf("", ""), 0, 0));
+    }
+
+    public void testDecodeBufferNonAscii() throws Exception {
+        String s = "caf\u00e9 \u20ac\u0000";
+        byte[] encoded = Mutf8.encode(s);
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 1);
+        buffer.put(encoded);
+        assertEquals(s, Mutf8.decode(buffer, 0, s.length()));
+    }
+
+    public void testDecodeBufferLongAscii() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String s = sb.toString();
+        assertEquals(s, Mutf8.decode(bufferOf("", s), 0, s.length()));
+    }
+
+    public void testDecodeBufferLengthMismatch() throws Exception {
+        try {
+            Mutf8.decode(bufferOf("", "abc"), 0, 2);
+            fail();
+        } catch (UTFDataFormatException expected) {
+        }
+        try {
+            Mutf8.decode(bufferOf("", "abc"), 0, 4);
+            fail();
+        } catch (UTFDataFormatException expected) {
+        }
+    }
+
+    public void testDecodeBufferMalformed() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { (byte) 0xc3, 0x41, 0x00 });
+        try {
+            Mutf8.decode(buffer, 0, 1);
+            fail();
+        } catch (UTFDataFormatException expected) {
+        }
+    }
+
+    /** Returns a buffer holding {@code prefix}, then {@code s} followed by a 0x00. */
+    private static ByteBuffer bufferOf(String prefix, String s) {
+        byte[] bytes = new byte[prefix.length() + s.length() + 1];
+        for (int i = 0; i < prefix.length(); i++) {
+            bytes[i] = (byte) prefix.charAt(i);
+        }
+        for (int i = 0; i < s.length(); i++) {
+            bytes[prefix.length() + i] = (byte) s.charAt(i);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+}
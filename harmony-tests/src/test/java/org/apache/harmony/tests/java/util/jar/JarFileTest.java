@@ -880,6 +880,29 @@ public class JarFileTest extends TestCase {
         }
     }
 
+    public void test_verifyAllEntries() throws IOException {
+        Support_Resources.copyFile(resources, null, integrateJar);
+        JarFile jarFile = new JarFile(new File(resources, integrateJar), true);
+        jarFile.verifyAllEntries();
+        JarEntry entry = jarFile.getJarEntry(integrateJarEntry);
+        assertNotNull(entry.getCodeSigners());
+        // The entry was verified up front and can still be read in full.
+        jarFile.getInputStream(entry).skip(Long.MAX_VALUE);
+        jarFile.close();
+    }
+
+    public void test_verifyAllEntries_Modified_Class() throws IOException {
+        String modifiedJarName = "Modified_Class.jar";
+        Support_Resources.copyFile(resources, null, modifiedJarName);
+        JarFile jarFile = new JarFile(new File(resources, modifiedJarName), true);
+        try {
+            jarFile.verifyAllEntries();
+            fail("SecurityException expected");
+        } catch (SecurityException expected) {
+        }
+        jarFile.close();
+    }
+
     /*
      * In the Modified.jar, the main attributes of META-INF/MANIFEST.MF is
      * tampered manually. Hence the RI 5.0 JarFile.getInputStream of any
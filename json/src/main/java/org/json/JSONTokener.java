@@ -16,6 +16,8 @@
 
 package org.json;
 
+import libcore.internal.ConcurrentStringPool;
+
 // Note: this class was written without inspecting the non-free org.json sourcecode.
 
 /**
@@ -190,6 +192,15 @@ public class JSONTokener {
      * @param quote either ' or ".
      */
     public String nextString(char quote) throws JSONException {
+        return nextString(quote, false);
+    }
+
+    /**
+     * Like {@link #nextString(char)}, but if {@code pooled} is true and the
+     * string has no escape sequences, returns an equal string from the shared
+     * string pool when there is one.
+     */
+    private String nextString(char quote, boolean pooled) throws JSONException {
         /*
          * For strings that are free of escape sequences, we can just extract
          * the result as a substring of the input. But if we encounter an escape
@@ -204,6 +215,9 @@ public class JSONTokener {
             int c = in.charAt(pos++);
             if (c == quote) {
                 if (builder == null) {
+                    if (pooled) {
+                        return ConcurrentStringPool.getDefault().get(in, start, pos - 1 - start);
+                    }
                     // a new string avoids leaking memory
                     return new String(in.substring(start, pos - 1));
                 } else {
@@ -358,7 +372,7 @@ public class JSONTokener {
         }
 
         while (true) {
-            Object name = nextValue();
+            Object name = nextName();
             if (!(name instanceof String)) {
                 if (name == null) {
                     throw syntaxError("Names cannot be null");
@@ -395,6 +409,22 @@ public class JSONTokener {
         }
     }
 
+    /**
+     * Reads the name of an object member. Names are usually drawn from a
+     * small set, so quoted names are shared through the string pool rather
+     * than allocated for every object.
+     */
+    private Object nextName() throws JSONException {
+        int c = nextCleanInternal();
+        if (c == '"' || c == '\'') {
+            return nextString((char) c, true);
+        }
+        if (c != -1) {
+            pos--;
+        }
+        return nextValue();
+    }
+
     /**
      * Reads a sequence of values and the trailing closing brace ']' of an
      * array. The opening brace '[' should have already been read. Note that
@@ -35,6 +35,7 @@ package java.lang.reflect;
 import com.android.dex.Dex;
 import java.lang.annotation.Annotation;
 import java.util.List;
+import libcore.reflect.AnnotationCache;
 import libcore.reflect.GenericSignatureParser;
 import libcore.reflect.ListOfTypes;
 import libcore.reflect.Types;
@@ -126,6 +127,18 @@ public abstract class AbstractMethod extends AccessibleObject {
         return accessFlags;
     }
 
+    /**
+     * Copies the fields of {@code original} that identify the method or
+     * constructor into this one, which has been newly created.
+     */
+    final void copyFrom(AbstractMethod original) {
+        accessFlags = original.accessFlags;
+        artMethod = original.artMethod;
+        declaringClass = original.declaringClass;
+        declaringClassOfOverriddenMethod = original.declaringClassOfOverriddenMethod;
+        dexMethodIndex = original.dexMethodIndex;
+    }
+
     /**
      * Returns the class that declares this constructor or method.
      */
@@ -203,13 +216,13 @@ public abstract class AbstractMethod extends AccessibleObject {
         if (annotationType == null) {
             throw new NullPointerException("annotationType == null");
         }
-        return isAnnotationPresentNative(annotationType);
+        return AnnotationCache.getDeclaredAnnotation(this, annotationType) != null;
     }
 
     private native boolean isAnnotationPresentNative(Class<? extends Annotation> annotationType);
 
     public Annotation[] getAnnotations() {
-        return super.getAnnotations();
+        return AnnotationCache.getDeclaredAnnotations(this).clone();
     }
 
     /**
@@ -291,7 +304,13 @@ public abstract class AbstractMethod extends AccessibleObject {
 
     private native String[] getSignatureAnnotation();
 
-    protected boolean equalMethodParameters(Class<?>[] params) {
+    /**
+     * Returns true if the parameter types of this method or constructor are
+     * exactly {@code params}.
+     *
+     * @hide
+     */
+    public final boolean equalMethodParameters(Class<?>[] params) {
         Dex dex = declaringClassOfOverriddenMethod.getDex();
         short[] types = dex.parameterTypeIndicesFromMethodIndex(dexMethodIndex);
         if (types.length != params.length) {
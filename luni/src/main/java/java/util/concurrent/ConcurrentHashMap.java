@@ -22,6 +22,7 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
@@ -788,6 +789,12 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
      */
     private transient volatile CounterCell[] counterCells;
 
+    /**
+     * Resize and contention statistics; null unless enabled via
+     * enableStatistics. Updated via CAS.
+     */
+    private transient volatile Statistics stats;
+
     // views
     private transient KeySetView<K,V> keySet;
     private transient ValuesView<K,V> values;
@@ -1044,6 +1051,9 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
                         treeifyBin(tab, i);
                     if (oldVal != null)
                         return oldVal;
+                    Statistics st;
+                    if ((st = stats) != null)
+                        st.collisions.increment();
                     break;
                 }
             }
@@ -2147,6 +2157,116 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
         return (n < 0L) ? 0L : n; // ignore transient negative values
     }
 
+    // BEGIN android-added
+    /**
+     * Starts collecting resize, treeification and contention
+     * statistics for this map. Statistics are off by default; until
+     * this method is called the only cost is a null check on the
+     * insertion, resize and counter-contention slow paths.  Calling
+     * this method more than once has no further effect.
+     *
+     * @return the (live) statistics of this map
+     * @hide
+     */
+    public Statistics enableStatistics() {
+        Statistics st;
+        if ((st = stats) == null) {
+            U.compareAndSwapObject(this, STATS, null, new Statistics());
+            st = stats;
+        }
+        return st;
+    }
+
+    /**
+     * Returns the live statistics of this map, or {@code null} if
+     * {@link #enableStatistics} has not been called.
+     *
+     * @return the statistics of this map, or {@code null}
+     * @hide
+     */
+    public Statistics getStatistics() {
+        return stats;
+    }
+
+    /**
+     * Counters describing the internal behavior of a
+     * ConcurrentHashMap: how often its table was resized and how long
+     * that took, how often insertions landed in an already occupied
+     * bin, how many bins were converted to trees, and how often
+     * updates to the element count were contended.  All values are
+     * cumulative since statistics were enabled, and are maintained
+     * with {@link LongAdder}s so that recording does not itself
+     * introduce contention.
+     *
+     * @hide
+     */
+    public static final class Statistics {
+        final LongAdder resizes = new LongAdder();
+        final LongAdder resizeNanos = new LongAdder();
+        final LongAdder collisions = new LongAdder();
+        final LongAdder treeifications = new LongAdder();
+        final LongAdder counterContentions = new LongAdder();
+
+        /**
+         * The System.nanoTime at which the resize in progress, if
+         * any, was initiated. Only written by the initiating thread
+         * and read by the thread that commits the new table.
+         */
+        volatile long resizeStartNanos;
+
+        Statistics() {}
+
+        /**
+         * Returns the number of completed table resizes.
+         */
+        public long getResizeCount() {
+            return resizes.sum();
+        }
+
+        /**
+         * Returns the total wall-clock time, in nanoseconds, spent in
+         * completed resizes, from initiation until the new table was
+         * published.
+         */
+        public long getResizeNanos() {
+            return resizeNanos.sum();
+        }
+
+        /**
+         * Returns the number of insertions of new keys into a bin
+         * that already held at least one other key.
+         */
+        public long getCollisionCount() {
+            return collisions.sum();
+        }
+
+        /**
+         * Returns the number of bins that have been converted from
+         * lists to trees because they held too many colliding keys.
+         */
+        public long getTreeifiedBinCount() {
+            return treeifications.sum();
+        }
+
+        /**
+         * Returns the number of element count updates that could not
+         * be applied with a single uncontended CAS and fell back to
+         * the striped CounterCells.
+         */
+        public long getCounterContentionCount() {
+            return counterContentions.sum();
+        }
+
+        public String toString() {
+            return "ConcurrentHashMap.Statistics[resizes=" + getResizeCount() +
+                ", resizeNanos=" + getResizeNanos() +
+                ", collisions=" + getCollisionCount() +
+                ", treeifiedBins=" + getTreeifiedBinCount() +
+                ", counterContentions=" + getCounterContentionCount() + "]";
+        }
+    }
+    // END android-added
+
     /**
      * Creates a new {@link Set} backed by a ConcurrentHashMap
      * from the given type to {@code Boolean.TRUE}.
@@ -2407,6 +2527,9 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
                 sizeCtl = Integer.MAX_VALUE;
                 return;
             }
+            Statistics st;
+            if ((st = stats) != null)
+                st.resizeStartNanos = System.nanoTime();
             nextTable = nextTab;
             transferIndex = n;
         }
@@ -2439,6 +2562,11 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
                     nextTable = null;
                     table = nextTab;
                     sizeCtl = (n << 1) - (n >>> 1);
+                    Statistics st;
+                    if ((st = stats) != null) {
+                        st.resizeNanos.add(System.nanoTime() - st.resizeStartNanos);
+                        st.resizes.increment();
+                    }
                     return;
                 }
                 if (U.compareAndSwapInt(this, SIZECTL, sc = sizeCtl, sc - 1)) {
@@ -2553,6 +2681,9 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
 
     // See LongAdder version for explanation
     private final void fullAddCount(long x, boolean wasUncontended) {
+        Statistics st;
+        if ((st = stats) != null)
+            st.counterContentions.increment();
         int h;
         if ((h = ThreadLocalRandom.getProbe()) == 0) {
             ThreadLocalRandom.localInit();      // force initialization
@@ -2659,6 +2790,9 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
                             tl = p;
                         }
                         setTabAt(tab, index, new TreeBin<K,V>(hd));
+                        Statistics st;
+                        if ((st = stats) != null)
+                            st.treeifications.increment();
                     }
                 }
             }
@@ -6318,6 +6452,7 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
     private static final long TRANSFERINDEX;
     private static final long BASECOUNT;
     private static final long CELLSBUSY;
+    private static final long STATS;
     private static final long CELLVALUE;
     private static final int ABASE;
     private static final int ASHIFT;
@@ -6332,6 +6467,8 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
                 (ConcurrentHashMap.class.getDeclaredField("baseCount"));
             CELLSBUSY = U.objectFieldOffset
                 (ConcurrentHashMap.class.getDeclaredField("cellsBusy"));
+            STATS = U.objectFieldOffset
+                (ConcurrentHashMap.class.getDeclaredField("stats"));
 
             CELLVALUE = U.objectFieldOffset
                 (CounterCell.class.getDeclaredField("value"));
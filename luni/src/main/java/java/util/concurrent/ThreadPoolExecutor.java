@@ -6,12 +6,15 @@
 
 package java.util.concurrent;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -530,6 +533,12 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      */
     private volatile int maximumPoolSize;
 
+    /**
+     * Queue and execution latency statistics; null unless enabled via
+     * enableStatistics.
+     */
+    private volatile Statistics stats;
+
     /**
      * The default rejected execution handler.
      */
@@ -849,6 +858,9 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                     taskList.add(r);
             }
         }
+        final Statistics st = stats;
+        if (st != null)
+            st.queued.clear();
         return taskList;
     }
 
@@ -1056,8 +1068,12 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                 Runnable r = timed ?
                     workQueue.poll(keepAliveTime, TimeUnit.NANOSECONDS) :
                     workQueue.take();
-                if (r != null)
+                if (r != null) {
+                    final Statistics st = stats;
+                    if (st != null)
+                        st.taskDequeued(r);
                     return r;
+                }
                 timedOut = true;
             } catch (InterruptedException retry) {
                 timedOut = false;
@@ -1127,8 +1143,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                     !wt.isInterrupted())
                     wt.interrupt();
                 try {
+                    final Statistics st = stats;
                     beforeExecute(wt, task);
                     Throwable thrown = null;
+                    final long startNanos = (st != null) ? System.nanoTime() : 0L;
                     try {
                         task.run();
                     } catch (RuntimeException x) {
@@ -1138,6 +1156,8 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                     } catch (Throwable x) {
                         thrown = x; throw new Error(x);
                     } finally {
+                        if (st != null)
+                            st.executionLatency.record(System.nanoTime() - startNanos);
                         afterExecute(task, thrown);
                     }
                 } finally {
@@ -1349,6 +1369,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                 return;
             c = ctl.get();
         }
+        // The enqueue time is recorded before offering, since a
+        // worker may take the task as soon as it is in the queue.
+        final Statistics st = stats;
+        final TaskKey key = (st != null) ? st.taskQueued(command) : null;
         if (isRunning(c) && workQueue.offer(command)) {
             int recheck = ctl.get();
             if (! isRunning(recheck) && remove(command))
@@ -1356,8 +1380,12 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             else if (workerCountOf(recheck) == 0)
                 addWorker(null, false);
         }
-        else if (!addWorker(command, false))
-            reject(command);
+        else {
+            if (st != null)
+                st.forget(key);
+            if (!addWorker(command, false))
+                reject(command);
+        }
     }
 
     /**
@@ -1748,6 +1776,9 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      */
     public boolean remove(Runnable task) {
         boolean removed = workQueue.remove(task);
+        final Statistics st = stats;
+        if (removed && st != null)
+            st.taskRemoved(task);
         tryTerminate(); // In case SHUTDOWN and now empty
         return removed;
     }
@@ -1780,6 +1811,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                     q.remove(r);
         }
 
+        final Statistics st = stats;
+        if (st != null)
+            st.retainQueued(q);
+
         tryTerminate(); // In case SHUTDOWN and now empty
     }
 
@@ -1923,6 +1958,303 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             "]";
     }
 
+    // BEGIN android-added
+    /**
+     * Starts collecting queue and execution latency statistics for
+     * this executor. Statistics are off by default, and cost nothing
+     * beyond a volatile read per task until this method is called.
+     * Calling this method more than once has no further effect.
+     *
+     * <p>Queue latency is recorded for tasks that were queued by
+     * {@link #execute} after statistics were enabled, from the time
+     * they were queued until a worker thread dequeued them; tasks
+     * handed directly to a newly started thread are not counted.
+     * Tasks are queued unchanged; their enqueue times are kept
+     * separately, keyed by identity, so a task instance that is
+     * queued again before it is taken is only counted once. The
+     * keys refer to their tasks weakly, so tasks removed directly
+     * from the {@linkplain #getQueue queue} are not retained; their
+     * enqueue times are discarded once the tasks are collected, or
+     * by {@link #purge}.
+     *
+     * <p>Execution latency is recorded for every task run after
+     * statistics were enabled, and measures the time spent in the
+     * task's {@code run} method.
+     *
+     * @return the (live) statistics of this executor
+     * @hide
+     */
+    public Statistics enableStatistics() {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            Statistics st = stats;
+            if (st == null)
+                stats = st = new Statistics();
+            return st;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the live statistics of this executor, or {@code null}
+     * if {@link #enableStatistics} has not been called.
+     *
+     * @return the statistics of this executor, or {@code null}
+     * @hide
+     */
+    public Statistics getStatistics() {
+        return stats;
+    }
+
+    /**
+     * Identity key for a queued task, which also holds the time the
+     * task was queued. Tasks are compared by identity rather than
+     * equals, and are not wrapped in the queue itself, so that queues
+     * ordering or inspecting their elements, and callers of getQueue
+     * and remove, see the tasks they submitted. The task is referred
+     * to weakly, so that a task removed through getQueue is not kept
+     * reachable by its key.
+     */
+    static final class TaskKey extends WeakReference<Runnable> {
+        final long queuedNanos;
+        private final int hash;
+
+        TaskKey(Runnable task, long queuedNanos, ReferenceQueue<Runnable> q) {
+            super(task, q);
+            this.queuedNanos = queuedNanos;
+            this.hash = System.identityHashCode(task);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+            Runnable task = get();
+            if (task == null)
+                return false;
+            if (o instanceof TaskKey)
+                return ((TaskKey)o).get() == task;
+            return (o instanceof LookupKey) && ((LookupKey)o).task == task;
+        }
+    }
+
+    /**
+     * Short-lived key for looking up the TaskKey of a task, which
+     * saves creating a weak reference.
+     */
+    static final class LookupKey {
+        final Runnable task;
+
+        LookupKey(Runnable task) {
+            this.task = task;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(task);
+        }
+
+        public boolean equals(Object o) {
+            return (o instanceof TaskKey) && ((TaskKey)o).get() == task;
+        }
+    }
+
+    /**
+     * Latency histograms of a ThreadPoolExecutor.
+     *
+     * @hide
+     */
+    public static final class Statistics {
+        final Histogram queueLatency = new Histogram();
+        final Histogram executionLatency = new Histogram();
+
+        /**
+         * The keys of the tasks currently in the work queue, each
+         * mapped to itself.
+         */
+        final ConcurrentHashMap<Object, TaskKey> queued =
+            new ConcurrentHashMap<>();
+
+        /** Keys whose tasks have been collected. */
+        private final ReferenceQueue<Runnable> staleKeys =
+            new ReferenceQueue<>();
+
+        Statistics() {}
+
+        /**
+         * Records that the task is about to be queued, and returns
+         * its new key, or null if the same task is already queued, in
+         * which case the earlier time is kept.
+         */
+        TaskKey taskQueued(Runnable task) {
+            expungeStaleKeys();
+            TaskKey key = new TaskKey(task, System.nanoTime(), staleKeys);
+            return (queued.putIfAbsent(key, key) == null) ? key : null;
+        }
+
+        /**
+         * Records the queue latency of a task taken from the queue.
+         */
+        void taskDequeued(Runnable task) {
+            TaskKey key = queued.remove(new LookupKey(task));
+            if (key != null)
+                queueLatency.record(System.nanoTime() - key.queuedNanos);
+        }
+
+        /**
+         * Discards the enqueue time recorded by taskQueued for a task
+         * that was then not queued. Does nothing if key is null, so an
+         * earlier queued instance of the same task keeps its time.
+         */
+        void forget(TaskKey key) {
+            if (key != null)
+                queued.remove(key, key);
+        }
+
+        /**
+         * Discards the enqueue time of a task removed without running.
+         */
+        void taskRemoved(Runnable task) {
+            queued.remove(new LookupKey(task));
+        }
+
+        /**
+         * Discards the enqueue times of tasks no longer in the queue,
+         * for example because they were removed through getQueue.
+         */
+        void retainQueued(BlockingQueue<Runnable> q) {
+            expungeStaleKeys();
+            if (queued.isEmpty())
+                return;
+            HashSet<LookupKey> keys = new HashSet<>();
+            for (Object r : q.toArray())
+                keys.add(new LookupKey((Runnable)r));
+            queued.keySet().retainAll(keys);
+        }
+
+        private void expungeStaleKeys() {
+            Object key;
+            while ((key = staleKeys.poll()) != null)
+                queued.remove(key);
+        }
+
+        /**
+         * Returns the histogram of times, in nanoseconds, that tasks
+         * spent waiting in the work queue.
+         */
+        public Histogram getQueueLatency() {
+            return queueLatency;
+        }
+
+        /**
+         * Returns the histogram of times, in nanoseconds, that tasks
+         * spent running.
+         */
+        public Histogram getExecutionLatency() {
+            return executionLatency;
+        }
+
+        public String toString() {
+            return "ThreadPoolExecutor.Statistics[queueLatency=" + queueLatency +
+                ", executionLatency=" + executionLatency + "]";
+        }
+    }
+
+    /**
+     * A histogram of nanosecond latencies with power-of-two buckets:
+     * bucket {@code i} counts the values {@code v} with
+     * {@code 2^i <= v < 2^(i+1)}, except that bucket 0 also counts
+     * zero. Each bucket is a {@link LongAdder}, so worker threads can
+     * record latencies without contending with each other.
+     *
+     * @hide
+     */
+    public static final class Histogram {
+        /** The number of buckets, one per bit of a long. */
+        public static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder totalNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        void record(long nanos) {
+            if (nanos < 0L)
+                nanos = 0L; // nanoTime is not guaranteed monotonic across threads
+            buckets[63 - Long.numberOfLeadingZeros(nanos | 1L)].increment();
+            totalNanos.add(nanos);
+        }
+
+        /**
+         * Returns the number of recorded latencies.
+         */
+        public long getCount() {
+            long n = 0L;
+            for (LongAdder b : buckets)
+                n += b.sum();
+            return n;
+        }
+
+        /**
+         * Returns the sum of all recorded latencies, in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Returns a snapshot of the bucket counts.
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++)
+                counts[i] = buckets[i].sum();
+            return counts;
+        }
+
+        /**
+         * Returns an upper bound, in nanoseconds, of the given
+         * percentile of the recorded latencies, or 0 if none have
+         * been recorded.
+         *
+         * @param percentile a value between 0 and 100
+         * @throws IllegalArgumentException if percentile is out of range
+         */
+        public long getPercentileNanos(double percentile) {
+            if (!(percentile >= 0.0 && percentile <= 100.0))
+                throw new IllegalArgumentException();
+            long[] counts = getBucketCounts();
+            long total = 0L;
+            for (long c : counts)
+                total += c;
+            if (total == 0L)
+                return 0L;
+            long rank = (long) Math.ceil(total * (percentile / 100.0));
+            long seen = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                if ((seen += counts[i]) >= rank && seen > 0L)
+                    return (i == BUCKETS - 1) ? Long.MAX_VALUE : (2L << i) - 1L;
+            }
+            return Long.MAX_VALUE;
+        }
+
+        public String toString() {
+            long n = getCount();
+            return "[count=" + n +
+                ", mean=" + ((n == 0L) ? 0L : getTotalNanos() / n) +
+                "ns, p50<=" + getPercentileNanos(50.0) +
+                "ns, p99<=" + getPercentileNanos(99.0) + "ns]";
+        }
+    }
+    // END android-added
+
     /* Extension hooks */
 
     /**
@@ -0,0 +1,659 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link ScheduledExecutorService} for workloads that schedule very
+ * large numbers of short timeouts, most of which are cancelled before
+ * they expire.
+ *
+ * <p>{@link ScheduledThreadPoolExecutor} keeps every pending task in a
+ * single binary heap guarded by one lock, so scheduling and cancelling
+ * cost O(log n) under a global lock. This executor instead keeps
+ * pending tasks in a hashed timing wheel (Varghese and Lauck, "Hashed
+ * and Hierarchical Timing Wheels", scheme 6) that is owned by a single
+ * timer thread:
+ *
+ * <ul>
+ * <li>Scheduling appends the task to one of several striped, lock-free
+ * insertion buffers chosen by the calling thread, and is O(1). The
+ * timer thread moves buffered tasks into the wheel once per tick.
+ * <li>Cancellation only changes the state of the task, and is O(1).
+ * Cancelled tasks are unlinked lazily, when the timer thread next
+ * visits their wheel slot or finds them in an insertion buffer.
+ * <li>Expired tasks are run by a work-stealing {@link ForkJoinPool},
+ * so that a slow task does not delay the wheel or other tasks.
+ * </ul>
+ *
+ * <p>The price is precision: tasks are run at the first tick at or
+ * after their deadline, so they may run up to one tick duration late.
+ * Tasks scheduled with a non-positive delay bypass the wheel and are
+ * run immediately. Tasks with the same deadline are not guaranteed to
+ * run in submission order.
+ *
+ * <p>As with {@link ScheduledThreadPoolExecutor}'s default policies,
+ * delayed tasks still run after {@link #shutdown}, while periodic tasks
+ * are cancelled.
+ *
+ * @hide
+ */
+public class TimingWheelScheduledExecutor extends AbstractExecutorService
+        implements ScheduledExecutorService {
+
+    /** The default tick duration, one millisecond. */
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** The default number of slots in the wheel. */
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /** The maximum number of slots in the wheel. */
+    private static final int MAXIMUM_WHEEL_SIZE = 1 << 20;
+
+    private static final int RUNNING  = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP     = 2;
+
+    /**
+     * Sequence number to break scheduling ties, and in turn to
+     * guarantee a total order in compareTo.
+     */
+    private static final AtomicLong sequencer = new AtomicLong();
+
+    private final long tickNanos;
+
+    /**
+     * The slots of the wheel, each the head of a doubly linked list of
+     * tasks. Only accessed by the timer thread, or after it has died.
+     */
+    private final WheelTask<?>[] wheel;
+    private final int mask;
+
+    /** The current tick. Only accessed by the timer thread. */
+    private long tick;
+
+    /** The System.nanoTime of the start of tick 0. */
+    private final long startNanos;
+
+    /**
+     * Striped insertion buffers. Scheduling threads pick a buffer by
+     * thread id, so unrelated threads rarely contend on the same one.
+     */
+    private final ConcurrentLinkedQueue<WheelTask<?>>[] buffers;
+
+    /**
+     * The number of delayed tasks held in the buffers or the wheel,
+     * including cancelled tasks that have not yet been purged.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /** Runs expired tasks. */
+    private final ForkJoinPool workers;
+
+    private final ThreadFactory threadFactory;
+
+    private final AtomicInteger runState = new AtomicInteger(RUNNING);
+
+    /**
+     * The timer thread, started lazily by the first delayed task.
+     * Guarded by this.
+     */
+    private Thread timerThread;
+
+    /**
+     * True once the timer thread has exited, or has committed to
+     * exiting, after which enqueued tasks would never run. Guarded by
+     * this.
+     */
+    private boolean timerExited;
+
+    /** True while the timer thread is parked waiting for any task. */
+    private volatile boolean idle;
+
+    /** Counted down once the timer thread will dispatch no more tasks. */
+    private final CountDownLatch timerDone = new CountDownLatch(1);
+
+    /**
+     * Creates a new executor with the default tick duration of one
+     * millisecond, a wheel of 512 slots, and as many worker threads
+     * as there are available processors.
+     */
+    public TimingWheelScheduledExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TICK_NANOS,
+             TimeUnit.NANOSECONDS, DEFAULT_WHEEL_SIZE, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Creates a new executor with the given parameters.
+     *
+     * @param parallelism the number of threads that run expired tasks
+     * @param tickDuration the granularity of the wheel
+     * @param unit the time unit of {@code tickDuration}
+     * @param wheelSize the number of slots in the wheel, rounded up to
+     *        a power of two. Tasks due more than
+     *        {@code tickDuration * wheelSize} in the future cost one
+     *        extra decrement per revolution of the wheel.
+     * @param threadFactory the factory used to create the timer thread
+     * @throws IllegalArgumentException if {@code parallelism},
+     *         {@code tickDuration} or {@code wheelSize} is not positive
+     * @throws NullPointerException if {@code unit} or
+     *         {@code threadFactory} is null
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheelScheduledExecutor(int parallelism, long tickDuration, TimeUnit unit,
+                                        int wheelSize, ThreadFactory threadFactory) {
+        if (parallelism <= 0 || tickDuration <= 0 || wheelSize <= 0)
+            throw new IllegalArgumentException();
+        if (unit == null || threadFactory == null)
+            throw new NullPointerException();
+        this.tickNanos = unit.toNanos(tickDuration);
+        int n = 1;
+        while (n < wheelSize && n < MAXIMUM_WHEEL_SIZE)
+            n <<= 1;
+        this.wheel = new WheelTask<?>[n];
+        this.mask = n - 1;
+        int stripes = 1;
+        int ncpu = Runtime.getRuntime().availableProcessors();
+        while (stripes < ncpu && stripes < 64)
+            stripes <<= 1;
+        this.buffers = (ConcurrentLinkedQueue<WheelTask<?>>[])
+            new ConcurrentLinkedQueue<?>[stripes];
+        for (int i = 0; i < stripes; i++)
+            buffers[i] = new ConcurrentLinkedQueue<WheelTask<?>>();
+        this.threadFactory = threadFactory;
+        this.workers = new ForkJoinPool(parallelism,
+                                        ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                                        null, true);
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the number of delayed tasks that have been scheduled but
+     * have neither been dispatched for execution nor, after being
+     * cancelled, purged from the wheel.
+     *
+     * @return the number of pending delayed tasks
+     */
+    public int getPendingTaskCount() {
+        return pending.get();
+    }
+
+    // Scheduling
+
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        if (command == null || unit == null)
+            throw new NullPointerException();
+        return schedule(new WheelTask<Void>(command, null, triggerTime(delay, unit), 0L));
+    }
+
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        if (callable == null || unit == null)
+            throw new NullPointerException();
+        return schedule(new WheelTask<V>(callable, triggerTime(delay, unit)));
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+                                                  long period, TimeUnit unit) {
+        if (command == null || unit == null)
+            throw new NullPointerException();
+        if (period <= 0L)
+            throw new IllegalArgumentException();
+        return schedule(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit),
+                                            unit.toNanos(period)));
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+                                                     long delay, TimeUnit unit) {
+        if (command == null || unit == null)
+            throw new NullPointerException();
+        if (delay <= 0L)
+            throw new IllegalArgumentException();
+        return schedule(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit),
+                                            -unit.toNanos(delay)));
+    }
+
+    /**
+     * Executes {@code command} with zero required delay.
+     *
+     * @throws RejectedExecutionException if this executor has been shut down
+     * @throws NullPointerException if {@code command} is null
+     */
+    public void execute(Runnable command) {
+        schedule(command, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    public Future<?> submit(Runnable task) {
+        return schedule(task, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> Future<T> submit(Runnable task, T result) {
+        return schedule(Executors.callable(task, result), 0L, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return schedule(task, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the nanoTime-based trigger time of a delayed action,
+     * clamped to avoid overflow.
+     */
+    private static long triggerTime(long delay, TimeUnit unit) {
+        long now = System.nanoTime();
+        long t = now + unit.toNanos((delay < 0L) ? 0L : delay);
+        return (t - now < 0L) ? now + Long.MAX_VALUE : t;
+    }
+
+    private <V> ScheduledFuture<V> schedule(WheelTask<V> task) {
+        if (runState.get() != RUNNING)
+            throw new RejectedExecutionException("Executor has been shut down");
+        if (task.time - System.nanoTime() <= 0L)
+            dispatch(task);
+        else if (!enqueue(task))
+            throw new RejectedExecutionException("Executor has been shut down");
+        return task;
+    }
+
+    /**
+     * Hands a delayed task to the timer thread through the insertion
+     * buffer of the current thread. Returns false, having cancelled
+     * the task, if there is no timer thread left to run it: the
+     * executor was shut down before the timer thread was started, or
+     * after it exited.
+     */
+    private boolean enqueue(WheelTask<?> task) {
+        pending.incrementAndGet();
+        buffers[(int) Thread.currentThread().getId() & (buffers.length - 1)].offer(task);
+        Thread t = startTimerIfNeeded();
+        if (t == null) {
+            task.cancel(false);
+            pending.decrementAndGet();
+            return false;
+        }
+        if (idle)
+            LockSupport.unpark(t);
+        return true;
+    }
+
+    private void dispatch(WheelTask<?> task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false); // lost race with shutdownNow
+        }
+    }
+
+    /**
+     * Returns the timer thread, starting it if needed, or null if this
+     * executor was shut down before the timer thread was started, or
+     * the timer thread has exited. Since the timer thread only exits
+     * under the same lock, a task buffered before a non-null return is
+     * seen by the timer thread or by shutdownNow.
+     */
+    private synchronized Thread startTimerIfNeeded() {
+        if (timerExited)
+            return null;
+        Thread t = timerThread;
+        if (t == null && runState.get() == RUNNING) {
+            t = threadFactory.newThread(new Ticker());
+            if (t == null)
+                throw new RejectedExecutionException("Thread factory returned null");
+            timerThread = t;
+            t.start();
+        }
+        return t;
+    }
+
+    /**
+     * Re-queues a periodic task after a successful run.
+     */
+    void reschedulePeriodic(WheelTask<?> task) {
+        if (runState.get() != RUNNING)
+            task.cancel(false);
+        else
+            enqueue(task); // cancels the task if shut down meanwhile
+    }
+
+    /**
+     * Called by the timer thread once shut down, to exit if no task is
+     * pending. Returns false if a task was enqueued concurrently.
+     */
+    private synchronized boolean tryExitTimer() {
+        if (pending.get() != 0)
+            return false;
+        timerExited = true;
+        return true;
+    }
+
+    // Timer thread
+
+    /**
+     * The body of the timer thread, which alone reads and writes the
+     * wheel and the links between tasks.
+     */
+    private final class Ticker implements Runnable {
+        public void run() {
+            boolean purgedPeriodic = false;
+            try {
+                int rs;
+                while ((rs = runState.get()) < STOP) {
+                    if (rs == SHUTDOWN && !purgedPeriodic) {
+                        purgePeriodic();
+                        purgedPeriodic = true;
+                    }
+                    if (!awaitTick())
+                        break;
+                    drainBuffers();
+                    expire((int) (tick & mask));
+                    tick++;
+                    if (runState.get() == SHUTDOWN && pending.get() == 0 &&
+                        tryExitTimer())
+                        break;
+                }
+            } finally {
+                synchronized (TimingWheelScheduledExecutor.this) {
+                    timerExited = true;
+                }
+                workers.shutdown();
+                timerDone.countDown();
+            }
+        }
+
+        /**
+         * Waits until the end of the current tick, or while there is
+         * nothing to do, until a task is scheduled. Returns false if
+         * the executor was stopped while waiting.
+         */
+        private boolean awaitTick() {
+            if (pending.get() == 0 && runState.get() == RUNNING) {
+                idle = true;
+                while (pending.get() == 0 && runState.get() == RUNNING)
+                    LockSupport.park(this);
+                idle = false;
+                // Nothing is in the wheel, so skip the idle ticks.
+                long elapsed = (System.nanoTime() - startNanos) / tickNanos;
+                if (elapsed > tick)
+                    tick = elapsed;
+            }
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long nanos;
+            while ((nanos = deadline - System.nanoTime()) > 0L) {
+                LockSupport.parkNanos(this, nanos);
+                if (runState.get() >= STOP)
+                    return false;
+            }
+            return runState.get() < STOP;
+        }
+
+        /**
+         * Moves buffered tasks into the wheel. A task lands in the slot
+         * of the first tick that ends at or after its trigger time.
+         */
+        private void drainBuffers() {
+            final boolean running = runState.get() == RUNNING;
+            final long tickEnd = startNanos + (tick + 1) * tickNanos;
+            for (ConcurrentLinkedQueue<WheelTask<?>> buffer : buffers) {
+                WheelTask<?> task;
+                while ((task = buffer.poll()) != null) {
+                    if (!running && task.isPeriodic())
+                        task.cancel(false);
+                    if (task.isCancelled()) {
+                        pending.decrementAndGet();
+                        continue;
+                    }
+                    long delta = task.time - tickEnd;
+                    long ahead = (delta <= 0L) ? 0L : (delta + tickNanos - 1) / tickNanos;
+                    task.rounds = ahead / wheel.length;
+                    link(task, (int) ((tick + ahead) & mask));
+                }
+            }
+        }
+
+        /**
+         * Dispatches the due tasks of the given slot, and purges its
+         * cancelled tasks.
+         */
+        private void expire(int slot) {
+            WheelTask<?> task = wheel[slot];
+            while (task != null) {
+                WheelTask<?> next = task.next;
+                if (task.isCancelled()) {
+                    unlink(task, slot);
+                    pending.decrementAndGet();
+                } else if (task.rounds <= 0L) {
+                    unlink(task, slot);
+                    pending.decrementAndGet();
+                    dispatch(task);
+                } else {
+                    task.rounds--;
+                }
+                task = next;
+            }
+        }
+
+        /**
+         * Cancels and purges all periodic tasks, and purges all
+         * cancelled ones, so that shutdown need not wait for them.
+         */
+        private void purgePeriodic() {
+            for (int slot = 0; slot < wheel.length; slot++) {
+                WheelTask<?> task = wheel[slot];
+                while (task != null) {
+                    WheelTask<?> next = task.next;
+                    if (task.isPeriodic())
+                        task.cancel(false);
+                    if (task.isCancelled()) {
+                        unlink(task, slot);
+                        pending.decrementAndGet();
+                    }
+                    task = next;
+                }
+            }
+        }
+
+        private void link(WheelTask<?> task, int slot) {
+            WheelTask<?> head = wheel[slot];
+            task.prev = null;
+            task.next = head;
+            if (head != null)
+                head.prev = task;
+            wheel[slot] = task;
+        }
+
+        private void unlink(WheelTask<?> task, int slot) {
+            WheelTask<?> prev = task.prev, next = task.next;
+            if (prev == null)
+                wheel[slot] = next;
+            else
+                prev.next = next;
+            if (next != null)
+                next.prev = prev;
+            task.prev = task.next = null;
+        }
+    }
+
+    // Tasks
+
+    private class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        /** Sequence number to break ties FIFO. */
+        private final long sequenceNumber;
+
+        /** The nanoTime-based time when the task is enabled to execute. */
+        volatile long time;
+
+        /**
+         * Period in nanoseconds for repeating tasks. A positive value
+         * indicates fixed-rate execution. A negative value indicates
+         * fixed-delay execution. A value of 0 indicates a non-repeating
+         * task.
+         */
+        private final long period;
+
+        /** Links and remaining revolutions; owned by the timer thread. */
+        WheelTask<?> prev, next;
+        long rounds;
+
+        WheelTask(Runnable r, V result, long triggerTime, long period) {
+            super(r, result);
+            this.time = triggerTime;
+            this.period = period;
+            this.sequenceNumber = sequencer.getAndIncrement();
+        }
+
+        WheelTask(Callable<V> callable, long triggerTime) {
+            super(callable);
+            this.time = triggerTime;
+            this.period = 0L;
+            this.sequenceNumber = sequencer.getAndIncrement();
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(Delayed other) {
+            if (other == this) // compare zero if same object
+                return 0;
+            if (other instanceof WheelTask) {
+                WheelTask<?> x = (WheelTask<?>)other;
+                long diff = time - x.time;
+                if (diff < 0)
+                    return -1;
+                else if (diff > 0)
+                    return 1;
+                else if (sequenceNumber < x.sequenceNumber)
+                    return -1;
+                else
+                    return 1;
+            }
+            long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return (diff < 0) ? -1 : (diff > 0) ? 1 : 0;
+        }
+
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        /**
+         * Overrides FutureTask version so as to reset/requeue if periodic.
+         */
+        public void run() {
+            if (!isPeriodic())
+                super.run();
+            else if (super.runAndReset()) {
+                long p = period;
+                time = (p > 0) ? time + p : triggerTime(-p, TimeUnit.NANOSECONDS);
+                reschedulePeriodic(this);
+            }
+        }
+    }
+
+    // Lifecycle
+
+    /**
+     * Initiates an orderly shutdown in which previously scheduled
+     * delayed tasks are still run when they expire, while periodic
+     * tasks are cancelled. No new tasks will be accepted.
+     */
+    public void shutdown() {
+        if (runState.compareAndSet(RUNNING, SHUTDOWN))
+            wakeOrFinishTimer();
+    }
+
+    /**
+     * Attempts to stop all actively executing tasks, cancels all
+     * pending delayed tasks, and returns a list of the delayed tasks
+     * that were awaiting execution.
+     *
+     * @return list of tasks that never commenced execution
+     */
+    public List<Runnable> shutdownNow() {
+        int rs;
+        while ((rs = runState.get()) < STOP && !runState.compareAndSet(rs, STOP))
+            ;
+        Thread t = wakeOrFinishTimer();
+        if (t != null && t != Thread.currentThread()) {
+            // The wheel may only be read once the timer thread is gone.
+            boolean interrupted = false;
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (ConcurrentLinkedQueue<WheelTask<?>> buffer : buffers) {
+            WheelTask<?> task;
+            while ((task = buffer.poll()) != null)
+                if (task.cancel(false))
+                    tasks.add(task);
+        }
+        for (int slot = 0; slot < wheel.length; slot++) {
+            for (WheelTask<?> task = wheel[slot]; task != null; task = task.next)
+                if (task.cancel(false))
+                    tasks.add(task);
+            wheel[slot] = null;
+        }
+        pending.set(0);
+        workers.shutdownNow();
+        return tasks;
+    }
+
+    /**
+     * Wakes the timer thread after a change of run state, or if it was
+     * never started, releases the workers. Returns the timer thread.
+     */
+    private Thread wakeOrFinishTimer() {
+        Thread t;
+        synchronized (this) {
+            t = timerThread;
+        }
+        if (t != null) {
+            LockSupport.unpark(t);
+        } else {
+            workers.shutdown();
+            timerDone.countDown();
+        }
+        return t;
+    }
+
+    public boolean isShutdown() {
+        return runState.get() != RUNNING;
+    }
+
+    public boolean isTerminated() {
+        return timerDone.getCount() == 0 && workers.isTerminated();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+        throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        if (!timerDone.await(nanos, TimeUnit.NANOSECONDS))
+            return false;
+        return workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread safe pool of string instances, for parsers that produce
+ * the same small set of strings (element names, object keys, header names)
+ * over and over. Like {@link StringPool}, and unlike the
+ * {@link String#intern() VM's interned strings}, this pool provides no
+ * guarantee of reference equality; it is intended only to save allocations.
+ *
+ * <p>The pool is a lock-free, two-way set associative cache: each string
+ * hashes to a pair of adjacent slots, and a miss evicts the less recently
+ * inserted string of the pair. Concurrent lookups may race to replace a
+ * slot, in which case one of the strings is simply not pooled. Because
+ * strings are immutable, a racy read always sees a complete string.
+ *
+ * <p>Use {@link #getDefault()} to share a pool between parsers.
+ */
+public final class ConcurrentStringPool {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    /** The maximum length of pooled strings; longer strings are rarely repeated. */
+    private static final int MAX_POOLED_LENGTH = 64;
+
+    private static final ConcurrentStringPool DEFAULT = new ConcurrentStringPool(DEFAULT_CAPACITY);
+
+    private final String[] pool;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a pool that holds at most {@code capacity} strings, rounded up to
+     * a power of two.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is less than 2 or
+     *     greater than 2^30.
+     */
+    public ConcurrentStringPool(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        this.pool = new String[Integer.highestOneBit(capacity - 1) << 1];
+    }
+
+    /**
+     * Returns the process-wide pool shared by the platform's parsers.
+     */
+    public static ConcurrentStringPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a string equal to {@code new String(array, start, length)}.
+     */
+    public String get(char[] array, int start, int length) {
+        if (length > MAX_POOLED_LENGTH) {
+            return new String(array, start, length);
+        }
+        int hashCode = 0;
+        for (int i = start; i < start + length; i++) {
+            hashCode = (hashCode * 31) + array[i];
+        }
+
+        int index = indexFor(hashCode);
+        String pooled = pool[index];
+        if (pooled != null && contentEquals(pooled, array, start, length)) {
+            hits.increment();
+            return pooled;
+        }
+        String other = pool[index ^ 1];
+        if (other != null && contentEquals(other, array, start, length)) {
+            hits.increment();
+            return other;
+        }
+
+        misses.increment();
+        return insert(index, pooled, new String(array, start, length));
+    }
+
+    /**
+     * Returns a string equal to
+     * {@code chars.subSequence(start, start + length).toString()}.
+     */
+    public String get(CharSequence chars, int start, int length) {
+        if (length > MAX_POOLED_LENGTH) {
+            return chars.subSequence(start, start + length).toString();
+        }
+        int hashCode = 0;
+        for (int i = start; i < start + length; i++) {
+            hashCode = (hashCode * 31) + chars.charAt(i);
+        }
+
+        int index = indexFor(hashCode);
+        String pooled = pool[index];
+        if (pooled != null && contentEquals(pooled, chars, start, length)) {
+            hits.increment();
+            return pooled;
+        }
+        String other = pool[index ^ 1];
+        if (other != null && contentEquals(other, chars, start, length)) {
+            hits.increment();
+            return other;
+        }
+
+        misses.increment();
+        return insert(index, pooled, chars.subSequence(start, start + length).toString());
+    }
+
+    /**
+     * Returns a string equal to
+     * {@code new String(utf8, start, length, StandardCharsets.UTF_8)}.
+     */
+    public String get(byte[] utf8, int start, int length) {
+        if (length > MAX_POOLED_LENGTH) {
+            return new String(utf8, start, length, StandardCharsets.UTF_8);
+        }
+        // ASCII is decoded to the same chars, so it can be hashed and compared in
+        // place. Anything else is decoded first.
+        int hashCode = 0;
+        for (int i = start; i < start + length; i++) {
+            byte b = utf8[i];
+            if (b < 0) {
+                return get(new String(utf8, start, length, StandardCharsets.UTF_8));
+            }
+            hashCode = (hashCode * 31) + b;
+        }
+
+        int index = indexFor(hashCode);
+        String pooled = pool[index];
+        if (pooled != null && asciiContentEquals(pooled, utf8, start, length)) {
+            hits.increment();
+            return pooled;
+        }
+        String other = pool[index ^ 1];
+        if (other != null && asciiContentEquals(other, utf8, start, length)) {
+            hits.increment();
+            return other;
+        }
+
+        misses.increment();
+        return insert(index, pooled, new String(utf8, start, length, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Returns a pooled string equal to {@code s} if there is one, and otherwise
+     * pools and returns {@code s}. This is useful for strings that have already
+     * been created, for example by {@link String#substring}, and are about to
+     * be retained.
+     */
+    public String get(String s) {
+        if (s.length() > MAX_POOLED_LENGTH) {
+            return s;
+        }
+        int index = indexFor(s.hashCode());
+        String pooled = pool[index];
+        if (pooled != null && pooled.equals(s)) {
+            hits.increment();
+            return pooled;
+        }
+        String other = pool[index ^ 1];
+        if (other != null && other.equals(s)) {
+            hits.increment();
+            return other;
+        }
+
+        misses.increment();
+        return insert(index, pooled, s);
+    }
+
+    /**
+     * Returns the number of lookups that returned a pooled string.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to create or pool a new string.
+     * Lookups of strings longer than the pooling limit are not counted.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the fraction of counted lookups that returned a pooled string,
+     * or 0 if there have been none.
+     */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return (total == 0) ? 0.0 : (double) h / total;
+    }
+
+    @Override public String toString() {
+        return "ConcurrentStringPool[capacity=" + pool.length
+                + ", hits=" + hitCount() + ", misses=" + missCount() + "]";
+    }
+
+    /**
+     * Returns the first slot of the pair for {@code hashCode}, using Doug Lea's
+     * supplemental secondaryHash function (from HashMap).
+     */
+    private int indexFor(int hashCode) {
+        hashCode ^= (hashCode >>> 20) ^ (hashCode >>> 12);
+        hashCode ^= (hashCode >>> 7) ^ (hashCode >>> 4);
+        return hashCode & (pool.length - 2);
+    }
+
+    /**
+     * Stores {@code s} in the first slot of the pair at {@code index}, moving
+     * the string it displaces to the second slot.
+     */
+    private String insert(int index, String displaced, String s) {
+        if (displaced != null) {
+            pool[index ^ 1] = displaced;
+        }
+        pool[index] = s;
+        return s;
+    }
+
+    private static boolean contentEquals(String s, char[] chars, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contentEquals(String s, CharSequence chars, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars.charAt(start + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean asciiContentEquals(String s, byte[] bytes, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -19,11 +19,37 @@ package libcore.internal;
 /**
  * A pool of string instances. Unlike the {@link String#intern() VM's
  * interned strings}, this pool provides no guarantee of reference equality.
- * It is intended only to save allocations. This class is not thread safe.
+ * It is intended only to save allocations. This class is not thread safe,
+ * except for the instance returned by {@link #getShared()}.
  */
 public final class StringPool {
 
-    private final String[] pool = new String[512];
+    private static final StringPool SHARED =
+            new StringPool(ConcurrentStringPool.getDefault());
+
+    private final String[] pool;
+
+    /** The thread safe pool that lookups are forwarded to, or null. */
+    private final ConcurrentStringPool delegate;
+
+    public StringPool() {
+        this.pool = new String[512];
+        this.delegate = null;
+    }
+
+    private StringPool(ConcurrentStringPool delegate) {
+        this.pool = null;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Returns a thread safe pool that forwards to the process-wide
+     * {@link ConcurrentStringPool#getDefault() concurrent pool}, for callers
+     * that must hand out a {@code StringPool}.
+     */
+    public static StringPool getShared() {
+        return SHARED;
+    }
 
     private static boolean contentEquals(String s, char[] chars, int start, int length) {
         if (s.length() != length) {
@@ -41,6 +67,10 @@ public final class StringPool {
      * Returns a string equal to {@code new String(array, start, length)}.
      */
     public String get(char[] array, int start, int length) {
+        if (delegate != null) {
+            return delegate.get(array, start, length);
+        }
+
         // Compute an arbitrary hash of the content
         int hashCode = 0;
         for (int i = start; i < start + length; i++) {
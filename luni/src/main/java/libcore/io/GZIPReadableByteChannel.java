@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses GZIP data read from another channel. This is the channel
+ * equivalent of {@link java.util.zip.GZIPInputStream}, but compressed data
+ * is read into a direct buffer and inflated straight into the caller's
+ * buffer, so neither side is copied through the Java heap when the caller
+ * reads into a direct buffer too.
+ *
+ * <p>Like GZIPInputStream, this reads concatenated GZIP members as one
+ * stream and ignores trailing data that isn't a GZIP member. The source
+ * channel must be in blocking mode.
+ *
+ * @hide
+ */
+public final class GZIPReadableByteChannel implements ReadableByteChannel {
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final ReadableByteChannel source;
+
+    /** Compressed data from the source, in read mode. */
+    private final ByteBuffer in;
+
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private boolean eos;
+    private volatile boolean closed;
+
+    /**
+     * Creates a channel with a default buffer size, and reads the GZIP header
+     * from {@code source}.
+     *
+     * @throws ZipException if the source doesn't start with a GZIP header.
+     * @throws IllegalBlockingModeException if the source is non-blocking.
+     */
+    public GZIPReadableByteChannel(ReadableByteChannel source) throws IOException {
+        this(source, 8192);
+    }
+
+    /**
+     * Creates a channel that reads {@code bufferSize} bytes of compressed
+     * data at a time, and reads the GZIP header from {@code source}.
+     *
+     * @throws ZipException if the source doesn't start with a GZIP header.
+     * @throws IllegalBlockingModeException if the source is non-blocking.
+     */
+    public GZIPReadableByteChannel(ReadableByteChannel source, int bufferSize)
+            throws IOException {
+        if (source == null) {
+            throw new NullPointerException("source == null");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize <= 0");
+        }
+        if (source instanceof SelectableChannel && !((SelectableChannel) source).isBlocking()) {
+            throw new IllegalBlockingModeException();
+        }
+        this.source = source;
+        this.in = ByteBuffer.allocateDirect(bufferSize);
+        in.limit(0);
+        try {
+            readHeader();
+        } catch (IOException | RuntimeException e) {
+            inflater.end();
+            throw e;
+        }
+        inflater.setInput(in);
+    }
+
+    @Override public synchronized int read(ByteBuffer dst) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        if (eos) {
+            return -1;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        int start = dst.position();
+        try {
+            while (true) {
+                int n = inflater.inflate(dst);
+                if (n > 0) {
+                    ByteBuffer inflated = dst.duplicate();
+                    inflated.limit(start + n);
+                    inflated.position(start);
+                    crc.update(inflated);
+                    return n;
+                }
+                if (inflater.finished()) {
+                    readTrailer();
+                    if (!readNextMember()) {
+                        eos = true;
+                        return -1;
+                    }
+                } else if (inflater.needsInput()) {
+                    fill();
+                    inflater.setInput(in);
+                } else {
+                    // Raw deflate data can't ask for a dictionary.
+                    throw new ZipException("Unexpected inflater state");
+                }
+            }
+        } catch (DataFormatException e) {
+            String s = e.getMessage();
+            throw new ZipException(s != null ? s : "Invalid ZLIB data format");
+        }
+    }
+
+    @Override public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Closes this channel and the source channel. A read blocked in the
+     * source is interrupted as the source channel defines.
+     */
+    @Override public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            source.close();
+        } finally {
+            // Wait for any read to finish with the inflater.
+            synchronized (this) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Reads more compressed data, keeping any bytes not yet consumed.
+     *
+     * @throws EOFException at the end of the source.
+     */
+    private void fill() throws IOException {
+        in.compact();
+        int n = readSource();
+        in.flip();
+        if (n == -1) {
+            throw new EOFException("Unexpected end of ZLIB input stream");
+        }
+    }
+
+    private int readSource() throws IOException {
+        int n;
+        do {
+            n = source.read(in);
+        } while (n == 0);
+        return n;
+    }
+
+    /**
+     * Starts the next member if the source has one, returning false at the
+     * end of the source or if the remaining data isn't a GZIP member.
+     */
+    private boolean readNextMember() throws IOException {
+        if (!in.hasRemaining()) {
+            in.clear();
+            int n = readSource();
+            in.flip();
+            if (n == -1) {
+                return false;
+            }
+        }
+        inflater.reset();
+        try {
+            readHeader();
+        } catch (IOException e) {
+            return false;
+        }
+        inflater.setInput(in);
+        return true;
+    }
+
+    /**
+     * Reads a GZIP member header, leaving {@code crc} reset for the member's
+     * data.
+     */
+    private void readHeader() throws IOException {
+        crc.reset();
+        if (readHeaderUShort() != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readHeaderUByte() != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        int flg = readHeaderUByte();
+        // Skip MTIME, XFL, and OS fields.
+        for (int i = 0; i < 6; i++) {
+            readHeaderUByte();
+        }
+        if ((flg & FEXTRA) == FEXTRA) {
+            for (int i = readHeaderUShort(); i > 0; i--) {
+                readHeaderUByte();
+            }
+        }
+        if ((flg & FNAME) == FNAME) {
+            while (readHeaderUByte() != 0) {
+            }
+        }
+        if ((flg & FCOMMENT) == FCOMMENT) {
+            while (readHeaderUByte() != 0) {
+            }
+        }
+        if ((flg & FHCRC) == FHCRC) {
+            int v = (int) crc.getValue() & 0xffff;
+            if (readUShort() != v) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+        }
+        crc.reset();
+    }
+
+    /**
+     * Reads a GZIP member trailer, checking the CRC-32 and size of the
+     * inflated data.
+     */
+    private void readTrailer() throws IOException {
+        if (readUInt() != crc.getValue()
+                || readUInt() != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+    }
+
+    private int readHeaderUByte() throws IOException {
+        int b = readUByte();
+        crc.update(b);
+        return b;
+    }
+
+    private int readHeaderUShort() throws IOException {
+        int b = readHeaderUByte();
+        return (readHeaderUByte() << 8) | b;
+    }
+
+    private long readUInt() throws IOException {
+        long s = readUShort();
+        return ((long) readUShort() << 16) | s;
+    }
+
+    private int readUShort() throws IOException {
+        int b = readUByte();
+        return (readUByte() << 8) | b;
+    }
+
+    private int readUByte() throws IOException {
+        if (!in.hasRemaining()) {
+            fill();
+        }
+        return in.get() & 0xff;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses data in the GZIP format and writes it to another channel. This
+ * is the channel equivalent of {@link java.util.zip.GZIPOutputStream}, but
+ * the caller's buffer is deflated straight into a direct buffer that is
+ * written to the sink, so neither side is copied through the Java heap when
+ * the caller writes from a direct buffer too.
+ *
+ * <p>Compressed data is buffered until the buffer fills, {@link #finish} is
+ * called or the channel is closed. The sink channel must be in blocking mode.
+ *
+ * @hide
+ */
+public final class GZIPWritableByteChannel implements WritableByteChannel {
+    private static final byte[] HEADER = {
+        (byte) 0x1f, (byte) 0x8b, // Magic number
+        8,                        // Compression method (CM)
+        0,                        // Flags (FLG)
+        0, 0, 0, 0,               // Modification time (MTIME)
+        0,                        // Extra flags (XFLG)
+        0                         // Operating system (OS)
+    };
+
+    private static final int TRAILER_SIZE = 8;
+
+    private final WritableByteChannel sink;
+
+    /** Compressed data not yet written to the sink, in write mode. */
+    private final ByteBuffer out;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private boolean finished;
+    private volatile boolean closed;
+
+    /**
+     * Creates a channel with a default buffer size.
+     *
+     * @throws IllegalBlockingModeException if the sink is non-blocking.
+     */
+    public GZIPWritableByteChannel(WritableByteChannel sink) {
+        this(sink, 8192);
+    }
+
+    /**
+     * Creates a channel that writes compressed data to {@code sink} in blocks
+     * of up to {@code bufferSize} bytes.
+     *
+     * @throws IllegalBlockingModeException if the sink is non-blocking.
+     */
+    public GZIPWritableByteChannel(WritableByteChannel sink, int bufferSize) {
+        if (sink == null) {
+            throw new NullPointerException("sink == null");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize <= 0");
+        }
+        if (sink instanceof SelectableChannel && !((SelectableChannel) sink).isBlocking()) {
+            throw new IllegalBlockingModeException();
+        }
+        this.sink = sink;
+        this.out = ByteBuffer.allocateDirect(Math.max(bufferSize, HEADER.length + TRAILER_SIZE))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.put(HEADER);
+    }
+
+    /**
+     * Compresses all of the remaining bytes of {@code src}, advancing its
+     * position to its limit.
+     *
+     * @throws IOException if this channel has been finished or closed, or
+     *     the sink fails.
+     */
+    @Override public synchronized int write(ByteBuffer src) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        if (finished) {
+            throw new IOException("write beyond end of stream");
+        }
+        int count = src.remaining();
+        if (count == 0) {
+            return 0;
+        }
+        crc.update(src.duplicate());
+        deflater.setInput(src);
+        while (!deflater.needsInput()) {
+            deflater.deflate(out);
+            if (!out.hasRemaining()) {
+                drain();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the remaining compressed data and the GZIP trailer to the sink,
+     * without closing it. Further writes are not allowed.
+     */
+    public synchronized void finish() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        finishImpl();
+    }
+
+    private void finishImpl() throws IOException {
+        if (finished) {
+            return;
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflater.deflate(out);
+            if (!out.hasRemaining()) {
+                drain();
+            }
+        }
+        if (out.remaining() < TRAILER_SIZE) {
+            drain();
+        }
+        out.putInt((int) crc.getValue());
+        out.putInt((int) deflater.getBytesRead());
+        drain();
+        finished = true;
+    }
+
+    @Override public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Finishes the GZIP data if necessary, and closes this channel and the
+     * sink channel.
+     */
+    @Override public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finishImpl();
+        } finally {
+            deflater.end();
+            sink.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            sink.write(out);
+        }
+        out.clear();
+    }
+}
@@ -138,6 +138,13 @@ public final class Memory {
         }
     }
 
+    /**
+     * Returns the address of free(3), for registering memory from
+     * {@code sun.misc.Unsafe.allocateMemory}, which is malloc(3)ed, with a
+     * {@link libcore.util.NativeAllocationRegistry}.
+     */
+    public static native long getFreeFunction();
+
     /**
      * Copies 'byteCount' bytes from the source to the destination. The objects are either
      * instances of DirectByteBuffer or byte[]. The offsets in the byte[] case must include
@@ -22,7 +22,11 @@ import libcore.io.Memory;
  * Iterates over big- or little-endian bytes on the native heap.
  * See {@link MemoryMappedFile#bigEndianIterator} and {@link MemoryMappedFile#littleEndianIterator}.
  *
- * @hide don't make this public without adding bounds checking.
+ * <p>Each read checks once that it lies within the buffer, and throws
+ * {@link IndexOutOfBoundsException} if it doesn't. Reading after the
+ * {@link MemoryMappedFile} has been closed is still an error that isn't detected.
+ *
+ * @hide
  */
 public final class NioBufferIterator extends BufferIterator {
     private final long address;
@@ -46,30 +50,46 @@ public final class NioBufferIterator extends BufferIterator {
     }
 
     public void readByteArray(byte[] dst, int dstOffset, int byteCount) {
+        checkReadableBytes(byteCount);
         Memory.peekByteArray(address + position, dst, dstOffset, byteCount);
         position += byteCount;
     }
 
     public byte readByte() {
+        checkReadableBytes(1);
         byte result = Memory.peekByte(address + position);
         ++position;
         return result;
     }
 
     public int readInt() {
+        checkReadableBytes(SizeOf.INT);
         int result = Memory.peekInt(address + position, swap);
         position += SizeOf.INT;
         return result;
     }
 
     public void readIntArray(int[] dst, int dstOffset, int intCount) {
+        checkReadableBytes((long) SizeOf.INT * intCount);
         Memory.peekIntArray(address + position, dst, dstOffset, intCount, swap);
         position += SizeOf.INT * intCount;
     }
 
     public short readShort() {
+        checkReadableBytes(SizeOf.SHORT);
         short result = Memory.peekShort(address + position, swap);
         position += SizeOf.SHORT;
         return result;
     }
+
+    /**
+     * Throws if the {@code byteCount} bytes at the current position are not all
+     * within the buffer.
+     */
+    private void checkReadableBytes(long byteCount) {
+        if (position < 0 || byteCount < 0 || byteCount > size - position) {
+            throw new IndexOutOfBoundsException("position=" + position + " byteCount="
+                    + byteCount + " size=" + size);
+        }
+    }
 }
@@ -25,12 +25,22 @@ import java.util.TimeZone;
 
 /**
  * Best-effort parser for HTTP dates.
+ *
+ * <p>The three forms allowed by RFC 7231 section 7.1.1.1 are parsed and
+ * formatted directly, without a {@link DateFormat}:
+ * <pre>
+ *   Sun, 06 Nov 1994 08:49:37 GMT  ; IMF-fixdate (RFC 1123)
+ *   Sunday, 06-Nov-94 08:49:37 GMT ; obsolete RFC 850 format
+ *   Sun Nov  6 08:49:37 1994       ; ANSI C's asctime() format
+ * </pre>
+ * Anything else, including these forms with other time zones or out of
+ * range fields, is parsed with {@link SimpleDateFormat}.
  */
 public final class HttpDate {
 
     /**
-     * Most websites serve cookies in the blessed format. Eagerly create the parser to ensure such
-     * cookies are on the fast path.
+     * Parses dates in the blessed format that aren't on the fast path, such as
+     * those with other time zones.
      */
     private static final ThreadLocal<DateFormat> STANDARD_DATE_FORMAT
             = new ThreadLocal<DateFormat>() {
@@ -64,11 +74,46 @@ public final class HttpDate {
             "EEE MMM d yyyy HH:mm:ss z",
     };
 
+    private static final String[] DAYS = {
+            "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"
+    };
+
+    private static final String[] LONG_DAYS = {
+            "Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"
+    };
+
+    private static final String[] MONTHS = {
+            "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    /** Returned by the parsing methods for values they can't parse. */
+    private static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * The first full year of the Gregorian calendar. Earlier dates are left
+     * to {@link SimpleDateFormat}, which uses the Julian calendar for them, as
+     * are years with more than four digits.
+     */
+    private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    /**
+     * The most recently formatted second. Servers and caches mostly format
+     * the current time, which changes once a second.
+     */
+    private static volatile FormattedSecond lastFormatted = new FormattedSecond(0, null);
+
     /**
      * Returns the date for {@code value}. Returns null if the value couldn't be
      * parsed.
      */
     public static Date parse(String value) {
+        long millis = parseHttpDate(value);
+        if (millis != INVALID) {
+            return new Date(millis);
+        }
         try {
             return STANDARD_DATE_FORMAT.get().parse(value);
         } catch (ParseException ignore) {
@@ -83,9 +128,266 @@ public final class HttpDate {
     }
 
     /**
-     * Returns the string for {@code value}.
+     * Returns the string for {@code value}, as an IMF-fixdate such as
+     * {@code Sun, 06 Nov 1994 08:49:37 GMT}.
      */
     public static String format(Date value) {
-        return STANDARD_DATE_FORMAT.get().format(value);
+        long millis = value.getTime();
+        long second = Math.floorDiv(millis, MILLIS_PER_SECOND);
+        FormattedSecond last = lastFormatted;
+        if (last.second == second && last.formatted != null) {
+            return last.formatted;
+        }
+
+        long day = Math.floorDiv(second, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(second, SECONDS_PER_DAY);
+        int civil = civilFromDays(day);
+        int year = civil >> 9;
+        if (year < FIRST_GREGORIAN_YEAR || year > 9999) {
+            DateFormat rfc1123 = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            rfc1123.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return rfc1123.format(value);
+        }
+        int month = (civil >> 5) & 0xf;
+        int dayOfMonth = civil & 0x1f;
+
+        char[] chars = new char[29];
+        String dayName = DAYS[(int) Math.floorMod(day + 4, 7)]; // 1970-01-01 was a Thursday.
+        chars[0] = dayName.charAt(0);
+        chars[1] = dayName.charAt(1);
+        chars[2] = dayName.charAt(2);
+        chars[3] = ',';
+        chars[4] = ' ';
+        putTwoDigits(chars, 5, dayOfMonth);
+        chars[7] = ' ';
+        String monthName = MONTHS[month - 1];
+        chars[8] = monthName.charAt(0);
+        chars[9] = monthName.charAt(1);
+        chars[10] = monthName.charAt(2);
+        chars[11] = ' ';
+        putTwoDigits(chars, 12, year / 100);
+        putTwoDigits(chars, 14, year % 100);
+        chars[16] = ' ';
+        putTwoDigits(chars, 17, secondOfDay / 3600);
+        chars[19] = ':';
+        putTwoDigits(chars, 20, (secondOfDay / 60) % 60);
+        chars[22] = ':';
+        putTwoDigits(chars, 23, secondOfDay % 60);
+        chars[25] = ' ';
+        chars[26] = 'G';
+        chars[27] = 'M';
+        chars[28] = 'T';
+
+        String result = new String(chars);
+        lastFormatted = new FormattedSecond(second, result);
+        return result;
+    }
+
+    /**
+     * Returns the milliseconds since the epoch for {@code value} in one of the
+     * three forms of HTTP date, or {@link #INVALID} if it isn't in one of them.
+     */
+    private static long parseHttpDate(String value) {
+        int length = value.length();
+        if (length == 29 && value.charAt(3) == ',') {
+            return parseImfFixdate(value);
+        } else if (length == 24 && value.charAt(3) == ' ') {
+            return parseAsctime(value);
+        } else if (length >= 30 && length <= 33) {
+            return parseRfc850(value);
+        }
+        return INVALID;
+    }
+
+    /** Parses {@code Sun, 06 Nov 1994 08:49:37 GMT}. */
+    private static long parseImfFixdate(String value) {
+        if (indexOf(DAYS, value, 0, 3) == -1
+                || value.charAt(4) != ' '
+                || value.charAt(7) != ' '
+                || value.charAt(11) != ' '
+                || value.charAt(16) != ' ') {
+            return INVALID;
+        }
+        int day = parseDigits(value, 5, 2);
+        int month = indexOf(MONTHS, value, 8, 3) + 1;
+        int year = parseDigits(value, 12, 4);
+        int secondOfDay = parseTime(value, 17);
+        if (!isGmt(value, 25)) {
+            return INVALID;
+        }
+        return toMillis(year, month, day, secondOfDay);
+    }
+
+    /** Parses {@code Sunday, 06-Nov-94 08:49:37 GMT}. */
+    private static long parseRfc850(String value) {
+        int comma = value.length() - 24;
+        if (value.charAt(comma) != ','
+                || indexOf(LONG_DAYS, value, 0, comma) == -1
+                || value.charAt(comma + 1) != ' '
+                || value.charAt(comma + 4) != '-'
+                || value.charAt(comma + 8) != '-'
+                || value.charAt(comma + 11) != ' ') {
+            return INVALID;
+        }
+        int day = parseDigits(value, comma + 2, 2);
+        int month = indexOf(MONTHS, value, comma + 5, 3) + 1;
+        int twoDigitYear = parseDigits(value, comma + 9, 2);
+        int secondOfDay = parseTime(value, comma + 12);
+        if (twoDigitYear < 0 || !isGmt(value, comma + 20)) {
+            return INVALID;
+        }
+
+        // Like SimpleDateFormat, put the date within 80 years before and 20
+        // years after the current time.
+        long now = System.currentTimeMillis();
+        long today = Math.floorDiv(now, MILLIS_PER_SECOND * SECONDS_PER_DAY);
+        int civil = civilFromDays(today);
+        int startYear = (civil >> 9) - 80;
+        int startMonth = (civil >> 5) & 0xf;
+        int startDay = Math.min(civil & 0x1f, daysInMonth(startYear, startMonth));
+        long start = daysFromCivil(startYear, startMonth, startDay) * SECONDS_PER_DAY
+                * MILLIS_PER_SECOND + Math.floorMod(now, MILLIS_PER_SECOND * SECONDS_PER_DAY);
+
+        int year = (startYear / 100) * 100 + twoDigitYear;
+        long millis = toMillis(year, month, day, secondOfDay);
+        if (millis != INVALID && millis < start) {
+            millis = toMillis(year + 100, month, day, secondOfDay);
+        }
+        return millis;
+    }
+
+    /** Parses {@code Sun Nov  6 08:49:37 1994}. */
+    private static long parseAsctime(String value) {
+        if (indexOf(DAYS, value, 0, 3) == -1
+                || value.charAt(7) != ' '
+                || value.charAt(10) != ' '
+                || value.charAt(19) != ' ') {
+            return INVALID;
+        }
+        int month = indexOf(MONTHS, value, 4, 3) + 1;
+        int day = (value.charAt(8) == ' ') ? parseDigits(value, 9, 1) : parseDigits(value, 8, 2);
+        int secondOfDay = parseTime(value, 11);
+        int year = parseDigits(value, 20, 4);
+        return toMillis(year, month, day, secondOfDay);
+    }
+
+    /**
+     * Parses {@code HH:mm:ss} at {@code offset}, returning the second of the
+     * day or -1.
+     */
+    private static int parseTime(String value, int offset) {
+        if (value.charAt(offset + 2) != ':' || value.charAt(offset + 5) != ':') {
+            return -1;
+        }
+        int hour = parseDigits(value, offset, 2);
+        int minute = parseDigits(value, offset + 3, 2);
+        int second = parseDigits(value, offset + 6, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return -1;
+        }
+        return (hour * 60 + minute) * 60 + second;
+    }
+
+    private static boolean isGmt(String value, int offset) {
+        return value.charAt(offset) == ' ' && (value.regionMatches(offset + 1, "GMT", 0, 3)
+                || value.regionMatches(offset + 1, "UTC", 0, 3));
+    }
+
+    /**
+     * Returns the milliseconds since the epoch for the given UTC date and time,
+     * or {@link #INVALID} if a field is missing or out of range. Out of range
+     * values are left to the lenient {@link SimpleDateFormat}.
+     */
+    private static long toMillis(int year, int month, int day, int secondOfDay) {
+        if (year < FIRST_GREGORIAN_YEAR || month < 1 || secondOfDay < 0
+                || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID;
+        }
+        return (daysFromCivil(year, month, day) * SECONDS_PER_DAY + secondOfDay)
+                * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Returns the value of the {@code count} decimal digits at {@code offset},
+     * or -1 if any of them is not a digit.
+     */
+    private static int parseDigits(String value, int offset, int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the name in {@code names} that is the whole of the
+     * {@code length} chars at {@code offset}, or -1.
+     */
+    private static int indexOf(String[] names, String value, int offset, int length) {
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.length() == length && value.regionMatches(offset, name, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void putTwoDigits(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 of the given date in the
+     * proleptic Gregorian calendar. This is Howard Hinnant's days_from_civil.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= (month <= 2) ? 1 : 0;
+        int era = Math.floorDiv(year, 400);
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the date of the day {@code days} after 1970-01-01 in the
+     * proleptic Gregorian calendar, packed as {@code year << 9 | month << 5 |
+     * day}. This is Howard Hinnant's civil_from_days.
+     */
+    private static int civilFromDays(long days) {
+        days += 719468;
+        long era = Math.floorDiv(days, 146097);
+        int dayOfEra = (int) (days - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp + ((mp < 10) ? 3 : -9);
+        int year = (int) (yearOfEra + era * 400) + ((month <= 2) ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    private static final class FormattedSecond {
+        final long second;
+        final String formatted;
+
+        FormattedSecond(long second, String formatted) {
+            this.second = second;
+            this.formatted = formatted;
+        }
     }
 }
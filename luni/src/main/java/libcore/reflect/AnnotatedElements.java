@@ -43,7 +43,7 @@ public final class AnnotatedElements {
       throw new NullPointerException("annotationClass");
     }
 
-    Annotation[] annotations = element.getDeclaredAnnotations();
+    Annotation[] annotations = AnnotationCache.getDeclaredAnnotations(element);
 
     // Safeguard: getDeclaredAnnotations should never return null.
     if (annotations == null) {
@@ -75,7 +75,7 @@ public final class AnnotatedElements {
       throw new NullPointerException("annotationClass");
     }
 
-    Annotation[] annotations = element.getDeclaredAnnotations();
+    Annotation[] annotations = AnnotationCache.getDeclaredAnnotations(element);
 
     // Store a list of repeatable annotations that have been extracted from their container.
     ArrayList<T> unfoldedAnnotations = new ArrayList<T>();
@@ -178,7 +178,8 @@ public final class AnnotatedElements {
   private static <T extends Annotation> Class<? extends Annotation>
       getRepeatableAnnotationContainerClassFor(Class<T> annotationClass) {
 
-    Repeatable repeatableAnnotation = annotationClass.getDeclaredAnnotation(Repeatable.class);
+    Repeatable repeatableAnnotation =
+        AnnotationCache.getDeclaredAnnotation(annotationClass, Repeatable.class);
     return (repeatableAnnotation == null) ? null : repeatableAnnotation.value();
   }
 
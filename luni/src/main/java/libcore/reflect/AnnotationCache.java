@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.reflect;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.AbstractMethod;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the runtime visible annotations of classes and their members, so that
+ * repeated queries don't go to the runtime and create new annotation instances
+ * each time. Annotations are immutable, so the cached instances are shared
+ * between callers. The arrays returned by this class are shared too; they must
+ * not be modified, and must be copied before they are returned to application
+ * code.
+ *
+ * <p>Annotations are cached per class. Annotation instances usually refer to
+ * their class's class loader, through their proxy class and annotation type,
+ * so the entry of a class is held softly to let the class be unloaded. Fields,
+ * methods and constructors are identified by their dex index within their
+ * declaring class. The members of proxy classes are not cached, because their
+ * dex indices refer to the dex files of the proxied interfaces.
+ *
+ * <p>The public {@code getDeclaredAnnotations()} methods of classes and members
+ * are implemented by the runtime and don't use this cache.
+ *
+ * @hide
+ */
+public final class AnnotationCache {
+
+    private static final WeakClassMap<SoftReference<ClassAnnotations>> classes =
+            new WeakClassMap<SoftReference<ClassAnnotations>>();
+
+    /**
+     * Returns the annotations directly present on {@code element}. The returned
+     * array must not be modified.
+     */
+    public static Annotation[] getDeclaredAnnotations(AnnotatedElement element) {
+        if (element instanceof Class) {
+            Class<?> c = (Class<?>) element;
+            ClassAnnotations cached = get(c);
+            Annotation[] annotations = cached.declared;
+            if (annotations == null) {
+                annotations = c.getDeclaredAnnotations();
+                cached.declared = annotations;
+            }
+            return annotations;
+        } else if (element instanceof Field) {
+            Field field = (Field) element;
+            Class<?> declaringClass = field.getDeclaringClass();
+            if (declaringClass.isProxy()) {
+                return field.getDeclaredAnnotations();
+            }
+            ConcurrentHashMap<Integer, Annotation[]> fields = get(declaringClass).fields;
+            Integer key = field.getDexFieldIndex();
+            Annotation[] annotations = fields.get(key);
+            if (annotations == null) {
+                annotations = field.getDeclaredAnnotations();
+                fields.put(key, annotations);
+            }
+            return annotations;
+        } else if (element instanceof AbstractMethod) {
+            AbstractMethod method = (AbstractMethod) element;
+            Class<?> declaringClass = getDeclaringClass(method);
+            if (declaringClass.isProxy()) {
+                return method.getDeclaredAnnotations();
+            }
+            ConcurrentHashMap<Integer, Annotation[]> methods = get(declaringClass).methods;
+            Integer key = method.getDexMethodIndex();
+            Annotation[] annotations = methods.get(key);
+            if (annotations == null) {
+                annotations = method.getDeclaredAnnotations();
+                methods.put(key, annotations);
+            }
+            return annotations;
+        }
+        return element.getDeclaredAnnotations();
+    }
+
+    /**
+     * Returns the annotation of type {@code annotationClass} that is directly
+     * present on {@code element}, or null if there is none.
+     */
+    public static <A extends Annotation> A getDeclaredAnnotation(AnnotatedElement element,
+            Class<A> annotationClass) {
+        for (Annotation annotation : getDeclaredAnnotations(element)) {
+            if (annotationClass.isInstance(annotation)) {
+                return annotationClass.cast(annotation);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the annotations present on {@code c}, which are the annotations
+     * declared on {@code c} and the {@link Inherited inherited} annotations of
+     * its superclasses. The returned array must not be modified.
+     */
+    public static Annotation[] getAnnotations(Class<?> c) {
+        ClassAnnotations cached = get(c);
+        Annotation[] annotations = cached.all;
+        if (annotations != null) {
+            return annotations;
+        }
+
+        // It's possible to have duplicates when annotations are inherited. We
+        // use a map to filter those out.
+        HashMap<Class<?>, Annotation> map = new HashMap<Class<?>, Annotation>();
+        for (Annotation declaredAnnotation : getDeclaredAnnotations(c)) {
+            map.put(declaredAnnotation.annotationType(), declaredAnnotation);
+        }
+        for (Class<?> sup = c.getSuperclass(); sup != null; sup = sup.getSuperclass()) {
+            for (Annotation declaredAnnotation : getDeclaredAnnotations(sup)) {
+                Class<? extends Annotation> clazz = declaredAnnotation.annotationType();
+                if (!map.containsKey(clazz) && isInherited(clazz)) {
+                    map.put(clazz, declaredAnnotation);
+                }
+            }
+        }
+        Collection<Annotation> coll = map.values();
+        annotations = coll.toArray(new Annotation[coll.size()]);
+        cached.all = annotations;
+        return annotations;
+    }
+
+    /**
+     * Returns true if the annotation type {@code annotationClass} is annotated
+     * with {@link Inherited}.
+     */
+    public static boolean isInherited(Class<? extends Annotation> annotationClass) {
+        return getDeclaredAnnotation(annotationClass, Inherited.class) != null;
+    }
+
+    /**
+     * Returns the cached parameter annotations of {@code method}, or null if
+     * they haven't been cached yet. The returned arrays must not be modified.
+     */
+    public static Annotation[][] getParameterAnnotations(AbstractMethod method) {
+        Class<?> declaringClass = getDeclaringClass(method);
+        if (declaringClass.isProxy()) {
+            return null;
+        }
+        return get(declaringClass).parameters.get(method.getDexMethodIndex());
+    }
+
+    /**
+     * Caches the parameter annotations of {@code method}, and returns the
+     * cached arrays. These may be the arrays that another thread cached first.
+     * The returned arrays must not be modified.
+     */
+    public static Annotation[][] putParameterAnnotations(AbstractMethod method,
+            Annotation[][] parameterAnnotations) {
+        Class<?> declaringClass = getDeclaringClass(method);
+        if (declaringClass.isProxy()) {
+            return parameterAnnotations;
+        }
+        Annotation[][] cached = get(declaringClass).parameters.putIfAbsent(
+                method.getDexMethodIndex(), parameterAnnotations);
+        return (cached != null) ? cached : parameterAnnotations;
+    }
+
+    /**
+     * Returns a copy of {@code parameterAnnotations} that the caller is free to
+     * modify.
+     */
+    public static Annotation[][] copyOf(Annotation[][] parameterAnnotations) {
+        Annotation[][] result = new Annotation[parameterAnnotations.length][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = parameterAnnotations[i].clone();
+        }
+        return result;
+    }
+
+    private static Class<?> getDeclaringClass(AbstractMethod method) {
+        return ((Member) method).getDeclaringClass();
+    }
+
+    /**
+     * Returns the cached annotations of {@code c}, creating the entry if it
+     * doesn't exist or has been cleared.
+     */
+    private static ClassAnnotations get(Class<?> c) {
+        SoftReference<ClassAnnotations> ref = classes.get(c);
+        ClassAnnotations cached = (ref != null) ? ref.get() : null;
+        if (cached == null) {
+            cached = new ClassAnnotations();
+            classes.put(c, new SoftReference<ClassAnnotations>(cached));
+        }
+        return cached;
+    }
+
+    /**
+     * The cached annotations of a class and of its members. Arrays are
+     * published through volatile fields and concurrent maps; racing threads
+     * may both fetch the annotations from the runtime, or both create an
+     * entry, which is harmless.
+     */
+    private static final class ClassAnnotations {
+        volatile Annotation[] declared;
+        volatile Annotation[] all;
+        final ConcurrentHashMap<Integer, Annotation[]> fields =
+                new ConcurrentHashMap<Integer, Annotation[]>();
+        final ConcurrentHashMap<Integer, Annotation[]> methods =
+                new ConcurrentHashMap<Integer, Annotation[]>();
+        final ConcurrentHashMap<Integer, Annotation[][]> parameters =
+                new ConcurrentHashMap<Integer, Annotation[][]>();
+    }
+
+    private AnnotationCache() {
+    }
+}
@@ -27,8 +27,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The annotation implementation based on dynamically generated proxy instances.
@@ -48,19 +47,23 @@ import java.util.WeakHashMap;
 @SuppressWarnings({"serial"})
 public final class AnnotationFactory implements InvocationHandler, Serializable {
 
-    private static final transient Map<Class<? extends Annotation>, AnnotationMember[]> cache =
-            new WeakHashMap<Class<? extends Annotation>, AnnotationMember[]>();
+    /**
+     * Member element definitions by annotation type. The definitions refer to
+     * their annotation type through their defining methods, so weak keys would
+     * never be cleared; the map holds its keys strongly instead, and lookups
+     * don't take a lock.
+     */
+    private static final transient ConcurrentHashMap<Class<? extends Annotation>, AnnotationMember[]>
+            cache = new ConcurrentHashMap<Class<? extends Annotation>, AnnotationMember[]>();
 
     /**
      * Reflects specified annotation type and returns an array
      * of member element definitions with default values.
      */
     public static AnnotationMember[] getElementsDescription(Class<? extends Annotation> annotationType) {
-        synchronized (cache) {
-            AnnotationMember[] desc = cache.get(annotationType);
-            if (desc != null) {
-                return desc;
-            }
+        AnnotationMember[] cached = cache.get(annotationType);
+        if (cached != null) {
+            return cached;
         }
         if (!annotationType.isAnnotation()) {
             throw new IllegalArgumentException("Type is not annotation: " + annotationType.getName());
@@ -77,10 +80,8 @@ public final class AnnotationFactory implements InvocationHandler, Serializable
                 desc[i] = new AnnotationMember(name, t, type, element);
             }
         }
-        synchronized (cache) {
-            cache.put(annotationType, desc);
-        }
-        return desc;
+        cached = cache.putIfAbsent(annotationType, desc);
+        return (cached != null) ? cached : desc;
     }
 
     /**
@@ -99,6 +100,9 @@ public final class AnnotationFactory implements InvocationHandler, Serializable
     private final Class<? extends Annotation> klazz;
     private AnnotationMember[] elements;
 
+    /** The hash code of this annotation, or 0 if it hasn't been computed yet. */
+    private transient int hashCode;
+
     /**
      * New instances should not be created directly, use factory method
      * {@link #createAnnotation(Class, AnnotationMember[]) createAnnotation()}
@@ -238,9 +242,13 @@ public final class AnnotationFactory implements InvocationHandler, Serializable
      * @see AnnotationMember#hashCode()
      */
     public int hashCode() {
-        int hash = 0;
-        for (AnnotationMember element : elements) {
-            hash += element.hashCode();
+        // Annotations are immutable, so the hash code only needs computing once.
+        int hash = hashCode;
+        if (hash == 0) {
+            for (AnnotationMember element : elements) {
+                hash += element.hashCode();
+            }
+            hashCode = hash;
         }
         return hash;
     }
@@ -275,8 +283,24 @@ public final class AnnotationFactory implements InvocationHandler, Serializable
      */
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         String name = method.getName();
-        Class[] params = method.getParameterTypes();
-        if (params.length == 0) {
+        if (method.getDeclaringClass() == klazz) {
+            // this must be element value request. The members of an annotation
+            // type can't be overloaded, so the name identifies the member.
+            for (AnnotationMember element : elements) {
+                if (name.equals(element.name)) {
+                    Object value = element.validateValue();
+                    if (value == null) {
+                        throw new IncompleteAnnotationException(klazz, name);
+                    }
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException(method.toString());
+        }
+
+        // Otherwise this is one of the methods declared by Annotation or Object,
+        // none of which an annotation type can override.
+        if (args == null || args.length == 0) {
             if ("annotationType".equals(name)) {
                 return klazz;
             } else if ("toString".equals(name)) {
@@ -284,25 +308,8 @@ public final class AnnotationFactory implements InvocationHandler, Serializable
             } else if ("hashCode".equals(name)) {
                 return hashCode();
             }
-
-            // this must be element value request
-            AnnotationMember element = null;
-            for (AnnotationMember el : elements) {
-                if (name.equals(el.name)) {
-                    element = el;
-                    break;
-                }
-            }
-            if (element == null || !method.equals(element.definingMethod)) {
-                throw new IllegalArgumentException(method.toString());
-            } else {
-                Object value = element.validateValue();
-                if (value == null) {
-                    throw new IncompleteAnnotationException(klazz, name);
-                }
-                return value;
-            }
-        } else if (params.length == 1 && params[0] == Object.class && "equals".equals(name)) {
+        } else if (args.length == 1 && "equals".equals(name)
+                && method.getParameterTypes()[0] == Object.class) {
             return Boolean.valueOf(equals(args[0]));
         }
         throw new IllegalArgumentException("Invalid method for annotation type: " + method);
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.reflect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent map from classes to values, which refers to its classes weakly
+ * so that they can be unloaded. Lookups don't take a lock. Values must not
+ * refer strongly to their own class, or the class will never be unloaded;
+ * wrap them in a {@link java.lang.ref.SoftReference} if they have to.
+ *
+ * @hide
+ */
+public final class WeakClassMap<V> {
+
+    private final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<Object, V>();
+
+    private final ReferenceQueue<Class<?>> staleKeys = new ReferenceQueue<Class<?>>();
+
+    /**
+     * Returns the value for {@code c}, or null if there is none.
+     */
+    public V get(Class<?> c) {
+        return map.get(new LookupKey(c));
+    }
+
+    /**
+     * Sets the value for {@code c}.
+     */
+    public void put(Class<?> c, V value) {
+        expungeStaleEntries();
+        map.put(new ClassKey(c, staleKeys), value);
+    }
+
+    /**
+     * Sets the value for {@code c} unless it already has one, and returns the
+     * value it already had, or null.
+     */
+    public V putIfAbsent(Class<?> c, V value) {
+        expungeStaleEntries();
+        return map.putIfAbsent(new ClassKey(c, staleKeys), value);
+    }
+
+    /**
+     * Removes the value for {@code c}.
+     */
+    public void remove(Class<?> c) {
+        map.remove(new LookupKey(c));
+    }
+
+    /**
+     * Removes the value for {@code c} if it is {@code value}, and returns
+     * whether it was removed.
+     */
+    public boolean remove(Class<?> c, V value) {
+        return map.remove(new LookupKey(c), value);
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends Class<?>> ref;
+        while ((ref = staleKeys.poll()) != null) {
+            map.remove(ref);
+        }
+    }
+
+    /**
+     * A key that refers weakly to its class, and compares by class identity.
+     */
+    private static final class ClassKey extends WeakReference<Class<?>> {
+        private final int hashCode;
+
+        ClassKey(Class<?> c, ReferenceQueue<Class<?>> queue) {
+            super(c, queue);
+            this.hashCode = System.identityHashCode(c);
+        }
+
+        @Override public int hashCode() {
+            return hashCode;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            Class<?> c = get();
+            if (c == null) {
+                return false;
+            } else if (o instanceof ClassKey) {
+                return ((ClassKey) o).get() == c;
+            } else if (o instanceof LookupKey) {
+                return ((LookupKey) o).c == c;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A short-lived key for lookups and removals, which saves creating a weak
+     * reference.
+     */
+    private static final class LookupKey {
+        private final Class<?> c;
+
+        LookupKey(Class<?> c) {
+            this.c = c;
+        }
+
+        @Override public int hashCode() {
+            return System.identityHashCode(c);
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof ClassKey && ((ClassKey) o).get() == c;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import libcore.io.Memory;
+import libcore.util.NativeAllocationRegistry;
+import sun.misc.Unsafe;
+
+/**
+ * A zero-filled block of native memory from {@link Unsafe#allocateMemory}. The
+ * block is freed by {@link #free}, or by the runtime once its owner becomes
+ * unreachable, whichever comes first.
+ */
+final class NativeMemory {
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+    private static final long FREE_FUNCTION = Memory.getFreeFunction();
+
+    final long address;
+    final long byteCount;
+
+    private final Runnable freer;
+
+    /**
+     * Allocates {@code byteCount} bytes for {@code owner}.
+     *
+     * @throws OutOfMemoryError if the memory can't be allocated.
+     */
+    NativeMemory(Object owner, final long byteCount) {
+        // The registry accounts for the allocation when the runtime decides to
+        // collect, so it needs the real size of each block.
+        NativeAllocationRegistry registry = new NativeAllocationRegistry(
+                NativeMemory.class.getClassLoader(), FREE_FUNCTION, byteCount);
+        final long[] allocated = new long[1];
+        this.freer = registry.registerNativeAllocation(owner, new NativeAllocationRegistry.Allocator() {
+            @Override public long allocate() {
+                allocated[0] = UNSAFE.allocateMemory(byteCount);
+                return allocated[0];
+            }
+        });
+        if (freer == null) {
+            throw new OutOfMemoryError("Failed to allocate " + byteCount + " native bytes");
+        }
+        this.address = allocated[0];
+        this.byteCount = byteCount;
+        clear();
+    }
+
+    /**
+     * Copies {@code byteCount} bytes from {@code src} into this block.
+     */
+    void copyFrom(NativeMemory src, long byteCount) {
+        UNSAFE.copyMemory(src.address, address, byteCount);
+    }
+
+    /**
+     * Fills this block with zeros.
+     */
+    void clear() {
+        UNSAFE.setMemory(address, byteCount, (byte) 0);
+    }
+
+    /**
+     * Frees this block. Its address must not be used afterwards.
+     */
+    void free() {
+        freer.run();
+    }
+}
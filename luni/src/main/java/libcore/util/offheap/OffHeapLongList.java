@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import java.util.ConcurrentModificationException;
+import java.util.function.LongConsumer;
+import libcore.io.Memory;
+
+/**
+ * A growable list of {@code long} values kept in native memory, outside the
+ * Java heap.
+ *
+ * <p>The native memory is freed by {@link #close}, or when the list becomes
+ * unreachable if it was never closed. A closed list throws
+ * {@link IllegalStateException} on use. This class is not thread safe.
+ */
+public final class OffHeapLongList implements AutoCloseable {
+    private static final int ELEMENT_SIZE = 8;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private NativeMemory memory;
+    private long address;
+    private int capacity;
+    private int size;
+
+    private int modCount;
+
+    public OffHeapLongList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a list that can hold {@code initialCapacity} elements without
+     * growing.
+     *
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative.
+     */
+    public OffHeapLongList(int initialCapacity) {
+        if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("initialCapacity out of range: " + initialCapacity);
+        }
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the element at {@code index}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index < 0 || index >= size()}.
+     */
+    public long get(int index) {
+        checkIndex(index);
+        return Memory.peekLong(address + ((long) index * ELEMENT_SIZE), false);
+    }
+
+    /**
+     * Replaces the element at {@code index} with {@code value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index < 0 || index >= size()}.
+     */
+    public void set(int index, long value) {
+        checkIndex(index);
+        Memory.pokeLong(address + ((long) index * ELEMENT_SIZE), value, false);
+    }
+
+    /**
+     * Appends {@code value} to this list.
+     */
+    public void add(long value) {
+        checkOpen();
+        if (size == capacity) {
+            grow(size + 1);
+        }
+        Memory.pokeLong(address + ((long) size * ELEMENT_SIZE), value, false);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Appends {@code count} values from {@code values}, starting at {@code offset}.
+     */
+    public void addAll(long[] values, int offset, int count) {
+        checkOpen();
+        if ((offset | count) < 0 || offset > values.length - count) {
+            throw new ArrayIndexOutOfBoundsException("length=" + values.length
+                    + "; regionStart=" + offset + "; regionLength=" + count);
+        }
+        if (count > capacity - size) {
+            grow((long) size + count);
+        }
+        Memory.pokeLongArray(address + ((long) size * ELEMENT_SIZE), values, offset, count, false);
+        size += count;
+        modCount++;
+    }
+
+    /**
+     * Removes and returns the last element.
+     *
+     * @throws IndexOutOfBoundsException if this list is empty.
+     */
+    public long removeLast() {
+        long result = get(size - 1);
+        size--;
+        modCount++;
+        return result;
+    }
+
+    /**
+     * Removes all elements, keeping the list's capacity.
+     */
+    public void clear() {
+        checkOpen();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Calls {@code action} with each element of this list, in order.
+     *
+     * @throws ConcurrentModificationException if {@code action} adds or
+     *     removes elements.
+     */
+    public void forEach(LongConsumer action) {
+        checkOpen();
+        int expectedModCount = modCount;
+        for (int i = 0; i < size; i++) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            action.accept(Memory.peekLong(address + ((long) i * ELEMENT_SIZE), false));
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a new array containing the elements of this list, in order.
+     */
+    public long[] toArray() {
+        checkOpen();
+        long[] result = new long[size];
+        Memory.peekLongArray(address, result, 0, size, false);
+        return result;
+    }
+
+    /**
+     * Frees this list's native memory. Closing a closed list has no effect.
+     */
+    @Override public void close() {
+        if (memory != null) {
+            memory.free();
+            memory = null;
+            address = 0;
+            capacity = 0;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override public String toString() {
+        return "OffHeapLongList[size=" + size + ", capacity=" + capacity + "]";
+    }
+
+    private void checkOpen() {
+        if (memory == null) {
+            throw new IllegalStateException("closed");
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            checkOpen();
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        NativeMemory oldMemory = memory;
+        NativeMemory newMemory = new NativeMemory(this, (long) newCapacity * ELEMENT_SIZE);
+        if (oldMemory != null) {
+            newMemory.copyFrom(oldMemory, (long) size * ELEMENT_SIZE);
+            oldMemory.free();
+        }
+        memory = newMemory;
+        address = newMemory.address;
+        capacity = newCapacity;
+    }
+
+    private void grow(long minCapacity) {
+        if (minCapacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("OffHeapLongList can't hold " + minCapacity + " elements");
+        }
+        long newCapacity = Math.max(minCapacity, capacity + (capacity >> 1));
+        allocate((int) Math.min(newCapacity, MAX_CAPACITY));
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import java.util.ConcurrentModificationException;
+import libcore.io.Memory;
+
+/**
+ * A map from {@code long} keys to {@code long} values whose entries are kept
+ * in native memory, outside the Java heap. Compared with a
+ * {@code HashMap<Long, Long>}, which needs a node and two boxes per entry,
+ * each entry takes 16 bytes plus the table's free space, and the garbage
+ * collector never has to trace the entries.
+ *
+ * <p>The table uses open addressing with linear probing, and is kept at most
+ * three quarters full. Key 0 marks a free slot, so its entry is kept in a
+ * field instead.
+ *
+ * <p>The native memory is freed by {@link #close}, or when the map becomes
+ * unreachable if it was never closed. A closed map throws
+ * {@link IllegalStateException} on use. This class is not thread safe.
+ */
+public final class OffHeapLongLongMap implements AutoCloseable {
+    /**
+     * Receives the entries of a map from {@link #forEach}.
+     */
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private static final int ENTRY_SIZE = 16;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private NativeMemory memory;
+    private long address;
+    private int mask;
+    private int shift;
+    private int threshold;
+
+    /** The number of entries in the table, excluding the entry for key 0. */
+    private int tableSize;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    private int modCount;
+
+    public OffHeapLongLongMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map that can hold {@code expectedSize} entries without growing.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative.
+     */
+    public OffHeapLongLongMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocateTable(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public int size() {
+        return tableSize + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the value for {@code key}, or 0 if there is none.
+     */
+    public long get(long key) {
+        return get(key, 0);
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@code valueIfKeyNotFound} if
+     * there is none.
+     */
+    public long get(long key, long valueIfKeyNotFound) {
+        checkOpen();
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : valueIfKeyNotFound;
+        }
+        for (int i = indexFor(key); ; i = (i + 1) & mask) {
+            long entry = address + ((long) i * ENTRY_SIZE);
+            long k = Memory.peekLong(entry, false);
+            if (k == key) {
+                return Memory.peekLong(entry + 8, false);
+            }
+            if (k == 0) {
+                return valueIfKeyNotFound;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        checkOpen();
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        return findEntry(key) != 0;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any existing value.
+     */
+    public void put(long key, long value) {
+        checkOpen();
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                modCount++;
+            }
+            zeroValue = value;
+            return;
+        }
+        for (int i = indexFor(key); ; i = (i + 1) & mask) {
+            long entry = address + ((long) i * ENTRY_SIZE);
+            long k = Memory.peekLong(entry, false);
+            if (k == key) {
+                Memory.pokeLong(entry + 8, value, false);
+                return;
+            }
+            if (k == 0) {
+                if (tableSize >= threshold) {
+                    grow();
+                    put(key, value);
+                    return;
+                }
+                Memory.pokeLong(entry, key, false);
+                Memory.pokeLong(entry + 8, value, false);
+                tableSize++;
+                modCount++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key}, and returns whether there was one.
+     */
+    public boolean remove(long key) {
+        checkOpen();
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0;
+            modCount++;
+            return true;
+        }
+        long entry = findEntry(key);
+        if (entry == 0) {
+            return false;
+        }
+
+        // Shift later entries of the probe sequence back into the hole, so that
+        // no tombstones are needed.
+        int hole = (int) ((entry - address) / ENTRY_SIZE);
+        for (int i = (hole + 1) & mask; ; i = (i + 1) & mask) {
+            long next = address + ((long) i * ENTRY_SIZE);
+            long k = Memory.peekLong(next, false);
+            if (k == 0) {
+                break;
+            }
+            int home = indexFor(k);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                long holeEntry = address + ((long) hole * ENTRY_SIZE);
+                Memory.pokeLong(holeEntry, k, false);
+                Memory.pokeLong(holeEntry + 8, Memory.peekLong(next + 8, false), false);
+                hole = i;
+            }
+        }
+        long holeEntry = address + ((long) hole * ENTRY_SIZE);
+        Memory.pokeLong(holeEntry, 0, false);
+        Memory.pokeLong(holeEntry + 8, 0, false);
+        tableSize--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes all entries, keeping the table's capacity.
+     */
+    public void clear() {
+        checkOpen();
+        memory.clear();
+        tableSize = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+        modCount++;
+    }
+
+    /**
+     * Calls {@code action} with each entry of this map, in no particular order.
+     *
+     * @throws ConcurrentModificationException if {@code action} adds or
+     *     removes entries.
+     */
+    public void forEach(EntryConsumer action) {
+        checkOpen();
+        int expectedModCount = modCount;
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i <= mask; i++) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            long entry = address + ((long) i * ENTRY_SIZE);
+            long k = Memory.peekLong(entry, false);
+            if (k != 0) {
+                action.accept(k, Memory.peekLong(entry + 8, false));
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Frees this map's native memory. Closing a closed map has no effect.
+     */
+    @Override public void close() {
+        if (memory != null) {
+            memory.free();
+            memory = null;
+            address = 0;
+            tableSize = 0;
+            hasZeroKey = false;
+            modCount++;
+        }
+    }
+
+    @Override public String toString() {
+        return "OffHeapLongLongMap[size=" + size() + ", capacity=" + (mask + 1) + "]";
+    }
+
+    private void checkOpen() {
+        if (memory == null) {
+            throw new IllegalStateException("closed");
+        }
+    }
+
+    /**
+     * Returns the address of the entry for non-zero {@code key}, or 0.
+     */
+    private long findEntry(long key) {
+        for (int i = indexFor(key); ; i = (i + 1) & mask) {
+            long entry = address + ((long) i * ENTRY_SIZE);
+            long k = Memory.peekLong(entry, false);
+            if (k == key) {
+                return entry;
+            }
+            if (k == 0) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the home slot of {@code key}, using Fibonacci hashing so that
+     * sequential keys are spread over the table.
+     */
+    private int indexFor(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minCapacity = (expectedSize * 4L + 2) / 3 + 1;
+        if (minCapacity > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) minCapacity - 1) << 1);
+    }
+
+    private void allocateTable(int capacity) {
+        memory = new NativeMemory(this, (long) capacity * ENTRY_SIZE);
+        address = memory.address;
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        // Always leave a free slot, which ends every probe.
+        threshold = (capacity == MAX_CAPACITY) ? capacity - 1 : capacity / 4 * 3;
+    }
+
+    private void grow() {
+        int oldCapacity = mask + 1;
+        if (oldCapacity == MAX_CAPACITY) {
+            throw new IllegalStateException("OffHeapLongLongMap is full");
+        }
+        NativeMemory oldMemory = memory;
+        long oldAddress = address;
+        allocateTable(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            long oldEntry = oldAddress + ((long) i * ENTRY_SIZE);
+            long k = Memory.peekLong(oldEntry, false);
+            if (k == 0) {
+                continue;
+            }
+            int j = indexFor(k);
+            while (Memory.peekLong(address + ((long) j * ENTRY_SIZE), false) != 0) {
+                j = (j + 1) & mask;
+            }
+            long entry = address + ((long) j * ENTRY_SIZE);
+            Memory.pokeLong(entry, k, false);
+            Memory.pokeLong(entry + 8, Memory.peekLong(oldEntry + 8, false), false);
+        }
+        oldMemory.free();
+        modCount++;
+    }
+}
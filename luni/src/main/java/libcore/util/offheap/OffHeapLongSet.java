@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import java.util.ConcurrentModificationException;
+import java.util.function.LongConsumer;
+import libcore.io.Memory;
+
+/**
+ * A set of {@code long} values kept in native memory, outside the Java heap.
+ * Each element takes 8 bytes plus the table's free space, and the garbage
+ * collector never has to trace the elements.
+ *
+ * <p>The table uses open addressing with linear probing, and is kept at most
+ * three quarters full. Element 0 marks a free slot, so its presence is kept
+ * in a field instead.
+ *
+ * <p>The native memory is freed by {@link #close}, or when the set becomes
+ * unreachable if it was never closed. A closed set throws
+ * {@link IllegalStateException} on use. This class is not thread safe.
+ */
+public final class OffHeapLongSet implements AutoCloseable {
+    private static final int ELEMENT_SIZE = 8;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private NativeMemory memory;
+    private long address;
+    private int mask;
+    private int shift;
+    private int threshold;
+
+    /** The number of elements in the table, excluding 0. */
+    private int tableSize;
+
+    private boolean containsZero;
+
+    private int modCount;
+
+    public OffHeapLongSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a set that can hold {@code expectedSize} elements without growing.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative.
+     */
+    public OffHeapLongSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocateTable(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     */
+    public int size() {
+        return tableSize + (containsZero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long value) {
+        checkOpen();
+        if (value == 0) {
+            return containsZero;
+        }
+        return findSlot(value) != 0;
+    }
+
+    /**
+     * Adds {@code value}, and returns whether it wasn't already present.
+     */
+    public boolean add(long value) {
+        checkOpen();
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            modCount++;
+            return true;
+        }
+        for (int i = indexFor(value); ; i = (i + 1) & mask) {
+            long slot = address + ((long) i * ELEMENT_SIZE);
+            long v = Memory.peekLong(slot, false);
+            if (v == value) {
+                return false;
+            }
+            if (v == 0) {
+                if (tableSize >= threshold) {
+                    grow();
+                    return add(value);
+                }
+                Memory.pokeLong(slot, value, false);
+                tableSize++;
+                modCount++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code value}, and returns whether it was present.
+     */
+    public boolean remove(long value) {
+        checkOpen();
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            modCount++;
+            return true;
+        }
+        long slot = findSlot(value);
+        if (slot == 0) {
+            return false;
+        }
+
+        // Shift later elements of the probe sequence back into the hole, so that
+        // no tombstones are needed.
+        int hole = (int) ((slot - address) / ELEMENT_SIZE);
+        for (int i = (hole + 1) & mask; ; i = (i + 1) & mask) {
+            long v = Memory.peekLong(address + ((long) i * ELEMENT_SIZE), false);
+            if (v == 0) {
+                break;
+            }
+            int home = indexFor(v);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                Memory.pokeLong(address + ((long) hole * ELEMENT_SIZE), v, false);
+                hole = i;
+            }
+        }
+        Memory.pokeLong(address + ((long) hole * ELEMENT_SIZE), 0, false);
+        tableSize--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes all elements, keeping the table's capacity.
+     */
+    public void clear() {
+        checkOpen();
+        memory.clear();
+        tableSize = 0;
+        containsZero = false;
+        modCount++;
+    }
+
+    /**
+     * Calls {@code action} with each element of this set, in no particular order.
+     *
+     * @throws ConcurrentModificationException if {@code action} adds or
+     *     removes elements.
+     */
+    public void forEach(LongConsumer action) {
+        checkOpen();
+        int expectedModCount = modCount;
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int i = 0; i <= mask; i++) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            long v = Memory.peekLong(address + ((long) i * ELEMENT_SIZE), false);
+            if (v != 0) {
+                action.accept(v);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a new array containing the elements of this set, in no
+     * particular order.
+     */
+    public long[] toArray() {
+        checkOpen();
+        long[] result = new long[size()];
+        int count = 0;
+        if (containsZero) {
+            count++;
+        }
+        for (int i = 0; i <= mask; i++) {
+            long v = Memory.peekLong(address + ((long) i * ELEMENT_SIZE), false);
+            if (v != 0) {
+                result[count++] = v;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Frees this set's native memory. Closing a closed set has no effect.
+     */
+    @Override public void close() {
+        if (memory != null) {
+            memory.free();
+            memory = null;
+            address = 0;
+            tableSize = 0;
+            containsZero = false;
+            modCount++;
+        }
+    }
+
+    @Override public String toString() {
+        return "OffHeapLongSet[size=" + size() + ", capacity=" + (mask + 1) + "]";
+    }
+
+    private void checkOpen() {
+        if (memory == null) {
+            throw new IllegalStateException("closed");
+        }
+    }
+
+    /**
+     * Returns the address of the slot holding non-zero {@code value}, or 0.
+     */
+    private long findSlot(long value) {
+        for (int i = indexFor(value); ; i = (i + 1) & mask) {
+            long slot = address + ((long) i * ELEMENT_SIZE);
+            long v = Memory.peekLong(slot, false);
+            if (v == value) {
+                return slot;
+            }
+            if (v == 0) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the home slot of {@code value}, using Fibonacci hashing so that
+     * sequential values are spread over the table.
+     */
+    private int indexFor(long value) {
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minCapacity = (expectedSize * 4L + 2) / 3 + 1;
+        if (minCapacity > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) minCapacity - 1) << 1);
+    }
+
+    private void allocateTable(int capacity) {
+        memory = new NativeMemory(this, (long) capacity * ELEMENT_SIZE);
+        address = memory.address;
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        // Always leave a free slot, which ends every probe.
+        threshold = (capacity == MAX_CAPACITY) ? capacity - 1 : capacity / 4 * 3;
+    }
+
+    private void grow() {
+        int oldCapacity = mask + 1;
+        if (oldCapacity == MAX_CAPACITY) {
+            throw new IllegalStateException("OffHeapLongSet is full");
+        }
+        NativeMemory oldMemory = memory;
+        long oldAddress = address;
+        allocateTable(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            long v = Memory.peekLong(oldAddress + ((long) i * ELEMENT_SIZE), false);
+            if (v == 0) {
+                continue;
+            }
+            int j = indexFor(v);
+            while (Memory.peekLong(address + ((long) j * ELEMENT_SIZE), false) != 0) {
+                j = (j + 1) & mask;
+            }
+            Memory.pokeLong(address + ((long) j * ELEMENT_SIZE), v, false);
+        }
+        oldMemory.free();
+        modCount++;
+    }
+}
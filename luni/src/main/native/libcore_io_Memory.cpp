@@ -287,7 +287,12 @@ static void Memory_unsafeBulkPut(JNIEnv* env, jclass, jbyteArray dstArray, jint
     env->ReleasePrimitiveArrayCritical(srcArray, srcBytes, 0);
 }
 
+static jlong Memory_getFreeFunction(JNIEnv*, jclass) {
+    return static_cast<jlong>(reinterpret_cast<uintptr_t>(&free));
+}
+
 static JNINativeMethod gMethods[] = {
+    NATIVE_METHOD(Memory, getFreeFunction, "()J"),
     NATIVE_METHOD(Memory, memmove, "(Ljava/lang/Object;ILjava/lang/Object;IJ)V"),
     NATIVE_METHOD(Memory, peekByte, "!(J)B"),
     NATIVE_METHOD(Memory, peekByteArray, "(J[BII)V"),
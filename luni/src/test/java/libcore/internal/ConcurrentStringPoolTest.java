@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public final class ConcurrentStringPoolTest extends TestCase {
+
+    public void testChars() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(16);
+        String bcd = pool.get(new char[] { 'a', 'b', 'c', 'd', 'e' }, 1, 3);
+        assertEquals("bcd", bcd);
+        assertSame(bcd, pool.get(new char[] { 'a', 'b', 'c', 'd', 'e' }, 1, 3));
+        assertEquals(1, pool.hitCount());
+        assertEquals(1, pool.missCount());
+        assertEquals(0.5, pool.hitRate());
+    }
+
+    public void testCharSequence() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(16);
+        String bcd = pool.get("abcde", 1, 3);
+        assertEquals("bcd", bcd);
+        assertSame(bcd, pool.get(new StringBuilder("xbcdx"), 1, 3));
+        assertSame(bcd, pool.get(new char[] { 'b', 'c', 'd' }, 0, 3));
+    }
+
+    public void testUtf8() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(16);
+        byte[] ascii = "content-type".getBytes(StandardCharsets.US_ASCII);
+        String contentType = pool.get(ascii, 0, ascii.length);
+        assertEquals("content-type", contentType);
+        assertSame(contentType, pool.get(ascii, 0, ascii.length));
+        assertSame(contentType, pool.get("content-type".toCharArray(), 0, 12));
+
+        byte[] nonAscii = "\u00e9t\u00e9".getBytes(StandardCharsets.UTF_8);
+        String ete = pool.get(nonAscii, 0, nonAscii.length);
+        assertEquals("\u00e9t\u00e9", ete);
+        assertSame(ete, pool.get(nonAscii, 0, nonAscii.length));
+    }
+
+    public void testString() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(16);
+        String first = new String("key");
+        assertSame(first, pool.get(first));
+        assertSame(first, pool.get(new String("key")));
+    }
+
+    public void testHashCollisionsShareASlotPair() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(16);
+        char[] a = { (char) 1, (char) 0 };
+        char[] b = { (char) 0, (char) 31 };
+        assertEquals(new String(a).hashCode(), new String(b).hashCode());
+
+        String aString = pool.get(a, 0, 2);
+        String bString = pool.get(b, 0, 2);
+        assertEquals(new String(a), aString);
+        assertEquals(new String(b), bString);
+        // Both fit in the two slots for their hash.
+        assertSame(aString, pool.get(a, 0, 2));
+        assertSame(bString, pool.get(b, 0, 2));
+    }
+
+    public void testLongStringsAreNotPooled() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(16);
+        char[] chars = new char[100];
+        String first = pool.get(chars, 0, chars.length);
+        assertEquals(new String(chars), first);
+        assertNotSame(first, pool.get(chars, 0, chars.length));
+        assertEquals(0, pool.hitCount() + pool.missCount());
+    }
+
+    public void testCapacityIsBounded() {
+        ConcurrentStringPool pool = new ConcurrentStringPool(4);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.toString(i), pool.get(Integer.toString(i)));
+        }
+        assertEquals(1000, pool.missCount());
+    }
+
+    public void testConcurrentUse() throws Exception {
+        final ConcurrentStringPool pool = new ConcurrentStringPool(64);
+        final String[] keys = new String[200];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key" + i;
+        }
+        List<Thread> threads = new ArrayList<>();
+        final List<AssertionError> failures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread() {
+                @Override public void run() {
+                    for (int rep = 0; rep < 10000; rep++) {
+                        String key = keys[rep % keys.length];
+                        char[] chars = key.toCharArray();
+                        if (!key.equals(pool.get(chars, 0, chars.length))) {
+                            synchronized (failures) {
+                                failures.add(new AssertionError(key));
+                            }
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.size());
+        assertEquals(40000, pool.hitCount() + pool.missCount());
+    }
+
+    public void testInvalidCapacity() {
+        try {
+            new ConcurrentStringPool(1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
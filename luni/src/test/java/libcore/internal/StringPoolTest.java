@@ -41,4 +41,12 @@ public final class StringPoolTest extends TestCase {
       assertSame(bString, stringPool.get(b, 0, 2));
       assertNotSame(aString, stringPool.get(a, 0, 2));
     }
+
+    public void testShared() {
+      StringPool stringPool = StringPool.getShared();
+      assertSame(stringPool, StringPool.getShared());
+      String bcd = stringPool.get(new char[] { 'a', 'b', 'c', 'd', 'e' }, 1, 3);
+      assertEquals("bcd", bcd);
+      assertSame(bcd, ConcurrentStringPool.getDefault().get("bcd"));
+    }
 }
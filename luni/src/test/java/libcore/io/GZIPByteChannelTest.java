@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import junit.framework.TestCase;
+
+public final class GZIPByteChannelTest extends TestCase {
+
+    public void testRoundTrip() throws Exception {
+        byte[] data = randomText(100000);
+        assertTrue(Arrays.equals(data, readChannel(writeChannel(data, 7), 4096)));
+    }
+
+    public void testSmallBuffers() throws Exception {
+        byte[] data = randomText(10000);
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        GZIPWritableByteChannel out =
+                new GZIPWritableByteChannel(Channels.newChannel(bytesOut), 1);
+        out.write(ByteBuffer.wrap(data));
+        out.close();
+
+        GZIPReadableByteChannel in = new GZIPReadableByteChannel(
+                Channels.newChannel(new ByteArrayInputStream(bytesOut.toByteArray())), 1);
+        assertTrue(Arrays.equals(data, readFully(in, 3)));
+    }
+
+    public void testWrittenDataReadByGZIPInputStream() throws Exception {
+        byte[] data = randomText(50000);
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(writeChannel(data, 1000)));
+        assertTrue(Arrays.equals(data, Streams.readFully(in)));
+    }
+
+    public void testGZIPOutputStreamDataRead() throws Exception {
+        byte[] data = randomText(50000);
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        OutputStream out = new GZIPOutputStream(bytesOut);
+        out.write(data);
+        out.close();
+        assertTrue(Arrays.equals(data, readChannel(bytesOut.toByteArray(), 1000)));
+    }
+
+    public void testMultipleMembersAndTrailingData() throws Exception {
+        byte[] first = randomText(1000);
+        byte[] second = randomText(2000);
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        bytesOut.write(writeChannel(first, 100));
+        bytesOut.write(writeChannel(second, 100));
+        bytesOut.write(new byte[] { 1, 2, 3, 4 });
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        assertTrue(Arrays.equals(expected, readChannel(bytesOut.toByteArray(), 100)));
+    }
+
+    public void testEmpty() throws Exception {
+        assertEquals(0, readChannel(writeChannel(new byte[0], 10), 10).length);
+    }
+
+    public void testCorruptTrailer() throws Exception {
+        byte[] gzipped = writeChannel(randomText(1000), 100);
+        gzipped[gzipped.length - 5]++;
+        try {
+            readChannel(gzipped, 100);
+            fail();
+        } catch (ZipException expected) {
+        }
+    }
+
+    public void testNotGzip() throws Exception {
+        try {
+            new GZIPReadableByteChannel(
+                    Channels.newChannel(new ByteArrayInputStream(new byte[] { 1, 2, 3 })));
+            fail();
+        } catch (ZipException expected) {
+        }
+    }
+
+    public void testWriteAfterFinishAndClose() throws Exception {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        GZIPWritableByteChannel out = new GZIPWritableByteChannel(Channels.newChannel(bytesOut));
+        out.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+        out.finish();
+        try {
+            out.write(ByteBuffer.wrap(new byte[] { 4 }));
+            fail();
+        } catch (IOException expected) {
+        }
+        out.close();
+        assertFalse(out.isOpen());
+        try {
+            out.write(ByteBuffer.wrap(new byte[] { 4 }));
+            fail();
+        } catch (ClosedChannelException expected) {
+        }
+        assertTrue(Arrays.equals(new byte[] { 1, 2, 3 },
+                readChannel(bytesOut.toByteArray(), 10)));
+    }
+
+    private static byte[] randomText(int length) {
+        Random random = new Random(length);
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return result;
+    }
+
+    /** Compresses {@code data}, written in chunks of {@code chunkSize} from a direct buffer. */
+    private static byte[] writeChannel(byte[] data, int chunkSize) throws IOException {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        GZIPWritableByteChannel out = new GZIPWritableByteChannel(Channels.newChannel(bytesOut));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+        for (int i = 0; i < data.length; i += chunkSize) {
+            buffer.clear();
+            buffer.put(data, i, Math.min(chunkSize, data.length - i)).flip();
+            out.write(buffer);
+            assertEquals(0, buffer.remaining());
+        }
+        out.close();
+        return bytesOut.toByteArray();
+    }
+
+    private static byte[] readChannel(byte[] gzipped, int chunkSize) throws IOException {
+        return readFully(new GZIPReadableByteChannel(
+                Channels.newChannel(new ByteArrayInputStream(gzipped))), chunkSize);
+    }
+
+    /** Decompresses into a direct buffer of {@code chunkSize} bytes at a time. */
+    private static byte[] readFully(ReadableByteChannel in, int chunkSize) throws IOException {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+        byte[] chunk = new byte[chunkSize];
+        while (in.read(buffer) != -1) {
+            buffer.flip();
+            int count = buffer.remaining();
+            buffer.get(chunk, 0, count);
+            bytesOut.write(chunk, 0, count);
+            buffer.clear();
+        }
+        in.close();
+        return bytesOut.toByteArray();
+    }
+}
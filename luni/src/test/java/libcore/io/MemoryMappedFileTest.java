@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import junit.framework.TestCase;
+
+public class MemoryMappedFileTest extends TestCase {
+    private File file;
+    private MemoryMappedFile mapped;
+
+    @Override protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("MemoryMappedFileTest", null);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 });
+        }
+        mapped = MemoryMappedFile.mmapRO(file.getPath());
+    }
+
+    @Override protected void tearDown() throws Exception {
+        mapped.close();
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testBigEndianIterator() throws Exception {
+        BufferIterator it = mapped.bigEndianIterator();
+        assertEquals(0x01020304, it.readInt());
+        assertEquals(0x0506, it.readShort());
+        assertEquals(7, it.readByte());
+        it.seek(2);
+        int[] ints = new int[2];
+        it.readIntArray(ints, 0, 2);
+        assertEquals(0x03040506, ints[0]);
+        assertEquals(0x0708090a, ints[1]);
+    }
+
+    public void testLittleEndianIterator() throws Exception {
+        BufferIterator it = mapped.littleEndianIterator();
+        it.skip(6);
+        assertEquals(0x0a090807, it.readInt());
+    }
+
+    public void testReadsOutOfBounds() throws Exception {
+        BufferIterator it = mapped.bigEndianIterator();
+        it.seek(7);
+        try {
+            it.readInt();
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        // A failed read doesn't move the position.
+        assertEquals(0x0809, it.readShort());
+        assertEquals(10, it.readByte());
+        try {
+            it.readByte();
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        it.seek(-1);
+        try {
+            it.readByte();
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        it.seek(0);
+        try {
+            it.readIntArray(new int[3], 0, 3);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            it.readByteArray(new byte[11], 0, 11);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            it.readIntArray(new int[1], 0, Integer.MAX_VALUE);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+}
@@ -94,6 +94,34 @@ public final class ObjectOutputStreamTest extends TestCase {
         assertEquals(input, output);
     }
 
+    public static class Node implements Serializable {
+        int id;
+        Node next;
+        Node other;
+    }
+
+    public void testSharedReferencesInLargeGraph() throws Exception {
+        // Enough nodes to grow the handle table several times.
+        Node[] nodes = new Node[5000];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node();
+            nodes[i].id = i;
+        }
+        // Refer only to nodes that are written earlier, to keep the recursion shallow.
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].next = nodes[i / 2];
+            nodes[i].other = nodes[i / 3];
+        }
+
+        Node[] output = (Node[]) roundTrip(nodes);
+        assertEquals(nodes.length, output.length);
+        for (int i = 0; i < output.length; i++) {
+            assertEquals(i, output[i].id);
+            assertSame(output[i / 2], output[i].next);
+            assertSame(output[i / 3], output[i].other);
+        }
+    }
+
     private Serializable roundTrip(Object object)
             throws IOException, ClassNotFoundException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -26,6 +26,8 @@ import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import junit.framework.TestCase;
 
 public class StringTest extends TestCase {
@@ -433,6 +435,55 @@ public class StringTest extends TestCase {
         assertEquals("", splits[7]);
     }
 
+    public void testRegexMethods_alternatingPatterns() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("[a, b, c]", Arrays.toString("a,b;c".split("(,|;)")));
+            assertEquals("baa", "aba".replaceFirst("(a)(b)", "$2$1"));
+            assertTrue("abc".matches("[a-c]+"));
+            assertFalse("abcd".matches("[a-c]+"));
+            assertEquals("x-y-z", "x  y\tz".replaceAll("\\s+", "-"));
+            assertEquals("[a, b]", Arrays.toString("a,  b".split(", *")));
+        }
+    }
+
+    public void testRegexMethods_reentrant() {
+        // toString() runs while the outer call holds this thread's matcher.
+        CharSequence input = new CharSequence() {
+            @Override public int length() {
+                return toString().length();
+            }
+            @Override public char charAt(int index) {
+                return toString().charAt(index);
+            }
+            @Override public CharSequence subSequence(int start, int end) {
+                return toString().substring(start, end);
+            }
+            @Override public String toString() {
+                assertEquals("[x, y]", Arrays.toString("x;y".split("(;)")));
+                return "a;b".replaceAll("(;)", ",");
+            }
+        };
+        assertTrue(Pattern.matches("(a),b", input));
+        assertEquals("[a, b]", Arrays.toString(
+                Pattern.compile("(,)").split(input)));
+    }
+
+    public void testRegexMethods_errors() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                "a".matches("(");
+                fail();
+            } catch (PatternSyntaxException expected) {
+            }
+            try {
+                "ab".replaceAll("(a)", "$2");
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+        assertEquals("ba", "ab".replaceAll("(a)(b)", "$2$1"));
+    }
+
     // http://b/26126818
     public void testCodePointCount() {
         String hello = "Hello, fools";
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+public class ThreadLocalTest extends TestCase {
+    private static final AtomicInteger initialValueCalls = new AtomicInteger();
+
+    private static final ThreadLocal<String> FAST = new ThreadLocal<String>(true) {
+        @Override protected String initialValue() {
+            initialValueCalls.incrementAndGet();
+            return "initial";
+        }
+    };
+
+    private static final ThreadLocal<String> FAST_WITHOUT_INITIAL_VALUE =
+            new ThreadLocal<String>(true);
+
+    public void testFastSlot_getSetRemove() {
+        FAST.remove();
+        int calls = initialValueCalls.get();
+        assertEquals("initial", FAST.get());
+        assertEquals("initial", FAST.get());
+        assertEquals(calls + 1, initialValueCalls.get());
+
+        FAST.set("changed");
+        assertEquals("changed", FAST.get());
+
+        FAST.set(null);
+        assertNull(FAST.get());
+        assertEquals(calls + 1, initialValueCalls.get());
+
+        FAST.remove();
+        assertEquals("initial", FAST.get());
+        assertEquals(calls + 2, initialValueCalls.get());
+    }
+
+    public void testFastSlot_defaultInitialValueIsNull() {
+        assertNull(FAST_WITHOUT_INITIAL_VALUE.get());
+        FAST_WITHOUT_INITIAL_VALUE.set("value");
+        assertEquals("value", FAST_WITHOUT_INITIAL_VALUE.get());
+        FAST_WITHOUT_INITIAL_VALUE.remove();
+        assertNull(FAST_WITHOUT_INITIAL_VALUE.get());
+    }
+
+    public void testFastSlot_valuesArePerThread() throws Exception {
+        FAST.set("main");
+        final AtomicReference<String> other = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override public void run() {
+                other.set(FAST.get());
+                FAST.set("other");
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals("initial", other.get());
+        assertEquals("main", FAST.get());
+        FAST.remove();
+    }
+}
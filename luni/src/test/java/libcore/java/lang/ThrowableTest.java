@@ -315,6 +315,34 @@ public class ThrowableTest extends TestCase {
         }.test();
     }
 
+    public void testStackTracesFromSameSiteAreShared() {
+        Throwable[] throwables = new Throwable[2];
+        for (int i = 0; i < throwables.length; i++) {
+            throwables[i] = new Throwable();
+        }
+        StackTraceElement[] first = throwables[0].getStackTrace();
+        StackTraceElement[] second = throwables[1].getStackTrace();
+        assertNotSame(first, second); // getStackTrace() returns copies.
+        assertEquals(Arrays.asList(first), Arrays.asList(second));
+        for (int i = 0; i < first.length; i++) {
+            assertSame(first[i], second[i]);
+        }
+    }
+
+    public void testGetStackTraceWithMaxDepth() {
+        Throwable throwable = newThrowable("Message", "A", "B", "C");
+        StackTraceElement[] full = throwable.getStackTrace();
+        assertEquals(Arrays.asList(full[0], full[1]),
+                Arrays.asList(throwable.getStackTrace(2)));
+        assertEquals(Arrays.asList(full), Arrays.asList(throwable.getStackTrace(10)));
+        assertEquals(0, throwable.getStackTrace(0).length);
+        try {
+            throwable.getStackTrace(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
     private void assertSerialized(final Throwable throwable, String golden) {
         new SerializationTester<Throwable>(throwable, golden) {
             @Override protected boolean equals(Throwable a, Throwable b) {
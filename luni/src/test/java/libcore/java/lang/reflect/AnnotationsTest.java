@@ -304,6 +304,66 @@ public final class AnnotationsTest extends TestCase {
         assertNull(RetentionAnnotations.class.getAnnotation(SourceRetentionAnnotation.class));
     }
 
+    public void testAnnotationInstancesAreShared() throws Exception {
+        AnnotatedElement[] elements = {
+                Type.class,
+                ExtendsType.class,
+                Type.class.getConstructor(),
+                Type.class.getField("field"),
+                Type.class.getMethod("method", String.class, String.class),
+        };
+        for (AnnotatedElement element : elements) {
+            Annotation[] annotations = element.getAnnotations();
+            assertTrue(annotations.length > 0);
+            for (Annotation annotation : annotations) {
+                assertSame(annotation, element.getAnnotation(annotation.annotationType()));
+            }
+            // Callers are free to modify the returned arrays.
+            annotations[0] = null;
+            assertNotNull(element.getAnnotations()[0]);
+            Annotation[] declaredAnnotations = element.getDeclaredAnnotations();
+            assertEquals(annotationsToTypes(declaredAnnotations),
+                    annotationsToTypes(element.getDeclaredAnnotations()));
+        }
+        assertSame(Type.class.getAnnotation(AnnotationB.class),
+                ExtendsType.class.getAnnotation(AnnotationB.class));
+    }
+
+    public void testParameterAnnotationsAreCopied() throws Exception {
+        Method parameters = Type.class.getMethod("parameters", String.class, String.class);
+        Annotation[][] parameterAnnotations = parameters.getParameterAnnotations();
+        parameterAnnotations[0][0] = null;
+        parameterAnnotations[1] = null;
+        parameterAnnotations = parameters.getParameterAnnotations();
+        assertEquals(set(AnnotationB.class, AnnotationD.class),
+                annotationsToTypes(parameterAnnotations[0]));
+        assertEquals(set(AnnotationC.class, AnnotationD.class),
+                annotationsToTypes(parameterAnnotations[1]));
+    }
+
+    public void testAnnotationMembers() throws Exception {
+        HasDefaultsAnnotation annotation =
+                HasValues.class.getAnnotation(HasDefaultsAnnotation.class);
+        assertEquals(7, annotation.c());
+        assertEquals(Breakfast.PANCAKES, annotation.o());
+        assertEquals(11, annotation.p());
+        assertEquals(HasDefaultsAnnotation.class, annotation.annotationType());
+
+        // Array values are copied for each call.
+        int[] m = annotation.m();
+        assertEquals("[1, 2, 3]", Arrays.toString(m));
+        m[0] = 4;
+        assertEquals("[1, 2, 3]", Arrays.toString(annotation.m()));
+
+        HasDefaultsAnnotation other =
+                HasValues.class.getMethod("method").getAnnotation(HasDefaultsAnnotation.class);
+        assertNotSame(annotation, other);
+        assertEquals(annotation, other);
+        assertEquals(annotation.hashCode(), other.hashCode());
+        assertEquals(annotation.toString(), other.toString());
+        assertFalse(annotation.equals(Type.class.getAnnotation(AnnotationA.class)));
+    }
+
     private static final Object staticAnonymous = new Object() {};
 
     private static class Foo {
@@ -398,6 +458,11 @@ public final class AnnotationsTest extends TestCase {
         int p();
     }
 
+    @HasDefaultsAnnotation(o = Breakfast.PANCAKES, p = 11)
+    public static class HasValues {
+        @HasDefaultsAnnotation(o = Breakfast.PANCAKES, p = 11) public void method() {}
+    }
+
     static class HasMemberClassesSuperclass {
         class A {}
         public class B {}
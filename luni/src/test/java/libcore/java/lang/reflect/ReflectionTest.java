@@ -300,6 +300,43 @@ public final class ReflectionTest extends TestCase {
         assertEquals(1, count(names(fields), "field"));
     }
 
+    public void testGetFieldReturnsIndependentCopies() throws Exception {
+        Field first = C.class.getField("fieldOne");
+        first.setAccessible(true);
+        Field second = C.class.getField("fieldOne");
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertFalse(second.isAccessible());
+    }
+
+    public void testGetMethodReturnsIndependentCopies() throws Exception {
+        Method first = ExtendsImplementsDefinesMember.class.getMethod("method");
+        first.setAccessible(true);
+        Method second = ExtendsImplementsDefinesMember.class.getMethod("method");
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertFalse(second.isAccessible());
+    }
+
+    public void testGetMethodsReturnsIndependentArrays() throws Exception {
+        Method[] first = ExtendsImplementsDefinesMember.class.getMethods();
+        first[0].setAccessible(true);
+        first[0] = null;
+        Method[] second = ExtendsImplementsDefinesMember.class.getMethods();
+        assertNotNull(second[0]);
+        assertFalse(second[0].isAccessible());
+        assertEquals(first.length, second.length);
+    }
+
+    public void testGetDeclaredConstructorsReturnsIndependentCopies() throws Exception {
+        Constructor<?>[] first = C.class.getDeclaredConstructors();
+        first[0].setAccessible(true);
+        Constructor<?>[] second = C.class.getDeclaredConstructors();
+        assertEquals(first[0], second[0]);
+        assertNotSame(first[0], second[0]);
+        assertFalse(second[0].isAccessible());
+    }
+
     public void testIsLocalClass() {
         A methodLevelAnonymous = new A() {};
         class Local {}
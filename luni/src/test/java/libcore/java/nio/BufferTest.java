@@ -1365,4 +1365,50 @@ public class BufferTest extends TestCase {
         d.put(1, (double)1);
         b.limit(0);  d.put(1, (double)1);
     }
+
+    public void testViewRelativeGetPut() {
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            testViewRelativeGetPut(ByteBuffer.allocateDirect(17).order(order));
+            testViewRelativeGetPut(ByteBuffer.allocate(17).order(order));
+        }
+    }
+
+    private void testViewRelativeGetPut(ByteBuffer b) {
+        // Start at an odd offset so that direct accesses are unaligned.
+        b.position(1);
+        IntBuffer ints = b.asIntBuffer();
+        ints.put(0x01020304).put(0x05060708);
+        assertEquals(2, ints.position());
+        assertEquals(0x01020304, b.getInt(1));
+        assertEquals(0x05060708, b.getInt(5));
+        ints.flip();
+        assertEquals(0x01020304, ints.get());
+        assertEquals(0x05060708, ints.get());
+        try {
+            ints.get();
+            fail();
+        } catch (BufferUnderflowException expected) {
+        }
+
+        b.position(1);
+        CharBuffer chars = b.asCharBuffer();
+        chars.position(chars.limit() - 1);
+        chars.put('x');
+        try {
+            chars.put('y');
+            fail();
+        } catch (BufferOverflowException expected) {
+        }
+        assertEquals('x', b.getChar(b.limit() - 2));
+
+        b.position(1);
+        LongBuffer longs = b.asReadOnlyBuffer().order(b.order()).asLongBuffer();
+        try {
+            longs.put(1L);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+        assertEquals(0, longs.position());
+        assertEquals(b.getLong(1), longs.get());
+    }
 }
@@ -604,6 +604,53 @@ public class ProviderTest extends TestCase {
         }
     }
 
+    public void testProvider_getService_SeesChanges_Success() throws Exception {
+        MockProvider provider = new MockProvider("MockProvider");
+        assertNull(provider.getService("SecureRandom", "SecureRandom1"));
+        assertTrue(provider.getServices().isEmpty());
+
+        provider.put("SecureRandom.SecureRandom1", SecureRandom1.class.getName());
+        Provider.Service legacy = provider.getService("SecureRandom", "securerandom1");
+        assertNotNull(legacy);
+        assertEquals(SecureRandom1.class.getName(), legacy.getClassName());
+        assertEquals(Collections.singleton(legacy), provider.getServices());
+
+        // Services added with putService() take precedence over legacy ones.
+        Provider.Service service = new Provider.Service(provider, "SecureRandom",
+                "SecureRandom1", SecureRandom2.class.getName(), null, null);
+        provider.putServiceForTest(service);
+        assertSame(service, provider.getService("SecureRandom", "SecureRandom1"));
+
+        provider.removeServiceForTest(service);
+        provider.remove("SecureRandom.SecureRandom1");
+        assertNull(provider.getService("SecureRandom", "SecureRandom1"));
+        assertTrue(provider.getServices().isEmpty());
+    }
+
+    public void testProviderService_newInstance_ReturnsNewInstances_Success()
+            throws Exception {
+        MockProvider provider = new MockProvider("MockProvider") {
+            public void setup() {
+                put("SecureRandom.SecureRandom1", SecureRandom1.class.getName());
+                put("CertStore.FOO", MyCertStoreSpi.class.getName());
+            }
+        };
+
+        Provider.Service random = provider.getService("SecureRandom", "SecureRandom1");
+        Object first = random.newInstance(null);
+        Object second = random.newInstance(null);
+        assertTrue(first instanceof SecureRandom1);
+        assertTrue(second instanceof SecureRandom1);
+        assertNotSame(first, second);
+
+        Provider.Service certStore = provider.getService("CertStore", "FOO");
+        first = certStore.newInstance(new MyCertStoreParameters());
+        second = certStore.newInstance(new MyCertStoreParameters());
+        assertTrue(first instanceof MyCertStoreSpi);
+        assertTrue(second instanceof MyCertStoreSpi);
+        assertNotSame(first, second);
+    }
+
     public void testProvider_removeProvider_Success() throws Exception {
         MockProvider provider = new MockProvider("MockProvider");
         assertNull(Security.getProvider(provider.getName()));
@@ -674,6 +721,10 @@ public class ProviderTest extends TestCase {
         public void putServiceForTest(Provider.Service service) {
             putService(service);
         }
+
+        public void removeServiceForTest(Provider.Service service) {
+            removeService(service);
+        }
     }
 
     @SuppressWarnings("serial")
@@ -17,6 +17,8 @@
 package libcore.java.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
 
 public class ArrayListTest extends junit.framework.TestCase {
     public void test_replaceAll() {
@@ -26,4 +28,92 @@ public class ArrayListTest extends junit.framework.TestCase {
     public void test_sort() {
         ListDefaultMethodTester.test_sort(new ArrayList<>());
     }
+
+    public void test_parallelSort() {
+        Random random = new Random(42);
+        for (int size : new int[] { 0, 1, 100, 100000 }) {
+            ArrayList<Integer> list = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                list.add(random.nextInt(1000));
+            }
+            ArrayList<Integer> expected = new ArrayList<>(list);
+            Collections.sort(expected);
+            list.parallelSort(null);
+            assertEquals(expected, list);
+
+            Collections.sort(expected, Collections.reverseOrder());
+            list.parallelSort(Collections.reverseOrder());
+            assertEquals(expected, list);
+        }
+    }
+
+    public void test_parallelSort_stable() {
+        // Sort by the low digit only; equal keys must keep their original order.
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            list.add(i);
+        }
+        list.parallelSort((a, b) -> Integer.compare(a % 10, b % 10));
+        for (int i = 1; i < list.size(); i++) {
+            int prev = list.get(i - 1);
+            int cur = list.get(i);
+            assertTrue(prev % 10 < cur % 10 || (prev % 10 == cur % 10 && prev < cur));
+        }
+    }
+
+    public void test_parallelReplaceAll() {
+        for (int size : new int[] { 0, 10, 100000 }) {
+            ArrayList<Integer> list = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+            list.parallelReplaceAll(x -> x * 2);
+            assertEquals(size, list.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals(i * 2, (int) list.get(i));
+            }
+        }
+        try {
+            new ArrayList<Integer>().parallelReplaceAll(null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void test_parallelRemoveIf() {
+        for (int size : new int[] { 0, 10, 100000 }) {
+            ArrayList<Integer> list = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+            assertEquals(size > 0, list.parallelRemoveIf(x -> x % 3 == 0));
+            assertEquals(size - (size + 2) / 3, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                int expected = (i / 2) * 3 + (i % 2) + 1;
+                assertEquals(expected, (int) list.get(i));
+            }
+            assertFalse(list.parallelRemoveIf(x -> x < 0));
+        }
+    }
+
+    public void test_parallelRemoveIf_predicateThrows() {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            list.add(i);
+        }
+        try {
+            list.parallelRemoveIf(x -> {
+                if (x == 50000) {
+                    throw new IllegalStateException();
+                }
+                return true;
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        // The list is left unmodified.
+        assertEquals(100000, list.size());
+        assertEquals(0, (int) list.get(0));
+        assertEquals(99999, (int) list.get(99999));
+    }
 }
@@ -18,6 +18,7 @@ package libcore.java.util;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.function.Consumer;
 
 public class ArraysTest extends junit.framework.TestCase {
 
@@ -534,4 +535,195 @@ public class ArraysTest extends junit.framework.TestCase {
         } catch (IllegalArgumentException expected) {
         }
     }
+
+    /**
+     * java.util.Arrays#parallelMerge(int[], int[])
+     */
+    public void test_parallelMerge$I$I() {
+        Random random = new Random(7);
+        for (int size : new int[] { 0, 5, 100000 }) {
+            int[] a = new int[size];
+            int[] b = new int[size / 2 + 1];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt(1000);
+            }
+            for (int i = 0; i < b.length; i++) {
+                b[i] = random.nextInt();
+            }
+            Arrays.sort(a);
+            Arrays.sort(b);
+            int[] expected = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, expected, a.length, b.length);
+            Arrays.sort(expected);
+            assertTrue(Arrays.equals(expected, Arrays.parallelMerge(a, b)));
+            assertTrue(Arrays.equals(expected, Arrays.parallelMerge(b, a)));
+        }
+        assertEquals(0, Arrays.parallelMerge(new int[0], new int[0]).length);
+        try {
+            Arrays.parallelMerge(null, new int[0]);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    /**
+     * java.util.Arrays#parallelMerge(long[], long[])
+     */
+    public void test_parallelMerge$J$J() {
+        Random random = new Random(7);
+        long[] a = new long[100000];
+        long[] b = new long[30000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextLong();
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] = random.nextInt(100);
+        }
+        Arrays.sort(a);
+        Arrays.sort(b);
+        long[] expected = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, expected, a.length, b.length);
+        Arrays.sort(expected);
+        assertTrue(Arrays.equals(expected, Arrays.parallelMerge(a, b)));
+        assertTrue(Arrays.equals(new long[] { 1, 2, 3 },
+                Arrays.parallelMerge(new long[] { 2 }, new long[] { 1, 3 })));
+    }
+
+    /**
+     * java.util.Arrays#parallelBinarySearch(int[], int[])
+     */
+    public void test_parallelBinarySearch$I$I() {
+        int[] a = new int[100000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * 2;
+        }
+        int[] keys = new int[50000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 7 - 3;
+        }
+        int[] result = Arrays.parallelBinarySearch(a, keys);
+        assertEquals(keys.length, result.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Arrays.binarySearch(a, keys[i]), result[i]);
+        }
+        assertEquals(0, Arrays.parallelBinarySearch(a, new int[0]).length);
+        assertEquals(-1, Arrays.parallelBinarySearch(new int[0], new int[] { 5 })[0]);
+        try {
+            Arrays.parallelBinarySearch(null, new int[] { 1 });
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    /**
+     * java.util.Arrays#parallelBinarySearch(long[], long[])
+     */
+    public void test_parallelBinarySearch$J$J() {
+        long[] a = { Long.MIN_VALUE, -5, 0, 1L << 40, Long.MAX_VALUE };
+        long[] keys = { Long.MIN_VALUE, -6, 0, 1, 1L << 40, Long.MAX_VALUE };
+        int[] result = Arrays.parallelBinarySearch(a, keys);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Arrays.binarySearch(a, keys[i]), result[i]);
+        }
+    }
+
+    /**
+     * Sorts {@code array} with the given sort, and checks the result against
+     * a simple comparison of adjacent elements and of the element sums.
+     */
+    private static void assertSortsLong(long[] array, Consumer<long[]> sort) {
+        long[] copy = array.clone();
+        long expectedSum = 0;
+        for (long v : copy) {
+            expectedSum += v;
+        }
+        sort.accept(copy);
+        long sum = copy.length > 0 ? copy[0] : 0;
+        for (int i = 1; i < copy.length; ++i) {
+            assertTrue(copy[i - 1] <= copy[i]);
+            sum += copy[i];
+        }
+        assertEquals(expectedSum, sum);
+    }
+
+    private static long[][] sortInputs(int n, Random random) {
+        long[][] inputs = new long[7][n];
+        for (int i = 0; i < n; ++i) {
+            inputs[0][i] = random.nextLong();
+            inputs[1][i] = i;
+            inputs[2][i] = n - i;
+            inputs[3][i] = i % 1000;                                      // sawtooth
+            inputs[4][i] = (random.nextInt(100) == 0) ? random.nextInt() : i;  // nearly sorted
+            inputs[5][i] = random.nextInt(4) - 2;                         // few distinct
+            inputs[6][i] = random.nextBoolean() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return inputs;
+    }
+
+    /**
+     * java.util.Arrays#sort(int[]) and java.util.Arrays#sort(long[]), over
+     * the sizes and distributions that select each sorting algorithm.
+     */
+    public void test_sort$I_distributions() {
+        Random random = new Random(11);
+        for (int n : new int[] { 100, 1000, 20000, 300000 }) {
+            for (long[] input : sortInputs(n, random)) {
+                assertSortsLong(input, Arrays::sort);
+                int[] ints = new int[n];
+                for (int i = 0; i < n; ++i) {
+                    ints[i] = (int) (input[i] ^ (input[i] >>> 32));
+                }
+                int[] expected = ints.clone();
+                Arrays.sort(ints);
+                // Compare with a sort of boxed values, which shares no code.
+                Integer[] boxed = new Integer[n];
+                for (int i = 0; i < n; ++i) {
+                    boxed[i] = expected[i];
+                }
+                Arrays.sort(boxed);
+                for (int i = 0; i < n; ++i) {
+                    assertEquals((int) boxed[i], ints[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * java.util.Arrays#sort(long[], int, int)
+     */
+    public void test_sort$JII_distributions() {
+        Random random = new Random(12);
+        for (long[] input : sortInputs(100000, random)) {
+            long[] copy = input.clone();
+            Arrays.sort(copy, 1000, 90000);
+            for (int i = 0; i < 1000; ++i) {
+                assertEquals(input[i], copy[i]);
+            }
+            for (int i = 1001; i < 90000; ++i) {
+                assertTrue(copy[i - 1] <= copy[i]);
+            }
+            for (int i = 90000; i < input.length; ++i) {
+                assertEquals(input[i], copy[i]);
+            }
+        }
+    }
+
+    /**
+     * java.util.Arrays#parallelSort(long[]) and
+     * java.util.Arrays#parallelSort(int[])
+     */
+    public void test_parallelSort$J_distributions() {
+        Random random = new Random(13);
+        for (long[] input : sortInputs(500000, random)) {
+            assertSortsLong(input, Arrays::parallelSort);
+            int[] ints = new int[input.length];
+            for (int i = 0; i < ints.length; ++i) {
+                ints[i] = (int) input[i];
+            }
+            int[] expected = ints.clone();
+            Arrays.sort(expected);
+            Arrays.parallelSort(ints);
+            assertTrue(Arrays.equals(expected, ints));
+        }
+    }
 }
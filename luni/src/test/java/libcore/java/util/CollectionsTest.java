@@ -23,9 +23,12 @@ import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Spliterator;
 
 import junit.framework.TestCase;
@@ -738,4 +741,24 @@ public final class CollectionsTest extends TestCase {
             checkedMap2.merge(1, A_STRING, (v1, v2) -> NOT_A_STRING);
         } catch (ClassCastException expected) {}
     }
+
+    public void test_parallelSort() {
+        Random random = new Random(3);
+        ArrayList<String> arrayList = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            arrayList.add(Integer.toString(random.nextInt()));
+        }
+        List<String> linkedList = new LinkedList<>(arrayList);
+        ArrayList<String> expected = new ArrayList<>(arrayList);
+        Collections.sort(expected);
+
+        Collections.parallelSort(arrayList, null);
+        assertEquals(expected, arrayList);
+        Collections.parallelSort(linkedList, null);
+        assertEquals(expected, linkedList);
+
+        Collections.sort(expected, Comparator.comparing(String::length));
+        Collections.parallelSort(linkedList, Comparator.comparing(String::length));
+        assertEquals(expected, linkedList);
+    }
 }
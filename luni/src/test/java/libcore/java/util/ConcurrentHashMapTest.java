@@ -71,4 +71,53 @@ public class ConcurrentHashMapTest extends junit.framework.TestCase {
         MapDefaultMethodTester.test_merge(new ConcurrentHashMap<>(),
                 false /*doesNotAcceptNullKey*/);
     }
+
+    public void test_statistics() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        assertNull(map.getStatistics());
+        ConcurrentHashMap.Statistics stats = map.enableStatistics();
+        assertSame(stats, map.getStatistics());
+        assertSame(stats, map.enableStatistics());
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        // The default table of 16 bins has to double at least six times to hold 1000 entries.
+        assertTrue(stats.getResizeCount() >= 6);
+        assertTrue(stats.getResizeNanos() >= 0);
+        assertEquals(0, stats.getTreeifiedBinCount());
+    }
+
+    public void test_statistics_treeification() {
+        ConcurrentHashMap<CollidingKey, Integer> map = new ConcurrentHashMap<>(256);
+        ConcurrentHashMap.Statistics stats = map.enableStatistics();
+        for (int i = 0; i < 16; i++) {
+            map.put(new CollidingKey(i), i);
+        }
+        assertEquals(15, stats.getCollisionCount());
+        assertEquals(1, stats.getTreeifiedBinCount());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, (int) map.get(new CollidingKey(i)));
+        }
+    }
+
+    private static final class CollidingKey implements Comparable<CollidingKey> {
+        final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override public int hashCode() {
+            return 42;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).value == value;
+        }
+
+        @Override public int compareTo(CollidingKey o) {
+            return Integer.compare(value, o.value);
+        }
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.util;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.IntHashMap;
+import java.util.LongHashMap;
+import java.util.Random;
+import java.util.Spliterator;
+
+public class PrimitiveHashMapTest extends junit.framework.TestCase {
+
+    public void testIntHashMap_basic() {
+        IntHashMap<String> map = new IntHashMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-1, null));
+        assertEquals("one", map.put(1, "uno"));
+        assertEquals(3, map.size());
+        assertEquals("uno", map.get(1));
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(-1));
+        assertTrue(map.containsKey(-1));
+        assertEquals("default", map.getOrDefault(2, "default"));
+        assertNull(map.getOrDefault(-1, "default"));
+
+        assertEquals("zero", map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertNull(map.remove(0));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+
+    public void testIntHashMap_matchesHashMap() {
+        Random random = new Random(42);
+        IntHashMap<Integer> map = new IntHashMap<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            // Keys that differ only in their high bits stress the hash function.
+            int key = random.nextInt(512) << (random.nextBoolean() ? 0 : 20);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        HashMap<Integer, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        assertEquals(expected, visited);
+        assertEquals(expected.keySet().stream().mapToLong(k -> k).sum(),
+                map.keyStream().asLongStream().sum());
+        assertEquals(expected.size(), map.keyStream().parallel().distinct().count());
+    }
+
+    public void testIntHashMap_keySpliterator() {
+        IntHashMap<String> map = new IntHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "v");
+        }
+        Spliterator.OfInt spliterator = map.keySpliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.DISTINCT));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+        Spliterator.OfInt prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        boolean[] seen = new boolean[1000];
+        prefix.forEachRemaining((int key) -> {
+            assertFalse(seen[key]);
+            seen[key] = true;
+        });
+        while (spliterator.tryAdvance((int key) -> {
+            assertFalse(seen[key]);
+            seen[key] = true;
+        })) {
+        }
+        for (boolean b : seen) {
+            assertTrue(b);
+        }
+    }
+
+    public void testIntHashMap_concurrentModification() {
+        IntHashMap<String> map = new IntHashMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+        try {
+            map.forEach((key, value) -> map.put(key + 100, value));
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+        try {
+            map.forEachKey(key -> map.remove(key));
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+    }
+
+    public void testIntHashMap_toString() {
+        IntHashMap<Object> map = new IntHashMap<>();
+        assertEquals("{}", map.toString());
+        map.put(7, "seven");
+        assertEquals("{7=seven}", map.toString());
+        map.clear();
+        map.put(1, map);
+        assertEquals("{1=(this Map)}", map.toString());
+    }
+
+    public void testLongHashMap_matchesHashMap() {
+        Random random = new Random(42);
+        LongHashMap<Long> map = new LongHashMap<>();
+        HashMap<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            // Keys that differ only in their upper 32 bits stress the hash function.
+            long key = (long) random.nextInt(512) << (random.nextBoolean() ? 0 : 40);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        HashMap<Long, Long> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        assertEquals(expected, visited);
+        assertEquals(expected.keySet().stream().mapToLong(k -> k).sum(),
+                map.keyStream().parallel().sum());
+        assertNull(map.get(Long.MIN_VALUE));
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+    }
+}
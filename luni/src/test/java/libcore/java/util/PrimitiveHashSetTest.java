@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.IntHashSet;
+import java.util.LongHashSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+public class PrimitiveHashSetTest extends junit.framework.TestCase {
+
+    public void testIntHashSet_basic() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(5));
+        assertTrue(set.add(0));
+        assertTrue(set.add(Integer.MIN_VALUE));
+        assertFalse(set.add(5));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(6));
+
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        assertTrue(Arrays.equals(new int[] { Integer.MIN_VALUE, 0, 5 }, values));
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertFalse(set.contains(0));
+        set.clear();
+        assertEquals(0, set.size());
+        assertEquals("[]", set.toString());
+    }
+
+    public void testIntHashSet_matchesHashSet() {
+        Random random = new Random(7);
+        IntHashSet set = new IntHashSet(1);
+        HashSet<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(1024) << (random.nextBoolean() ? 0 : 16);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (int value : expected) {
+            assertTrue(set.contains(value));
+        }
+
+        HashSet<Integer> visited = new HashSet<>();
+        set.forEach(value -> assertTrue(visited.add(value)));
+        assertEquals(expected, visited);
+
+        visited.clear();
+        PrimitiveIterator.OfInt it = set.iterator();
+        while (it.hasNext()) {
+            assertTrue(visited.add(it.nextInt()));
+        }
+        assertEquals(expected, visited);
+        try {
+            it.nextInt();
+            fail();
+        } catch (NoSuchElementException expectedException) {
+        }
+
+        assertEquals(expected.size(), set.stream().parallel().distinct().count());
+        assertEquals(expected.stream().mapToLong(v -> v).sum(), set.stream().asLongStream().sum());
+    }
+
+    public void testIntHashSet_spliterator() {
+        IntHashSet set = new IntHashSet();
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(i * 31);
+            expected.add(i * 31);
+        }
+        SpliteratorTester.runBasicIterationTests_unordered(
+                set.spliterator(), expected, Integer::compare);
+    }
+
+    public void testIntHashSet_concurrentModification() {
+        IntHashSet set = new IntHashSet();
+        set.add(1);
+        set.add(2);
+        try {
+            set.forEach(value -> set.add(value + 100));
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        PrimitiveIterator.OfInt it = set.iterator();
+        it.nextInt();
+        set.add(-1);
+        try {
+            while (it.hasNext()) {
+                it.nextInt();
+            }
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+    }
+
+    public void testLongHashSet_matchesHashSet() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            long value = (long) random.nextInt(1024) << (random.nextBoolean() ? 0 : 32);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        HashSet<Long> visited = new HashSet<>();
+        set.forEach(value -> assertTrue(visited.add(value)));
+        assertEquals(expected, visited);
+        assertEquals(expected.stream().mapToLong(v -> v).sum(), set.stream().parallel().sum());
+        assertEquals(expected.size(), set.toArray().length);
+    }
+}
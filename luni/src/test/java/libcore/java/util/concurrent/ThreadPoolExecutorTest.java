@@ -18,9 +18,14 @@ package libcore.java.util.concurrent;
 
 import junit.framework.TestCase;
 
+import java.lang.ref.WeakReference;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import libcore.java.lang.ref.FinalizationTester;
 
 public class ThreadPoolExecutorTest extends TestCase {
 
@@ -37,4 +42,126 @@ public class ThreadPoolExecutorTest extends TestCase {
         tp.setCorePoolSize(5);
         tp.setMaximumPoolSize(5);
     }
+
+    public void testStatistics() throws Exception {
+        ThreadPoolExecutor tp = new ThreadPoolExecutor(
+                1 /* core pool size */, 1 /* max pool size */,
+                1000, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(10));
+        assertNull(tp.getStatistics());
+        ThreadPoolExecutor.Statistics stats = tp.enableStatistics();
+        assertSame(stats, tp.getStatistics());
+
+        final CountDownLatch blocker = new CountDownLatch(1);
+        tp.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        Runnable queued = () -> {};
+        Runnable removed = () -> {};
+        tp.execute(queued);
+        tp.execute(removed);
+        assertTrue(tp.remove(removed));
+        blocker.countDown();
+        tp.shutdown();
+        assertTrue(tp.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(2, stats.getExecutionLatency().getCount());
+        // The first task was handed directly to a new worker, so only one task was queued.
+        assertEquals(1, stats.getQueueLatency().getCount());
+        assertTrue(stats.getQueueLatency().getPercentileNanos(100) > 0);
+    }
+
+    public void testStatistics_shutdownNowReturnsTasks() throws Exception {
+        ThreadPoolExecutor tp = new ThreadPoolExecutor(
+                1 /* core pool size */, 1 /* max pool size */,
+                1000, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(10));
+        tp.enableStatistics();
+        final CountDownLatch blocker = new CountDownLatch(1);
+        tp.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Runnable queued = () -> {};
+        tp.execute(queued);
+        List<Runnable> pending = tp.shutdownNow();
+        assertEquals(1, pending.size());
+        assertSame(queued, pending.get(0));
+        assertTrue(tp.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    public void testStatistics_tasksAreQueuedUnchanged() throws Exception {
+        ThreadPoolExecutor tp = new ThreadPoolExecutor(
+                1 /* core pool size */, 1 /* max pool size */,
+                1000, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+        ThreadPoolExecutor.Statistics stats = tp.enableStatistics();
+        final CountDownLatch blocker = new CountDownLatch(1);
+        tp.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        // PriorityBlockingQueue casts its elements to Comparable.
+        PrioritizedTask low = new PrioritizedTask(2);
+        PrioritizedTask high = new PrioritizedTask(1);
+        tp.execute(low);
+        tp.execute(high);
+        assertSame(high, tp.getQueue().peek());
+        assertTrue(tp.getQueue().contains(low));
+        blocker.countDown();
+        tp.shutdown();
+        assertTrue(tp.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(2, stats.getQueueLatency().getCount());
+    }
+
+    public void testStatistics_tasksRemovedThroughQueueAreNotRetained() throws Exception {
+        ThreadPoolExecutor tp = new ThreadPoolExecutor(
+                1 /* core pool size */, 1 /* max pool size */,
+                1000, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(10));
+        tp.enableStatistics();
+        final CountDownLatch blocker = new CountDownLatch(1);
+        tp.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        WeakReference<Runnable> removed = queueAndRemoveThroughQueue(tp);
+        FinalizationTester.induceFinalization();
+        assertNull(removed.get());
+        blocker.countDown();
+        tp.shutdown();
+        assertTrue(tp.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    // Queues the task in a helper method so that no local frame keeps it reachable.
+    private static WeakReference<Runnable> queueAndRemoveThroughQueue(ThreadPoolExecutor tp) {
+        Runnable task = new Runnable() {
+            @Override public void run() {}
+        };
+        tp.execute(task);
+        assertTrue(tp.getQueue().remove(task));
+        return new WeakReference<>(task);
+    }
+
+    static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        final int priority;
+
+        PrioritizedTask(int priority) {
+            this.priority = priority;
+        }
+
+        @Override public void run() {}
+
+        @Override public int compareTo(PrioritizedTask other) {
+            return Integer.compare(priority, other.priority);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package libcore.java.util.concurrent;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimingWheelScheduledExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TimingWheelScheduledExecutorTest extends TestCase {
+
+    private TimingWheelScheduledExecutor executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // A small wheel, so that delays span several revolutions.
+        executor = new TimingWheelScheduledExecutor(2, 1, TimeUnit.MILLISECONDS, 16,
+                Executors.defaultThreadFactory());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        super.tearDown();
+    }
+
+    public void testSchedule_runsNoEarlierThanDelay() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        ScheduledFuture<String> future = executor.schedule(() -> {
+            latch.countDown();
+            return "done";
+        }, 50, TimeUnit.MILLISECONDS);
+        assertEquals("done", future.get(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, latch.getCount());
+    }
+
+    public void testSchedule_zeroDelayRunsImmediately() throws Exception {
+        assertEquals("now",
+                executor.schedule(() -> "now", 0, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+        assertEquals(0, executor.getPendingTaskCount());
+    }
+
+    public void testCancel_taskNeverRunsAndIsPurged() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            executor.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS).cancel(false);
+        }
+        executor.schedule(() -> { }, 60, TimeUnit.MILLISECONDS).get(10, TimeUnit.SECONDS);
+        assertEquals(0, runs.get());
+        assertEquals(0, executor.getPendingTaskCount());
+    }
+
+    public void testScheduleAtFixedRate() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        ScheduledFuture<?> future =
+                executor.scheduleAtFixedRate(latch::countDown, 0, 5, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+    }
+
+    public void testScheduleWithFixedDelay() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        ScheduledFuture<?> future =
+                executor.scheduleWithFixedDelay(latch::countDown, 1, 5, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+    }
+
+    public void testShutdown_runsDelayedTasksAndCancelsPeriodicOnes() throws Exception {
+        ScheduledFuture<String> delayed =
+                executor.schedule(() -> "delayed", 30, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> periodic =
+                executor.scheduleAtFixedRate(() -> { }, 1, 1, TimeUnit.HOURS);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals("delayed", delayed.get());
+        assertTrue(periodic.isCancelled());
+        try {
+            executor.schedule(() -> { }, 1, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (RejectedExecutionException expected) {
+        }
+    }
+
+    public void testShutdownNow_returnsPendingTasks() throws Exception {
+        ScheduledFuture<?> future = executor.schedule(() -> { }, 1, TimeUnit.HOURS);
+        List<Runnable> pending = executor.shutdownNow();
+        assertEquals(1, pending.size());
+        assertSame(future, pending.get(0));
+        assertTrue(future.isCancelled());
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    public void testShutdown_racingScheduleEitherRejectsOrCompletes() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            final TimingWheelScheduledExecutor e = new TimingWheelScheduledExecutor(
+                    2, 1, TimeUnit.MILLISECONDS, 16, Executors.defaultThreadFactory());
+            final List<ScheduledFuture<?>> futures = new ArrayList<>();
+            final CountDownLatch started = new CountDownLatch(1);
+            Thread scheduler = new Thread(() -> {
+                try {
+                    while (true) {
+                        futures.add(e.schedule(() -> { }, 1, TimeUnit.MILLISECONDS));
+                        started.countDown();
+                    }
+                } catch (RejectedExecutionException expected) {
+                }
+            });
+            scheduler.start();
+            started.await();
+            e.shutdown();
+            scheduler.join();
+            assertTrue(e.awaitTermination(10, TimeUnit.SECONDS));
+            for (ScheduledFuture<?> future : futures) {
+                assertTrue(future.isDone());
+            }
+        }
+    }
+}
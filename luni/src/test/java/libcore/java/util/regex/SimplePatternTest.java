@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.util.regex;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import junit.framework.TestCase;
+
+/**
+ * Tests patterns simple enough to be matched without ICU: literals, anchored
+ * prefixes, character classes and alternations of literals.
+ */
+public final class SimplePatternTest extends TestCase {
+    public void testLiteral() {
+        assertFinds("abc", "xxabcyabcabd", "2-5", "6-9");
+        assertFinds("needle", "haystack with a needle and another needle", "16-22", "35-41");
+        assertFinds("a", "banana", "1-2", "3-4", "5-6");
+        assertTrue(Pattern.matches("abc", "abc"));
+        assertFalse(Pattern.matches("abc", "abcd"));
+    }
+
+    public void testLiteralFlag() {
+        Pattern p = Pattern.compile("a.c*", Pattern.LITERAL);
+        assertTrue(p.matcher("xa.c*").find());
+        assertFalse(p.matcher("abcc").find());
+    }
+
+    public void testQuoted() {
+        assertFinds(Pattern.quote("1+1=2"), "1+1=2 and 1+1=2", "0-5", "10-15");
+    }
+
+    public void testAnchoredPrefix() {
+        assertFinds("^GET /", "GET /index GET /", "0-5");
+        assertFinds("^GET /", "POST /");
+
+        Matcher m = Pattern.compile("^ab").matcher("xxab");
+        m.region(2, 4);
+        assertTrue(m.lookingAt());
+        m.useAnchoringBounds(false);
+        assertFalse(m.lookingAt());
+    }
+
+    public void testCharacterClasses() {
+        assertFinds("\\d+", "a1b22c333", "1-2", "3-5", "6-9");
+        assertFinds("[a-c]+x", "abcx dx cx", "0-4", "8-10");
+        assertFinds("[^,]+", "a,bc,,d", "0-1", "2-4", "6-7");
+        assertFinds("\\w+\\s*=\\s*\\d{1,3}", "key = 1234, k2=7", "0-9", "12-16");
+        assertTrue(Pattern.matches("[\\d.-]+", "-1.5"));
+    }
+
+    public void testUnicodeClasses() {
+        // Like ICU, \d and \w aren't limited to ASCII.
+        assertTrue(Pattern.matches("\\d+", "\u0661\u0662"));
+        assertTrue(Pattern.matches("\\w+", "caf\u00e9"));
+        assertTrue(Pattern.matches("\\s", "\u2003"));
+        assertFalse(Pattern.matches(".", "\u2028"));
+    }
+
+    public void testSupplementaryCharacters() {
+        String input = "a\uD83D\uDE00b";
+        assertFinds(".", input, "0-1", "1-3", "3-4");
+        assertFinds("[^a]", input, "1-3", "3-4");
+    }
+
+    public void testAlternation() {
+        assertFinds("cat|dog|bird", "dog, cat and bird", "0-3", "5-8", "13-17");
+        // The first alternative that matches wins, as with backtracking.
+        assertFinds("a|ab", "ab", "0-1");
+        assertTrue(Pattern.matches("a|ab", "ab"));
+    }
+
+    public void testBacktracking() {
+        assertFinds("a.*b", "xaxbxbx", "1-6");
+        assertFinds("\\d*5", "12345", "0-5");
+        assertFinds("x?y", "xyy", "0-2", "2-3");
+    }
+
+    public void testEmptyMatches() {
+        assertFinds("a*", "baa", "0-0", "1-3", "3-3");
+        assertFinds("x*", "bc", "0-0", "1-1", "2-2");
+    }
+
+    public void testSplitAndReplace() {
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList("a, b,c".split(",\\s*")));
+        assertEquals("a-b-c", "a1b22c".replaceAll("\\d+", "-"));
+        assertEquals("x.y", "x::y".replaceFirst("::", "."));
+    }
+
+    public void testFindFrom() {
+        Matcher m = Pattern.compile("ab").matcher("abab");
+        m.region(0, 2);
+        assertTrue(m.find(1));
+        assertEquals(2, m.start());
+        // find(int) resets the region to the whole input.
+        assertFalse(m.find());
+    }
+
+    public void testHitEnd() {
+        Matcher m = Pattern.compile("abb").matcher("babbab");
+        assertTrue(m.find());
+        assertFalse(m.hitEnd());
+        assertFalse(m.find());
+        assertTrue(m.hitEnd());
+
+        m = Pattern.compile("\\d+").matcher("12");
+        assertTrue(m.matches());
+        assertTrue(m.hitEnd());
+        assertFalse(m.requireEnd());
+    }
+
+    public void testGroups() {
+        Matcher m = Pattern.compile("b+").matcher("abbc");
+        assertEquals(0, m.groupCount());
+        assertTrue(m.find());
+        assertEquals("bb", m.group());
+        assertEquals("bb", m.group(0));
+        try {
+            m.group(1);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    public void testUsePattern() {
+        Matcher m = Pattern.compile("a+").matcher("aab(c)");
+        assertTrue(m.find());
+        m.usePattern(Pattern.compile("\\((\\w)\\)"));
+        assertEquals(1, m.groupCount());
+        assertTrue(m.find());
+        assertEquals("c", m.group(1));
+        m.usePattern(Pattern.compile("b"));
+        m.reset();
+        assertTrue(m.find());
+        assertEquals(2, m.start());
+    }
+
+    /** Asserts that successive finds of {@code regex} match the given "start-end" ranges. */
+    private static void assertFinds(String regex, String input, String... expected) {
+        Matcher m = Pattern.compile(regex).matcher(input);
+        for (String range : expected) {
+            assertTrue(regex + " in " + input, m.find());
+            assertEquals(regex + " in " + input, range, m.start() + "-" + m.end());
+        }
+        assertFalse(regex + " in " + input, m.find());
+    }
+}
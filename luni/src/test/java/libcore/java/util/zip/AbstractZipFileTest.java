@@ -24,10 +24,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
@@ -196,6 +202,120 @@ public abstract class AbstractZipFileTest extends TestCase {
         zipFile.close();
     }
 
+    public void testGetEntryAgreesWithEntries() throws Exception {
+        final File f = createTemporaryZipFile();
+        ZipOutputStream out = createZipOutputStream(f);
+        String[] names = { "a", "dir/", "dir/b", "\u00e9t\u00e9", "\u4e2d\ud83d\ude00/c" };
+        for (String name : names) {
+            ZipEntry entry = new ZipEntry(name);
+            entry.setComment("comment for " + name);
+            out.putNextEntry(entry);
+            out.write(name.getBytes("UTF-8"));
+            out.closeEntry();
+        }
+        out.close();
+
+        ZipFile zipFile = new ZipFile(f);
+        int count = 0;
+        for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+            ZipEntry expected = e.nextElement();
+            assertEquals(names[count++], expected.getName());
+            ZipEntry actual = zipFile.getEntry(expected.getName());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getComment(), actual.getComment());
+            assertEquals(expected.getCrc(), actual.getCrc());
+            assertEquals(expected.getSize(), actual.getSize());
+            assertEquals(expected.getCompressedSize(), actual.getCompressedSize());
+            assertEquals(expected.getMethod(), actual.getMethod());
+            assertEquals(expected.getTime(), actual.getTime());
+        }
+        assertEquals(names.length, count);
+
+        // Directory entries are also found without their trailing slash.
+        assertEquals("dir", zipFile.getEntry("dir").getName());
+        assertNull(zipFile.getEntry("di"));
+        assertNull(zipFile.getEntry("dir/b/"));
+        assertNull(zipFile.getEntry("missing"));
+        zipFile.close();
+    }
+
+    public void testConcurrentReadsOfDifferentEntries() throws Exception {
+        final int entryCount = 32;
+        final File f = createTemporaryZipFile();
+        writeEntries(createZipOutputStream(f), entryCount, 64 * 1024, true /* setEntrySize */);
+        final ZipFile zipFile = new ZipFile(f);
+        final List<ZipEntry> entries = new ArrayList<ZipEntry>();
+        for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+            entries.add(e.nextElement());
+        }
+        assertEquals(entryCount, entries.size());
+
+        final int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for (int t = 0; t < threadCount; t++) {
+            final int first = t;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override public Void call() throws Exception {
+                    byte[] buffer = new byte[1000];
+                    for (int i = 0; i < entryCount; i++) {
+                        ZipEntry entry = entries.get((first + i) % entryCount);
+                        CRC32 crc = new CRC32();
+                        long size = 0;
+                        InputStream in = zipFile.getInputStream(entry);
+                        int count;
+                        while ((count = in.read(buffer)) != -1) {
+                            crc.update(buffer, 0, count);
+                            size += count;
+                        }
+                        in.close();
+                        assertEquals(entry.getSize(), size);
+                        assertEquals(entry.getCrc(), crc.getValue());
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        zipFile.close();
+    }
+
+    public void testReadAfterCloseDoesNotAffectOtherStreams() throws Exception {
+        final File f = createTemporaryZipFile();
+        writeEntries(createZipOutputStream(f), 2, 64 * 1024, true /* setEntrySize */);
+        ZipFile zipFile = new ZipFile(f);
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        ZipEntry first = entries.nextElement();
+        ZipEntry second = entries.nextElement();
+
+        InputStream closed = zipFile.getInputStream(first);
+        closed.read();
+        closed.close();
+        // The closed stream's inflater may be handed to this one.
+        InputStream in = zipFile.getInputStream(second);
+        try {
+            closed.read(new byte[1000]);
+            fail();
+        } catch (IOException expected) {
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1000];
+        long size = 0;
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            crc.update(buffer, 0, count);
+            size += count;
+        }
+        in.close();
+        assertEquals(second.getSize(), size);
+        assertEquals(second.getCrc(), crc.getValue());
+        zipFile.close();
+    }
+
     // http://code.google.com/p/android/issues/detail?id=36187
     public void testZipFileLargerThan2GiB() throws IOException {
         if (false) { // TODO: this test requires too much time and too much disk space!
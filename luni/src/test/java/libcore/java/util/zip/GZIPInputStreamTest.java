@@ -27,8 +27,10 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import junit.framework.TestCase;
 import libcore.io.IoUtils;
 import libcore.io.Streams;
@@ -192,6 +194,102 @@ public final class GZIPInputStreamTest extends TestCase {
         }
     }
 
+    // A subclass can reach the inflater after the stream is closed, so
+    // closing must end the inflater rather than hand it to another stream.
+    public void testCloseEndsInflater() throws Exception {
+        InflaterExposingGZIPInputStream in = new InflaterExposingGZIPInputStream(
+                new ByteArrayInputStream(HELLO_WORLD_GZIPPED));
+        Inflater inf = in.inflater();
+        in.close();
+        try {
+            inf.inflate(new byte[1]);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testClosedStreamDoesNotShareItsInflater() throws Exception {
+        byte[] data = new byte[64 * 1024];
+        new Random().nextBytes(data);
+        byte[] gzipped = GZIPOutputStreamTest.gzip(data);
+
+        GZIPInputStream closed = new GZIPInputStream(new ByteArrayInputStream(gzipped));
+        closed.read(new byte[1000]);
+        closed.close();
+        closed.close();
+        // The closed stream's inflater may be handed to one of these, but not to both.
+        GZIPInputStream first = new GZIPInputStream(new ByteArrayInputStream(gzipped));
+        GZIPInputStream second = new GZIPInputStream(new ByteArrayInputStream(gzipped));
+        try {
+            closed.read(new byte[1000]);
+            fail();
+        } catch (IOException expected) {
+        }
+
+        ByteArrayOutputStream firstOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        boolean firstDone = false;
+        boolean secondDone = false;
+        while (!firstDone || !secondDone) {
+            firstDone = firstDone || !copySome(first, buffer, firstOut);
+            secondDone = secondDone || !copySome(second, buffer, secondOut);
+        }
+        first.close();
+        second.close();
+        assertTrue(Arrays.equals(data, firstOut.toByteArray()));
+        assertTrue(Arrays.equals(data, secondOut.toByteArray()));
+    }
+
+    public void testCloseWhileReadingDoesNotShareInflater() throws Exception {
+        byte[] data = new byte[1024 * 1024];
+        new Random().nextBytes(data);
+        final byte[] gzipped = GZIPOutputStreamTest.gzip(data);
+
+        final GZIPInputStream closed = new GZIPInputStream(new ByteArrayInputStream(gzipped));
+        final CountDownLatch reading = new CountDownLatch(1);
+        Thread reader = new Thread(new Runnable() {
+            @Override public void run() {
+                byte[] buffer = new byte[1000];
+                try {
+                    while (closed.read(buffer) != -1) {
+                        reading.countDown();
+                    }
+                } catch (IOException expected) {
+                }
+                reading.countDown();
+            }
+        });
+        reader.start();
+        reading.await();
+        closed.close();
+
+        // The closed stream's inflater may be handed to this one while the
+        // reader is still calling read() on the closed stream.
+        assertTrue(Arrays.equals(data, gunzip(gzipped)));
+        reader.join();
+    }
+
+    private static boolean copySome(InputStream in, byte[] buffer, ByteArrayOutputStream out)
+            throws IOException {
+        int count = in.read(buffer);
+        if (count == -1) {
+            return false;
+        }
+        out.write(buffer, 0, count);
+        return true;
+    }
+
+    private static final class InflaterExposingGZIPInputStream extends GZIPInputStream {
+        InflaterExposingGZIPInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        Inflater inflater() {
+            return inf;
+        }
+    }
+
     public static byte[] gunzip(byte[] bytes) throws IOException {
         ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
         InputStream in = new GZIPInputStream(bis);
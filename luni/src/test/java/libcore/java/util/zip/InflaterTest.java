@@ -17,6 +17,8 @@
 package libcore.java.util.zip;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.zip.Adler32;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
@@ -153,4 +155,63 @@ public class InflaterTest extends TestCase {
         assertEquals(0, inflater.getBytesWritten());
         assertEquals(0, inflater.getTotalOut());
     }
+
+    public void testDirectByteBuffers() throws Exception {
+        assertByteBufferRoundTrip(true);
+    }
+
+    public void testHeapByteBuffers() throws Exception {
+        assertByteBufferRoundTrip(false);
+    }
+
+    private static void assertByteBufferRoundTrip(boolean direct) throws Exception {
+        byte[] expectedBytes = makeString().getBytes("UTF-8");
+        ByteBuffer input = allocate(direct, expectedBytes.length);
+        input.put(expectedBytes).flip();
+
+        // Deflate into a buffer that's too small, so deflate has to be called
+        // more than once.
+        Deflater deflater = new Deflater();
+        deflater.setInput(input);
+        deflater.finish();
+        ByteBuffer deflated = allocate(direct, expectedBytes.length);
+        ByteBuffer chunk = allocate(direct, 100);
+        while (!deflater.finished()) {
+            chunk.clear();
+            deflater.deflate(chunk);
+            chunk.flip();
+            deflated.put(chunk);
+        }
+        deflater.end();
+        assertEquals(0, input.remaining());
+        deflated.flip();
+
+        // Inflating advances the input buffer too.
+        ByteBuffer inflated = allocate(direct, expectedBytes.length);
+        Inflater inflater = new Inflater();
+        inflater.setInput(deflated);
+        while (!inflater.finished()) {
+            assertTrue(inflater.inflate(inflated) > 0 || inflater.finished());
+        }
+        inflater.end();
+        assertEquals(0, deflated.remaining());
+        assertEquals(expectedBytes.length, inflated.position());
+
+        byte[] actual = new byte[expectedBytes.length];
+        inflated.flip();
+        inflated.get(actual);
+        assertTrue(Arrays.equals(expectedBytes, actual));
+
+        // A read-only heap or direct buffer is also acceptable input.
+        deflated.rewind();
+        inflater = new Inflater();
+        inflater.setInput(deflated.asReadOnlyBuffer());
+        assertEquals(expectedBytes.length, inflater.inflate(new byte[expectedBytes.length]));
+        assertTrue(inflater.finished());
+        inflater.end();
+    }
+
+    private static ByteBuffer allocate(boolean direct, int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
 }
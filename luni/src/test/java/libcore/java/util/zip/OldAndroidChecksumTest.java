@@ -18,6 +18,7 @@ package libcore.java.util.zip;
 
 import junit.framework.TestCase;
 
+import java.nio.ByteBuffer;
 import java.util.zip.Adler32;
 import java.util.zip.CRC32;
 
@@ -50,6 +51,16 @@ public class OldAndroidChecksumTest extends TestCase {
             adler.update(values[i]);
         }
         assertEquals(adler.getValue(), expected);
+
+        // try direct and heap buffers, which should be consumed
+        for (ByteBuffer buffer : new ByteBuffer[] {
+                ByteBuffer.allocateDirect(values.length), ByteBuffer.allocate(values.length) }) {
+            buffer.put(values).flip();
+            adler.reset();
+            adler.update(buffer);
+            assertEquals(adler.getValue(), expected);
+            assertEquals(0, buffer.remaining());
+        }
     }
 
     private void cRC32Test(byte[] values, long expected) {
@@ -65,6 +76,16 @@ public class OldAndroidChecksumTest extends TestCase {
             crc.update(values[i]);
         }
         assertEquals(crc.getValue(), expected);
+
+        // try direct and heap buffers, which should be consumed
+        for (ByteBuffer buffer : new ByteBuffer[] {
+                ByteBuffer.allocateDirect(values.length), ByteBuffer.allocate(values.length) }) {
+            buffer.put(values).flip();
+            crc.reset();
+            crc.update(buffer);
+            assertEquals(crc.getValue(), expected);
+            assertEquals(0, buffer.remaining());
+        }
     }
 
     // "The quick brown fox jumped over the lazy dogs\n"
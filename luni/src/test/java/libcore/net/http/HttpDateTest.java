@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.net.http;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+public final class HttpDateTest extends TestCase {
+    private static final long NOV_6_1994 = 784111777000L; // Sun, 06 Nov 1994 08:49:37 GMT
+
+    public void testParseStandardForms() {
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun, 06 Nov 1994 08:49:37 GMT").getTime());
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun, 06 Nov 1994 08:49:37 UTC").getTime());
+        assertEquals(NOV_6_1994, HttpDate.parse("Sunday, 06-Nov-94 08:49:37 GMT").getTime());
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun Nov  6 08:49:37 1994").getTime());
+        assertEquals(NOV_6_1994 + 10 * 86400000L,
+                HttpDate.parse("Wed Nov 16 08:49:37 1994").getTime());
+    }
+
+    public void testParseLeapDay() {
+        assertEquals(951782400000L, HttpDate.parse("Tue, 29 Feb 2000 00:00:00 GMT").getTime());
+        // 2100 is not a leap year; like SimpleDateFormat, the date rolls over.
+        assertEquals(4107628799000L, HttpDate.parse("Mon, 29 Feb 2100 23:59:59 GMT").getTime());
+    }
+
+    public void testParseBrowserCompatibleForms() {
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun, 6 Nov 1994 08:49:37 GMT").getTime());
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun, 06-Nov-1994 08:49:37 GMT").getTime());
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun, 06 Nov 1994 00:49:37 PST").getTime());
+        assertEquals(NOV_6_1994, HttpDate.parse("Sun, 06 Nov 1994 08:49:37 GMT; x").getTime());
+        assertNull(HttpDate.parse("Sun, 06 Nov"));
+        assertNull(HttpDate.parse(""));
+    }
+
+    public void testParseTwoDigitYears() {
+        int year = new Date().getYear() + 1900;
+        // Years 10 years ahead are in this century, 30 years ahead in the last.
+        assertEquals(year + 10, yearOf(HttpDate.parse(
+                "Monday, 01-Jan-" + twoDigits(year + 10) + " 00:00:00 GMT")));
+        assertEquals(year + 30 - 100, yearOf(HttpDate.parse(
+                "Monday, 01-Jan-" + twoDigits(year + 30) + " 00:00:00 GMT")));
+    }
+
+    public void testFormat() {
+        assertEquals("Sun, 06 Nov 1994 08:49:37 GMT", HttpDate.format(new Date(NOV_6_1994)));
+        assertEquals("Sun, 06 Nov 1994 08:49:37 GMT",
+                HttpDate.format(new Date(NOV_6_1994 + 999)));
+        assertEquals("Thu, 01 Jan 1970 00:00:00 GMT", HttpDate.format(new Date(0)));
+        assertEquals("Wed, 31 Dec 1969 23:59:59 GMT", HttpDate.format(new Date(-1)));
+        assertEquals("Fri, 31 Dec 9999 23:59:59 GMT",
+                HttpDate.format(new Date(253402300799000L)));
+    }
+
+    public void testFormatMatchesSimpleDateFormat() throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        for (long millis = -20000000000000L; millis < 20000000000000L; millis += 7777777777L) {
+            Date date = new Date(millis);
+            String formatted = HttpDate.format(date);
+            assertEquals(format.format(date), formatted);
+            assertEquals(format.parse(formatted), HttpDate.parse(formatted));
+        }
+    }
+
+    private static int yearOf(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return Integer.parseInt(format.format(date));
+    }
+
+    private static String twoDigits(int year) {
+        return String.format(Locale.US, "%02d", year % 100);
+    }
+}
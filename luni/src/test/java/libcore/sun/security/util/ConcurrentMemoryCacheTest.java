@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.sun.security.util;
+
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+import sun.security.util.Cache;
+import sun.security.util.ConcurrentMemoryCache;
+
+public final class ConcurrentMemoryCacheTest extends TestCase {
+
+    public void testPutGetRemove() {
+        ConcurrentMemoryCache<String, String> cache = new ConcurrentMemoryCache<>(false, 10);
+        assertNull(cache.get("a"));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals(2, cache.size());
+
+        cache.put("a", "3");
+        assertEquals("3", cache.get("a"));
+        assertEquals(2, cache.size());
+
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.size());
+    }
+
+    public void testMaximumSize() {
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<>(true, 750);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, "value" + i);
+        }
+        assertTrue(cache.size() <= 750);
+
+        cache.setCapacity(10);
+        assertTrue(cache.size() <= 10);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "value" + i);
+        }
+        assertTrue(cache.size() <= 10);
+    }
+
+    public void testReplacingOneKeyKeepsOneEntry() {
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<>(false, 0);
+        for (int i = 0; i < 100000; i++) {
+            cache.put(1, "value" + i);
+        }
+        assertEquals(1, cache.size());
+        assertEquals("value99999", cache.get(1));
+    }
+
+    public void testRecentlyUsedEntriesAreKept() {
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<>(true, 64);
+        cache.put(-1, "hot");
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "cold");
+            assertEquals("hot", cache.get(-1));
+        }
+    }
+
+    public void testLifetime() throws Exception {
+        ConcurrentMemoryCache<String, String> cache = new ConcurrentMemoryCache<>(false, 10, 1);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        Thread.sleep(1100);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    public void testStatistics() {
+        ConcurrentMemoryCache<String, String> cache = new ConcurrentMemoryCache<>(true, 10);
+        assertEquals(0.0, cache.hitRate());
+        cache.put("a", "1");
+        cache.get("a");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        assertEquals(3, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.75, cache.hitRate());
+    }
+
+    public void testAccept() {
+        ConcurrentMemoryCache<String, String> cache = new ConcurrentMemoryCache<>(false, 10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        final Map<?, ?>[] visited = new Map<?, ?>[1];
+        cache.accept(new Cache.CacheVisitor<String, String>() {
+            @Override public void visit(Map<String, String> map) {
+                visited[0] = map;
+            }
+        });
+        assertEquals(2, visited[0].size());
+        assertEquals("1", visited[0].get("a"));
+        assertEquals("2", visited[0].get("b"));
+    }
+
+    public void testConcurrentUse() throws Exception {
+        final ConcurrentMemoryCache<Integer, Integer> cache =
+                new ConcurrentMemoryCache<>(true, 750);
+        final AssertionError[] failure = new AssertionError[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 100000; i++) {
+                        int key = random.nextInt(2000);
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else if (value != key) {
+                            failure[0] = new AssertionError(key + " mapped to " + value);
+                        }
+                        if (i % 1000 == 0) {
+                            cache.remove(key);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        assertTrue(cache.size() <= 750);
+    }
+}
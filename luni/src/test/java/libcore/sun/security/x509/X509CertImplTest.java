@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.sun.security.x509;
+
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import junit.framework.TestCase;
+import libcore.java.security.TestKeyStore;
+import sun.security.x509.X509CertImpl;
+
+public final class X509CertImplTest extends TestCase {
+
+    private static X509Certificate[] getChain() {
+        Certificate[] chain = TestKeyStore.getServer().getPrivateKey("RSA", "RSA")
+                .getCertificateChain();
+        return Arrays.copyOf(chain, chain.length, X509Certificate[].class);
+    }
+
+    public void testLazyDecodingMatchesEagerDecoding() throws Exception {
+        X509Certificate[] chain = getChain();
+        for (int i = 0; i < chain.length; i++) {
+            byte[] encoded = chain[i].getEncoded();
+            X509CertImpl eager = new X509CertImpl(encoded);
+            X509CertImpl lazy = new X509CertImpl(encoded, true);
+
+            assertEquals(eager.getVersion(), lazy.getVersion());
+            assertEquals(eager.getSerialNumber(), lazy.getSerialNumber());
+            assertEquals(eager.getSubjectX500Principal(), lazy.getSubjectX500Principal());
+            assertEquals(eager.getIssuerX500Principal(), lazy.getIssuerX500Principal());
+            assertEquals(eager.getSubjectDN(), lazy.getSubjectDN());
+            assertEquals(eager.getIssuerDN(), lazy.getIssuerDN());
+            assertEquals(eager.getNotBefore(), lazy.getNotBefore());
+            assertEquals(eager.getNotAfter(), lazy.getNotAfter());
+            assertEquals(eager.getPublicKey(), lazy.getPublicKey());
+            assertEquals(eager.getBasicConstraints(), lazy.getBasicConstraints());
+            assertTrue(Arrays.equals(eager.getKeyUsage(), lazy.getKeyUsage()));
+            assertEquals(eager.getCriticalExtensionOIDs(), lazy.getCriticalExtensionOIDs());
+            assertEquals(eager.getNonCriticalExtensionOIDs(), lazy.getNonCriticalExtensionOIDs());
+            assertEquals(eager.hasUnsupportedCriticalExtension(),
+                    lazy.hasUnsupportedCriticalExtension());
+            assertTrue(Arrays.equals(eager.getExtensionValue("2.5.29.19"),
+                    lazy.getExtensionValue("2.5.29.19")));
+            assertTrue(Arrays.equals(eager.getTBSCertificate(), lazy.getTBSCertificate()));
+            assertTrue(Arrays.equals(eager.getIssuerUniqueID(), lazy.getIssuerUniqueID()));
+            assertEquals(eager.toString(), lazy.toString());
+            assertEquals(eager, lazy);
+
+            lazy.checkValidity();
+            X509Certificate issuer = chain[Math.min(i + 1, chain.length - 1)];
+            lazy.verify(issuer.getPublicKey());
+        }
+    }
+
+    public void testLazyDecodingChecksStructure() throws Exception {
+        byte[] encoded = getChain()[0].getEncoded();
+        try {
+            new X509CertImpl(Arrays.copyOf(encoded, encoded.length - 1), true);
+            fail();
+        } catch (CertificateException expected) {
+        }
+
+        // Change the tag of the issuer name, which follows the version, the
+        // serial number and the signature algorithm in the TBSCertificate.
+        X509CertImpl eager = new X509CertImpl(encoded);
+        byte[] issuer = eager.getEncodedIssuerInternal();
+        int offset = indexOf(encoded, issuer);
+        assertTrue(offset > 0);
+        byte[] corrupted = encoded.clone();
+        corrupted[offset] = 0x04;
+        try {
+            new X509CertImpl(corrupted, true);
+            fail();
+        } catch (CertificateException expected) {
+        }
+    }
+
+    public void testLazyDecodingRejectsMalformedExtensions() throws Exception {
+        X509Certificate[] chain = getChain();
+        byte[] encoded = chain[chain.length - 1].getEncoded();
+
+        // Change the tag of the value of the root's critical basic
+        // constraints extension, an OCTET STRING wrapping a SEQUENCE.
+        X509CertImpl eager = new X509CertImpl(encoded);
+        assertTrue(eager.getCriticalExtensionOIDs().contains("2.5.29.19"));
+        byte[] value = eager.getExtensionValue("2.5.29.19");
+        int offset = indexOf(encoded, value);
+        assertTrue(offset > 0);
+        byte[] corrupted = encoded.clone();
+        corrupted[offset + 2] = 0x04;
+        try {
+            new X509CertImpl(corrupted);
+            fail();
+        } catch (CertificateException expected) {
+        }
+        try {
+            new X509CertImpl(corrupted, true);
+            fail();
+        } catch (CertificateException expected) {
+        }
+    }
+
+    public void testNameMatching() throws Exception {
+        X509Certificate[] chain = getChain();
+        X509Certificate root = chain[chain.length - 1];
+        for (X509Certificate cert : chain) {
+            X509CertImpl lazy = new X509CertImpl(cert.getEncoded(), true);
+            assertTrue(X509CertImpl.subjectEquals(lazy, cert.getSubjectX500Principal()));
+            assertTrue(X509CertImpl.issuerEquals(lazy, cert.getIssuerX500Principal()));
+            assertTrue(X509CertImpl.subjectEquals(cert, cert.getSubjectX500Principal()));
+            assertEquals(cert == root, X509CertImpl.isSelfIssued(lazy));
+            assertTrue(Arrays.equals(cert.getSubjectX500Principal().getEncoded(),
+                    lazy.getEncodedSubjectInternal()));
+        }
+        X509CertImpl server = new X509CertImpl(chain[0].getEncoded(), true);
+        assertFalse(X509CertImpl.subjectEquals(server, root.getSubjectX500Principal()));
+        assertFalse(X509CertImpl.issuerEquals(server, server.getSubjectX500Principal()));
+    }
+
+    private static int indexOf(byte[] array, byte[] target) {
+        outer:
+        for (int i = 0; i <= array.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (array[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
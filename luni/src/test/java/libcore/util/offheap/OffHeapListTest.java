@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import java.util.ConcurrentModificationException;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import junit.framework.TestCase;
+
+public class OffHeapListTest extends TestCase {
+    public void testLongList() {
+        try (OffHeapLongList list = new OffHeapLongList(0)) {
+            for (long i = 0; i < 1000; i++) {
+                list.add(i * 0x100000001L);
+            }
+            list.addAll(new long[] { -1, -2, -3 }, 1, 2);
+            assertEquals(1002, list.size());
+            assertEquals(999 * 0x100000001L, list.get(999));
+            assertEquals(-2, list.get(1000));
+            list.set(0, 42);
+            assertEquals(42, list.get(0));
+            assertEquals(-3, list.removeLast());
+            assertEquals(1001, list.size());
+
+            long[] array = list.toArray();
+            assertEquals(1001, array.length);
+            assertEquals(42, array[0]);
+            assertEquals(-2, array[1000]);
+
+            final long[] sum = new long[1];
+            list.forEach(new LongConsumer() {
+                @Override public void accept(long value) {
+                    sum[0] += value;
+                }
+            });
+            long expectedSum = 42 - 2;
+            for (long i = 1; i < 1000; i++) {
+                expectedSum += i * 0x100000001L;
+            }
+            assertEquals(expectedSum, sum[0]);
+        }
+    }
+
+    public void testIntList() {
+        try (OffHeapIntList list = new OffHeapIntList()) {
+            for (int i = 0; i < 1000; i++) {
+                list.add(-i);
+            }
+            assertEquals(1000, list.size());
+            assertEquals(-999, list.get(999));
+            list.clear();
+            assertTrue(list.isEmpty());
+            list.addAll(new int[] { 1, 2, 3 }, 0, 3);
+            assertEquals(3, list.toArray()[2]);
+
+            final int[] count = new int[1];
+            list.forEach(new IntConsumer() {
+                @Override public void accept(int value) {
+                    count[0]++;
+                }
+            });
+            assertEquals(3, count[0]);
+        }
+    }
+
+    public void testIndexChecks() {
+        try (OffHeapLongList list = new OffHeapLongList()) {
+            list.add(1);
+            try {
+                list.get(1);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                list.set(-1, 0);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                list.addAll(new long[2], 1, 2);
+                fail();
+            } catch (ArrayIndexOutOfBoundsException expected) {
+            }
+            list.removeLast();
+            try {
+                list.removeLast();
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+    }
+
+    public void testForEachDetectsModification() {
+        final OffHeapIntList list = new OffHeapIntList();
+        list.add(1);
+        list.add(2);
+        try {
+            list.forEach(new IntConsumer() {
+                @Override public void accept(int value) {
+                    list.add(value);
+                }
+            });
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+    }
+
+    public void testClose() {
+        OffHeapLongList list = new OffHeapLongList();
+        list.add(1);
+        list.close();
+        list.close();
+        try {
+            list.get(0);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            list.add(1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class OffHeapLongLongMapTest extends TestCase {
+    public void testPutGetRemove() {
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap()) {
+            assertTrue(map.isEmpty());
+            map.put(1, 10);
+            map.put(-1, 20);
+            map.put(Long.MIN_VALUE, 30);
+            map.put(1, 11);
+            assertEquals(3, map.size());
+            assertEquals(11, map.get(1));
+            assertEquals(20, map.get(-1));
+            assertEquals(30, map.get(Long.MIN_VALUE));
+            assertEquals(0, map.get(2));
+            assertEquals(-5, map.get(2, -5));
+            assertTrue(map.remove(1));
+            assertFalse(map.remove(1));
+            assertFalse(map.containsKey(1));
+            assertEquals(2, map.size());
+        }
+    }
+
+    public void testZeroKey() {
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap()) {
+            assertFalse(map.containsKey(0));
+            assertEquals(-1, map.get(0, -1));
+            map.put(0, 0);
+            assertTrue(map.containsKey(0));
+            assertEquals(1, map.size());
+            map.put(0, 5);
+            assertEquals(5, map.get(0));
+            assertTrue(map.remove(0));
+            assertTrue(map.isEmpty());
+        }
+    }
+
+    public void testAgainstHashMap() {
+        Random random = new Random(42);
+        HashMap<Long, Long> expected = new HashMap<>();
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap()) {
+            for (int i = 0; i < 100000; i++) {
+                long key = random.nextInt(5000) - 1000;
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.remove(key) != null, map.remove(key));
+                        break;
+                    default:
+                        long value = random.nextLong();
+                        expected.put(key, value);
+                        map.put(key, value);
+                        break;
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                assertEquals((long) entry.getValue(), map.get(entry.getKey(), 12345));
+            }
+
+            final HashMap<Long, Long> actual = new HashMap<>();
+            map.forEach(new OffHeapLongLongMap.EntryConsumer() {
+                @Override public void accept(long key, long value) {
+                    assertNull(actual.put(key, value));
+                }
+            });
+            assertEquals(expected, actual);
+        }
+    }
+
+    public void testClear() {
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap(100)) {
+            for (int i = 0; i < 100; i++) {
+                map.put(i, i);
+            }
+            map.clear();
+            assertTrue(map.isEmpty());
+            assertFalse(map.containsKey(0));
+            assertFalse(map.containsKey(50));
+            map.put(50, 1);
+            assertEquals(1, map.get(50));
+        }
+    }
+
+    public void testForEachDetectsModification() {
+        final OffHeapLongLongMap map = new OffHeapLongLongMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        try {
+            map.forEach(new OffHeapLongLongMap.EntryConsumer() {
+                @Override public void accept(long key, long value) {
+                    map.close();
+                }
+            });
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+    }
+
+    public void testClose() {
+        OffHeapLongLongMap map = new OffHeapLongLongMap();
+        map.put(1, 1);
+        map.close();
+        map.close();
+        try {
+            map.get(1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            map.put(1, 1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util.offheap;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.function.LongConsumer;
+import junit.framework.TestCase;
+
+public class OffHeapLongSetTest extends TestCase {
+    public void testAddContainsRemove() {
+        try (OffHeapLongSet set = new OffHeapLongSet()) {
+            assertTrue(set.add(0));
+            assertTrue(set.add(7));
+            assertTrue(set.add(Long.MAX_VALUE));
+            assertFalse(set.add(7));
+            assertEquals(3, set.size());
+            assertTrue(set.contains(0));
+            assertTrue(set.contains(Long.MAX_VALUE));
+            assertFalse(set.contains(8));
+            assertTrue(set.remove(0));
+            assertFalse(set.remove(0));
+            assertTrue(set.remove(7));
+            assertEquals(1, set.size());
+        }
+    }
+
+    public void testAgainstHashSet() {
+        Random random = new Random(42);
+        HashSet<Long> expected = new HashSet<>();
+        try (OffHeapLongSet set = new OffHeapLongSet(10)) {
+            for (int i = 0; i < 100000; i++) {
+                // Multiples of 2^32 collide in the low bits.
+                long value = (random.nextInt(3000) - 1000) * (random.nextBoolean() ? 1L : 1L << 32);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(value), set.remove(value));
+                } else {
+                    assertEquals(expected.add(value), set.add(value));
+                }
+                assertEquals(expected.size(), set.size());
+            }
+            for (long value : expected) {
+                assertTrue(set.contains(value));
+            }
+
+            final HashSet<Long> actual = new HashSet<>();
+            set.forEach(new LongConsumer() {
+                @Override public void accept(long value) {
+                    assertTrue(actual.add(value));
+                }
+            });
+            assertEquals(expected, actual);
+
+            long[] array = set.toArray();
+            assertEquals(expected.size(), array.length);
+            for (long value : array) {
+                assertTrue(expected.contains(value));
+            }
+        }
+    }
+
+    public void testClearAndClose() {
+        OffHeapLongSet set = new OffHeapLongSet();
+        set.add(1);
+        set.add(0);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals("[]", Arrays.toString(set.toArray()));
+        set.close();
+        try {
+            set.contains(1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
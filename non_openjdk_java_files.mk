@@ -140,6 +140,7 @@ non_openjdk_javadoc_files := \
   luni/src/main/java/java/util/concurrent/ThreadPoolExecutor.java \
   luni/src/main/java/java/util/concurrent/TimeUnit.java \
   luni/src/main/java/java/util/concurrent/TimeoutException.java \
+  luni/src/main/java/java/util/concurrent/TimingWheelScheduledExecutor.java \
   luni/src/main/java/java/util/concurrent/TransferQueue.java \
   luni/src/main/java/java/util/concurrent/atomic/AtomicBoolean.java \
   luni/src/main/java/java/util/concurrent/atomic/AtomicInteger.java \
@@ -364,6 +365,7 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/icu/NativeConverter.java \
   luni/src/main/java/libcore/icu/RelativeDateTimeFormatter.java \
   luni/src/main/java/libcore/icu/TimeZoneNames.java \
+  luni/src/main/java/libcore/internal/ConcurrentStringPool.java \
   luni/src/main/java/libcore/internal/StringPool.java \
   luni/src/main/java/libcore/io/AsynchronousCloseMonitor.java \
   luni/src/main/java/libcore/io/ClassPathURLStreamHandler.java \
@@ -373,6 +375,8 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/io/DropBox.java \
   luni/src/main/java/libcore/io/EventLogger.java \
   luni/src/main/java/libcore/io/ForwardingOs.java \
+  luni/src/main/java/libcore/io/GZIPReadableByteChannel.java \
+  luni/src/main/java/libcore/io/GZIPWritableByteChannel.java \
   luni/src/main/java/libcore/io/IoBridge.java \
   luni/src/main/java/libcore/io/IoUtils.java \
   luni/src/main/java/libcore/io/Libcore.java \
@@ -392,6 +396,7 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/net/http/HttpDate.java \
   luni/src/main/java/libcore/net/http/ResponseUtils.java \
   luni/src/main/java/libcore/reflect/AnnotatedElements.java \
+  luni/src/main/java/libcore/reflect/AnnotationCache.java \
   luni/src/main/java/libcore/reflect/AnnotationFactory.java \
   luni/src/main/java/libcore/reflect/AnnotationMember.java \
   luni/src/main/java/libcore/reflect/GenericArrayTypeImpl.java \
@@ -402,6 +407,7 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/reflect/ParameterizedTypeImpl.java \
   luni/src/main/java/libcore/reflect/TypeVariableImpl.java \
   luni/src/main/java/libcore/reflect/Types.java \
+  luni/src/main/java/libcore/reflect/WeakClassMap.java \
   luni/src/main/java/libcore/reflect/WildcardTypeImpl.java \
   luni/src/main/java/libcore/util/CharsetUtils.java \
   luni/src/main/java/libcore/util/EmptyArray.java \
@@ -415,6 +421,11 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/util/ZoneInfo.java \
   luni/src/main/java/libcore/util/ZoneInfoDB.java \
   luni/src/main/java/libcore/util/HexEncoding.java \
+  luni/src/main/java/libcore/util/offheap/NativeMemory.java \
+  luni/src/main/java/libcore/util/offheap/OffHeapIntList.java \
+  luni/src/main/java/libcore/util/offheap/OffHeapLongList.java \
+  luni/src/main/java/libcore/util/offheap/OffHeapLongLongMap.java \
+  luni/src/main/java/libcore/util/offheap/OffHeapLongSet.java \
   dalvik/src/main/java/org/apache/harmony/dalvik/NativeTestTarget.java \
   dalvik/src/main/java/org/apache/harmony/dalvik/ddmc/Chunk.java \
   dalvik/src/main/java/org/apache/harmony/dalvik/ddmc/ChunkHandler.java \
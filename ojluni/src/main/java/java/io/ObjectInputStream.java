@@ -1983,6 +1983,10 @@ public class ObjectInputStream
             desc.setPrimFieldValues(obj, primVals);
         }
 
+        // Android-added: Skip object fields of classes that have none.
+        if (desc.getNumObjFields() == 0) {
+            return;
+        }
         int objHandle = passHandle;
         ObjectStreamField[] fields = desc.getFields(false);
         Object[] objVals = new Object[desc.getNumObjFields()];
@@ -239,8 +239,9 @@ public class ObjectOutputStream
     public ObjectOutputStream(OutputStream out) throws IOException {
         verifySubclass();
         bout = new BlockDataOutputStream(out);
-        handles = new HandleTable(10, (float) 3.00);
-        subs = new ReplaceTable(10, (float) 3.00);
+        // Android-changed: HandleTable has no load factor.
+        handles = new HandleTable(10);
+        subs = new ReplaceTable(10);
         enableOverride = false;
         writeStreamHeader();
         bout.setBlockDataMode(true);
@@ -1569,6 +1570,10 @@ public class ObjectOutputStream
         desc.getPrimFieldValues(obj, primVals);
         bout.write(primVals, 0, primDataSize, false);
 
+        // Android-added: Skip object fields of classes that have none.
+        if (desc.getNumObjFields() == 0) {
+            return;
+        }
         ObjectStreamField[] fields = desc.getFields(false);
         Object[] objVals = new Object[desc.getNumObjFields()];
         int numPrimFields = fields.length - objVals.length;
@@ -2307,35 +2312,36 @@ public class ObjectOutputStream
         }
     }
 
+    // BEGIN Android-changed: Use open addressing in HandleTable.
     /**
      * Lightweight identity hash table which maps objects to integer handles,
-     * assigned in ascending order.
+     * assigned in ascending order.  Collisions are resolved by linear probing
+     * in a power of two sized table that is kept at most half full, so a
+     * lookup usually reads a single slot.
      */
     private static class HandleTable {
 
         /* number of mappings in table/next available handle */
         private int size;
-        /* size threshold determining when to expand hash spine */
+        /* size threshold determining when to expand the table */
         private int threshold;
-        /* factor for computing size threshold */
-        private final float loadFactor;
-        /* maps hash value -> candidate handle value */
-        private int[] spine;
-        /* maps handle value -> next candidate handle value */
-        private int[] next;
-        /* maps handle value -> associated object */
-        private Object[] objs;
+        /* shift which maps a mixed hash value to a slot */
+        private int shift;
+        /* maps slot -> object, or null if the slot is free */
+        private Object[] keys;
+        /* maps slot -> handle of the object in that slot */
+        private int[] handles;
 
         /**
-         * Creates new HandleTable with given capacity and load factor.
+         * Creates new HandleTable which can hold the given number of mappings
+         * before it has to grow.
          */
-        HandleTable(int initialCapacity, float loadFactor) {
-            this.loadFactor = loadFactor;
-            spine = new int[initialCapacity];
-            next = new int[initialCapacity];
-            objs = new Object[initialCapacity];
-            threshold = (int) (initialCapacity * loadFactor);
-            clear();
+        HandleTable(int initialCapacity) {
+            int length = 4;
+            while (length < initialCapacity * 2) {
+                length <<= 1;
+            }
+            allocate(length);
         }
 
         /**
@@ -2343,11 +2349,8 @@ public class ObjectOutputStream
          * value.  Handles are assigned in ascending order starting at 0.
          */
         int assign(Object obj) {
-            if (size >= next.length) {
-                growEntries();
-            }
             if (size >= threshold) {
-                growSpine();
+                grow();
             }
             insert(obj, size);
             return size++;
@@ -2358,25 +2361,29 @@ public class ObjectOutputStream
          * no mapping found.
          */
         int lookup(Object obj) {
-            if (size == 0) {
+            if (size == 0 || obj == null) {
                 return -1;
             }
-            int index = hash(obj) % spine.length;
-            for (int i = spine[index]; i >= 0; i = next[i]) {
-                if (objs[i] == obj) {
-                    return i;
+            Object[] keys = this.keys;
+            int mask = keys.length - 1;
+            for (int i = hash(obj); ; i = (i + 1) & mask) {
+                Object key = keys[i];
+                if (key == obj) {
+                    return handles[i];
+                } else if (key == null) {
+                    return -1;
                 }
             }
-            return -1;
         }
 
         /**
          * Resets table to its initial (empty) state.
          */
         void clear() {
-            Arrays.fill(spine, -1);
-            Arrays.fill(objs, 0, size, null);
-            size = 0;
+            if (size > 0) {
+                Arrays.fill(keys, null);
+                size = 0;
+            }
         }
 
         /**
@@ -2391,46 +2398,46 @@ public class ObjectOutputStream
          * is large enough to accommodate new mapping.
          */
         private void insert(Object obj, int handle) {
-            int index = hash(obj) % spine.length;
-            objs[handle] = obj;
-            next[handle] = spine[index];
-            spine[index] = handle;
+            int mask = keys.length - 1;
+            int i = hash(obj);
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = obj;
+            handles[i] = handle;
         }
 
         /**
-         * Expands the hash "spine" -- equivalent to increasing the number of
-         * buckets in a conventional hash table.
+         * Doubles the number of slots and reinserts all mappings.
          */
-        private void growSpine() {
-            spine = new int[(spine.length << 1) + 1];
-            threshold = (int) (spine.length * loadFactor);
-            Arrays.fill(spine, -1);
-            for (int i = 0; i < size; i++) {
-                insert(objs[i], i);
+        private void grow() {
+            Object[] oldKeys = keys;
+            int[] oldHandles = handles;
+            allocate(oldKeys.length << 1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    insert(oldKeys[i], oldHandles[i]);
+                }
             }
         }
 
-        /**
-         * Increases hash table capacity by lengthening entry arrays.
-         */
-        private void growEntries() {
-            int newLength = (next.length << 1) + 1;
-            int[] newNext = new int[newLength];
-            System.arraycopy(next, 0, newNext, 0, size);
-            next = newNext;
-
-            Object[] newObjs = new Object[newLength];
-            System.arraycopy(objs, 0, newObjs, 0, size);
-            objs = newObjs;
+        private void allocate(int length) {
+            keys = new Object[length];
+            handles = new int[length];
+            threshold = length >> 1;
+            shift = Integer.numberOfLeadingZeros(length) + 1;
         }
 
         /**
-         * Returns hash value for given object.
+         * Returns the slot of given object, taken from the high bits of its
+         * identity hash code multiplied by the golden ratio, so that nearby
+         * hash codes are spread over the table.
          */
         private int hash(Object obj) {
-            return System.identityHashCode(obj) & 0x7FFFFFFF;
+            return (System.identityHashCode(obj) * 0x9E3779B9) >>> shift;
         }
     }
+    // END Android-changed: Use open addressing in HandleTable.
 
     /**
      * Lightweight identity hash table which maps objects to replacement
@@ -2444,10 +2451,11 @@ public class ObjectOutputStream
         private Object[] reps;
 
         /**
-         * Creates new ReplaceTable with given capacity and load factor.
+         * Creates new ReplaceTable with given capacity.
          */
-        ReplaceTable(int initialCapacity, float loadFactor) {
-            htab = new HandleTable(initialCapacity, loadFactor);
+        // Android-changed: HandleTable has no load factor.
+        ReplaceTable(int initialCapacity) {
+            htab = new HandleTable(initialCapacity);
             reps = new Object[initialCapacity];
         }
 
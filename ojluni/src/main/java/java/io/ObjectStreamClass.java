@@ -54,6 +54,7 @@ import sun.reflect.Reflection;
 import sun.reflect.misc.ReflectUtil;
 import dalvik.system.VMRuntime;
 import dalvik.system.VMStack;
+import libcore.reflect.WeakClassMap;
 /**
  * Serialization's descriptor for classes.  It contains the name and
  * serialVersionUID of the class.  The ObjectStreamClass for a specific class
@@ -82,17 +83,14 @@ public class ObjectStreamClass implements Serializable {
     /** reflection factory for obtaining serialization constructors */
 
     private static class Caches {
+        // Android-changed: Look up local descriptors without allocating a key.
         /** cache mapping local classes -> descriptors */
-        static final ConcurrentMap<WeakClassKey,Reference<?>> localDescs =
-            new ConcurrentHashMap<>();
+        static final WeakClassMap<Reference<?>> localDescs = new WeakClassMap<>();
 
         /** cache mapping field group/local desc pairs -> field reflectors */
         static final ConcurrentMap<FieldReflectorKey,Reference<?>> reflectors =
             new ConcurrentHashMap<>();
 
-        /** queue for WeakReferences to local classes */
-        private static final ReferenceQueue<Class<?>> localDescsQueue =
-            new ReferenceQueue<>();
         /** queue for WeakReferences to field reflectors keys */
         private static final ReferenceQueue<Class<?>> reflectorsQueue =
             new ReferenceQueue<>();
@@ -307,9 +305,8 @@ public class ObjectStreamClass implements Serializable {
         if (!(all || Serializable.class.isAssignableFrom(cl))) {
             return null;
         }
-        processQueue(Caches.localDescsQueue, Caches.localDescs);
-        WeakClassKey key = new WeakClassKey(cl, Caches.localDescsQueue);
-        Reference<?> ref = Caches.localDescs.get(key);
+        // Android-changed: Look up local descriptors without allocating a key.
+        Reference<?> ref = Caches.localDescs.get(cl);
         Object entry = null;
         if (ref != null) {
             entry = ref.get();
@@ -320,9 +317,9 @@ public class ObjectStreamClass implements Serializable {
             Reference<?> newRef = new SoftReference<>(newEntry);
             do {
                 if (ref != null) {
-                    Caches.localDescs.remove(key, ref);
+                    Caches.localDescs.remove(cl, ref);
                 }
-                ref = Caches.localDescs.putIfAbsent(key, newRef);
+                ref = Caches.localDescs.putIfAbsent(cl, newRef);
                 if (ref != null) {
                     entry = ref.get();
                 }
@@ -356,7 +353,7 @@ public class ObjectStreamClass implements Serializable {
                 entry = th;
             }
             if (future.set(entry)) {
-                Caches.localDescs.put(key, new SoftReference<Object>(entry));
+                Caches.localDescs.put(cl, new SoftReference<Object>(entry));
             } else {
                 // nested lookup call already set future
                 entry = future.get();
@@ -66,9 +66,11 @@ import java.io.Serializable;
 import java.lang.reflect.AccessibleObject;
 import com.android.dex.Dex;
 import dalvik.system.VMStack;
+import libcore.reflect.AnnotationCache;
 import libcore.reflect.InternalNames;
 import libcore.reflect.GenericSignatureParser;
 import libcore.reflect.Types;
+import libcore.reflect.WeakClassMap;
 import libcore.util.BasicLruCache;
 import libcore.util.CollectionUtils;
 import libcore.util.EmptyArray;
@@ -1345,9 +1347,8 @@ public final
      */
     @CallerSensitive
     public Field[] getFields() throws SecurityException {
-        List<Field> fields = new ArrayList<Field>();
-        getPublicFieldsRecursive(fields);
-        return fields.toArray(new Field[fields.size()]);
+        // Android-changed: Copy the fields from the reflection data cache.
+        return ReflectionData.copyOf(reflectionData().getPublicFields());
     }
 
     /**
@@ -1357,14 +1358,15 @@ public final
     private void getPublicFieldsRecursive(List<Field> result) {
         // search superclasses
         for (Class<?> c = this; c != null; c = c.superClass) {
-            Collections.addAll(result, c.getPublicDeclaredFields());
+            Collections.addAll(result, c.reflectionData().getPublicDeclaredFields());
         }
 
         // search iftable which has a flattened and uniqued list of interfaces
         Object[] iftable = ifTable;
         if (iftable != null) {
             for (int i = 0; i < iftable.length; i += 2) {
-                Collections.addAll(result, ((Class<?>) iftable[i]).getPublicDeclaredFields());
+                Collections.addAll(result,
+                        ((Class<?>) iftable[i]).reflectionData().getPublicDeclaredFields());
             }
         }
     }
@@ -1413,15 +1415,8 @@ public final
      */
     @CallerSensitive
     public Method[] getMethods() throws SecurityException {
-        List<Method> methods = new ArrayList<Method>();
-        getPublicMethodsInternal(methods);
-        /*
-         * Remove duplicate methods defined by superclasses and
-         * interfaces, preferring to keep methods declared by derived
-         * types.
-         */
-        CollectionUtils.removeDuplicates(methods, Method.ORDER_BY_SIGNATURE);
-        return methods.toArray(new Method[methods.size()]);
+        // Android-changed: Copy the methods from the reflection data cache.
+        return ReflectionData.copyOf(reflectionData().getPublicMethods());
     }
 
     /**
@@ -1429,11 +1424,11 @@ public final
      * superclasses, and all implemented interfaces, including overridden methods.
      */
     private void getPublicMethodsInternal(List<Method> result) {
-        Collections.addAll(result, getDeclaredMethodsUnchecked(true));
+        Collections.addAll(result, reflectionData().getPublicDeclaredMethods());
         if (!isInterface()) {
             // Search superclasses, for interfaces don't search java.lang.Object.
             for (Class<?> c = superClass; c != null; c = c.superClass) {
-                Collections.addAll(result, c.getDeclaredMethodsUnchecked(true));
+                Collections.addAll(result, c.reflectionData().getPublicDeclaredMethods());
             }
         }
         // Search iftable which has a flattened and uniqued list of interfaces.
@@ -1441,7 +1436,7 @@ public final
         if (iftable != null) {
             for (int i = 0; i < iftable.length; i += 2) {
                 Class<?> ifc = (Class<?>) iftable[i];
-                Collections.addAll(result, ifc.getDeclaredMethodsUnchecked(true));
+                Collections.addAll(result, ifc.reflectionData().getPublicDeclaredMethods());
             }
         }
     }
@@ -1488,7 +1483,8 @@ public final
      */
     @CallerSensitive
     public Constructor<?>[] getConstructors() throws SecurityException {
-        return getDeclaredConstructorsInternal(true);
+        // Android-changed: Copy the constructors from the reflection data cache.
+        return ReflectionData.copyOf(reflectionData().getPublicDeclaredConstructors());
     }
 
     /**
@@ -1544,11 +1540,12 @@ public final
         if (name == null) {
             throw new NullPointerException("name == null");
         }
-        Field result = getPublicFieldRecursive(name);
+        // Android-changed: Look up the field in the reflection data cache.
+        Field result = reflectionData().findPublicField(name);
         if (result == null) {
             throw new NoSuchFieldException(name);
         }
-        return result;
+        return result.copy();
     }
 
     /**
@@ -1805,13 +1802,8 @@ public final
      * @since JDK1.1
      */
     public Method[] getDeclaredMethods() throws SecurityException {
-        Method[] result = getDeclaredMethodsUnchecked(false);
-        for (Method m : result) {
-            // Throw NoClassDefFoundError if types cannot be resolved.
-            m.getReturnType();
-            m.getParameterTypes();
-        }
-        return result;
+        // Android-changed: Copy the methods from the reflection data cache.
+        return ReflectionData.copyOf(reflectionData().getResolvedDeclaredMethods());
     }
 
     /**
@@ -1861,7 +1853,8 @@ public final
      * @since JDK1.1
      */
     public Constructor<?>[] getDeclaredConstructors() throws SecurityException {
-        return getDeclaredConstructorsInternal(false);
+        // Android-changed: Copy the constructors from the reflection data cache.
+        return ReflectionData.copyOf(reflectionData().getDeclaredConstructors());
     }
 
     /**
@@ -1973,19 +1966,21 @@ public final
                 throw new NoSuchMethodException("parameter type is null");
             }
         }
-        Method result = recursivePublicMethods ? getPublicMethodRecursive(name, parameterTypes)
-                                               : getDeclaredMethodInternal(name, parameterTypes);
+        // Android-changed: Look up the method in the reflection data cache.
+        Method result = recursivePublicMethods
+                ? getPublicMethodRecursive(name, parameterTypes)
+                : reflectionData().findDeclaredMethod(name, parameterTypes);
         // Fail if we didn't find the method or it was expected to be public.
         if (result == null ||
             (recursivePublicMethods && !Modifier.isPublic(result.getAccessFlags()))) {
             throw new NoSuchMethodException(name + " " + Arrays.toString(parameterTypes));
         }
-        return result;
+        return result.copy();
     }
     private Method getPublicMethodRecursive(String name, Class<?>[] parameterTypes) {
         // search superclasses
         for (Class<?> c = this; c != null; c = c.getSuperclass()) {
-            Method result = c.getDeclaredMethodInternal(name, parameterTypes);
+            Method result = c.reflectionData().findDeclaredMethod(name, parameterTypes);
             if (result != null && Modifier.isPublic(result.getAccessFlags())) {
                 return result;
             }
@@ -2199,11 +2194,13 @@ public final
                 throw new NoSuchMethodException("parameter type is null");
             }
         }
-        Constructor<T> result = getDeclaredConstructorInternal(parameterTypes);
+        // Android-changed: Look up the constructor in the reflection data cache.
+        Constructor<T> result =
+                (Constructor<T>) reflectionData().findDeclaredConstructor(parameterTypes);
         if (result == null || which == Member.PUBLIC && !Modifier.isPublic(result.getAccessFlags())) {
             throw new NoSuchMethodException("<init> " + Arrays.toString(parameterTypes));
         }
-        return result;
+        return result.copy();
     }
 
     /**
@@ -2349,14 +2346,15 @@ public final
         if (annotationClass == null)
             throw new NullPointerException();
 
-        A annotation = getDeclaredAnnotation(annotationClass);
+        // Android-changed: Look up annotations in the AnnotationCache.
+        A annotation = AnnotationCache.getDeclaredAnnotation(this, annotationClass);
         if (annotation != null) {
             return annotation;
         }
 
-        if (annotationClass.isDeclaredAnnotationPresent(Inherited.class)) {
+        if (AnnotationCache.isInherited(annotationClass)) {
             for (Class<?> sup = getSuperclass(); sup != null; sup = sup.getSuperclass()) {
-                annotation = sup.getDeclaredAnnotation(annotationClass);
+                annotation = AnnotationCache.getDeclaredAnnotation(sup, annotationClass);
                 if (annotation != null) {
                     return annotation;
                 }
@@ -2371,19 +2369,8 @@ public final
             throw new NullPointerException("annotationType == null");
         }
 
-        if (isDeclaredAnnotationPresent(annotationType)) {
-            return true;
-        }
-
-        if (annotationType.isDeclaredAnnotationPresent(Inherited.class)) {
-            for (Class<?> sup = getSuperclass(); sup != null; sup = sup.getSuperclass()) {
-                if (sup.isDeclaredAnnotationPresent(annotationType)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        // Android-changed: Look up annotations in the AnnotationCache.
+        return getAnnotation(annotationType) != null;
     }
 
     /**
@@ -2393,33 +2380,8 @@ public final
      * @see #getDeclaredAnnotations()
      */
     @Override public Annotation[] getAnnotations() {
-        /*
-         * We need to get the annotations declared on this class, plus the
-         * annotations from superclasses that have the "@Inherited" annotation
-         * set.  We create a temporary map to use while we accumulate the
-         * annotations and convert it to an array at the end.
-         *
-         * It's possible to have duplicates when annotations are inherited.
-         * We use a Map to filter those out.
-         *
-         * HashMap might be overkill here.
-         */
-        HashMap<Class<?>, Annotation> map = new HashMap<Class<?>, Annotation>();
-        for (Annotation declaredAnnotation : getDeclaredAnnotations()) {
-            map.put(declaredAnnotation.annotationType(), declaredAnnotation);
-        }
-        for (Class<?> sup = getSuperclass(); sup != null; sup = sup.getSuperclass()) {
-            for (Annotation declaredAnnotation : sup.getDeclaredAnnotations()) {
-                Class<? extends Annotation> clazz = declaredAnnotation.annotationType();
-                if (!map.containsKey(clazz) && clazz.isDeclaredAnnotationPresent(Inherited.class)) {
-                    map.put(clazz, declaredAnnotation);
-                }
-            }
-        }
-
-        /* Convert annotation values from HashMap to array. */
-        Collection<Annotation> coll = map.values();
-        return coll.toArray(new Annotation[coll.size()]);
+        // Android-changed: Cache the annotations, including inherited ones.
+        return AnnotationCache.getAnnotations(this).clone();
     }
 
     /**
@@ -2452,7 +2414,8 @@ public final
       // Inherited annotations are not coalesced into a single set: the first declaration found is
       // returned.
 
-      if (annotationClass.isDeclaredAnnotationPresent(Inherited.class)) {
+      // Android-changed: Look up annotations in the AnnotationCache.
+      if (AnnotationCache.isInherited(annotationClass)) {
         Class<?> superClass = getSuperclass();  // Returns null if klass's base is Object.
 
         if (superClass != null) {
@@ -2672,5 +2635,256 @@ public final
          */
         private static final BasicLruCache<Class, Type[]> genericInterfaces
             = new BasicLruCache<Class, Type[]>(8);
+
+        // Android-added: Reflection data cache.
+        /**
+         * The reflection data of each class. The data refers to its class
+         * through its members, so it is held softly to let the class be
+         * unloaded.
+         */
+        private static final WeakClassMap<SoftReference<ReflectionData>> reflectionData
+            = new WeakClassMap<SoftReference<ReflectionData>>();
+    }
+
+    // BEGIN Android-added: Reflection data cache.
+    /**
+     * Returns the reflection data of this class, creating it if it doesn't
+     * exist or has been cleared.
+     */
+    private ReflectionData reflectionData() {
+        SoftReference<ReflectionData> ref = Caches.reflectionData.get(this);
+        ReflectionData data = (ref != null) ? ref.get() : null;
+        if (data == null) {
+            data = new ReflectionData(this);
+            Caches.reflectionData.put(this, new SoftReference<ReflectionData>(data));
+        }
+        return data;
+    }
+
+    /**
+     * The members of a class, as returned by the runtime. Each array of members
+     * is fetched once and shared. The members are mutable, because they can be
+     * made accessible, so only copies of them are given to callers.
+     *
+     * <p>The arrays are published through volatile fields without locking;
+     * racing threads may both fetch an array from the runtime, which is
+     * harmless.
+     */
+    private static final class ReflectionData {
+        private final Class<?> c;
+
+        private volatile Field[] publicDeclaredFields;
+        private volatile Field[] publicFields;
+        private volatile HashMap<String, Field> publicFieldsByName;
+        private volatile Method[] declaredMethods;
+        private volatile Method[] publicDeclaredMethods;
+        private volatile Method[] publicMethods;
+        private volatile boolean declaredMethodsResolved;
+        private volatile HashMap<String, Method[]> declaredMethodsByName;
+        private volatile Constructor<?>[] declaredConstructors;
+        private volatile Constructor<?>[] publicDeclaredConstructors;
+
+        ReflectionData(Class<?> c) {
+            this.c = c;
+        }
+
+        Field[] getPublicDeclaredFields() {
+            Field[] result = publicDeclaredFields;
+            if (result == null) {
+                result = c.getPublicDeclaredFields();
+                publicDeclaredFields = result;
+            }
+            return result;
+        }
+
+        /** Returns the fields for {@link Class#getFields}. */
+        Field[] getPublicFields() {
+            Field[] result = publicFields;
+            if (result == null) {
+                List<Field> fields = new ArrayList<Field>();
+                c.getPublicFieldsRecursive(fields);
+                result = fields.toArray(new Field[fields.size()]);
+                publicFields = result;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the public field {@code name} of this class, its superclasses
+         * or its superinterfaces, or null. Fields are searched in the order
+         * given by {@link Class#getField}.
+         */
+        Field findPublicField(String name) {
+            HashMap<String, Field> byName = publicFieldsByName;
+            if (byName == null) {
+                byName = new HashMap<String, Field>();
+                addPublicFields(c, byName);
+                publicFieldsByName = byName;
+            }
+            return byName.get(name);
+        }
+
+        private static void addPublicFields(Class<?> c, HashMap<String, Field> byName) {
+            for (; c != null; c = c.superClass) {
+                for (Field field : c.reflectionData().getPublicDeclaredFields()) {
+                    if (!byName.containsKey(field.getName())) {
+                        byName.put(field.getName(), field);
+                    }
+                }
+                for (Class<?> ifc : c.getInterfaces()) {
+                    addPublicFields(ifc, byName);
+                }
+            }
+        }
+
+        Method[] getDeclaredMethods() {
+            Method[] result = declaredMethods;
+            if (result == null) {
+                result = c.getDeclaredMethodsUnchecked(false);
+                declaredMethods = result;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the methods for {@link Class#getDeclaredMethods}, which
+         * requires all their types to be resolvable.
+         */
+        Method[] getResolvedDeclaredMethods() {
+            Method[] result = getDeclaredMethods();
+            if (!declaredMethodsResolved) {
+                for (Method m : result) {
+                    // Throw NoClassDefFoundError if types cannot be resolved.
+                    m.getReturnType();
+                    m.getParameterTypes();
+                }
+                declaredMethodsResolved = true;
+            }
+            return result;
+        }
+
+        Method[] getPublicDeclaredMethods() {
+            Method[] result = publicDeclaredMethods;
+            if (result == null) {
+                result = c.getDeclaredMethodsUnchecked(true);
+                publicDeclaredMethods = result;
+            }
+            return result;
+        }
+
+        /** Returns the methods for {@link Class#getMethods}. */
+        Method[] getPublicMethods() {
+            Method[] result = publicMethods;
+            if (result == null) {
+                List<Method> methods = new ArrayList<Method>();
+                c.getPublicMethodsInternal(methods);
+                /*
+                 * Remove duplicate methods defined by superclasses and
+                 * interfaces, preferring to keep methods declared by derived
+                 * types.
+                 */
+                CollectionUtils.removeDuplicates(methods, Method.ORDER_BY_SIGNATURE);
+                result = methods.toArray(new Method[methods.size()]);
+                publicMethods = result;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the method declared by this class with the given name and
+         * parameter types, or null. Like the runtime, this prefers a method
+         * that isn't synthetic, such as a bridge method, if there is one.
+         */
+        Method findDeclaredMethod(String name, Class<?>[] parameterTypes) {
+            HashMap<String, Method[]> byName = declaredMethodsByName;
+            if (byName == null) {
+                HashMap<String, List<Method>> lists = new HashMap<String, List<Method>>();
+                for (Method m : getDeclaredMethods()) {
+                    List<Method> list = lists.get(m.getName());
+                    if (list == null) {
+                        list = new ArrayList<Method>(1);
+                        lists.put(m.getName(), list);
+                    }
+                    list.add(m);
+                }
+                byName = new HashMap<String, Method[]>(lists.size() * 2);
+                for (Map.Entry<String, List<Method>> entry : lists.entrySet()) {
+                    List<Method> list = entry.getValue();
+                    byName.put(entry.getKey(), list.toArray(new Method[list.size()]));
+                }
+                declaredMethodsByName = byName;
+            }
+
+            Method[] candidates = byName.get(name);
+            if (candidates == null) {
+                return null;
+            }
+            Method result = null;
+            for (Method m : candidates) {
+                if (m.equalMethodParameters(parameterTypes)) {
+                    if (!Modifier.isSynthetic(m.getAccessFlags())) {
+                        return m;
+                    }
+                    result = m;
+                }
+            }
+            return result;
+        }
+
+        Constructor<?>[] getDeclaredConstructors() {
+            Constructor<?>[] result = declaredConstructors;
+            if (result == null) {
+                result = c.getDeclaredConstructorsInternal(false);
+                declaredConstructors = result;
+            }
+            return result;
+        }
+
+        Constructor<?>[] getPublicDeclaredConstructors() {
+            Constructor<?>[] result = publicDeclaredConstructors;
+            if (result == null) {
+                result = c.getDeclaredConstructorsInternal(true);
+                publicDeclaredConstructors = result;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the constructor declared by this class with the given
+         * parameter types, or null.
+         */
+        Constructor<?> findDeclaredConstructor(Class<?>[] parameterTypes) {
+            for (Constructor<?> constructor : getDeclaredConstructors()) {
+                if (constructor.equalMethodParameters(parameterTypes)) {
+                    return constructor;
+                }
+            }
+            return null;
+        }
+
+        static Field[] copyOf(Field[] fields) {
+            Field[] result = new Field[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                result[i] = fields[i].copy();
+            }
+            return result;
+        }
+
+        static Method[] copyOf(Method[] methods) {
+            Method[] result = new Method[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                result[i] = methods[i].copy();
+            }
+            return result;
+        }
+
+        static Constructor<?>[] copyOf(Constructor<?>[] constructors) {
+            Constructor<?>[] result = new Constructor<?>[constructors.length];
+            for (int i = 0; i < constructors.length; i++) {
+                result[i] = constructors[i].copy();
+            }
+            return result;
+        }
     }
+    // END Android-added: Reflection data cache.
 }
@@ -2118,7 +2118,8 @@ public final class String
      * @spec JSR-51
      */
     public String replaceFirst(String regex, String replacement) {
-        return Pattern.compile(regex).matcher(this).replaceFirst(replacement);
+        // Android-changed: Reuse cached patterns and per-thread matchers.
+        return Pattern.replaceFirst(regex, this, replacement);
     }
 
     /**
@@ -2161,7 +2162,8 @@ public final class String
      * @spec JSR-51
      */
     public String replaceAll(String regex, String replacement) {
-        return Pattern.compile(regex).matcher(this).replaceAll(replacement);
+        // Android-changed: Reuse cached patterns and per-thread matchers.
+        return Pattern.replaceAll(regex, this, replacement);
     }
 
     /**
@@ -2322,7 +2324,8 @@ public final class String
             return fast;
         }
 
-        return Pattern.compile(regex).split(this, limit);
+        // Android-changed: Reuse cached patterns.
+        return Pattern.compileCached(regex).split(this, limit);
     }
 
     /**
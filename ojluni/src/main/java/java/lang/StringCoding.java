@@ -53,10 +53,11 @@ class StringCoding {
     private StringCoding() { }
 
     /** The cached coders for each thread */
+    // Android-changed: Use fast ThreadLocal slots.
     private final static ThreadLocal<SoftReference<StringDecoder>> decoder =
-        new ThreadLocal<>();
+        new ThreadLocal<>(true /* fastSlot */);
     private final static ThreadLocal<SoftReference<StringEncoder>> encoder =
-        new ThreadLocal<>();
+        new ThreadLocal<>(true /* fastSlot */);
 
     private static boolean warnUnsupportedCharset = true;
 
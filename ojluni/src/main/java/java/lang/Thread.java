@@ -195,6 +195,14 @@ class Thread implements Runnable {
      */
     ThreadLocal.ThreadLocalMap inheritableThreadLocals = null;
 
+    // Android-added: Fast slots for long-lived, frequently used ThreadLocals.
+    /*
+     * Values of ThreadLocals that were assigned a fast slot, indexed by
+     * slot. Null until the first such value is set. This array is
+     * maintained by the ThreadLocal class.
+     */
+    Object[] threadLocalSlots = null;
+
     /*
      * The requested stack size for this thread, or 0 if the creator did
      * not specify a stack size.  It is up to the VM to do whatever it
@@ -776,6 +784,7 @@ class Thread implements Runnable {
         /* Speed the release of some of these resources */
         threadLocals = null;
         inheritableThreadLocals = null;
+        threadLocalSlots = null;
         inheritedAccessControlContext = null;
         blocker = null;
         uncaughtExceptionHandler = null;
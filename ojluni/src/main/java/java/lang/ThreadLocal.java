@@ -103,6 +103,31 @@ public class ThreadLocal<T> {
         return nextHashCode.getAndAdd(HASH_INCREMENT);
     }
 
+    // Android-added: Fast slots for long-lived, frequently used ThreadLocals.
+    /**
+     * The number of fast slots in each thread's Thread.threadLocalSlots.
+     * Slots are never reclaimed, so they are reserved for ThreadLocals
+     * that live as long as the process.
+     */
+    static final int FAST_SLOT_COUNT = 64;
+
+    /**
+     * The next fast slot to be given out. Updated atomically.
+     */
+    private static final AtomicInteger nextFastSlot = new AtomicInteger();
+
+    /**
+     * Stands in for a null value in a fast slot, where null means that
+     * the slot is not set.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * The index of this ThreadLocal's value in Thread.threadLocalSlots,
+     * or -1 if its values are held in Thread.threadLocals.
+     */
+    private final int fastSlot;
+
     /**
      * Returns the current thread's "initial value" for this
      * thread-local variable.  This method will be invoked the first
@@ -129,6 +154,38 @@ public class ThreadLocal<T> {
      * Creates a thread local variable.
      */
     public ThreadLocal() {
+        fastSlot = -1;
+    }
+
+    // Android-added: Fast slots for long-lived, frequently used ThreadLocals.
+    /**
+     * Creates a thread local variable which, if {@code fastSlot} is
+     * true, keeps its values in a dense per-thread array rather than in
+     * the per-thread hash map. {@link #get} then costs an array load
+     * instead of a hash probe, and is unaffected by stale entries that
+     * other ThreadLocals leave behind in long-lived threads.
+     *
+     * <p>Fast slots are a scarce resource and are never reclaimed, and
+     * a thread's value in a fast slot stays reachable until it is
+     * {@linkplain #remove removed} or the thread exits, even if the
+     * ThreadLocal itself becomes unreachable. They must only be
+     * requested for ThreadLocals held in {@code static final} fields.
+     * Once all fast slots are taken, ThreadLocals fall back to the hash
+     * map.
+     *
+     * @param fastSlot whether to try to assign a fast slot
+     * @hide
+     */
+    public ThreadLocal(boolean fastSlot) {
+        int slot = -1;
+        if (fastSlot) {
+            slot = nextFastSlot.getAndIncrement();
+            if (slot >= FAST_SLOT_COUNT) {
+                nextFastSlot.set(FAST_SLOT_COUNT); // avoid eventual overflow
+                slot = -1;
+            }
+        }
+        this.fastSlot = slot;
     }
 
     /**
@@ -141,6 +198,16 @@ public class ThreadLocal<T> {
      */
     public T get() {
         Thread t = Thread.currentThread();
+        // Android-added: Fast slots.
+        if (fastSlot >= 0) {
+            Object[] slots = t.threadLocalSlots;
+            if (slots != null) {
+                Object value = slots[fastSlot];
+                if (value != null)
+                    return (value == NULL_VALUE) ? null : (T)value;
+            }
+            return setInitialValue();
+        }
         ThreadLocalMap map = getMap(t);
         if (map != null) {
             ThreadLocalMap.Entry e = map.getEntry(this);
@@ -159,6 +226,11 @@ public class ThreadLocal<T> {
     private T setInitialValue() {
         T value = initialValue();
         Thread t = Thread.currentThread();
+        // Android-added: Fast slots.
+        if (fastSlot >= 0) {
+            setSlot(t, value);
+            return value;
+        }
         ThreadLocalMap map = getMap(t);
         if (map != null)
             map.set(this, value);
@@ -178,6 +250,11 @@ public class ThreadLocal<T> {
      */
     public void set(T value) {
         Thread t = Thread.currentThread();
+        // Android-added: Fast slots.
+        if (fastSlot >= 0) {
+            setSlot(t, value);
+            return;
+        }
         ThreadLocalMap map = getMap(t);
         if (map != null)
             map.set(this, value);
@@ -197,11 +274,30 @@ public class ThreadLocal<T> {
      * @since 1.5
      */
      public void remove() {
+         // Android-added: Fast slots.
+         if (fastSlot >= 0) {
+             Object[] slots = Thread.currentThread().threadLocalSlots;
+             if (slots != null)
+                 slots[fastSlot] = null;
+             return;
+         }
          ThreadLocalMap m = getMap(Thread.currentThread());
          if (m != null)
              m.remove(this);
      }
 
+    // Android-added: Fast slots.
+    /**
+     * Stores the value of this ThreadLocal in the fast slot of the
+     * given thread, creating the thread's slot array if needed.
+     */
+    private void setSlot(Thread t, T value) {
+        Object[] slots = t.threadLocalSlots;
+        if (slots == null)
+            t.threadLocalSlots = slots = new Object[FAST_SLOT_COUNT];
+        slots[fastSlot] = (value == null) ? NULL_VALUE : value;
+    }
+
     /**
      * Get the map associated with a ThreadLocal. Overridden in
      * InheritableThreadLocal.
@@ -27,6 +27,7 @@
 package java.lang;
 import  java.io.*;
 import  java.util.*;
+import  java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The {@code Throwable} class is the superclass of all errors and
@@ -154,6 +155,69 @@ public class Throwable implements Serializable {
             new StackTraceElement[] {STACK_TRACE_ELEMENT_SENTINEL};
     }
 
+    // Android-added: Process-wide deduplication of decoded stack traces.
+    /**
+     * A bounded cache that deduplicates stack traces as they are
+     * decoded from the native backtrace. Frames that are common to
+     * several traces share a single {@code StackTraceElement} (and
+     * therefore its strings), and throwables created at the same place
+     * share a single array, so that retaining or logging many similar
+     * throwables costs little heap.
+     *
+     * <p>Both tables are direct-mapped: a miss overwrites the slot, so
+     * the cache never grows and needs no locking. Sharing arrays is
+     * safe because {@code stackTrace} arrays are never modified once
+     * assigned; {@link #getStackTrace()} returns a copy.
+     */
+    private static class StackTraceCache {
+        private static final int FRAME_SLOTS = 4096;
+        private static final int TRACE_SLOTS = 1024;
+
+        // AtomicReferenceArray rather than plain arrays because the fields
+        // of StackTraceElement are not final and need safe publication.
+        private static final AtomicReferenceArray<StackTraceElement> frames =
+            new AtomicReferenceArray<>(FRAME_SLOTS);
+        private static final AtomicReferenceArray<StackTraceElement[]> traces =
+            new AtomicReferenceArray<>(TRACE_SLOTS);
+
+        /**
+         * Replaces the elements of {@code trace} with cached equal
+         * elements where possible, then returns a cached array with
+         * the same elements if there is one, or {@code trace} itself.
+         */
+        static StackTraceElement[] intern(StackTraceElement[] trace) {
+            int traceHash = trace.length;
+            for (int i = 0; i < trace.length; i++) {
+                StackTraceElement frame = trace[i];
+                if (frame == null)
+                    return trace; // Not expected from the runtime; don't share.
+                int h = frame.hashCode();
+                int slot = (h ^ (h >>> 16)) & (FRAME_SLOTS - 1);
+                StackTraceElement cached = frames.get(slot);
+                if (cached != null && cached.equals(frame))
+                    trace[i] = cached;
+                else
+                    frames.set(slot, frame);
+                traceHash = 31 * traceHash + h;
+            }
+
+            int slot = (traceHash ^ (traceHash >>> 16)) & (TRACE_SLOTS - 1);
+            StackTraceElement[] cached = traces.get(slot);
+            if (cached != null && cached.length == trace.length) {
+                int i = 0;
+                // Equal frames have usually been interned to the same
+                // instance above, unless two frames share a slot.
+                while (i < trace.length &&
+                       (cached[i] == trace[i] || cached[i].equals(trace[i])))
+                    i++;
+                if (i == trace.length)
+                    return cached;
+            }
+            traces.set(slot, trace);
+            return trace;
+        }
+    }
+
     /*
      * To allow Throwable objects to be made immutable and safely
      * reused by the JVM, such as OutOfMemoryErrors, fields of
@@ -807,6 +871,27 @@ public class Throwable implements Serializable {
         return getOurStackTrace().clone();
     }
 
+    // Android-added: Access to the top frames only.
+    /**
+     * Returns at most the top {@code maxDepth} elements of the stack
+     * trace, that is, the first {@code maxDepth} elements of the array
+     * that {@link #getStackTrace()} would return. Callers that only
+     * need the innermost frames, such as loggers that print an
+     * abbreviated trace, avoid copying the full trace.
+     *
+     * @param maxDepth the maximum number of frames to return
+     * @return the top of the stack trace
+     * @throws IllegalArgumentException if {@code maxDepth} is negative
+     * @hide
+     */
+    public StackTraceElement[] getStackTrace(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth < 0: " + maxDepth);
+        }
+        StackTraceElement[] trace = getOurStackTrace();
+        return Arrays.copyOf(trace, Math.min(maxDepth, trace.length));
+    }
+
     private synchronized StackTraceElement[] getOurStackTrace() {
         // Initialize stack trace field with information from
         // backtrace if this is the first call to this method
@@ -817,6 +902,10 @@ public class Throwable implements Serializable {
             (stackTrace == null && backtrace != null) /* Out of protocol state */) {
             stackTrace = nativeGetStackTrace(backtrace);
             backtrace = null;
+            // Android-added: Share frames and traces with similar throwables.
+            if (stackTrace != null && stackTrace.length != 0) {
+                stackTrace = StackTraceCache.intern(stackTrace);
+            }
         }
 
         // Android changed : Return an empty element both when the stack trace
@@ -29,6 +29,7 @@ package java.lang.reflect;
 import sun.reflect.CallerSensitive;
 import java.util.Comparator;
 import java.util.List;
+import libcore.reflect.AnnotationCache;
 import libcore.reflect.Types;
 
 import java.lang.annotation.Annotation;
@@ -78,6 +79,21 @@ public final class Constructor<T> extends AbstractMethod implements
         return new Constructor<T>(ctor, cl);
     }
 
+    // BEGIN Android-added: Copies for the reflection data cache in Class.
+    /**
+     * Returns a new {@code Constructor} for the same constructor as this one.
+     * Like a {@code Constructor} returned by the runtime, the copy is not
+     * accessible even if this one is.
+     *
+     * @hide
+     */
+    public Constructor<T> copy() {
+        Constructor<T> copy = new Constructor<T>(serializationCtor, serializationClass);
+        copy.copyFrom(this);
+        return copy;
+    }
+    // END Android-added: Copies for the reflection data cache in Class.
+
     /**
      * Returns the {@code Class} object representing the class that declares
      * the constructor represented by this {@code Constructor} object.
@@ -486,7 +502,8 @@ public final class Constructor<T> extends AbstractMethod implements
         if (annotationType == null) {
             throw new NullPointerException("annotationType == null");
         }
-        return getAnnotationNative(annotationType);
+        // Android-changed: Look up annotations in the AnnotationCache.
+        return AnnotationCache.getDeclaredAnnotation(this, annotationType);
     }
     private native <A extends Annotation> A getAnnotationNative(Class<A> annotationType);
 
@@ -499,7 +516,8 @@ public final class Constructor<T> extends AbstractMethod implements
         if (annotationType == null) {
             throw new NullPointerException("annotationType == null");
         }
-        return isAnnotationPresentNative(annotationType);
+        // Android-changed: Look up annotations in the AnnotationCache.
+        return AnnotationCache.getDeclaredAnnotation(this, annotationType) != null;
     }
     private native boolean isAnnotationPresentNative(Class<? extends Annotation> annotationType);
 
@@ -520,11 +538,17 @@ public final class Constructor<T> extends AbstractMethod implements
      * @since 1.5
      */
     public Annotation[][] getParameterAnnotations() {
-        Annotation[][] parameterAnnotations = getParameterAnnotationsNative();
+        // Android-changed: Cache the parameter annotations.
+        Annotation[][] parameterAnnotations = AnnotationCache.getParameterAnnotations(this);
         if (parameterAnnotations == null) {
-          parameterAnnotations = new Annotation[getParameterTypes().length][0];
+            parameterAnnotations = getParameterAnnotationsNative();
+            if (parameterAnnotations == null) {
+              parameterAnnotations = new Annotation[getParameterTypes().length][0];
+            }
+            parameterAnnotations =
+                    AnnotationCache.putParameterAnnotations(this, parameterAnnotations);
         }
-        return parameterAnnotations;
+        return AnnotationCache.copyOf(parameterAnnotations);
     }
     private native Annotation[][] getParameterAnnotationsNative();
 }
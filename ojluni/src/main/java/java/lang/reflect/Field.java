@@ -31,6 +31,7 @@ import sun.reflect.Reflection;
 import java.lang.annotation.Annotation;
 import java.util.Map;
 import com.android.dex.Dex;
+import libcore.reflect.AnnotationCache;
 import libcore.reflect.GenericSignatureParser;
 import java.util.List;
 
@@ -66,6 +67,25 @@ class Field extends AccessibleObject implements Member {
     private Field() {
     }
 
+    // BEGIN Android-added: Copies for the reflection data cache in Class.
+    /**
+     * Returns a new {@code Field} for the same field as this one. Like a
+     * {@code Field} returned by the runtime, the copy is not accessible even if
+     * this one is.
+     *
+     * @hide
+     */
+    public Field copy() {
+        Field copy = new Field();
+        copy.accessFlags = accessFlags;
+        copy.declaringClass = declaringClass;
+        copy.dexFieldIndex = dexFieldIndex;
+        copy.offset = offset;
+        copy.type = type;
+        return copy;
+    }
+    // END Android-added: Copies for the reflection data cache in Class.
+
     /**
      * Returns the {@code Class} object representing the class or interface
      * that declares the field represented by this {@code Field} object.
@@ -845,7 +865,8 @@ class Field extends AccessibleObject implements Member {
         if (annotationType == null) {
             throw new NullPointerException("annotationType == null");
         }
-        return getAnnotationNative(annotationType);
+        // Android-changed: Look up annotations in the AnnotationCache.
+        return AnnotationCache.getDeclaredAnnotation(this, annotationType);
     }
     private native <A extends Annotation> A getAnnotationNative(Class<A> annotationType);
 
@@ -853,10 +874,20 @@ class Field extends AccessibleObject implements Member {
         if (annotationType == null) {
             throw new NullPointerException("annotationType == null");
         }
-        return isAnnotationPresentNative(annotationType);
+        // Android-changed: Look up annotations in the AnnotationCache.
+        return AnnotationCache.getDeclaredAnnotation(this, annotationType) != null;
     }
     private native boolean isAnnotationPresentNative(Class<? extends Annotation> annotationType);
 
+    // BEGIN Android-added: Return a copy of the cached annotations.
+    /**
+     * @since 1.5
+     */
+    @Override public Annotation[] getAnnotations() {
+        return AnnotationCache.getDeclaredAnnotations(this).clone();
+    }
+    // END Android-added: Return a copy of the cached annotations.
+
     /**
      * @since 1.5
      */
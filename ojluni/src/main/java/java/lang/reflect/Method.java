@@ -32,6 +32,7 @@ import java.lang.annotation.AnnotationFormatError;
 import com.android.dex.Dex;
 import java.util.Comparator;
 import java.util.List;
+import libcore.reflect.AnnotationCache;
 import libcore.reflect.Types;
 
 /**
@@ -88,6 +89,21 @@ public final
     private Method() {
     }
 
+    // BEGIN Android-added: Copies for the reflection data cache in Class.
+    /**
+     * Returns a new {@code Method} for the same method as this one. Like a
+     * {@code Method} returned by the runtime, the copy is not accessible even if
+     * this one is.
+     *
+     * @hide
+     */
+    public Method copy() {
+        Method copy = new Method();
+        copy.copyFrom(this);
+        return copy;
+    }
+    // END Android-added: Copies for the reflection data cache in Class.
+
     /**
      * Returns the {@code Class} object representing the class or interface
      * that declares the method represented by this {@code Method} object.
@@ -554,7 +570,8 @@ public final
         if (annotationType == null) {
             throw new NullPointerException("annotationType == null");
         }
-        return getAnnotationNative(annotationType);
+        // Android-changed: Look up annotations in the AnnotationCache.
+        return AnnotationCache.getDeclaredAnnotation(this, annotationType);
     }
     private native <A extends Annotation> A getAnnotationNative(Class<A> annotationType);
 
@@ -591,11 +608,17 @@ public final
      * @since 1.5
      */
     public Annotation[][] getParameterAnnotations() {
-        Annotation[][] parameterAnnotations = getParameterAnnotationsNative();
+        // Android-changed: Cache the parameter annotations.
+        Annotation[][] parameterAnnotations = AnnotationCache.getParameterAnnotations(this);
         if (parameterAnnotations == null) {
-          parameterAnnotations = new Annotation[getParameterTypes().length][0];
+            parameterAnnotations = getParameterAnnotationsNative();
+            if (parameterAnnotations == null) {
+              parameterAnnotations = new Annotation[getParameterTypes().length][0];
+            }
+            parameterAnnotations =
+                    AnnotationCache.putParameterAnnotations(this, parameterAnnotations);
         }
-        return parameterAnnotations;
+        return AnnotationCache.copyOf(parameterAnnotations);
     }
     private native Annotation[][] getParameterAnnotationsNative();
 
@@ -88,7 +88,8 @@ class ByteBufferAsCharBuffer extends CharBuffer {      // package-private
     }
 
     public char get() {
-        return get(nextGetIndex());
+        // Android-changed: Check the index once, not again in get(int).
+        return bb.getCharUnchecked(ix(nextGetIndex()));
     }
 
     public char get(int i) {
@@ -109,7 +110,11 @@ class ByteBufferAsCharBuffer extends CharBuffer {      // package-private
     }
 
     public CharBuffer put(char x) {
-        put(nextPutIndex(), x);
+        // Android-changed: Check the index once, not again in put(int, char).
+        if (isReadOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        bb.putCharUnchecked(ix(nextPutIndex()), x);
         return this;
     }
 
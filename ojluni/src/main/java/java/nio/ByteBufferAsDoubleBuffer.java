@@ -89,7 +89,8 @@ class ByteBufferAsDoubleBuffer
     }
 
     public double get() {
-        return get(nextGetIndex());
+        // Android-changed: Check the index once, not again in get(int).
+        return bb.getDoubleUnchecked(ix(nextGetIndex()));
     }
 
     public double get(int i) {
@@ -106,7 +107,11 @@ class ByteBufferAsDoubleBuffer
     }
 
     public DoubleBuffer put(double x) {
-        put(nextPutIndex(), x);
+        // Android-changed: Check the index once, not again in put(int, double).
+        if (isReadOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        bb.putDoubleUnchecked(ix(nextPutIndex()), x);
         return this;
     }
 
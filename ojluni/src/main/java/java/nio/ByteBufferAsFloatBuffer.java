@@ -88,7 +88,8 @@ class ByteBufferAsFloatBuffer extends FloatBuffer {       // package-private
     }
 
     public float get() {
-        return get(nextGetIndex());
+        // Android-changed: Check the index once, not again in get(int).
+        return bb.getFloatUnchecked(ix(nextGetIndex()));
     }
 
     public float get(int i) {
@@ -105,7 +106,11 @@ class ByteBufferAsFloatBuffer extends FloatBuffer {       // package-private
     }
 
     public FloatBuffer put(float x) {
-        put(nextPutIndex(), x);
+        // Android-changed: Check the index once, not again in put(int, float).
+        if (isReadOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        bb.putFloatUnchecked(ix(nextPutIndex()), x);
         return this;
     }
 
@@ -88,7 +88,8 @@ class ByteBufferAsIntBuffer extends IntBuffer {        // package-private
     }
 
     public int get() {
-        return get(nextGetIndex());
+        // Android-changed: Check the index once, not again in get(int).
+        return bb.getIntUnchecked(ix(nextGetIndex()));
     }
 
     public int get(int i) {
@@ -105,7 +106,11 @@ class ByteBufferAsIntBuffer extends IntBuffer {        // package-private
     }
 
     public IntBuffer put(int x) {
-        put(nextPutIndex(), x);
+        // Android-changed: Check the index once, not again in put(int, int).
+        if (isReadOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        bb.putIntUnchecked(ix(nextPutIndex()), x);
         return this;
     }
 
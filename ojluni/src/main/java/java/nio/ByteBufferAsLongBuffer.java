@@ -88,7 +88,8 @@ class ByteBufferAsLongBuffer extends LongBuffer {                 // package-pri
     }
 
     public long get() {
-        return get(nextGetIndex());
+        // Android-changed: Check the index once, not again in get(int).
+        return bb.getLongUnchecked(ix(nextGetIndex()));
     }
 
     public long get(int i) {
@@ -105,7 +106,11 @@ class ByteBufferAsLongBuffer extends LongBuffer {                 // package-pri
     }
 
     public LongBuffer put(long x) {
-        put(nextPutIndex(), x);
+        // Android-changed: Check the index once, not again in put(int, long).
+        if (isReadOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        bb.putLongUnchecked(ix(nextPutIndex()), x);
         return this;
     }
 
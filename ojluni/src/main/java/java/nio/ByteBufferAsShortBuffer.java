@@ -86,7 +86,8 @@ class ByteBufferAsShortBuffer extends ShortBuffer {       // package-private
     }
 
     public short get() {
-        return get(nextGetIndex());
+        // Android-changed: Check the index once, not again in get(int).
+        return bb.getShortUnchecked(ix(nextGetIndex()));
     }
 
     public short get(int i) {
@@ -104,7 +105,11 @@ class ByteBufferAsShortBuffer extends ShortBuffer {       // package-private
     }
 
     public ShortBuffer put(short x) {
-        put(nextPutIndex(), x);
+        // Android-changed: Check the index once, not again in put(int, short).
+        if (isReadOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        bb.putShortUnchecked(ix(nextPutIndex()), x);
         return this;
     }
 
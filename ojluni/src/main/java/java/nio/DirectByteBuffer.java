@@ -303,36 +303,25 @@ public class DirectByteBuffer extends MappedByteBuffer implements DirectBuffer {
     }
 
     private char getChar(long a) {
-        if (!memoryRef.isAccessible) {
-            throw new IllegalStateException("buffer is inaccessible");
-        }
-        return (char) Memory.peekShort(position, !nativeByteOrder);
+        return (char) Memory.peekShort(a, !nativeByteOrder);
     }
 
     public char getChar() {
         if (!memoryRef.isAccessible) {
             throw new IllegalStateException("buffer is inaccessible");
         }
-        int newPosition = position + SizeOf.CHAR;
-        if (newPosition > limit()) {
-            throw new BufferUnderflowException();
-        }
-        char x = (char) Memory.peekShort(ix(position), !nativeByteOrder);
-        position = newPosition;
-        return x;
+        return getChar(ix(nextGetIndex(SizeOf.CHAR)));
     }
 
     public char getChar(int i) {
         if (!memoryRef.isAccessible) {
             throw new IllegalStateException("buffer is inaccessible");
         }
-        checkIndex(i, SizeOf.CHAR);
-        char x = (char) Memory.peekShort(ix(i), !nativeByteOrder);
-        return x;
+        return getChar(ix(checkIndex(i, SizeOf.CHAR)));
     }
 
     char getCharUnchecked(int i) {
-        return (char) Memory.peekShort(ix(i), !nativeByteOrder);
+        return getChar(ix(i));
     }
 
     void getUnchecked(int pos, char[] dst, int dstOffset, int length) {
@@ -437,7 +437,14 @@ public abstract class Provider extends Properties {
 
     // Set<Service>
     // Unmodifiable set of all services. Initialized on demand.
-    private transient Set<Service> serviceSet;
+    // Android-changed: volatile so that getServices() can read it without the lock.
+    private transient volatile Set<Service> serviceSet;
+
+    // Android-added: Map<ServiceKey,Service>
+    // Immutable merge of legacyMap and serviceMap, read by getService()
+    // without holding the lock. Initialized on demand, and discarded whenever
+    // either map may change.
+    private transient volatile Map<ServiceKey,Service> serviceLookup;
 
     // register the id attributes for this provider
     // this is to ensure that equals() and hashCode() do not incorrectly
@@ -488,6 +495,9 @@ public abstract class Provider extends Properties {
                 return null;
             }
             legacyChanged = true;
+            // Android-added: Discard the lock-free snapshots.
+            serviceLookup = null;
+            serviceSet = null;
             if (legacyStrings == null) {
                 legacyStrings = new LinkedHashMap<String,String>();
             }
@@ -506,6 +516,9 @@ public abstract class Provider extends Properties {
                 Security.increaseVersion();
             }
             legacyChanged = true;
+            // Android-added: Discard the lock-free snapshots.
+            serviceLookup = null;
+            serviceSet = null;
             if (legacyStrings == null) {
                 legacyStrings = new LinkedHashMap<String,String>();
             }
@@ -527,6 +540,8 @@ public abstract class Provider extends Properties {
         legacyChanged = false;
         servicesChanged = false;
         serviceSet = null;
+        // Android-added: Discard the lock-free lookup snapshot.
+        serviceLookup = null;
         super.clear();
         putId();
         if (registered) {
@@ -704,7 +719,10 @@ public abstract class Provider extends Properties {
      *
      * @since 1.5
      */
-    public synchronized Service getService(String type, String algorithm) {
+    // Android-changed: Not synchronized. Lookups read an immutable snapshot of
+    // the services, so that concurrent getInstance() calls do not contend for
+    // the provider's lock.
+    public Service getService(String type, String algorithm) {
         checkInitialized();
         // avoid allocating a new key object if possible
         ServiceKey key = previousKey;
@@ -712,14 +730,30 @@ public abstract class Provider extends Properties {
             key = new ServiceKey(type, algorithm, false);
             previousKey = key;
         }
-        if (serviceMap != null) {
-            Service service = serviceMap.get(key);
-            if (service != null) {
-                return service;
+        Map<ServiceKey,Service> lookup = serviceLookup;
+        if (lookup == null) {
+            lookup = ensureServiceLookup();
+        }
+        return lookup.get(key);
+    }
+
+    // Android-added: Build the snapshot read by getService(). Services added
+    // with putService() take precedence over those parsed from the legacy
+    // properties, as they did when serviceMap was searched first.
+    private synchronized Map<ServiceKey,Service> ensureServiceLookup() {
+        Map<ServiceKey,Service> lookup = serviceLookup;
+        if (lookup == null) {
+            ensureLegacyParsed();
+            lookup = new HashMap<ServiceKey,Service>();
+            if (legacyMap != null) {
+                lookup.putAll(legacyMap);
+            }
+            if (serviceMap != null) {
+                lookup.putAll(serviceMap);
             }
+            serviceLookup = lookup;
         }
-        ensureLegacyParsed();
-        return (legacyMap != null) ? legacyMap.get(key) : null;
+        return lookup;
     }
 
     // ServiceKey from previous getService() call
@@ -740,8 +774,18 @@ public abstract class Provider extends Properties {
      *
      * @since 1.5
      */
-    public synchronized Set<Service> getServices() {
+    // Android-changed: Not synchronized, see getService().
+    public Set<Service> getServices() {
         checkInitialized();
+        Set<Service> set = serviceSet;
+        if (set == null) {
+            set = ensureServiceSet();
+        }
+        return set;
+    }
+
+    // Android-added: Build the set returned by getServices().
+    private synchronized Set<Service> ensureServiceSet() {
         if (legacyChanged || servicesChanged) {
             serviceSet = null;
         }
@@ -805,6 +849,9 @@ public abstract class Provider extends Properties {
             serviceMap = new LinkedHashMap<ServiceKey,Service>();
         }
         servicesChanged = true;
+        // Android-added: Discard the lock-free snapshots.
+        serviceLookup = null;
+        serviceSet = null;
         String type = s.getType();
         String algorithm = s.getAlgorithm();
         ServiceKey key = new ServiceKey(type, algorithm, true);
@@ -910,6 +957,9 @@ public abstract class Provider extends Properties {
             return;
         }
         servicesChanged = true;
+        // Android-added: Discard the lock-free snapshots.
+        serviceLookup = null;
+        serviceSet = null;
         serviceMap.remove(key);
         for (String alias : s.getAliases()) {
             serviceMap.remove(new ServiceKey(type, alias, false));
@@ -1065,6 +1115,13 @@ public abstract class Provider extends Properties {
         // Reference to the cached implementation Class object
         private volatile Reference<Class> classRef;
 
+        // Android-added: The constructor newInstance() calls for known engine
+        // types. The engine type of a service never changes, so neither does
+        // the constructor's parameter type. This pins the implementation
+        // class, which was loaded by the provider's class loader and so
+        // cannot outlive the provider anyway.
+        private volatile Constructor<?> constructorCache;
+
         // flag indicating whether this service has its attributes for
         // supportedKeyFormats or supportedKeyClasses set
         // if null, the values have not been initialized
@@ -1260,8 +1317,8 @@ public abstract class Provider extends Properties {
                             ("constructorParameter not used with " + type
                             + " engines");
                     }
-                    Class clazz = getImplClass();
-                    return clazz.newInstance();
+                    // Android-changed: Use the cached constructor.
+                    return getImplConstructor(null).newInstance();
                 } else {
                     Class paramClass = cap.getConstructorParameterClass();
                     if (constructorParameter != null) {
@@ -1273,9 +1330,9 @@ public abstract class Provider extends Properties {
                             + " for engine type " + type);
                         }
                     }
-                    Class clazz = getImplClass();
-                    Constructor cons = clazz.getConstructor(paramClass);
-                    return cons.newInstance(constructorParameter);
+                    // Android-changed: Use the cached constructor.
+                    return getImplConstructor(paramClass)
+                            .newInstance(constructorParameter);
                 }
             } catch (NoSuchAlgorithmException e) {
                 throw e;
@@ -1314,6 +1371,21 @@ public abstract class Provider extends Properties {
             }
         }
 
+        // Android-added: return the public constructor of the implementation
+        // class that takes paramClass, or no arguments if paramClass is null.
+        private Constructor<?> getImplConstructor(Class<?> paramClass)
+                throws NoSuchAlgorithmException, NoSuchMethodException {
+            Constructor<?> cons = constructorCache;
+            if (cons == null) {
+                Class<?> clazz = getImplClass();
+                cons = (paramClass == null)
+                        ? clazz.getConstructor()
+                        : clazz.getConstructor(paramClass);
+                constructorCache = cons;
+            }
+            return cons;
+        }
+
         /**
          * Generic code path for unknown engine types. Call the
          * no-args constructor if constructorParameter is null, otherwise
@@ -1539,5 +1611,7 @@ public abstract class Provider extends Properties {
         // This call to getServices will update fields so that further calls will just return a
         // stored field, if the services didn't change in the meantime.
         getServices();
+        // Android-added: Likewise for the snapshot read by getService().
+        ensureServiceLookup();
     }
 }
@@ -2038,7 +2038,8 @@ public class X509CertSelector implements CertSelector {
 
         /* match on issuer name */
         if (issuer != null) {
-            if (!issuer.equals(xcert.getIssuerX500Principal())) {
+            // Android-changed: Match encoded names before decoding them.
+            if (!X509CertImpl.issuerEquals(xcert, issuer)) {
                 if (debug != null) {
                     debug.println("X509CertSelector.match: "
                         + "issuer DNs don't match");
@@ -2049,7 +2050,8 @@ public class X509CertSelector implements CertSelector {
 
         /* match on subject name */
         if (subject != null) {
-            if (!subject.equals(xcert.getSubjectX500Principal())) {
+            // Android-changed: Match encoded names before decoding them.
+            if (!X509CertImpl.subjectEquals(xcert, subject)) {
                 if (debug != null) {
                     debug.println("X509CertSelector.match: "
                         + "subject DNs don't match");
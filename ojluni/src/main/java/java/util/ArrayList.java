@@ -29,6 +29,7 @@ package java.util;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * Resizable-array implementation of the <tt>List</tt> interface.  Implements
@@ -1444,4 +1445,101 @@ public class ArrayList<E> extends AbstractList<E>
         }
         modCount++;
     }
+
+    // BEGIN Android-added: Parallel bulk operations.
+    /**
+     * Lists no larger than this are processed sequentially by the parallel
+     * bulk operations, since forking would cost more than it saves.
+     */
+    private static final int MIN_PARALLEL_SIZE = Arrays.MIN_ARRAY_SORT_GRAN;
+
+    /**
+     * Sorts this list as {@link #sort} does, but uses {@link
+     * Arrays#parallelSort(Object[], int, int, Comparator)} so that large
+     * lists are sorted in the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     * ForkJoin common pool}. The sort is stable.
+     *
+     * @param c the comparator, or {@code null} to use natural ordering
+     * @throws ConcurrentModificationException if the list is structurally
+     *         modified during the sort
+     * @hide
+     */
+    @SuppressWarnings("unchecked")
+    public void parallelSort(Comparator<? super E> c) {
+        final int expectedModCount = modCount;
+        Arrays.parallelSort((E[]) elementData, 0, size, c);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    /**
+     * Replaces each element as {@link #replaceAll} does, applying
+     * {@code operator} to the elements of large lists in parallel. The
+     * operator must be safe to call from multiple threads, and the order in
+     * which elements are replaced is unspecified.
+     *
+     * @hide
+     */
+    @SuppressWarnings("unchecked")
+    public void parallelReplaceAll(UnaryOperator<E> operator) {
+        Objects.requireNonNull(operator);
+        final int size = this.size;
+        if (size <= MIN_PARALLEL_SIZE) {
+            replaceAll(operator);
+            return;
+        }
+        final int expectedModCount = modCount;
+        final Object[] elementData = this.elementData;
+        IntStream.range(0, size).parallel().forEach(
+                i -> { elementData[i] = operator.apply((E) elementData[i]); });
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    /**
+     * Removes the elements that satisfy {@code filter} as {@link #removeIf}
+     * does, testing the elements of large lists in parallel. The predicate
+     * must be safe to call from multiple threads. If it throws, the list is
+     * left unmodified.
+     *
+     * @hide
+     */
+    @SuppressWarnings("unchecked")
+    public boolean parallelRemoveIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        final int size = this.size;
+        if (size <= MIN_PARALLEL_SIZE) {
+            return removeIf(filter);
+        }
+        // Each task writes only its own indices, so a boolean[] (unlike a
+        // BitSet) can be filled in concurrently.
+        final int expectedModCount = modCount;
+        final Object[] elementData = this.elementData;
+        final boolean[] removeSet = new boolean[size];
+        IntStream.range(0, size).parallel().forEach(
+                i -> { removeSet[i] = filter.test((E) elementData[i]); });
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+
+        // shift surviving elements left over the spaces left by removed elements
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removeSet[i]) {
+                elementData[newSize++] = elementData[i];
+            }
+        }
+        if (newSize == size) {
+            return false;
+        }
+        Arrays.fill(elementData, newSize, size, null);  // Let gc do its work
+        this.size = newSize;
+        modCount++;
+        return true;
+    }
+    // END Android-added: Parallel bulk operations.
 }
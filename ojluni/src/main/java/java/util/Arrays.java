@@ -2578,6 +2578,112 @@ public class Arrays {
         return -(low + 1);  // key not found.
     }
 
+    // BEGIN Android-added: Parallel operations on sorted arrays.
+    /**
+     * Merges two arrays that are each sorted into ascending numerical order
+     * (as by {@link #sort(int[])}) into a new sorted array containing the
+     * elements of both.
+     *
+     * <p>Large inputs are merged in parallel in the {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool}, by the same merge
+     * tasks that {@link #parallelSort(int[])} uses. If either array is not
+     * sorted, the result is unspecified.
+     *
+     * @param a a sorted array
+     * @param b another sorted array
+     * @return a new sorted array of length {@code a.length + b.length}
+     * @throws NullPointerException if either array is null
+     * @hide
+     */
+    public static int[] parallelMerge(int[] a, int[] b) {
+        int an = a.length, bn = b.length, n = an + bn, p, g;
+        // The merge tasks read both runs from a single array.
+        int[] runs = new int[n];
+        System.arraycopy(a, 0, runs, 0, an);
+        System.arraycopy(b, 0, runs, an, bn);
+        int[] merged = new int[n];
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            g = n;
+        else
+            g = ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ? MIN_ARRAY_SORT_GRAN : g;
+        new ArraysParallelSortHelpers.FJInt.Merger
+            (null, runs, merged, 0, an, an, bn, 0, g).invoke();
+        return merged;
+    }
+
+    /**
+     * Merges two arrays that are each sorted into ascending numerical order
+     * (as by {@link #sort(long[])}) into a new sorted array containing the
+     * elements of both.
+     *
+     * <p>Large inputs are merged in parallel in the {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool}, by the same merge
+     * tasks that {@link #parallelSort(long[])} uses. If either array is not
+     * sorted, the result is unspecified.
+     *
+     * @param a a sorted array
+     * @param b another sorted array
+     * @return a new sorted array of length {@code a.length + b.length}
+     * @throws NullPointerException if either array is null
+     * @hide
+     */
+    public static long[] parallelMerge(long[] a, long[] b) {
+        int an = a.length, bn = b.length, n = an + bn, p, g;
+        // The merge tasks read both runs from a single array.
+        long[] runs = new long[n];
+        System.arraycopy(a, 0, runs, 0, an);
+        System.arraycopy(b, 0, runs, an, bn);
+        long[] merged = new long[n];
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            g = n;
+        else
+            g = ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ? MIN_ARRAY_SORT_GRAN : g;
+        new ArraysParallelSortHelpers.FJLong.Merger
+            (null, runs, merged, 0, an, an, bn, 0, g).invoke();
+        return merged;
+    }
+
+    /**
+     * Searches the sorted array {@code a} for each of {@code keys}, as
+     * {@link #binarySearch(int[], int)} does, performing the searches in
+     * parallel.
+     *
+     * @param a the sorted array to be searched
+     * @param keys the values to be searched for
+     * @return an array whose element {@code i} is the result of
+     *         {@code binarySearch(a, keys[i])}
+     * @throws NullPointerException if either array is null
+     * @hide
+     */
+    public static int[] parallelBinarySearch(int[] a, int[] keys) {
+        Objects.requireNonNull(a);
+        int[] result = new int[keys.length];
+        parallelSetAll(result, i -> binarySearch0(a, 0, a.length, keys[i]));
+        return result;
+    }
+
+    /**
+     * Searches the sorted array {@code a} for each of {@code keys}, as
+     * {@link #binarySearch(long[], long)} does, performing the searches in
+     * parallel.
+     *
+     * @param a the sorted array to be searched
+     * @param keys the values to be searched for
+     * @return an array whose element {@code i} is the result of
+     *         {@code binarySearch(a, keys[i])}
+     * @throws NullPointerException if either array is null
+     * @hide
+     */
+    public static int[] parallelBinarySearch(long[] a, long[] keys) {
+        Objects.requireNonNull(a);
+        int[] result = new int[keys.length];
+        parallelSetAll(result, i -> binarySearch0(a, 0, a.length, keys[i]));
+        return result;
+    }
+    // END Android-added: Parallel operations on sorted arrays.
+
     // Equality Testing
 
     /**
@@ -248,6 +248,41 @@ public class Collections {
         }
     }
 
+    // BEGIN Android-added: Parallel sort for lists.
+    /**
+     * Sorts the specified list as {@link #sort(List, Comparator)} does, but
+     * uses {@link Arrays#parallelSort(Object[], Comparator)} so that large
+     * lists are sorted in the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     * ForkJoin common pool}. The sort is stable.
+     *
+     * @param  <T> the class of the objects in the list
+     * @param  list the list to be sorted.
+     * @param  c the comparator to determine the order of the list.  A
+     *        {@code null} value indicates that the elements' <i>natural
+     *        ordering</i> should be used.
+     * @throws ClassCastException if the list contains elements that are not
+     *         <i>mutually comparable</i> using the specified comparator.
+     * @throws UnsupportedOperationException if the specified list's
+     *         list-iterator does not support the {@code set} operation.
+     * @hide
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> void parallelSort(List<T> list, Comparator<? super T> c) {
+        if (list.getClass() == ArrayList.class) {
+            Arrays.parallelSort(((ArrayList) list).elementData, 0, list.size(), (Comparator) c);
+            return;
+        }
+
+        Object[] a = list.toArray();
+        Arrays.parallelSort(a, (Comparator) c);
+        ListIterator<T> i = list.listIterator();
+        for (int j=0; j<a.length; j++) {
+            i.next();
+            i.set((T)a[j]);
+        }
+    }
+    // END Android-added: Parallel sort for lists.
+
 
     /**
      * Searches the specified list for the specified object using the binary
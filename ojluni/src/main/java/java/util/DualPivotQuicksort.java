@@ -77,6 +77,45 @@ final class DualPivotQuicksort {
      */
     private static final int INSERTION_SORT_THRESHOLD = 47;
 
+    // BEGIN Android-added: Radix sort and more runs in long arrays.
+    /**
+     * If the length of an int or long array to be sorted is greater
+     * than this constant, and the array is not nearly sorted, LSD radix
+     * sort is used in preference to Quicksort.
+     */
+    private static final int RADIX_SORT_THRESHOLD = 1 << 14;
+
+    /**
+     * The number of bits in each digit of radix sort. Int arrays are
+     * sorted in at most three passes and long arrays in at most six.
+     */
+    private static final int RADIX_BITS = 11;
+
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+
+    /**
+     * If the runs found before giving up on merge sort are at least this
+     * long on average, the array is nearly sorted. Quicksort does well on
+     * such arrays, and is used in preference to radix sort.
+     */
+    private static final int MIN_PRESORTED_RUN_LENGTH = 16;
+
+    /**
+     * Arrays longer than MAX_RUN_COUNT times 2^MIN_RUN_LENGTH_SHIFT are
+     * merge sorted if their runs are, on average, at least
+     * 2^MIN_RUN_LENGTH_SHIFT elements long, however many runs there are.
+     */
+    private static final int MIN_RUN_LENGTH_SHIFT = 10;
+
+    /**
+     * Returns the maximum number of runs in merge sort of an array of
+     * the given length.
+     */
+    private static int maxRunCount(int length) {
+        return Math.max(MAX_RUN_COUNT, length >>> MIN_RUN_LENGTH_SHIFT);
+    }
+    // END Android-added: Radix sort and more runs in long arrays.
+
     /**
      * If the length of a byte array to be sorted is greater than this
      * constant, counting sort is used in preference to insertion sort.
@@ -116,6 +155,8 @@ final class DualPivotQuicksort {
          * Index run[i] is the start of i-th run
          * (ascending or descending sequence).
          */
+        // Android-changed: Allow more runs in longer arrays.
+        int maxRunCount = maxRunCount(right - left + 1);
         int[] run = new int[MAX_RUN_COUNT + 1];
         int count = 0; run[0] = left;
 
@@ -141,10 +182,22 @@ final class DualPivotQuicksort {
              * The array is not highly structured,
              * use Quicksort instead of merge sort.
              */
-            if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
-                return;
+            // BEGIN Android-changed: Allow more runs in longer arrays, and
+            // radix sort long arrays that are not nearly sorted.
+            if (++count == run.length - 1) {
+                if (count >= maxRunCount) {
+                    if (right - left < RADIX_SORT_THRESHOLD
+                            || k - left >= count * MIN_PRESORTED_RUN_LENGTH) {
+                        sort(a, left, right, true);
+                    } else {
+                        radixSort(a, left, right, work, workBase, workLen);
+                    }
+                    return;
+                }
+                run = Arrays.copyOf(run, Math.min(count << 1, maxRunCount) + 1);
             }
+            // END Android-changed: Allow more runs in longer arrays, and
+            // radix sort long arrays that are not nearly sorted.
         }
 
         // Check special cases
@@ -203,6 +256,61 @@ final class DualPivotQuicksort {
         }
     }
 
+    // BEGIN Android-added: Radix sort long arrays.
+    /**
+     * Sorts the specified range of the array by LSD radix sort, using the
+     * given workspace array slice if possible.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    private static void radixSort(int[] a, int left, int right,
+                                  int[] work, int workBase, int workLen) {
+        int length = right - left + 1;
+        if (work == null || workLen < length || workBase + length > work.length) {
+            work = new int[length];
+            workBase = 0;
+        }
+
+        // Count the occurrences of every value of every digit in one pass.
+        // The sign bit is flipped so that negative values sort first.
+        int[] count = new int[3 << RADIX_BITS];
+        for (int i = left; i <= right; ++i) {
+            int v = a[i] ^ Integer.MIN_VALUE;
+            for (int d = 0; d < 3; ++d) {
+                ++count[(d << RADIX_BITS) + (int) ((v >>> (d * RADIX_BITS)) & RADIX_MASK)];
+            }
+        }
+
+        // Distribute by each digit in turn, least significant first,
+        // skipping digits that have the same value in every element.
+        int[] b = work;         // temp array; alternates with a
+        int ao = left, bo = workBase;
+        for (int d = 0; d < 3; ++d) {
+            int base = d << RADIX_BITS, shift = d * RADIX_BITS;
+            if (count[base + (int) (((a[ao] ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK)] == length) {
+                continue;
+            }
+            for (int i = base, sum = 0; i <= base + RADIX_MASK; ++i) {
+                int c = count[i]; count[i] = sum; sum += c;
+            }
+            for (int i = ao, end = ao + length; i < end; ++i) {
+                int v = a[i];
+                b[bo + count[base + (int) (((v ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK)]++] = v;
+            }
+            int[] t = a; a = b; b = t;
+            int o = ao; ao = bo; bo = o;
+        }
+        if (a == work) {
+            System.arraycopy(work, ao, b, left, length);
+        }
+    }
+    // END Android-added: Radix sort long arrays.
+
     /**
      * Sorts the specified range of the array by Dual-Pivot Quicksort.
      *
@@ -564,6 +672,8 @@ final class DualPivotQuicksort {
          * Index run[i] is the start of i-th run
          * (ascending or descending sequence).
          */
+        // Android-changed: Allow more runs in longer arrays.
+        int maxRunCount = maxRunCount(right - left + 1);
         int[] run = new int[MAX_RUN_COUNT + 1];
         int count = 0; run[0] = left;
 
@@ -589,10 +699,22 @@ final class DualPivotQuicksort {
              * The array is not highly structured,
              * use Quicksort instead of merge sort.
              */
-            if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
-                return;
+            // BEGIN Android-changed: Allow more runs in longer arrays, and
+            // radix sort long arrays that are not nearly sorted.
+            if (++count == run.length - 1) {
+                if (count >= maxRunCount) {
+                    if (right - left < RADIX_SORT_THRESHOLD
+                            || k - left >= count * MIN_PRESORTED_RUN_LENGTH) {
+                        sort(a, left, right, true);
+                    } else {
+                        radixSort(a, left, right, work, workBase, workLen);
+                    }
+                    return;
+                }
+                run = Arrays.copyOf(run, Math.min(count << 1, maxRunCount) + 1);
             }
+            // END Android-changed: Allow more runs in longer arrays, and
+            // radix sort long arrays that are not nearly sorted.
         }
 
         // Check special cases
@@ -651,6 +773,61 @@ final class DualPivotQuicksort {
         }
     }
 
+    // BEGIN Android-added: Radix sort long arrays.
+    /**
+     * Sorts the specified range of the array by LSD radix sort, using the
+     * given workspace array slice if possible.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    private static void radixSort(long[] a, int left, int right,
+                                  long[] work, int workBase, int workLen) {
+        int length = right - left + 1;
+        if (work == null || workLen < length || workBase + length > work.length) {
+            work = new long[length];
+            workBase = 0;
+        }
+
+        // Count the occurrences of every value of every digit in one pass.
+        // The sign bit is flipped so that negative values sort first.
+        int[] count = new int[6 << RADIX_BITS];
+        for (int i = left; i <= right; ++i) {
+            long v = a[i] ^ Long.MIN_VALUE;
+            for (int d = 0; d < 6; ++d) {
+                ++count[(d << RADIX_BITS) + (int) ((v >>> (d * RADIX_BITS)) & RADIX_MASK)];
+            }
+        }
+
+        // Distribute by each digit in turn, least significant first,
+        // skipping digits that have the same value in every element.
+        long[] b = work;         // temp array; alternates with a
+        int ao = left, bo = workBase;
+        for (int d = 0; d < 6; ++d) {
+            int base = d << RADIX_BITS, shift = d * RADIX_BITS;
+            if (count[base + (int) (((a[ao] ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK)] == length) {
+                continue;
+            }
+            for (int i = base, sum = 0; i <= base + RADIX_MASK; ++i) {
+                int c = count[i]; count[i] = sum; sum += c;
+            }
+            for (int i = ao, end = ao + length; i < end; ++i) {
+                long v = a[i];
+                b[bo + count[base + (int) (((v ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK)]++] = v;
+            }
+            long[] t = a; a = b; b = t;
+            int o = ao; ao = bo; bo = o;
+        }
+        if (a == work) {
+            System.arraycopy(work, ao, b, left, length);
+        }
+    }
+    // END Android-added: Radix sort long arrays.
+
     /**
      * Sorts the specified range of the array by Dual-Pivot Quicksort.
      *
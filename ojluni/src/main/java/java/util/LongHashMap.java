@@ -0,0 +1,438 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash map from {@code long} keys to object values, which neither boxes its
+ * keys nor allocates a node per entry. Keys and values are kept in parallel
+ * arrays, using open addressing with linear probing, and the table is kept at
+ * most three quarters full. Key 0 marks a free slot, so its entry is kept in
+ * fields instead.
+ *
+ * <p>Values may be null. Like {@link HashMap}, this class is not thread safe,
+ * and its bulk operations throw {@link ConcurrentModificationException} if the
+ * map is structurally modified while they run.
+ *
+ * @param <V> the type of mapped values
+ * @hide
+ */
+public final class LongHashMap<V> {
+    /**
+     * Receives the entries of a map from {@link #forEach}.
+     */
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int threshold;
+
+    /** The number of entries in the table, excluding the entry for key 0. */
+    private int tableSize;
+
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    private int modCount;
+
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map that can hold {@code expectedSize} entries without growing.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative.
+     */
+    public LongHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocateTable(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return tableSize + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the value for {@code key}, or null if there is none.
+     */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@code defaultValue} if there is
+     * no entry for {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        long[] keys = this.keys;
+        for (int i = indexFor(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return (V) values[i];
+            }
+            if (k == 0) {
+                return defaultValue;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return (key == 0) ? hasZeroKey : findIndex(key) >= 0;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, and returns the previous value for
+     * {@code key}, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                modCount++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        for (int i = indexFor(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (k == 0) {
+                if (tableSize >= threshold) {
+                    grow();
+                    return put(key, value);
+                }
+                keys[i] = key;
+                values[i] = value;
+                tableSize++;
+                modCount++;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key}, and returns its value, or null if
+     * there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                modCount++;
+            }
+            return previous;
+        }
+        int index = findIndex(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        tableSize = 0;
+        hasZeroKey = false;
+        zeroValue = null;
+        modCount++;
+    }
+
+    /**
+     * Calls {@code action} with each entry of this map, in no particular order.
+     *
+     * @throws ConcurrentModificationException if {@code action} adds or
+     *     removes entries.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        for (int i = 0; i < keys.length && modCount == expectedModCount; i++) {
+            long k = keys[i];
+            if (k != 0) {
+                action.accept(k, (V) values[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Calls {@code action} with each key of this map, in no particular order.
+     *
+     * @throws ConcurrentModificationException if {@code action} adds or
+     *     removes entries.
+     */
+    public void forEachKey(LongConsumer action) {
+        keySpliterator().forEachRemaining(action);
+    }
+
+    /**
+     * Returns a late-binding, fail-fast spliterator over the keys of this map.
+     */
+    public Spliterator.OfLong keySpliterator() {
+        return new KeySpliterator(this, 0, -1, false, 0);
+    }
+
+    /**
+     * Returns a sequential stream of the keys of this map.
+     */
+    public LongStream keyStream() {
+        return StreamSupport.longStream(keySpliterator(), false);
+    }
+
+    @Override public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(key).append('=').append(value == this ? "(this Map)" : value);
+        });
+        return result.append('}').toString();
+    }
+
+    /**
+     * Returns the index of non-zero {@code key}, or -1.
+     */
+    private int findIndex(long key) {
+        long[] keys = this.keys;
+        for (int i = indexFor(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at {@code hole}, shifting later entries of the probe
+     * sequence back so that no tombstones are needed.
+     */
+    private void removeAt(int hole) {
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        for (int i = (hole + 1) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == 0) {
+                break;
+            }
+            int home = indexFor(k);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = k;
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        tableSize--;
+        modCount++;
+    }
+
+    /**
+     * Returns the home slot of {@code key}, using Fibonacci hashing so that
+     * sequential keys are spread over the table.
+     */
+    private int indexFor(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minCapacity = (expectedSize * 4L + 2) / 3 + 1;
+        if (minCapacity > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) minCapacity - 1) << 1);
+    }
+
+    private void allocateTable(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        // Always leave a free slot, which ends every probe.
+        threshold = (capacity == MAX_CAPACITY) ? capacity - 1 : capacity / 4 * 3;
+    }
+
+    private void grow() {
+        int oldCapacity = keys.length;
+        if (oldCapacity == MAX_CAPACITY) {
+            throw new IllegalStateException("LongHashMap is full");
+        }
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocateTable(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            long k = oldKeys[i];
+            if (k != 0) {
+                int j = indexFor(k);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+        modCount++;
+    }
+
+    static final class KeySpliterator implements Spliterator.OfLong {
+        private final LongHashMap<?> map;
+        private int index;
+        private int fence; // -1 until first use, then one past the last slot
+        private boolean zeroPending; // whether key 0 is still to be reported
+        private int est;
+        private int expectedModCount;
+
+        KeySpliterator(LongHashMap<?> map, int origin, int fence, boolean zeroPending, int est) {
+            this.map = map;
+            this.index = origin;
+            this.fence = fence;
+            this.zeroPending = zeroPending;
+            this.est = est;
+        }
+
+        private int getFence() {
+            int hi = fence;
+            if (hi < 0) {
+                LongHashMap<?> m = map;
+                est = m.size();
+                expectedModCount = m.modCount;
+                hi = fence = m.keys.length;
+                zeroPending = m.hasZeroKey;
+            }
+            return hi;
+        }
+
+        @Override public KeySpliterator trySplit() {
+            int hi = getFence();
+            int lo = index;
+            int mid = (lo + hi) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            KeySpliterator prefix = new KeySpliterator(map, lo, index = mid, zeroPending, est >>>= 1);
+            prefix.expectedModCount = expectedModCount;
+            zeroPending = false;
+            return prefix;
+        }
+
+        @Override public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zeroPending) {
+                zeroPending = false;
+                action.accept(0);
+                checkForComodification();
+                return true;
+            }
+            long[] keys = map.keys;
+            while (index < hi) {
+                long k = keys[index++];
+                if (k != 0) {
+                    action.accept(k);
+                    checkForComodification();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zeroPending) {
+                zeroPending = false;
+                action.accept(0);
+            }
+            long[] keys = map.keys;
+            int i = index;
+            index = hi;
+            for (; i < hi && map.modCount == expectedModCount; i++) {
+                long k = keys[i];
+                if (k != 0) {
+                    action.accept(k);
+                }
+            }
+            checkForComodification();
+        }
+
+        @Override public long estimateSize() {
+            getFence();
+            return est;
+        }
+
+        @Override public int characteristics() {
+            return ((fence < 0 || est == map.size()) ? Spliterator.SIZED : 0)
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        private void checkForComodification() {
+            if (map.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
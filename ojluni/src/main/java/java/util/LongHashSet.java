@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash set of {@code long} values, which neither boxes its elements nor
+ * allocates a node per element. Elements are kept in an array, using open
+ * addressing with linear probing, and the table is kept at most three quarters
+ * full. Element 0 marks a free slot, so its presence is kept in a field
+ * instead.
+ *
+ * <p>Like {@link HashSet}, this class is not thread safe, and its bulk
+ * operations and iterators throw {@link ConcurrentModificationException} if
+ * the set is structurally modified while they run.
+ *
+ * @hide
+ */
+public final class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] elements;
+    private int mask;
+    private int shift;
+    private int threshold;
+
+    /** The number of elements in the table, excluding 0. */
+    private int tableSize;
+
+    private boolean containsZero;
+
+    private int modCount;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a set that can hold {@code expectedSize} elements without growing.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative.
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocateTable(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return tableSize + (containsZero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long value) {
+        return (value == 0) ? containsZero : findIndex(value) >= 0;
+    }
+
+    /**
+     * Adds {@code value}, and returns whether it wasn't already present.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            modCount++;
+            return true;
+        }
+        for (int i = indexFor(value); ; i = (i + 1) & mask) {
+            long v = elements[i];
+            if (v == value) {
+                return false;
+            }
+            if (v == 0) {
+                if (tableSize >= threshold) {
+                    grow();
+                    return add(value);
+                }
+                elements[i] = value;
+                tableSize++;
+                modCount++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code value}, and returns whether it was present.
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            modCount++;
+            return true;
+        }
+        int hole = findIndex(value);
+        if (hole < 0) {
+            return false;
+        }
+
+        // Shift later elements of the probe sequence back into the hole, so that
+        // no tombstones are needed.
+        long[] elements = this.elements;
+        for (int i = (hole + 1) & mask; ; i = (i + 1) & mask) {
+            long v = elements[i];
+            if (v == 0) {
+                break;
+            }
+            int home = indexFor(v);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                elements[hole] = v;
+                hole = i;
+            }
+        }
+        elements[hole] = 0;
+        tableSize--;
+        modCount++;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0);
+        tableSize = 0;
+        containsZero = false;
+        modCount++;
+    }
+
+    /**
+     * Calls {@code action} with each element of this set, in no particular order.
+     *
+     * @throws ConcurrentModificationException if {@code action} adds or
+     *     removes elements.
+     */
+    public void forEach(LongConsumer action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    /**
+     * Returns a fail-fast iterator over the elements of this set, in no
+     * particular order. The iterator doesn't support removal.
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns a late-binding, fail-fast spliterator over the elements of this
+     * set.
+     */
+    public Spliterator.OfLong spliterator() {
+        return new ElementSpliterator(this, 0, -1, false, 0);
+    }
+
+    /**
+     * Returns a sequential stream of the elements of this set.
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a new array containing the elements of this set, in no
+     * particular order.
+     */
+    public long[] toArray() {
+        long[] result = new long[size()];
+        int count = containsZero ? 1 : 0;
+        for (long v : elements) {
+            if (v != 0) {
+                result[count++] = v;
+            }
+        }
+        return result;
+    }
+
+    @Override public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        forEach(value -> {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(value);
+        });
+        return result.append(']').toString();
+    }
+
+    /**
+     * Returns the index of non-zero {@code value}, or -1.
+     */
+    private int findIndex(long value) {
+        long[] elements = this.elements;
+        for (int i = indexFor(value); ; i = (i + 1) & mask) {
+            long v = elements[i];
+            if (v == value) {
+                return i;
+            }
+            if (v == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the home slot of {@code value}, using Fibonacci hashing so that
+     * sequential values are spread over the table.
+     */
+    private int indexFor(long value) {
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minCapacity = (expectedSize * 4L + 2) / 3 + 1;
+        if (minCapacity > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) minCapacity - 1) << 1);
+    }
+
+    private void allocateTable(int capacity) {
+        elements = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        // Always leave a free slot, which ends every probe.
+        threshold = (capacity == MAX_CAPACITY) ? capacity - 1 : capacity / 4 * 3;
+    }
+
+    private void grow() {
+        int oldCapacity = elements.length;
+        if (oldCapacity == MAX_CAPACITY) {
+            throw new IllegalStateException("LongHashSet is full");
+        }
+        long[] oldElements = elements;
+        allocateTable(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            long v = oldElements[i];
+            if (v != 0) {
+                int j = indexFor(v);
+                while (elements[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                elements[j] = v;
+            }
+        }
+        modCount++;
+    }
+
+    static final class ElementSpliterator implements Spliterator.OfLong {
+        private final LongHashSet set;
+        private int index;
+        private int fence; // -1 until first use, then one past the last slot
+        private boolean zeroPending; // whether 0 is still to be reported
+        private int est;
+        private int expectedModCount;
+
+        ElementSpliterator(LongHashSet set, int origin, int fence, boolean zeroPending, int est) {
+            this.set = set;
+            this.index = origin;
+            this.fence = fence;
+            this.zeroPending = zeroPending;
+            this.est = est;
+        }
+
+        private int getFence() {
+            int hi = fence;
+            if (hi < 0) {
+                LongHashSet s = set;
+                est = s.size();
+                expectedModCount = s.modCount;
+                hi = fence = s.elements.length;
+                zeroPending = s.containsZero;
+            }
+            return hi;
+        }
+
+        @Override public ElementSpliterator trySplit() {
+            int hi = getFence();
+            int lo = index;
+            int mid = (lo + hi) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            ElementSpliterator prefix =
+                    new ElementSpliterator(set, lo, index = mid, zeroPending, est >>>= 1);
+            prefix.expectedModCount = expectedModCount;
+            zeroPending = false;
+            return prefix;
+        }
+
+        @Override public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zeroPending) {
+                zeroPending = false;
+                action.accept(0);
+                checkForComodification();
+                return true;
+            }
+            long[] elements = set.elements;
+            while (index < hi) {
+                long v = elements[index++];
+                if (v != 0) {
+                    action.accept(v);
+                    checkForComodification();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zeroPending) {
+                zeroPending = false;
+                action.accept(0);
+            }
+            long[] elements = set.elements;
+            int i = index;
+            index = hi;
+            for (; i < hi && set.modCount == expectedModCount; i++) {
+                long v = elements[i];
+                if (v != 0) {
+                    action.accept(v);
+                }
+            }
+            checkForComodification();
+        }
+
+        @Override public long estimateSize() {
+            getFence();
+            return est;
+        }
+
+        @Override public int characteristics() {
+            return ((fence < 0 || est == set.size()) ? Spliterator.SIZED : 0)
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        private void checkForComodification() {
+            if (set.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
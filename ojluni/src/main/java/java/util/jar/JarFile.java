@@ -386,6 +386,29 @@ class JarFile extends ZipFile {
         }
     }
 
+    /**
+     * Verifies the digests of all signed entries of this jar file now,
+     * reading the entries in parallel, rather than as each entry is read.
+     * Entries verified this way are not verified again when they are read.
+     * Does nothing if the jar file is unsigned or was opened without
+     * verification.
+     *
+     * @throws SecurityException if the digest of an entry does not match
+     *         the manifest
+     * @throws IOException if an I/O error has occurred
+     * @hide
+     */
+    public void verifyAllEntries() throws IOException {
+        ensureInitialization();
+        JarVerifier verifier;
+        synchronized (this) {
+            verifier = jv;
+        }
+        if (verifier != null) {
+            verifier.verifyAll(this);
+        }
+    }
+
     /*
      * Reads all the bytes for a given entry. Used to process the
      * META-INF files.
@@ -409,21 +432,25 @@ class JarFile extends ZipFile {
      * @throws IllegalStateException
      *         may be thrown if the jar file has been closed
      */
-    public synchronized InputStream getInputStream(ZipEntry ze)
+    public InputStream getInputStream(ZipEntry ze)
         throws IOException
     {
-        maybeInstantiateVerifier();
-        if (jv == null) {
-            return super.getInputStream(ze);
+        // Android-changed: Only hold the lock while the verifier is set up,
+        // so that threads can open entry streams concurrently.
+        JarVerifier verifier;
+        synchronized (this) {
+            maybeInstantiateVerifier();
+            if (jv != null && !jvInitialized) {
+                initializeVerifier();
+                jvInitialized = true;
+                // could be set to null after a call to
+                // initializeVerifier if we have nothing to
+                // verify
+            }
+            verifier = jv;
         }
-        if (!jvInitialized) {
-            initializeVerifier();
-            jvInitialized = true;
-            // could be set to null after a call to
-            // initializeVerifier if we have nothing to
-            // verify
-            if (jv == null)
-                return super.getInputStream(ze);
+        if (verifier == null) {
+            return super.getInputStream(ze);
         }
 
         // wrap a verifier stream around the real stream
@@ -432,7 +459,7 @@ class JarFile extends ZipFile {
             ze instanceof JarFileEntry ?
             (JarEntry) ze : getJarEntry(ze.getName()),
             super.getInputStream(ze),
-            jv);
+            verifier);
     }
 
     // Statics for hand-coded Boyer-Moore search in hasClassPathAttribute()
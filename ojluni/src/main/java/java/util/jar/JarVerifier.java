@@ -31,6 +31,9 @@ import java.net.URL;
 import java.util.*;
 import java.security.*;
 import java.security.cert.CertificateException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.zip.ZipEntry;
 
 import sun.security.util.ManifestDigester;
@@ -47,13 +50,15 @@ class JarVerifier {
     /* Are we debugging ? */
     static final Debug debug = Debug.getInstance("jar");
 
+    // Android-changed: concurrent maps, so that entries can be verified by
+    // several threads at once (see verifyAll).
     /* a table mapping names to code signers, for jar entries that have
        had their actual hashes verified */
-    private Hashtable verifiedSigners;
+    private Map<String, CodeSigner[]> verifiedSigners;
 
     /* a table mapping names to code signers, for jar entries that have
        passed the .SF/.DSA/.EC -> MANIFEST check */
-    private Hashtable sigFileSigners;
+    private Map<String, CodeSigner[]> sigFileSigners;
 
     /* a hash table to hold .SF bytes */
     private Hashtable sigFileData;
@@ -95,8 +100,8 @@ class JarVerifier {
 
     public JarVerifier(byte rawBytes[]) {
         manifestRawBytes = rawBytes;
-        sigFileSigners = new Hashtable();
-        verifiedSigners = new Hashtable();
+        sigFileSigners = new ConcurrentHashMap<>();
+        verifiedSigners = new ConcurrentHashMap<>();
         sigFileData = new Hashtable(11);
         pendingBlocks = new ArrayList();
         baos = new ByteArrayOutputStream();
@@ -345,7 +350,7 @@ class JarVerifier {
      */
     public CodeSigner[] getCodeSigners(String name)
     {
-        return (CodeSigner[])verifiedSigners.get(name);
+        return verifiedSigners.get(name);
     }
 
     public CodeSigner[] getCodeSigners(JarFile jar, JarEntry entry)
@@ -370,6 +375,66 @@ class JarVerifier {
         return getCodeSigners(name);
     }
 
+    /**
+     * Verifies the digests of all signed entries that have not been verified
+     * yet, reading the entries in parallel on the common ForkJoinPool.
+     *
+     * @throws SecurityException if the digest of an entry does not match
+     */
+    void verifyAll(JarFile jar) throws IOException {
+        String[] names = sigFileSigners.keySet().toArray(new String[0]);
+        if (names.length > 0) {
+            try {
+                ForkJoinPool.commonPool().invoke(new VerifyTask(jar, names, 0, names.length));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Reads a range of signed entries, which verifies them as a side effect
+     * of reaching the end of each entry's VerifierStream.
+     */
+    private static final class VerifyTask extends RecursiveAction {
+        /** The number of entries below which a task reads its entries itself. */
+        private static final int THRESHOLD = 4;
+
+        private final JarFile jar;
+        private final String[] names;
+        private final int from;
+        private final int to;
+
+        VerifyTask(JarFile jar, String[] names, int from, int to) {
+            this.jar = jar;
+            this.names = names;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected void compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new VerifyTask(jar, names, from, mid),
+                          new VerifyTask(jar, names, mid, to));
+                return;
+            }
+            byte[] buffer = new byte[8192];
+            for (int i = from; i < to; i++) {
+                JarEntry entry = jar.getJarEntry(names[i]);
+                if (entry == null) {
+                    continue;
+                }
+                try (InputStream is = jar.getInputStream(entry)) {
+                    while (is.read(buffer, 0, buffer.length) != -1) {
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
     /*
      * Convert an array of signers into an array of concatenated certificate
      * arrays.
@@ -515,33 +580,35 @@ class JarVerifier {
 
     // Extended JavaUtilJarAccess CodeSource API Support
 
-    private Map urlToCodeSourceMap = new HashMap();
-    private Map signerToCodeSource = new HashMap();
-    private URL lastURL;
-    private Map lastURLMap;
+    // Android-changed: lock-free maps; null URLs and signers are stored under
+    // NULL_KEY, since ConcurrentHashMap does not accept null keys.
+    private static final Object NULL_KEY = new Object();
+    private final ConcurrentHashMap<Object, ConcurrentHashMap<Object, CodeSource>>
+            urlToCodeSourceMap = new ConcurrentHashMap<>();
 
     /*
      * Create a unique mapping from codeSigner cache entries to CodeSource.
      * In theory, multiple URLs origins could map to a single locally cached
      * and shared JAR file although in practice there will be a single URL in use.
      */
-    private synchronized CodeSource mapSignersToCodeSource(URL url, CodeSigner[] signers) {
-        Map map;
-        if (url == lastURL) {
-            map = lastURLMap;
-        } else {
-            map = (Map) urlToCodeSourceMap.get(url);
-            if (map == null) {
-                map = new HashMap();
-                urlToCodeSourceMap.put(url, map);
+    private CodeSource mapSignersToCodeSource(URL url, CodeSigner[] signers) {
+        Object urlKey = (url != null) ? url : NULL_KEY;
+        ConcurrentHashMap<Object, CodeSource> map = urlToCodeSourceMap.get(urlKey);
+        if (map == null) {
+            map = new ConcurrentHashMap<>();
+            ConcurrentHashMap<Object, CodeSource> raced = urlToCodeSourceMap.putIfAbsent(urlKey, map);
+            if (raced != null) {
+                map = raced;
             }
-            lastURLMap = map;
-            lastURL = url;
         }
-        CodeSource cs = (CodeSource) map.get(signers);
+        Object signersKey = (signers != null) ? signers : NULL_KEY;
+        CodeSource cs = map.get(signersKey);
         if (cs == null) {
             cs = new VerifierCodeSource(csdomain, url, signers);
-            signerToCodeSource.put(signers, cs);
+            CodeSource raced = map.putIfAbsent(signersKey, cs);
+            if (raced != null) {
+                cs = raced;
+            }
         }
         return cs;
     }
@@ -663,23 +730,32 @@ class JarVerifier {
             return vcerts;
         }
     }
-    private Map signerMap;
-
-    private synchronized Map signerMap() {
-        if (signerMap == null) {
+    // Android-changed: signerMap and jarCodeSigners are immutable snapshots
+    // published through volatile fields rather than under the verifier's lock.
+    // Threads racing to build them build equal snapshots.
+    private volatile Map signerMap;
+
+    private Map signerMap() {
+        Map map = signerMap;
+        if (map == null) {
             /*
              * Snapshot signer state so it doesn't change on us. We care
              * only about the asserted signatures. Verification of
              * signature validity happens via the JarEntry apis.
+             *
+             * Signers move from sigFileSigners to verifiedSigners as
+             * entries are verified, so sigFileSigners is read first: an
+             * entry moving concurrently is then seen in at least one of them.
              */
-            signerMap = new HashMap(verifiedSigners.size() + sigFileSigners.size());
-            signerMap.putAll(verifiedSigners);
-            signerMap.putAll(sigFileSigners);
+            map = new HashMap(verifiedSigners.size() + sigFileSigners.size());
+            map.putAll(sigFileSigners);
+            map.putAll(verifiedSigners);
+            signerMap = map;
         }
-        return signerMap;
+        return map;
     }
 
-    public synchronized Enumeration<String> entryNames(JarFile jar, final CodeSource[] cs) {
+    public Enumeration<String> entryNames(JarFile jar, final CodeSource[] cs) {
         final Map map = signerMap();
         final Iterator itor = map.entrySet().iterator();
         boolean matchUnsigned = false;
@@ -858,20 +934,21 @@ class JarVerifier {
             }
         };
     }
-    private List jarCodeSigners;
+    private volatile List jarCodeSigners;
 
-    private synchronized List getJarCodeSigners() {
-        CodeSigner[] signers;
-        if (jarCodeSigners == null) {
+    private List getJarCodeSigners() {
+        List signers = jarCodeSigners;
+        if (signers == null) {
             HashSet set = new HashSet();
             set.addAll(signerMap().values());
-            jarCodeSigners = new ArrayList();
-            jarCodeSigners.addAll(set);
+            signers = new ArrayList();
+            signers.addAll(set);
+            jarCodeSigners = signers;
         }
-        return jarCodeSigners;
+        return signers;
     }
 
-    public synchronized CodeSource[] getCodeSources(JarFile jar, URL url) {
+    public CodeSource[] getCodeSources(JarFile jar, URL url) {
         boolean hasUnsigned = unsignedEntryNames(jar).hasMoreElements();
 
         return mapSignersToCodeSources(url, getJarCodeSigners(), hasUnsigned);
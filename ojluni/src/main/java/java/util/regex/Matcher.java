@@ -123,6 +123,13 @@ public final class Matcher implements MatchResult {
     private static final NativeAllocationRegistry registry = new NativeAllocationRegistry(
             Matcher.class.getClassLoader(), getNativeFinalizer(), nativeSize());
 
+    // Android-added: Match simple patterns in Java, without a native peer.
+    /**
+     * The state of the pure-Java matcher if the pattern has one, in which
+     * case there is no native peer, or null.
+     */
+    private SimplePattern.Search search;
+
     /**
      * Holds the input text.
      */
@@ -225,8 +232,14 @@ public final class Matcher implements MatchResult {
                 address = 0; // In case openImpl throws.
                 nativeFinalizer = null;
             }
-            address = openImpl(pattern.address);
-            nativeFinalizer = registry.registerNativeAllocation(this, address);
+            // Android-changed: Match simple patterns in Java, without a native peer.
+            if (pattern.simplePattern != null) {
+                search = new SimplePattern.Search(pattern.simplePattern);
+            } else {
+                search = null;
+                address = openImpl(pattern.address);
+                nativeFinalizer = registry.registerNativeAllocation(this, address);
+            }
         }
 
         if (input != null) {
@@ -396,6 +409,10 @@ public final class Matcher implements MatchResult {
      * @return The number of capturing groups in this matcher's pattern
      */
     public int groupCount() {
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            return 0;
+        }
         synchronized (this) {
             return groupCountImpl(address);
         }
@@ -411,6 +428,11 @@ public final class Matcher implements MatchResult {
      *          matches this matcher's pattern
      */
     public boolean matches() {
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            matchFound = search.matches(matchOffsets);
+            return matchFound;
+        }
         synchronized (this) {
             matchFound = matchesImpl(address, input, matchOffsets);
         }
@@ -433,6 +455,11 @@ public final class Matcher implements MatchResult {
      *          sequence matches this matcher's pattern
      */
     public boolean find() {
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            matchFound = search.find(matchOffsets);
+            return matchFound;
+        }
         synchronized (this) {
             matchFound = findNextImpl(address, input, matchOffsets);
         }
@@ -462,6 +489,11 @@ public final class Matcher implements MatchResult {
             throw new IndexOutOfBoundsException("start=" + start + "; length=" + input.length());
         }
 
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            matchFound = search.find(start, matchOffsets);
+            return matchFound;
+        }
         synchronized (this) {
             matchFound = findImpl(address, input, start, matchOffsets);
         }
@@ -483,6 +515,11 @@ public final class Matcher implements MatchResult {
      *          sequence matches this matcher's pattern
      */
     public boolean lookingAt() {
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            matchFound = search.lookingAt(matchOffsets);
+            return matchFound;
+        }
         synchronized (this) {
             matchFound = lookingAtImpl(address, input, matchOffsets);
         }
@@ -849,7 +886,10 @@ public final class Matcher implements MatchResult {
     public Matcher useTransparentBounds(boolean value) {
         synchronized (this) {
             transparentBounds = value;
-            useTransparentBoundsImpl(address, value);
+            // Android-changed: Simple patterns don't look beyond their matches.
+            if (search == null) {
+                useTransparentBoundsImpl(address, value);
+            }
         }
         return this;
     }
@@ -898,7 +938,12 @@ public final class Matcher implements MatchResult {
     public Matcher useAnchoringBounds(boolean value) {
         synchronized (this) {
             anchoringBounds = value;
-            useAnchoringBoundsImpl(address, value);
+            // Android-changed: Match simple patterns in Java, without a native peer.
+            if (search != null) {
+                search.useAnchoringBounds(value);
+            } else {
+                useAnchoringBoundsImpl(address, value);
+            }
         }
         return this;
     }
@@ -937,6 +982,10 @@ public final class Matcher implements MatchResult {
      * @since 1.5
      */
     public boolean hitEnd() {
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            return search.hitEnd;
+        }
         synchronized (this) {
             return hitEndImpl(address);
         }
@@ -958,6 +1007,10 @@ public final class Matcher implements MatchResult {
      * @since 1.5
      */
     public boolean requireEnd() {
+        // Android-added: Simple patterns have no end anchors or boundaries.
+        if (search != null) {
+            return false;
+        }
         synchronized (this) {
             return requireEndImpl(address);
         }
@@ -1032,6 +1085,11 @@ public final class Matcher implements MatchResult {
     }
 
     private void resetForInput() {
+        // Android-added: Match simple patterns in Java, without a native peer.
+        if (search != null) {
+            search.reset(input, regionStart, regionEnd, anchoringBounds);
+            return;
+        }
         synchronized (this) {
             setInputImpl(address, input, regionStart, regionEnd);
             useAnchoringBoundsImpl(address, anchoringBounds);
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -929,6 +930,13 @@ public final class Pattern implements java.io.Serializable
 
     transient long address;
 
+    // Android-added: Match simple patterns in Java, without a native peer.
+    /**
+     * The pure-Java matcher for this pattern, or null if it is matched by
+     * the native peer at {@link #address}.
+     */
+    transient SimplePattern simplePattern;
+
     private static final NativeAllocationRegistry registry = new NativeAllocationRegistry(
             Pattern.class.getClassLoader(), getNativeFinalizer(), nativeSize());
 
@@ -1043,11 +1051,134 @@ public final class Pattern implements java.io.Serializable
      *          If the expression's syntax is invalid
      */
     public static boolean matches(String regex, CharSequence input) {
-        Pattern p = Pattern.compile(regex);
-        Matcher m = p.matcher(input);
-        return m.matches();
+        // Android-changed: Reuse cached patterns and per-thread matchers.
+        Matcher m = obtainMatcher(compileCached(regex), input);
+        try {
+            return m.matches();
+        } finally {
+            recycleMatcher(m);
+        }
+    }
+
+    // BEGIN Android-added: Cache patterns and matchers for String's regex methods.
+    /**
+     * The number of patterns kept by {@link #compileCached}; a power of two.
+     */
+    private static final int PATTERN_CACHE_SIZE = 64;
+
+    /**
+     * Recently compiled patterns, two-way set associative by the hash of their
+     * regular expression. Lookups race without locking; a lost race only means
+     * a pattern is compiled again. The atomic array publishes patterns safely,
+     * because their native peer address is not a final field.
+     */
+    private static final AtomicReferenceArray<Pattern> patternCache =
+            new AtomicReferenceArray<>(PATTERN_CACHE_SIZE);
+
+    /**
+     * Matchers longer than this many chars of input are not kept by
+     * {@link #recycleMatcher}, so that an idle thread doesn't pin a large
+     * string and its native copy.
+     */
+    private static final int MAX_RECYCLED_INPUT_LENGTH = 4096;
+
+    /**
+     * The matcher most recently released on this thread, or null if there is
+     * none or it is in use.
+     */
+    private static final ThreadLocal<Matcher> threadMatcher = new ThreadLocal<>(true /* fastSlot */);
+
+    /**
+     * Returns a pattern equivalent to {@code Pattern.compile(regex)}, which may
+     * have been compiled by an earlier call. Patterns are immutable, so the
+     * result can be shared by any number of threads.
+     *
+     * @throws  PatternSyntaxException
+     *          If the expression's syntax is invalid
+     * @hide
+     */
+    public static Pattern compileCached(String regex) {
+        int hash = regex.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        int index = hash & (PATTERN_CACHE_SIZE - 2);
+
+        Pattern first = patternCache.get(index);
+        if (first != null && first.pattern.equals(regex)) {
+            return first;
+        }
+        Pattern second = patternCache.get(index ^ 1);
+        if (second != null && second.pattern.equals(regex)) {
+            return second;
+        }
+
+        // Keep the displaced pattern in the second slot of the pair.
+        Pattern pattern = new Pattern(regex, 0);
+        if (first != null) {
+            patternCache.lazySet(index ^ 1, first);
+        }
+        patternCache.set(index, pattern);
+        return pattern;
+    }
+
+    /**
+     * Returns {@code Pattern.compile(regex).matcher(input).replaceAll(replacement)},
+     * reusing cached patterns and this thread's matcher.
+     *
+     * @hide
+     */
+    public static String replaceAll(String regex, CharSequence input, String replacement) {
+        Matcher m = obtainMatcher(compileCached(regex), input);
+        try {
+            return m.replaceAll(replacement);
+        } finally {
+            recycleMatcher(m);
+        }
+    }
+
+    /**
+     * Returns {@code Pattern.compile(regex).matcher(input).replaceFirst(replacement)},
+     * reusing cached patterns and this thread's matcher.
+     *
+     * @hide
+     */
+    public static String replaceFirst(String regex, CharSequence input, String replacement) {
+        Matcher m = obtainMatcher(compileCached(regex), input);
+        try {
+            return m.replaceFirst(replacement);
+        } finally {
+            recycleMatcher(m);
+        }
     }
 
+    /**
+     * Returns a matcher of {@code pattern} reset to {@code input}, reusing this
+     * thread's idle matcher if there is one. The caller must not let the
+     * matcher escape, and must pass it to {@link #recycleMatcher} when done.
+     * A nested call on the same thread gets a new matcher.
+     */
+    private static Matcher obtainMatcher(Pattern pattern, CharSequence input) {
+        Matcher m = threadMatcher.get();
+        if (m == null) {
+            return new Matcher(pattern, input);
+        }
+        threadMatcher.set(null);
+        if (m.pattern() != pattern) {
+            m.usePattern(pattern);
+        }
+        return m.reset(input);
+    }
+
+    /**
+     * Makes {@code m} this thread's idle matcher, unless its input is large.
+     */
+    private static void recycleMatcher(Matcher m) {
+        if (m.regionEnd() <= MAX_RECYCLED_INPUT_LENGTH) {
+            threadMatcher.set(m);
+        }
+    }
+    // END Android-added: Cache patterns and matchers for String's regex methods.
+
     /**
      * Splits the given input sequence around matches of this pattern.
      *
@@ -1117,20 +1248,24 @@ public final class Pattern implements java.io.Serializable
         int index = 0;
         boolean matchLimited = limit > 0;
         ArrayList<String> matchList = new ArrayList<>();
-        Matcher m = matcher(input);
-
-        // Add segments before each match found
-        while(m.find()) {
-            if (!matchLimited || matchList.size() < limit - 1) {
-                String match = input.subSequence(index, m.start()).toString();
-                matchList.add(match);
-                index = m.end();
-            } else if (matchList.size() == limit - 1) { // last one
-                String match = input.subSequence(index,
-                                                 input.length()).toString();
-                matchList.add(match);
-                index = m.end();
+        // Android-changed: Reuse this thread's matcher.
+        Matcher m = obtainMatcher(this, input);
+        try {
+            // Add segments before each match found
+            while(m.find()) {
+                if (!matchLimited || matchList.size() < limit - 1) {
+                    String match = input.subSequence(index, m.start()).toString();
+                    matchList.add(match);
+                    index = m.end();
+                } else if (matchList.size() == limit - 1) { // last one
+                    String match = input.subSequence(index,
+                                                     input.length()).toString();
+                    matchList.add(match);
+                    index = m.end();
+                }
             }
+        } finally {
+            recycleMatcher(m);
         }
 
         // If no match was found, return this
@@ -1329,6 +1464,12 @@ public final class Pattern implements java.io.Serializable
             throw new NullPointerException("pattern == null");
         }
 
+        // Android-added: Match simple patterns in Java, without a native peer.
+        simplePattern = SimplePattern.compile(pattern, flags);
+        if (simplePattern != null) {
+            return;
+        }
+
         String icuPattern = pattern;
         if ((flags & LITERAL) != 0) {
             icuPattern = quote(pattern);
@@ -0,0 +1,884 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util.regex;
+
+import java.util.ArrayList;
+
+/**
+ * A pure-Java matcher for the simple patterns that make up most regular
+ * expressions in practice: literals, anchored prefixes, character classes with
+ * greedy quantifiers, and alternations of literals. Patterns that this class
+ * handles need no native ICU peer, and matching them doesn't cross JNI.
+ *
+ * <p>{@link #compile} returns null for any pattern outside that subset, and the
+ * caller falls back to ICU. Everything this class accepts is matched exactly
+ * as ICU would match it: leftmost first, with backtracking, code point by code
+ * point, using ICU's definitions of {@code \d}, {@code \w}, {@code \s} and
+ * {@code .}.
+ *
+ * <p>The match state of a {@link Matcher} lives in a {@link Search}.
+ */
+final class SimplePattern {
+
+    /** The largest bound accepted in a {@code {n,m}} quantifier. */
+    private static final int MAX_REPEAT = 1000;
+
+    /** The shortest literal searched for with Boyer-Moore-Horspool. */
+    private static final int MIN_HORSPOOL_LENGTH = 3;
+
+    /** The items of a sequence, or null for an alternation. */
+    private final Atom[] atoms;
+
+    /** Whether the sequence starts with {@code ^}. */
+    private final boolean anchored;
+
+    /** The length of the shortest possible match. */
+    private final int minLength;
+
+    /** The alternatives of an alternation of literals, or null for a sequence. */
+    private final String[] alternatives;
+
+    /** The distinct first characters of the alternatives, or null. */
+    private final String alternativeFirstChars;
+
+    /**
+     * The Boyer-Moore-Horspool shifts, indexed by the low byte of a char, if
+     * the pattern is a single literal long enough to use them, or null.
+     */
+    private final int[] shifts;
+
+    private SimplePattern(Atom[] atoms, boolean anchored, String[] alternatives) {
+        this.atoms = atoms;
+        this.anchored = anchored;
+        this.alternatives = alternatives;
+
+        int minLength = 0;
+        if (alternatives != null) {
+            minLength = Integer.MAX_VALUE;
+            for (String alternative : alternatives) {
+                minLength = Math.min(minLength, alternative.length());
+            }
+        } else {
+            for (Atom atom : atoms) {
+                minLength += (atom.literal != null) ? atom.literal.length() : atom.min;
+            }
+        }
+        this.minLength = minLength;
+
+        if (alternatives != null) {
+            StringBuilder firstChars = new StringBuilder();
+            for (String alternative : alternatives) {
+                if (firstChars.indexOf(alternative.substring(0, 1)) == -1) {
+                    firstChars.append(alternative.charAt(0));
+                }
+            }
+            alternativeFirstChars = firstChars.toString();
+        } else {
+            alternativeFirstChars = null;
+        }
+
+        String literal = singleLiteral();
+        if (literal != null && literal.length() >= MIN_HORSPOOL_LENGTH) {
+            int length = literal.length();
+            shifts = new int[256];
+            for (int i = 0; i < shifts.length; i++) {
+                shifts[i] = length;
+            }
+            // Chars that share a low byte share a slot, which keeps the
+            // smaller and therefore safe shift.
+            for (int i = 0; i < length - 1; i++) {
+                shifts[literal.charAt(i) & 0xff] = length - 1 - i;
+            }
+        } else {
+            shifts = null;
+        }
+    }
+
+    /**
+     * Returns a matcher for {@code pattern} compiled with {@code flags}, or null
+     * if the pattern must be matched by ICU.
+     */
+    static SimplePattern compile(String pattern, int flags) {
+        if (flags == Pattern.LITERAL) {
+            if (containsSurrogate(pattern)) {
+                return null;
+            }
+            Atom[] atoms = pattern.isEmpty()
+                    ? new Atom[0] : new Atom[] { new Atom(pattern) };
+            return new SimplePattern(atoms, false, null);
+        } else if (flags != 0) {
+            return null;
+        }
+        return new Parser(pattern).parse();
+    }
+
+    /**
+     * Returns the literal that this pattern consists of, or null if it isn't
+     * a single literal.
+     */
+    private String singleLiteral() {
+        if (atoms != null && !anchored && atoms.length == 1) {
+            return atoms[0].literal;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the end of a match that starts at {@code start}, or -1 if there
+     * is none. If {@code toEnd} is true, the match must extend to the end of
+     * the region.
+     */
+    private int matchAt(Search s, int start, boolean toEnd) {
+        if (alternatives != null) {
+            for (String alternative : alternatives) {
+                int end = matchLiteral(s, alternative, start);
+                if (end >= 0 && (!toEnd || end == s.activeLimit)) {
+                    return end;
+                }
+            }
+            return -1;
+        }
+        if (anchored && start != s.anchorStart) {
+            return -1;
+        }
+        return matchAtoms(s, 0, start, toEnd);
+    }
+
+    private int matchAtoms(Search s, int i, int start, boolean toEnd) {
+        if (i == atoms.length) {
+            return (toEnd && start != s.activeLimit) ? -1 : start;
+        }
+
+        Atom atom = atoms[i];
+        if (atom.literal != null) {
+            int end = matchLiteral(s, atom.literal, start);
+            return (end >= 0) ? matchAtoms(s, i + 1, end, toEnd) : -1;
+        }
+
+        // Take as many characters as possible, then give them back one at a
+        // time until the rest of the pattern matches.
+        String input = s.input;
+        int limit = s.activeLimit;
+        int position = start;
+        int count = 0;
+        while (count < atom.max) {
+            if (position >= limit) {
+                s.hitEnd = true;
+                break;
+            }
+            int c = codePointAt(input, position, limit);
+            if (!atom.set.matches(c)) {
+                break;
+            }
+            position += Character.charCount(c);
+            count++;
+        }
+        if (count < atom.min) {
+            return -1;
+        }
+        for (;;) {
+            int end = matchAtoms(s, i + 1, position, toEnd);
+            if (end >= 0) {
+                return end;
+            }
+            if (count == atom.min) {
+                return -1;
+            }
+            position -= (position - 2 >= start
+                    && Character.isLowSurrogate(input.charAt(position - 1))
+                    && Character.isHighSurrogate(input.charAt(position - 2))) ? 2 : 1;
+            count--;
+        }
+    }
+
+    private static int matchLiteral(Search s, String literal, int start) {
+        String input = s.input;
+        int limit = s.activeLimit;
+        int length = literal.length();
+        for (int i = 0; i < length; i++) {
+            if (start + i >= limit) {
+                s.hitEnd = true;
+                return -1;
+            }
+            if (input.charAt(start + i) != literal.charAt(i)) {
+                return -1;
+            }
+        }
+        return start + length;
+    }
+
+    /**
+     * Returns the first position at or after {@code from} where a match could
+     * start, skipping positions that can be ruled out cheaply, or -1 if
+     * there is none.
+     */
+    private int nextCandidate(Search s, int from) {
+        String input = s.input;
+        int limit = s.activeLimit;
+        if (alternatives != null) {
+            for (int i = from; i < limit; i++) {
+                if (alternativeFirstChars.indexOf(input.charAt(i)) != -1) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        if (atoms.length == 0) {
+            return from;
+        }
+        Atom first = atoms[0];
+        if (first.literal != null) {
+            if (shifts != null && atoms.length == 1) {
+                return indexOfHorspool(input, first.literal, from, limit);
+            }
+            int index = input.indexOf(first.literal.charAt(0), from);
+            return (index != -1 && index < limit) ? index : -1;
+        }
+        if (first.min > 0) {
+            for (int i = from; i < limit; ) {
+                int c = codePointAt(input, i, limit);
+                if (first.set.matches(c)) {
+                    return i;
+                }
+                i += Character.charCount(c);
+            }
+            return -1;
+        }
+        return from;
+    }
+
+    private int indexOfHorspool(String input, String literal, int from, int limit) {
+        int length = literal.length();
+        char last = literal.charAt(length - 1);
+        for (int i = from + length - 1; i < limit; ) {
+            char c = input.charAt(i);
+            if (c == last && input.regionMatches(i - length + 1, literal, 0, length - 1)) {
+                return i - length + 1;
+            }
+            i += shifts[c & 0xff];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the code point at {@code index}, without reading a low
+     * surrogate at or beyond {@code limit}.
+     */
+    private static int codePointAt(String input, int index, int limit) {
+        char c = input.charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < limit) {
+            char low = input.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(c, low);
+            }
+        }
+        return c;
+    }
+
+    private static boolean containsSurrogate(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isSurrogate(s.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The state of a match in progress, with the same semantics as the state
+     * of an ICU {@code RegexMatcher}.
+     */
+    static final class Search {
+        private final SimplePattern pattern;
+
+        String input;
+        private int regionStart;
+        /** The bounds of the current search; {@link #find(int, int[])} widens them. */
+        private int activeStart;
+        int activeLimit;
+        /** The position at which {@code ^} matches. */
+        int anchorStart;
+
+        private boolean match;
+        private int matchStart;
+        private int matchEnd;
+        /** The end of the last successful find, or -1 if there wasn't one. */
+        private int lastMatchEnd;
+        boolean hitEnd;
+
+        Search(SimplePattern pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * Resets this search to match {@code input} within the given region.
+         */
+        void reset(String input, int regionStart, int regionEnd, boolean anchoringBounds) {
+            this.input = input;
+            this.regionStart = regionStart;
+            this.activeStart = regionStart;
+            this.activeLimit = regionEnd;
+            this.anchorStart = anchoringBounds ? regionStart : 0;
+            resetPreserveRegion();
+        }
+
+        void useAnchoringBounds(boolean anchoringBounds) {
+            anchorStart = anchoringBounds ? regionStart : 0;
+        }
+
+        private void resetPreserveRegion() {
+            match = false;
+            matchStart = activeStart;
+            matchEnd = activeStart;
+            lastMatchEnd = -1;
+            hitEnd = false;
+        }
+
+        boolean matches(int[] offsets) {
+            resetPreserveRegion();
+            return record(activeStart, pattern.matchAt(this, activeStart, true), offsets);
+        }
+
+        boolean lookingAt(int[] offsets) {
+            resetPreserveRegion();
+            return record(activeStart, pattern.matchAt(this, activeStart, false), offsets);
+        }
+
+        /**
+         * Resets this search to the whole input, and finds the next match at
+         * or after {@code start}.
+         */
+        boolean find(int start, int[] offsets) {
+            regionStart = 0;
+            activeStart = 0;
+            activeLimit = input.length();
+            anchorStart = 0;
+            resetPreserveRegion();
+            matchEnd = start;
+            return find(offsets);
+        }
+
+        /**
+         * Finds the next match, after the previous one if there was one.
+         */
+        boolean find(int[] offsets) {
+            int from = matchEnd;
+            if (match) {
+                lastMatchEnd = matchEnd;
+                if (matchStart == matchEnd) {
+                    // Don't find the same empty match again.
+                    if (from >= activeLimit) {
+                        match = false;
+                        hitEnd = true;
+                        return false;
+                    }
+                    from += Character.charCount(codePointAt(input, from, activeLimit));
+                }
+            } else if (lastMatchEnd >= 0) {
+                // A previous find failed; don't find an empty match at the end again.
+                hitEnd = true;
+                return false;
+            }
+
+            hitEnd = false;
+            if (from > activeLimit - pattern.minLength) {
+                match = false;
+                hitEnd = true;
+                return false;
+            }
+            if (pattern.anchored) {
+                // Like ICU, try only the start of the region.
+                if (from > activeStart) {
+                    match = false;
+                    return false;
+                }
+                return record(from, pattern.matchAt(this, from, false), offsets);
+            }
+
+            int position = from;
+            while (position <= activeLimit
+                    && (position = pattern.nextCandidate(this, position)) != -1) {
+                int end = pattern.matchAt(this, position, false);
+                if (end >= 0) {
+                    return record(position, end, offsets);
+                }
+                if (position == activeLimit) {
+                    break;
+                }
+                position += Character.charCount(codePointAt(input, position, activeLimit));
+            }
+            match = false;
+            hitEnd = true;
+            return false;
+        }
+
+        private boolean record(int start, int end, int[] offsets) {
+            if (end < 0) {
+                match = false;
+                return false;
+            }
+            match = true;
+            matchStart = start;
+            matchEnd = end;
+            offsets[0] = start;
+            offsets[1] = end;
+            return true;
+        }
+    }
+
+    /**
+     * A literal that matches exactly once, or a character class with a greedy
+     * quantifier.
+     */
+    private static final class Atom {
+        final String literal;
+        final CharClass set;
+        final int min;
+        final int max;
+
+        Atom(String literal) {
+            this.literal = literal;
+            this.set = null;
+            this.min = 1;
+            this.max = 1;
+        }
+
+        Atom(CharClass set, int min, int max) {
+            this.literal = null;
+            this.set = set;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * A set of code points: literal characters, ranges and the predefined
+     * classes, optionally negated. ASCII membership is precomputed.
+     */
+    private static final class CharClass {
+        static final int DIGIT = 1;
+        static final int NOT_DIGIT = 1 << 1;
+        static final int WORD = 1 << 2;
+        static final int NOT_WORD = 1 << 3;
+        static final int SPACE = 1 << 4;
+        static final int NOT_SPACE = 1 << 5;
+        static final int DOT = 1 << 6;
+
+        /** Inclusive ranges of chars, as pairs. A single char is a range of one. */
+        private final char[] ranges;
+        private final int classes;
+        private final boolean negated;
+        private final long ascii0;
+        private final long ascii1;
+
+        CharClass(char[] ranges, int classes, boolean negated) {
+            this.ranges = ranges;
+            this.classes = classes;
+            this.negated = negated;
+            long ascii0 = 0;
+            long ascii1 = 0;
+            for (int c = 0; c < 128; c++) {
+                if (matchesSlow(c)) {
+                    if (c < 64) {
+                        ascii0 |= 1L << c;
+                    } else {
+                        ascii1 |= 1L << (c - 64);
+                    }
+                }
+            }
+            this.ascii0 = ascii0;
+            this.ascii1 = ascii1;
+        }
+
+        static CharClass of(char c) {
+            return new CharClass(new char[] { c, c }, 0, false);
+        }
+
+        static CharClass of(int classes) {
+            return new CharClass(new char[0], classes, false);
+        }
+
+        boolean matches(int c) {
+            if (c < 64) {
+                return (ascii0 & (1L << c)) != 0;
+            } else if (c < 128) {
+                return (ascii1 & (1L << (c - 64))) != 0;
+            }
+            return matchesSlow(c);
+        }
+
+        private boolean matchesSlow(int c) {
+            return contains(c) != negated;
+        }
+
+        private boolean contains(int c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            if (classes == 0) {
+                return false;
+            }
+            if ((classes & (DIGIT | NOT_DIGIT)) != 0) {
+                boolean digit = isDigit(c);
+                if (((classes & DIGIT) != 0 && digit) || ((classes & NOT_DIGIT) != 0 && !digit)) {
+                    return true;
+                }
+            }
+            if ((classes & (WORD | NOT_WORD)) != 0) {
+                boolean word = isWord(c);
+                if (((classes & WORD) != 0 && word) || ((classes & NOT_WORD) != 0 && !word)) {
+                    return true;
+                }
+            }
+            if ((classes & (SPACE | NOT_SPACE)) != 0) {
+                boolean space = isSpace(c);
+                if (((classes & SPACE) != 0 && space) || ((classes & NOT_SPACE) != 0 && !space)) {
+                    return true;
+                }
+            }
+            return (classes & DOT) != 0 && !isLineTerminator(c);
+        }
+
+        /** ICU's {@code \d}: {@code \p{Nd}}. */
+        private static boolean isDigit(int c) {
+            return Character.getType(c) == Character.DECIMAL_DIGIT_NUMBER;
+        }
+
+        /** ICU's {@code \w}: alphabetic, marks, {@code \p{Nd}}, {@code \p{Pc}}, ZWNJ and ZWJ. */
+        private static boolean isWord(int c) {
+            if (Character.isAlphabetic(c) || c == 0x200c || c == 0x200d) {
+                return true;
+            }
+            switch (Character.getType(c)) {
+                case Character.NON_SPACING_MARK:
+                case Character.ENCLOSING_MARK:
+                case Character.COMBINING_SPACING_MARK:
+                case Character.DECIMAL_DIGIT_NUMBER:
+                case Character.CONNECTOR_PUNCTUATION:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /** ICU's {@code \s}: {@code \p{White_Space}}. */
+        private static boolean isSpace(int c) {
+            return (c >= 0x09 && c <= 0x0d) || c == 0x85 || Character.isSpaceChar(c);
+        }
+
+        /** The characters that ICU's {@code .} doesn't match without DOTALL. */
+        private static boolean isLineTerminator(int c) {
+            return (c >= 0x0a && c <= 0x0d) || c == 0x85 || c == 0x2028 || c == 0x2029;
+        }
+    }
+
+    /**
+     * Parses the subset of the pattern syntax that {@link SimplePattern}
+     * handles. Anything else, including every syntax error, makes
+     * {@link #parse} return null so that ICU can handle or report it.
+     */
+    private static final class Parser {
+        private static final String ESCAPABLE_PUNCTUATION = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+
+        private final String pattern;
+        private int pos;
+
+        Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        SimplePattern parse() {
+            boolean anchored = false;
+            if (pattern.startsWith("^")) {
+                anchored = true;
+                pos = 1;
+            }
+
+            ArrayList<ArrayList<Object>> branches = new ArrayList<>();
+            ArrayList<Object> items = new ArrayList<>();
+            branches.add(items);
+            // Each item is a Character for a literal char, or an Atom.
+            while (pos < pattern.length()) {
+                char c = pattern.charAt(pos++);
+                switch (c) {
+                    case '|':
+                        items = new ArrayList<>();
+                        branches.add(items);
+                        continue;
+                    case '.':
+                        items.add(new Atom(CharClass.of(CharClass.DOT), 1, 1));
+                        break;
+                    case '[':
+                        CharClass set = parseClass();
+                        if (set == null) {
+                            return null;
+                        }
+                        items.add(new Atom(set, 1, 1));
+                        break;
+                    case '\\':
+                        if (pos < pattern.length() && pattern.charAt(pos) == 'Q') {
+                            int end = pattern.indexOf("\\E", pos + 1);
+                            String quoted = pattern.substring(pos + 1,
+                                    (end == -1) ? pattern.length() : end);
+                            if (quoted.isEmpty() || containsSurrogate(quoted)) {
+                                return null;
+                            }
+                            for (int i = 0; i < quoted.length(); i++) {
+                                items.add(quoted.charAt(i));
+                            }
+                            pos = (end == -1) ? pattern.length() : end + 2;
+                            if (pos < pattern.length() && isQuantifier(pattern.charAt(pos))) {
+                                return null;
+                            }
+                            continue;
+                        }
+                        Object escape = parseEscape();
+                        if (escape == null) {
+                            return null;
+                        }
+                        items.add((escape instanceof Character)
+                                ? escape : new Atom((CharClass) escape, 1, 1));
+                        break;
+                    case '^': case '$': case '(': case ')': case ']': case '{': case '}':
+                    case '*': case '+': case '?':
+                        return null;
+                    default:
+                        if (Character.isSurrogate(c)) {
+                            return null;
+                        }
+                        items.add(c);
+                        break;
+                }
+
+                if (pos < pattern.length() && isQuantifier(pattern.charAt(pos))) {
+                    Object last = items.remove(items.size() - 1);
+                    CharClass set = (last instanceof Character)
+                            ? CharClass.of((Character) last) : ((Atom) last).set;
+                    Atom quantified = parseQuantifier(set);
+                    if (quantified == null) {
+                        return null;
+                    }
+                    items.add(quantified);
+                }
+            }
+
+            if (branches.size() == 1) {
+                return new SimplePattern(toAtoms(items), anchored, null);
+            }
+            if (anchored) {
+                return null;
+            }
+            String[] alternatives = new String[branches.size()];
+            for (int i = 0; i < alternatives.length; i++) {
+                StringBuilder literal = new StringBuilder();
+                for (Object item : branches.get(i)) {
+                    if (!(item instanceof Character)) {
+                        return null;
+                    }
+                    literal.append((char) (Character) item);
+                }
+                if (literal.length() == 0) {
+                    return null;
+                }
+                alternatives[i] = literal.toString();
+            }
+            return new SimplePattern(null, false, alternatives);
+        }
+
+        /** Merges runs of literal chars into literal atoms. */
+        private static Atom[] toAtoms(ArrayList<Object> items) {
+            ArrayList<Atom> atoms = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            for (Object item : items) {
+                if (item instanceof Character) {
+                    literal.append((char) (Character) item);
+                } else {
+                    if (literal.length() > 0) {
+                        atoms.add(new Atom(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    atoms.add((Atom) item);
+                }
+            }
+            if (literal.length() > 0) {
+                atoms.add(new Atom(literal.toString()));
+            }
+            return atoms.toArray(new Atom[atoms.size()]);
+        }
+
+        private static boolean isQuantifier(char c) {
+            return c == '*' || c == '+' || c == '?' || c == '{';
+        }
+
+        /**
+         * Parses a greedy quantifier for {@code set}, or returns null if the
+         * quantifier is lazy, possessive or malformed.
+         */
+        private Atom parseQuantifier(CharClass set) {
+            int min;
+            int max;
+            char c = pattern.charAt(pos++);
+            if (c == '*') {
+                min = 0;
+                max = Integer.MAX_VALUE;
+            } else if (c == '+') {
+                min = 1;
+                max = Integer.MAX_VALUE;
+            } else if (c == '?') {
+                min = 0;
+                max = 1;
+            } else {
+                min = parseCount();
+                if (min < 0 || pos >= pattern.length()) {
+                    return null;
+                }
+                if (pattern.charAt(pos) == '}') {
+                    max = min;
+                } else if (pattern.charAt(pos) == ',') {
+                    pos++;
+                    if (pos < pattern.length() && pattern.charAt(pos) == '}') {
+                        max = Integer.MAX_VALUE;
+                    } else {
+                        max = parseCount();
+                        if (max < min || pos >= pattern.length() || pattern.charAt(pos) != '}') {
+                            return null;
+                        }
+                    }
+                } else {
+                    return null;
+                }
+                pos++;
+            }
+            // Reject lazy and possessive quantifiers.
+            if (pos < pattern.length() && isQuantifier(pattern.charAt(pos))) {
+                return null;
+            }
+            return new Atom(set, min, max);
+        }
+
+        /** Parses a decimal count, or returns -1 if there is none or it is too large. */
+        private int parseCount() {
+            int start = pos;
+            int count = 0;
+            while (pos < pattern.length() && pattern.charAt(pos) >= '0'
+                    && pattern.charAt(pos) <= '9' && pos - start < 5) {
+                count = count * 10 + (pattern.charAt(pos++) - '0');
+            }
+            return (pos == start || count > MAX_REPEAT) ? -1 : count;
+        }
+
+        /**
+         * Parses the escape after a backslash, returning a Character for a
+         * literal, a CharClass for a predefined class, or null.
+         */
+        private Object parseEscape() {
+            if (pos >= pattern.length()) {
+                return null;
+            }
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case 'd': return CharClass.of(CharClass.DIGIT);
+                case 'D': return CharClass.of(CharClass.NOT_DIGIT);
+                case 'w': return CharClass.of(CharClass.WORD);
+                case 'W': return CharClass.of(CharClass.NOT_WORD);
+                case 's': return CharClass.of(CharClass.SPACE);
+                case 'S': return CharClass.of(CharClass.NOT_SPACE);
+                case 't': return '\t';
+                case 'n': return '\n';
+                case 'r': return '\r';
+                case 'f': return '\f';
+                case 'a': return '\u0007';
+                case 'e': return '\u001b';
+                default:
+                    return (ESCAPABLE_PUNCTUATION.indexOf(c) != -1) ? (Object) c : null;
+            }
+        }
+
+        /**
+         * Parses a character class after its opening bracket: literal chars,
+         * ranges and predefined classes, optionally negated. Returns null for
+         * anything else, such as nested classes, intersections and properties.
+         */
+        private CharClass parseClass() {
+            boolean negated = false;
+            if (pos < pattern.length() && pattern.charAt(pos) == '^') {
+                negated = true;
+                pos++;
+            }
+            StringBuilder ranges = new StringBuilder();
+            int classes = 0;
+            boolean empty = true;
+            while (pos < pattern.length()) {
+                char c = pattern.charAt(pos++);
+                if (c == ']') {
+                    if (empty) {
+                        return null;
+                    }
+                    return new CharClass(ranges.toString().toCharArray(), classes, negated);
+                }
+                empty = false;
+                char first;
+                if (c == '\\') {
+                    Object escape = parseEscape();
+                    if (escape == null) {
+                        return null;
+                    } else if (escape instanceof CharClass) {
+                        classes |= ((CharClass) escape).classes;
+                        continue;
+                    }
+                    first = (Character) escape;
+                } else if (isClassLiteral(c)) {
+                    first = c;
+                } else {
+                    return null;
+                }
+
+                char last = first;
+                if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-'
+                        && pattern.charAt(pos + 1) != ']') {
+                    last = pattern.charAt(pos + 1);
+                    if (!isClassLiteral(last) || last < first) {
+                        return null;
+                    }
+                    pos += 2;
+                } else if (pos < pattern.length() && pattern.charAt(pos) == '-') {
+                    return null;
+                }
+                ranges.append(first).append(last);
+            }
+            return null;
+        }
+
+        /** Returns true if {@code c} stands for itself inside a character class. */
+        private static boolean isClassLiteral(char c) {
+            switch (c) {
+                case '[': case ']': case '\\': case '^': case '-': case '&': case '$':
+                case '{': case '}': case ':':
+                    return false;
+                default:
+                    return !Character.isSurrogate(c) && !Character.isWhitespace(c);
+            }
+        }
+    }
+}
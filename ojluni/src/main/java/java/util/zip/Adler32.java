@@ -89,8 +89,10 @@ class Adler32 implements Checksum {
      * limit; its limit will not have been changed.
      *
      * @param buffer the ByteBuffer to update the checksum with
+     * @hide
      */
-    private void update(ByteBuffer buffer) {
+    // Android-changed: public (but hidden), for callers with direct buffers.
+    public void update(ByteBuffer buffer) {
         int pos = buffer.position();
         int limit = buffer.limit();
         assert (pos <= limit);
@@ -26,6 +26,9 @@
 package java.util.zip;
 
 import dalvik.system.CloseGuard;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import sun.nio.ch.DirectBuffer;
 
 /**
  * This class provides support for general purpose compression using the
@@ -76,7 +79,7 @@ public
 class Deflater {
 
     private final ZStreamRef zsRef;
-    private byte[] buf = new byte[0];
+    private byte[] buf = emptyBuf;
     private int off, len;
     private int level, strategy;
     private boolean setParams;
@@ -86,6 +89,15 @@ class Deflater {
 
     private final CloseGuard guard = CloseGuard.get();
 
+    // Android-added: The buffer passed to setInput(ByteBuffer), if any, whose
+    // position follows off. Direct input is read from inputAddress + off
+    // rather than from buf; for other input, off is inputBase + position.
+    private ByteBuffer input;
+    private long inputAddress;
+    private int inputBase;
+
+    private static final byte[] emptyBuf = new byte[0];
+
     /**
      * Compression method for the deflate algorithm (the only one currently
      * supported).
@@ -204,12 +216,18 @@ class Deflater {
             throw new ArrayIndexOutOfBoundsException();
         }
         synchronized (zsRef) {
-            this.buf = b;
-            this.off = off;
-            this.len = len;
+            setInputImpl(b, off, len);
         }
     }
 
+    private void setInputImpl(byte[] b, int off, int len) {
+        this.buf = b;
+        this.off = off;
+        this.len = len;
+        this.input = null;
+        this.inputAddress = 0;
+    }
+
     /**
      * Sets input data for compression. This should be called whenever
      * needsInput() returns true indicating that more input data is required.
@@ -220,6 +238,53 @@ class Deflater {
         setInput(b, 0, b.length);
     }
 
+    // Android-added: ByteBuffer input.
+    /**
+     * Sets input data for compression to the remaining bytes of
+     * {@code input}. The buffer's position is advanced as the data is
+     * consumed by {@code deflate}, and its contents must not be changed
+     * while it is the input. A direct buffer is read by zlib in place,
+     * without being copied onto the Java heap.
+     *
+     * @param input the input data bytes
+     * @see Deflater#needsInput
+     * @hide
+     */
+    public void setInput(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        synchronized (zsRef) {
+            setInputImpl(input);
+        }
+    }
+
+    private void setInputImpl(ByteBuffer input) {
+        int pos = input.position();
+        int rem = Math.max(input.limit() - pos, 0);
+        if (input instanceof DirectBuffer) {
+            this.buf = emptyBuf;
+            this.inputAddress = ((DirectBuffer) input).address();
+            this.inputBase = 0;
+            this.off = pos;
+        } else if (input.hasArray()) {
+            this.buf = input.array();
+            this.inputAddress = 0;
+            this.inputBase = input.arrayOffset();
+            this.off = inputBase + pos;
+        } else {
+            // A read-only heap buffer, which doesn't expose its array.
+            byte[] copy = new byte[rem];
+            input.duplicate().get(copy);
+            this.buf = copy;
+            this.inputAddress = 0;
+            this.inputBase = -pos;
+            this.off = 0;
+        }
+        this.len = rem;
+        this.input = input;
+    }
+
     /**
      * Sets preset dictionary for compression. A preset dictionary is used
      * when the history buffer can be predetermined. When the data is later
@@ -423,17 +488,89 @@ class Deflater {
             throw new ArrayIndexOutOfBoundsException();
         }
         synchronized (zsRef) {
-            ensureOpen();
-            if (flush == NO_FLUSH || flush == SYNC_FLUSH ||
-                flush == FULL_FLUSH) {
-                int thisLen = this.len;
-                int n = deflateBytes(zsRef.address(), b, off, len, flush);
-                bytesWritten += n;
-                bytesRead += (thisLen - this.len);
-                return n;
+            return deflateImpl(b, 0, off, len, flush);
+        }
+    }
+
+    // Android-added: ByteBuffer output.
+    /**
+     * Compresses the input data into the remaining space of {@code output},
+     * using {@link #NO_FLUSH}, and advances its position by the number of
+     * bytes written. A direct buffer is written by zlib in place.
+     *
+     * @param output the buffer for the compressed data
+     * @return the actual number of bytes of compressed data written to
+     *         the output buffer
+     * @exception ReadOnlyBufferException if {@code output} is read-only
+     * @hide
+     */
+    public int deflate(ByteBuffer output) {
+        return deflate(output, NO_FLUSH);
+    }
+
+    // Android-added: ByteBuffer output.
+    /**
+     * Compresses the input data into the remaining space of {@code output},
+     * using the specified flush mode, and advances its position by the
+     * number of bytes written. A direct buffer is written by zlib in place.
+     * Otherwise this behaves like {@link #deflate(byte[], int, int, int)}.
+     *
+     * @param output the buffer for the compressed data
+     * @param flush the compression flush mode
+     * @return the actual number of bytes of compressed data written to
+     *         the output buffer
+     * @exception ReadOnlyBufferException if {@code output} is read-only
+     * @throws IllegalArgumentException if the flush mode is invalid
+     * @hide
+     */
+    public int deflate(ByteBuffer output, int flush) {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int pos = output.position();
+        int rem = Math.max(output.limit() - pos, 0);
+        int n;
+        synchronized (zsRef) {
+            n = deflateImpl(output, pos, rem, flush);
+        }
+        output.position(pos + n);
+        return n;
+    }
+
+    private int deflateImpl(ByteBuffer output, int pos, int rem, int flush) {
+        if (output instanceof DirectBuffer) {
+            return deflateImpl(null, ((DirectBuffer) output).address(), pos, rem,
+                               flush);
+        }
+        return deflateImpl(output.array(), 0, output.arrayOffset() + pos, rem,
+                           flush);
+    }
+
+    private int deflateImpl(byte[] b, long outputAddress, int off, int len,
+                            int flush) {
+        ensureOpen();
+        if (flush == NO_FLUSH || flush == SYNC_FLUSH ||
+            flush == FULL_FLUSH) {
+            int thisLen = this.len;
+            int n;
+            if (inputAddress == 0 && outputAddress == 0) {
+                n = deflateBytes(zsRef.address(), b, off, len, flush);
+            } else {
+                n = deflateDirect(zsRef.address(), inputAddress, b,
+                                  outputAddress, off, len, flush);
             }
-            throw new IllegalArgumentException();
+            bytesWritten += n;
+            bytesRead += (thisLen - this.len);
+            if (input != null) {
+                input.position(this.off - inputBase);
+                if (this.len == 0) {
+                    // Forget a consumed buffer, so the caller may reuse it.
+                    setInputImpl(emptyBuf, 0, 0);
+                }
+            }
+            return n;
         }
+        throw new IllegalArgumentException();
     }
 
     /**
@@ -507,6 +644,10 @@ class Deflater {
         synchronized (zsRef) {
             ensureOpen();
             reset(zsRef.address());
+            // Android-changed: Drop the reference to the caller's input.
+            buf = emptyBuf;
+            input = null;
+            inputAddress = 0;
             finish = false;
             finished = false;
             off = len = 0;
@@ -530,6 +671,7 @@ class Deflater {
             if (addr != 0) {
                 end(addr);
                 buf = null;
+                input = null;
             }
         }
     }
@@ -555,6 +697,9 @@ class Deflater {
     private native static void setDictionary(long addr, byte[] b, int off, int len);
     private native int deflateBytes(long addr, byte[] b, int off, int len,
                                     int flush);
+    private native int deflateDirect(long addr, long inputAddress, byte[] b,
+                                     long outputAddress, int off, int len,
+                                     int flush);
     private native static int getAdler(long addr);
     private native static void reset(long addr);
     private native static void end(long addr);
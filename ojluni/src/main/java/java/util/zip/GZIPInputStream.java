@@ -73,8 +73,20 @@ class GZIPInputStream extends InflaterInputStream {
      * @exception IllegalArgumentException if size is <= 0
      */
     public GZIPInputStream(InputStream in, int size) throws IOException {
-        super(in, new Inflater(true), size);
-        readHeader(in);
+        // Android-changed: Take the inflater from a pool where possible, and
+        // give it back if the header can't be read, rather than leaving its
+        // native memory to finalization.
+        super(in, true, size, GZIPInputStream.class);
+        try {
+            readHeader(in);
+        } catch (IOException | RuntimeException e) {
+            if (inflaterPool != null) {
+                inflaterPool.release(inf);
+            } else {
+                inf.end();
+            }
+            throw e;
+        }
     }
 
     /**
@@ -108,6 +120,17 @@ class GZIPInputStream extends InflaterInputStream {
      *
      */
     public int read(byte[] buf, int off, int len) throws IOException {
+        // Android-changed: Serialize reads, including of the trailer, with
+        // close() for a pooled inflater.
+        if (inflaterPool != null) {
+            synchronized (this) {
+                return readImpl(buf, off, len);
+            }
+        }
+        return readImpl(buf, off, len);
+    }
+
+    private int readImpl(byte[] buf, int off, int len) throws IOException {
         ensureOpen();
         if (eos) {
             return -1;
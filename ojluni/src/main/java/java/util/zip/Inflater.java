@@ -27,6 +27,9 @@
 package java.util.zip;
 
 import dalvik.system.CloseGuard;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import sun.nio.ch.DirectBuffer;
 
 /**
  * This class provides support for general purpose decompression using the
@@ -86,6 +89,17 @@ class Inflater {
 
     private final CloseGuard guard = CloseGuard.get();
 
+    // Android-added: The buffer passed to setInput(ByteBuffer), if any, whose
+    // position follows off. Direct input is read from inputAddress + off
+    // rather than from buf; for other input, off is inputBase + position.
+    private ByteBuffer input;
+    private long inputAddress;
+    private int inputBase;
+
+    // Android-added: Single-owner instances skip the zsRef lock on the
+    // per-buffer methods.
+    private final boolean singleOwner;
+
     private static final byte[] defaultBuf = new byte[0];
 
     /**
@@ -100,6 +114,23 @@ class Inflater {
      * @param nowrap if true then support GZIP compatible compression
      */
     public Inflater(boolean nowrap) {
+        this(nowrap, false);
+    }
+
+    // Android-added: Unsynchronized single-owner mode.
+    /**
+     * Creates a new decompressor which, if {@code singleOwner} is true, does
+     * not synchronize {@link #setInput}, {@link #inflate} and the methods
+     * that query the stream state. Such an instance must only be used, reset
+     * and ended by one thread at a time, with the caller providing any
+     * happens-before ordering needed to hand it to another thread.
+     *
+     * @param nowrap if true then support GZIP compatible compression
+     * @param singleOwner if true then skip locking on the per-buffer methods
+     * @hide
+     */
+    public Inflater(boolean nowrap, boolean singleOwner) {
+        this.singleOwner = singleOwner;
         zsRef = new ZStreamRef(init(nowrap));
         guard.open("end");
     }
@@ -127,13 +158,23 @@ class Inflater {
         if (off < 0 || len < 0 || off > b.length - len) {
             throw new ArrayIndexOutOfBoundsException();
         }
+        if (singleOwner) {
+            setInputImpl(b, off, len);
+            return;
+        }
         synchronized (zsRef) {
-            this.buf = b;
-            this.off = off;
-            this.len = len;
+            setInputImpl(b, off, len);
         }
     }
 
+    private void setInputImpl(byte[] b, int off, int len) {
+        this.buf = b;
+        this.off = off;
+        this.len = len;
+        this.input = null;
+        this.inputAddress = 0;
+    }
+
     /**
      * Sets input data for decompression. Should be called whenever
      * needsInput() returns true indicating that more input data is
@@ -145,6 +186,57 @@ class Inflater {
         setInput(b, 0, b.length);
     }
 
+    // Android-added: ByteBuffer input.
+    /**
+     * Sets input data for decompression to the remaining bytes of
+     * {@code input}. The buffer's position is advanced as the data is
+     * consumed by {@code inflate}, and its contents must not be changed
+     * while it is the input. A direct buffer is read by zlib in place,
+     * without being copied onto the Java heap.
+     *
+     * @param input the input data bytes
+     * @see Inflater#needsInput
+     * @hide
+     */
+    public void setInput(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        if (singleOwner) {
+            setInputImpl(input);
+            return;
+        }
+        synchronized (zsRef) {
+            setInputImpl(input);
+        }
+    }
+
+    private void setInputImpl(ByteBuffer input) {
+        int pos = input.position();
+        int rem = Math.max(input.limit() - pos, 0);
+        if (input instanceof DirectBuffer) {
+            this.buf = defaultBuf;
+            this.inputAddress = ((DirectBuffer) input).address();
+            this.inputBase = 0;
+            this.off = pos;
+        } else if (input.hasArray()) {
+            this.buf = input.array();
+            this.inputAddress = 0;
+            this.inputBase = input.arrayOffset();
+            this.off = inputBase + pos;
+        } else {
+            // A read-only heap buffer, which doesn't expose its array.
+            byte[] copy = new byte[rem];
+            input.duplicate().get(copy);
+            this.buf = copy;
+            this.inputAddress = 0;
+            this.inputBase = -pos;
+            this.off = 0;
+        }
+        this.len = rem;
+        this.input = input;
+    }
+
     /**
      * Sets the preset dictionary to the given array of bytes. Should be
      * called when inflate() returns 0 and needsDictionary() returns true
@@ -190,6 +282,9 @@ class Inflater {
      * @return the total number of bytes remaining in the input buffer
      */
     public int getRemaining() {
+        if (singleOwner) {
+            return len;
+        }
         synchronized (zsRef) {
             return len;
         }
@@ -202,6 +297,9 @@ class Inflater {
      * @return true if no data remains in the input buffer
      */
     public boolean needsInput() {
+        if (singleOwner) {
+            return len <= 0;
+        }
         synchronized (zsRef) {
             return len <= 0;
         }
@@ -213,6 +311,9 @@ class Inflater {
      * @see Inflater#setDictionary
      */
     public boolean needsDictionary() {
+        if (singleOwner) {
+            return needDict;
+        }
         synchronized (zsRef) {
             return needDict;
         }
@@ -225,6 +326,9 @@ class Inflater {
      * reached
      */
     public boolean finished() {
+        if (singleOwner) {
+            return finished;
+        }
         synchronized (zsRef) {
             return finished;
         }
@@ -254,14 +358,78 @@ class Inflater {
         if (off < 0 || len < 0 || off > b.length - len) {
             throw new ArrayIndexOutOfBoundsException();
         }
+        if (singleOwner) {
+            return inflateImpl(b, 0, off, len);
+        }
         synchronized (zsRef) {
-            ensureOpen();
-            int thisLen = this.len;
-            int n = inflateBytes(zsRef.address(), b, off, len);
-            bytesWritten += n;
-            bytesRead += (thisLen - this.len);
-            return n;
+            return inflateImpl(b, 0, off, len);
+        }
+    }
+
+    // Android-added: ByteBuffer output.
+    /**
+     * Uncompresses bytes into the remaining space of {@code output}, and
+     * advances its position by the number of bytes uncompressed. A direct
+     * buffer is written by zlib in place. Otherwise this behaves like
+     * {@link #inflate(byte[], int, int)}.
+     *
+     * @param output the buffer for the uncompressed data
+     * @return the actual number of uncompressed bytes
+     * @exception DataFormatException if the compressed data format is invalid
+     * @exception ReadOnlyBufferException if {@code output} is read-only
+     * @see Inflater#needsInput
+     * @see Inflater#needsDictionary
+     * @hide
+     */
+    public int inflate(ByteBuffer output) throws DataFormatException {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int pos = output.position();
+        int rem = Math.max(output.limit() - pos, 0);
+        int n;
+        if (singleOwner) {
+            n = inflateImpl(output, pos, rem);
+        } else {
+            synchronized (zsRef) {
+                n = inflateImpl(output, pos, rem);
+            }
+        }
+        output.position(pos + n);
+        return n;
+    }
+
+    private int inflateImpl(ByteBuffer output, int pos, int rem)
+        throws DataFormatException
+    {
+        if (output instanceof DirectBuffer) {
+            return inflateImpl(null, ((DirectBuffer) output).address(), pos, rem);
         }
+        return inflateImpl(output.array(), 0, output.arrayOffset() + pos, rem);
+    }
+
+    private int inflateImpl(byte[] b, long outputAddress, int off, int len)
+        throws DataFormatException
+    {
+        ensureOpen();
+        int thisLen = this.len;
+        int n;
+        if (inputAddress == 0 && outputAddress == 0) {
+            n = inflateBytes(zsRef.address(), b, off, len);
+        } else {
+            n = inflateDirect(zsRef.address(), inputAddress, b, outputAddress,
+                              off, len);
+        }
+        bytesWritten += n;
+        bytesRead += (thisLen - this.len);
+        if (input != null) {
+            input.position(this.off - inputBase);
+            if (this.len == 0) {
+                // Forget a consumed buffer, so the caller may reuse it.
+                setInputImpl(defaultBuf, 0, 0);
+            }
+        }
+        return n;
     }
 
     /**
@@ -312,6 +480,10 @@ class Inflater {
      * @since 1.5
      */
     public long getBytesRead() {
+        if (singleOwner) {
+            ensureOpen();
+            return bytesRead;
+        }
         synchronized (zsRef) {
             ensureOpen();
             return bytesRead;
@@ -338,6 +510,10 @@ class Inflater {
      * @since 1.5
      */
     public long getBytesWritten() {
+        if (singleOwner) {
+            ensureOpen();
+            return bytesWritten;
+        }
         synchronized (zsRef) {
             ensureOpen();
             return bytesWritten;
@@ -352,6 +528,8 @@ class Inflater {
             ensureOpen();
             reset(zsRef.address());
             buf = defaultBuf;
+            input = null;
+            inputAddress = 0;
             finished = false;
             needDict = false;
             off = len = 0;
@@ -375,6 +553,7 @@ class Inflater {
             if (addr != 0) {
                 end(addr);
                 buf = null;
+                input = null;
             }
         }
     }
@@ -391,7 +570,7 @@ class Inflater {
     }
 
     private void ensureOpen () {
-        assert Thread.holdsLock(zsRef);
+        assert singleOwner || Thread.holdsLock(zsRef);
         // Android changed : Throw IllegalStateException instead of a NullPointerException.
         if (zsRef.address() == 0)
             throw new IllegalStateException("Inflater has been closed");
@@ -403,11 +582,20 @@ class Inflater {
         }
     }
 
+    // Android-added: Instances owned by ZStreamPool are ended by the pool, or
+    // by finalization if they are dropped while idle, so aren't leaks.
+    void disableCloseGuard() {
+        guard.close();
+    }
+
     private native static long init(boolean nowrap);
     private native static void setDictionary(long addr, byte[] b, int off,
                                              int len);
     private native int inflateBytes(long addr, byte[] b, int off, int len)
             throws DataFormatException;
+    private native int inflateDirect(long addr, long inputAddress, byte[] b,
+                                     long outputAddress, int off, int len)
+            throws DataFormatException;
     private native static int getAdler(long addr);
     private native static void reset(long addr);
     private native static void end(long addr);
@@ -62,6 +62,13 @@ class InflaterInputStream extends FilterInputStream {
     // this flag is set to true after EOF has reached
     private boolean reachEOF = false;
 
+    // Android-added: The pool that inf came from, or null if this stream
+    // ends inf when it is closed. Only streams that are exactly an
+    // InflaterInputStream or GZIPInputStream use a pooled inflater, so that
+    // no subclass can reach inf once it has been returned to the pool. Their
+    // reads and close() are serialized on the stream.
+    final ZStreamPool inflaterPool;
+
     /**
      * Check to make sure that this stream has not been closed
      */
@@ -88,6 +95,31 @@ class InflaterInputStream extends FilterInputStream {
             throw new IllegalArgumentException("buffer size <= 0");
         }
         this.inf = inf;
+        // Android-added: A pooled inflater.
+        this.inflaterPool = null;
+        buf = new byte[size];
+    }
+
+    // Android-added: A pooled inflater.
+    /**
+     * Creates a new input stream with a default decompressor, which is taken
+     * from a pool if the stream's class is exactly {@code poolingClass}.
+     */
+    InflaterInputStream(InputStream in, boolean nowrap, int size,
+                        Class<?> poolingClass) {
+        super(in);
+        if (in == null) {
+            throw new NullPointerException();
+        } else if (size <= 0) {
+            throw new IllegalArgumentException("buffer size <= 0");
+        }
+        if (getClass() == poolingClass) {
+            inflaterPool = ZStreamPool.inflaters(nowrap);
+            inf = inflaterPool.acquire();
+        } else {
+            inflaterPool = null;
+            inf = new Inflater(nowrap);
+        }
         buf = new byte[size];
     }
 
@@ -106,7 +138,8 @@ class InflaterInputStream extends FilterInputStream {
      * @param in the input stream
      */
     public InflaterInputStream(InputStream in) {
-        this(in, new Inflater());
+        // Android-changed: Take the inflater from a pool where possible.
+        this(in, false, 512, InflaterInputStream.class);
     }
 
     private byte[] singleByteBuf = new byte[1];
@@ -139,6 +172,16 @@ class InflaterInputStream extends FilterInputStream {
      * @exception IOException if an I/O error has occurred
      */
     public int read(byte[] b, int off, int len) throws IOException {
+        // Android-changed: Serialize reads with close() for a pooled inflater.
+        if (inflaterPool != null) {
+            synchronized (this) {
+                return readImpl(b, off, len);
+            }
+        }
+        return readImpl(b, off, len);
+    }
+
+    private int readImpl(byte[] b, int off, int len) throws IOException {
         ensureOpen();
         if (b == null) {
             throw new NullPointerException();
@@ -227,6 +270,26 @@ class InflaterInputStream extends FilterInputStream {
      * @exception IOException if an I/O error has occurred
      */
     public void close() throws IOException {
+        // BEGIN Android-changed: Return a pooled inflater.
+        // It is released under the lock, once no read can be using it. The
+        // source is closed first, without the lock, so that a read blocked
+        // in it can fail and let go of the lock.
+        if (inflaterPool != null) {
+            try {
+                if (!closed) {
+                    in.close();
+                }
+            } finally {
+                synchronized (this) {
+                    if (!closed) {
+                        closed = true;
+                        inflaterPool.release(inf);
+                    }
+                }
+            }
+            return;
+        }
+        // END Android-changed: Return a pooled inflater.
         if (!closed) {
             inf.end();
             in.close();
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util.zip;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of single-owner {@link Inflater}s, used by {@link ZipFile}
+ * to read compressed entries and by {@link InflaterInputStream} and
+ * {@link GZIPInputStream} for their default inflaters. Creating a z_stream
+ * allocates around 40KB of native memory, which is wasted when each stream
+ * is short-lived, as zip entries and HTTP response bodies usually are.
+ *
+ * <p>{@link #acquire} looks first in a slot belonging to the calling thread,
+ * and then in a small shared array, before creating a new instance.
+ * {@link #release} resets an instance and returns it to the same places, or
+ * ends it if the pool is full or the instance was ended by its user.
+ * Instances created by the pool don't report leaks through their close
+ * guards: one that is dropped with its stream or thread is ended by
+ * finalization.
+ *
+ * <p>The instances skip the inflater's internal locking, so a stream using
+ * one must never let it escape, and must serialize its reads with its
+ * close(), which is the only place it may release the instance. Once
+ * released, the instance belongs to the next caller of acquire.
+ */
+final class ZStreamPool {
+
+    /** Inflaters for raw deflate data, used by ZipFile and GZIPInputStream. */
+    static final ZStreamPool NOWRAP_INFLATERS = new ZStreamPool(true, 8);
+
+    /** Inflaters for ZLIB data, used by InflaterInputStream. */
+    static final ZStreamPool INFLATERS = new ZStreamPool(false, 4);
+
+    private final boolean nowrap;
+    private final ThreadLocal<Inflater> local = new ThreadLocal<>(true);
+    private final AtomicReferenceArray<Inflater> shared;
+
+    /**
+     * @param nowrap whether the inflaters read raw deflate data
+     * @param sharedSize the number of idle instances shared by all threads
+     */
+    private ZStreamPool(boolean nowrap, int sharedSize) {
+        this.nowrap = nowrap;
+        this.shared = new AtomicReferenceArray<>(sharedSize);
+    }
+
+    /**
+     * Returns the pool of inflaters created with the given {@code nowrap}.
+     */
+    static ZStreamPool inflaters(boolean nowrap) {
+        return nowrap ? NOWRAP_INFLATERS : INFLATERS;
+    }
+
+    /**
+     * Returns an idle instance, or a new one if there is none.
+     */
+    Inflater acquire() {
+        Inflater inf = local.get();
+        if (inf != null) {
+            local.set(null);
+            return inf;
+        }
+        for (int i = 0; i < shared.length(); i++) {
+            inf = shared.get(i);
+            if (inf != null && shared.compareAndSet(i, inf, null)) {
+                return inf;
+            }
+        }
+        inf = new Inflater(nowrap, true /* singleOwner */);
+        inf.disableCloseGuard();
+        return inf;
+    }
+
+    /**
+     * Returns {@code inf}, which must have come from {@link #acquire} and must
+     * no longer be used by anyone, to the pool.
+     */
+    void release(Inflater inf) {
+        if (inf.ended()) {
+            return;
+        }
+        inf.reset();
+        if (local.get() == null) {
+            local.set(inf);
+            return;
+        }
+        for (int i = 0; i < shared.length(); i++) {
+            if (shared.get(i) == null && shared.compareAndSet(i, null, inf)) {
+                return;
+            }
+        }
+        inf.end();
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util.zip;
+
+import android.system.ErrnoException;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DirectByteBuffer;
+import libcore.io.Libcore;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+import static android.system.OsConstants.MAP_SHARED;
+import static android.system.OsConstants.PROT_READ;
+import static android.system.OsConstants._SC_PAGESIZE;
+import static java.util.zip.ZipConstants64.*;
+
+/**
+ * A read-only index over the central directory of a zip file.
+ *
+ * <p>The central directory is mapped into memory, and entry names are
+ * indexed by a flat open addressing table of offsets into the mapping.
+ * Looking an entry up hashes and compares the encoded name in place, so it
+ * allocates nothing; a {@link ZipEntry} is only created for an entry that is
+ * actually returned to the caller.
+ *
+ * <p>Only the common case is indexed. Archives that need ZIP64 records, or
+ * whose END header is not at the very end of the file, are left to the
+ * native implementation: {@link #open} returns null for them.
+ *
+ * <p>This index does not replace the native one: opening a zip file still
+ * indexes its central directory natively, since {@link ZipFile} reads entry
+ * data through native entries. This index is built in addition, on first
+ * lookup, to make lookups and iteration cheap.
+ */
+final class ZipCentralDirectory {
+
+    /** The maximum number of bytes searched for the END header. */
+    private static final int END_MAXLEN = 0xFFFF + ENDHDR;
+
+    private final ByteBuffer cen;
+    private final ZipCoder zc;
+
+    /** The offset of each entry's CEN header, in central directory order. */
+    private final int[] entryOffsets;
+
+    /** The hash of each entry's name, in central directory order. */
+    private final int[] entryHashes;
+
+    /** Open addressing table of entry indices plus one; 0 marks an empty slot. */
+    private final int[] table;
+
+    private ZipCentralDirectory(ByteBuffer cen, ZipCoder zc, int[] entryOffsets,
+            int[] entryHashes, int[] table) {
+        this.cen = cen;
+        this.zc = zc;
+        this.entryOffsets = entryOffsets;
+        this.entryHashes = entryHashes;
+        this.table = table;
+    }
+
+    /**
+     * Maps and indexes the central directory of the zip file open on
+     * {@code fd}. Returns null if the archive is not one this class handles,
+     * or if its directory does not hold exactly {@code expectedTotal} entries.
+     */
+    static ZipCentralDirectory open(FileDescriptor fd, long length, int expectedTotal,
+            ZipCoder zc) throws IOException {
+        // The descriptor belongs to the native zip file, so it is only used
+        // through plain system calls: an interruptible channel over it would
+        // close it if the calling thread were interrupted.
+        int tailLength = (int) Math.min(length, END_MAXLEN);
+        byte[] tailBytes = new byte[tailLength];
+        long tailPos = length - tailLength;
+        try {
+            int read = 0;
+            while (read < tailLength) {
+                int n = Libcore.os.pread(fd, tailBytes, read, tailLength - read, tailPos + read);
+                if (n <= 0) {
+                    return null;
+                }
+                read += n;
+            }
+        } catch (ErrnoException e) {
+            throw e.rethrowAsIOException();
+        }
+        ByteBuffer tail = ByteBuffer.wrap(tailBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        int end = -1;
+        for (int i = tailLength - ENDHDR; i >= 0; i--) {
+            if (tail.getInt(i) == (int) ENDSIG
+                    && i + ENDHDR + (tail.getShort(i + ENDCOM) & 0xffff) == tailLength) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            return null;
+        }
+        if (end >= ZIP64_LOCHDR && tail.getInt(end - ZIP64_LOCHDR) == (int) ZIP64_LOCSIG) {
+            return null;
+        }
+        int total = tail.getShort(end + ENDTOT) & 0xffff;
+        long cenLength = tail.getInt(end + ENDSIZ) & 0xffffffffL;
+        long endPos = tailPos + end;
+        if (total == ZIP64_MAGICCOUNT || cenLength == ZIP64_MAGICVAL
+                || cenLength > endPos || cenLength > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        ByteBuffer cen = map(fd, endPos - cenLength, (int) cenLength);
+        int[] entryOffsets = new int[expectedTotal];
+        int[] entryHashes = new int[expectedTotal];
+        int[] table = new int[Math.max(4, Integer.highestOneBit(expectedTotal) << 2)];
+        int count = 0;
+        int pos = 0;
+        while (pos + CENHDR <= cenLength) {
+            if (count == expectedTotal || cen.getInt(pos) != (int) CENSIG) {
+                return unmap(cen);
+            }
+            int nameLength = cen.getShort(pos + CENNAM) & 0xffff;
+            int next = pos + CENHDR + nameLength + (cen.getShort(pos + CENEXT) & 0xffff)
+                    + (cen.getShort(pos + CENCOM) & 0xffff);
+            if (next > cenLength
+                    || cen.getInt(pos + CENSIZ) == (int) ZIP64_MAGICVAL
+                    || cen.getInt(pos + CENLEN) == (int) ZIP64_MAGICVAL
+                    || cen.getInt(pos + CENOFF) == (int) ZIP64_MAGICVAL) {
+                return unmap(cen);
+            }
+
+            int hash = 0;
+            for (int i = pos + CENHDR; i < pos + CENHDR + nameLength; i++) {
+                hash = 31 * hash + (cen.get(i) & 0xff);
+            }
+            entryOffsets[count] = pos;
+            entryHashes[count] = hash;
+            int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = ++count;
+            pos = next;
+        }
+        if (count != expectedTotal) {
+            return unmap(cen);
+        }
+        return new ZipCentralDirectory(cen, zc, entryOffsets, entryHashes, table);
+    }
+
+    /**
+     * Maps {@code size} bytes of the file open on {@code fd}, starting at
+     * {@code position}, read-only. The mapping is released by {@link #unmap}
+     * or when the buffer is collected.
+     */
+    private static ByteBuffer map(FileDescriptor fd, long position, int size)
+            throws IOException {
+        if (size == 0) {
+            return ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            long pageSize = Libcore.os.sysconf(_SC_PAGESIZE);
+            int pagePosition = (int) (position % pageSize);
+            final long mapSize = size + pagePosition;
+            final long address = Libcore.os.mmap(0L, mapSize, PROT_READ, MAP_SHARED, fd,
+                    position - pagePosition);
+            Runnable unmapper = new Runnable() {
+                @Override public void run() {
+                    try {
+                        Libcore.os.munmap(address, mapSize);
+                    } catch (ErrnoException ignored) {
+                    }
+                }
+            };
+            return new DirectByteBuffer(size, address + pagePosition, fd, unmapper, true)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        } catch (ErrnoException e) {
+            throw e.rethrowAsIOException();
+        }
+    }
+
+    private static ZipCentralDirectory unmap(ByteBuffer cen) {
+        Cleaner cleaner = cen.isDirect() ? ((DirectBuffer) cen).cleaner() : null;
+        if (cleaner != null) {
+            cleaner.clean();
+        }
+        return null;
+    }
+
+    /**
+     * Releases the mapping. The caller must ensure that no other thread is
+     * using this index.
+     */
+    void close() {
+        unmap(cen);
+    }
+
+    int size() {
+        return entryOffsets.length;
+    }
+
+    /**
+     * Returns the index of the entry named {@code name}, or -1 if there is no
+     * such entry. As with the native lookup, if {@code addSlash} is true and
+     * {@code name} does not end with a slash, a directory entry named
+     * {@code name + "/"} is also accepted.
+     */
+    int indexOf(String name, boolean addSlash) {
+        if (zc.isUTF8()) {
+            int hash = utf8Hash(name);
+            if (hash != MALFORMED) {
+                int index = utf8IndexOf(name, hash, false);
+                if (index < 0 && addSlash && name.length() > 0
+                        && name.charAt(name.length() - 1) != '/') {
+                    index = utf8IndexOf(name, 31 * hash + '/', true);
+                }
+                return index;
+            }
+            // Fall through so that malformed names fail as they always have.
+        }
+        return indexOf(zc.getBytes(name), addSlash);
+    }
+
+    /**
+     * Returns the index of the entry whose encoded name is {@code name}, or -1.
+     */
+    int indexOf(byte[] name, boolean addSlash) {
+        int hash = 0;
+        for (byte b : name) {
+            hash = 31 * hash + (b & 0xff);
+        }
+        int index = bytesIndexOf(name, hash, false);
+        if (index < 0 && addSlash && name.length > 0 && name[name.length - 1] != '/') {
+            index = bytesIndexOf(name, 31 * hash + '/', true);
+        }
+        return index;
+    }
+
+    /**
+     * Creates the {@link ZipEntry} at {@code index}, with the same field values
+     * the native implementation reports. If {@code name} is non-null it is used
+     * as the entry's name instead of decoding the stored one.
+     */
+    ZipEntry getEntry(int index, String name) {
+        int pos = entryOffsets[index];
+        int nameLength = cen.getShort(pos + CENNAM) & 0xffff;
+        int extraLength = cen.getShort(pos + CENEXT) & 0xffff;
+        int commentLength = cen.getShort(pos + CENCOM) & 0xffff;
+        boolean utf8 = !zc.isUTF8() && (cen.getShort(pos + CENFLG) & EFS) != 0;
+
+        ZipEntry e = new ZipEntry();
+        e.flag = cen.getShort(pos + CENFLG) & 0xffff;
+        e.name = (name != null) ? name : decode(pos + CENHDR, nameLength, utf8);
+        e.time = cen.getInt(pos + CENTIM) & 0xffffffffL;
+        e.crc = cen.getInt(pos + CENCRC) & 0xffffffffL;
+        e.size = cen.getInt(pos + CENLEN) & 0xffffffffL;
+        e.method = cen.getShort(pos + CENHOW) & 0xffff;
+        long csize = (e.method == ZipEntry.STORED) ? 0 : cen.getInt(pos + CENSIZ) & 0xffffffffL;
+        e.csize = (csize != 0) ? csize : e.size;
+        e.extra = (extraLength == 0) ? null : copy(pos + CENHDR + nameLength, extraLength);
+        e.comment = (commentLength == 0)
+                ? null
+                : decode(pos + CENHDR + nameLength + extraLength, commentLength, utf8);
+        return e;
+    }
+
+    private int bytesIndexOf(byte[] name, int hash, boolean slash) {
+        int length = name.length + (slash ? 1 : 0);
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (entryHashes[index] != hash) {
+                continue;
+            }
+            int pos = entryOffsets[index];
+            if ((cen.getShort(pos + CENNAM) & 0xffff) != length) {
+                continue;
+            }
+            pos += CENHDR;
+            int i = 0;
+            while (i < name.length && cen.get(pos + i) == name[i]) {
+                i++;
+            }
+            if (i == name.length && (!slash || cen.get(pos + i) == '/')) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /** Returned by {@link #utf8Hash} for strings that cannot be encoded. */
+    private static final int MALFORMED = 0x80000000;
+
+    /**
+     * Returns the hash of the UTF-8 encoding of {@code s}, computed without
+     * encoding it, or {@code MALFORMED} if {@code s} contains an unpaired
+     * surrogate (or happens to hash to that value).
+     */
+    private static int utf8Hash(String s) {
+        int hash = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                hash = 31 * hash + c;
+            } else if (c < 0x800) {
+                hash = 31 * hash + (0xc0 | (c >> 6));
+                hash = 31 * hash + (0x80 | (c & 0x3f));
+            } else if (!Character.isSurrogate(c)) {
+                hash = 31 * hash + (0xe0 | (c >> 12));
+                hash = 31 * hash + (0x80 | ((c >> 6) & 0x3f));
+                hash = 31 * hash + (0x80 | (c & 0x3f));
+            } else {
+                if (!Character.isHighSurrogate(c) || i + 1 == s.length()
+                        || !Character.isLowSurrogate(s.charAt(i + 1))) {
+                    return MALFORMED;
+                }
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                hash = 31 * hash + (0xf0 | (cp >> 18));
+                hash = 31 * hash + (0x80 | ((cp >> 12) & 0x3f));
+                hash = 31 * hash + (0x80 | ((cp >> 6) & 0x3f));
+                hash = 31 * hash + (0x80 | (cp & 0x3f));
+            }
+        }
+        return hash;
+    }
+
+    private int utf8IndexOf(String name, int hash, boolean slash) {
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (entryHashes[index] == hash && utf8Equals(name, slash, entryOffsets[index])) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the name stored at CEN offset {@code pos} is the UTF-8
+     * encoding of {@code s} (plus a trailing slash if {@code slash} is true).
+     * {@code s} is known to be well formed.
+     */
+    private boolean utf8Equals(String s, boolean slash, int pos) {
+        int length = cen.getShort(pos + CENNAM) & 0xffff;
+        int i = pos + CENHDR;
+        int end = i + length;
+        for (int j = 0; j < s.length(); j++) {
+            char c = s.charAt(j);
+            if (c < 0x80) {
+                if (i == end || cen.get(i++) != c) {
+                    return false;
+                }
+            } else if (c < 0x800) {
+                if (end - i < 2
+                        || cen.get(i++) != (byte) (0xc0 | (c >> 6))
+                        || cen.get(i++) != (byte) (0x80 | (c & 0x3f))) {
+                    return false;
+                }
+            } else if (!Character.isSurrogate(c)) {
+                if (end - i < 3
+                        || cen.get(i++) != (byte) (0xe0 | (c >> 12))
+                        || cen.get(i++) != (byte) (0x80 | ((c >> 6) & 0x3f))
+                        || cen.get(i++) != (byte) (0x80 | (c & 0x3f))) {
+                    return false;
+                }
+            } else {
+                int cp = Character.toCodePoint(c, s.charAt(++j));
+                if (end - i < 4
+                        || cen.get(i++) != (byte) (0xf0 | (cp >> 18))
+                        || cen.get(i++) != (byte) (0x80 | ((cp >> 12) & 0x3f))
+                        || cen.get(i++) != (byte) (0x80 | ((cp >> 6) & 0x3f))
+                        || cen.get(i++) != (byte) (0x80 | (cp & 0x3f))) {
+                    return false;
+                }
+            }
+        }
+        if (slash) {
+            return i == end - 1 && cen.get(i) == '/';
+        }
+        return i == end;
+    }
+
+    private byte[] copy(int pos, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = cen.get(pos + i);
+        }
+        return bytes;
+    }
+
+    private String decode(int pos, int length, boolean utf8) {
+        byte[] bytes = copy(pos, length);
+        return utf8 ? zc.toStringUTF8(bytes, length) : zc.toString(bytes, length);
+    }
+
+    /**
+     * Spreads the low bits of a name hash, which for names sharing a long
+     * prefix (as archive paths do) are dominated by the last few bytes.
+     */
+    private static int mix(int hash) {
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        return hash ^ (hash >>> 7) ^ (hash >>> 4);
+    }
+}
@@ -31,11 +31,10 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -43,6 +42,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.security.AccessController;
 
 import dalvik.system.CloseGuard;
@@ -65,10 +66,22 @@ class ZipFile implements ZipConstants, Closeable {
     private final String name;     // zip file name
     private final int total;       // total number of entries
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
+    private final long length;     // length of the zip file when opened
     private volatile boolean closeRequested = false;
 
     private final CloseGuard guard = CloseGuard.get();
 
+    // Android added, entry lookups and stream reads hold the read lock so
+    // that they can run concurrently. Only close, which releases jzfile,
+    // takes the write lock.
+    private final ReadWriteLock jzfileLock = new ReentrantReadWriteLock();
+
+    // Android added, a Java index of the central directory used for entry
+    // lookup and iteration. It is built on first use, guarded by cenLock.
+    private final Object cenLock = new Object();
+    private volatile ZipCentralDirectory cen;
+    private boolean cenUnavailable;
+
     // Android changed, needed for alternative OPEN_DELETE implementation
     // that doesn't use unlink before closing the file.
     private final File fileToRemoveOnClose;
@@ -215,6 +228,7 @@ class ZipFile implements ZipConstants, Closeable {
             }
         }
         String name = file.getPath();
+        this.length = length;
 
         // Android changed, handle OPEN_DELETE case in #close().
         fileToRemoveOnClose = ((mode & OPEN_DELETE) != 0) ? file : null;
@@ -318,14 +332,22 @@ class ZipFile implements ZipConstants, Closeable {
             throw new NullPointerException("name");
         }
         long jzentry = 0;
-        synchronized (this) {
+        jzfileLock.readLock().lock();
+        try {
             ensureOpen();
+            ZipCentralDirectory cen = centralDirectory();
+            if (cen != null) {
+                int index = cen.indexOf(name, true);
+                return (index < 0) ? null : cen.getEntry(index, name);
+            }
             jzentry = getEntry(jzfile, zc.getBytes(name), true);
             if (jzentry != 0) {
                 ZipEntry ze = getZipEntry(name, jzentry);
                 freeEntry(jzfile, jzentry);
                 return ze;
             }
+        } finally {
+            jzfileLock.readLock().unlock();
         }
         return null;
     }
@@ -360,7 +382,8 @@ class ZipFile implements ZipConstants, Closeable {
         }
         long jzentry = 0;
         ZipFileInputStream in = null;
-        synchronized (this) {
+        jzfileLock.readLock().lock();
+        try {
             ensureOpen();
             if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
                 jzentry = getEntry(jzfile, zc.getBytesUTF8(entry.name), true);
@@ -370,7 +393,12 @@ class ZipFile implements ZipConstants, Closeable {
             if (jzentry == 0) {
                 return null;
             }
-            in = new ZipFileInputStream(jzentry);
+            try {
+                in = new ZipFileInputStream(jzentry);
+            } catch (ZipException e) {
+                freeEntry(jzfile, jzentry);
+                throw e;
+            }
 
             switch (getEntryMethod(jzentry)) {
             case STORED:
@@ -383,7 +411,8 @@ class ZipFile implements ZipConstants, Closeable {
                 long size = getEntrySize(jzentry) + 2; // Inflater likes a bit of slack
                 if (size > 65536) size = 8192;
                 if (size <= 0) size = 4096;
-                Inflater inf = getInflater();
+                // Android-changed: Inflaters come from a process-wide pool.
+                Inflater inf = ZStreamPool.NOWRAP_INFLATERS.acquire();
                 InputStream is =
                     new ZipFileInflaterInputStream(in, inf, (int)size);
                 synchronized (streams) {
@@ -393,6 +422,8 @@ class ZipFile implements ZipConstants, Closeable {
             default:
                 throw new ZipException("invalid compression method");
             }
+        } finally {
+            jzfileLock.readLock().unlock();
         }
     }
 
@@ -407,19 +438,24 @@ class ZipFile implements ZipConstants, Closeable {
             this.zfin = zfin;
         }
 
-        public void close() throws IOException {
-            if (closeRequested)
-                return;
-            closeRequested = true;
+        // Android-changed: Reads and close() are serialized on the stream, so
+        // that once close() has returned the inflater to the pool, no read
+        // still in progress can use it: later reads fail in ensureOpen().
+        // The pooled inflater doesn't lock, so nothing else may end it.
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, len);
+        }
 
-            super.close();
-            Inflater inf;
+        public synchronized void close() throws IOException {
             synchronized (streams) {
-                inf = streams.remove(this);
-            }
-            if (inf != null) {
-                releaseInflater(inf);
+                if (closeRequested)
+                    return;
+                closeRequested = true;
+                streams.remove(this);
             }
+            closed = true;
+            in.close();
+            ZStreamPool.NOWRAP_INFLATERS.release(inf);
         }
 
         // Override fill() method to provide an extra "dummy" byte
@@ -438,7 +474,7 @@ class ZipFile implements ZipConstants, Closeable {
             inf.setInput(buf, 0, len);
         }
 
-        public int available() throws IOException {
+        public synchronized int available() throws IOException {
             if (closeRequested)
                 return 0;
             long avail = zfin.size() - inf.getBytesWritten();
@@ -451,37 +487,6 @@ class ZipFile implements ZipConstants, Closeable {
         }
     }
 
-    /*
-     * Gets an inflater from the list of available inflaters or allocates
-     * a new one.
-     */
-    private Inflater getInflater() {
-        Inflater inf;
-        synchronized (inflaterCache) {
-            while (null != (inf = inflaterCache.poll())) {
-                if (false == inf.ended()) {
-                    return inf;
-                }
-            }
-        }
-        return new Inflater(true);
-    }
-
-    /*
-     * Releases the specified inflater to the list of available inflaters.
-     */
-    private void releaseInflater(Inflater inf) {
-        if (false == inf.ended()) {
-            inf.reset();
-            synchronized (inflaterCache) {
-                inflaterCache.add(inf);
-            }
-        }
-    }
-
-    // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
-
     /**
      * Returns the path name of the ZIP file.
      * @return the path name of the ZIP file
@@ -506,6 +511,19 @@ class ZipFile implements ZipConstants, Closeable {
                     }
                 }
                 public ZipEntry nextElement() throws NoSuchElementException {
+                    jzfileLock.readLock().lock();
+                    try {
+                        ensureOpen();
+                        ZipCentralDirectory cen = centralDirectory();
+                        if (cen != null) {
+                            if (i >= total) {
+                                throw new NoSuchElementException();
+                            }
+                            return cen.getEntry(i++, null);
+                        }
+                    } finally {
+                        jzfileLock.readLock().unlock();
+                    }
                     synchronized (ZipFile.this) {
                         ensureOpen();
                         if (i >= total) {
@@ -535,6 +553,31 @@ class ZipFile implements ZipConstants, Closeable {
             };
     }
 
+    /**
+     * Returns the central directory index, building it on first use, or null
+     * if this archive must be read through the native entry accessors. The
+     * caller must hold the read lock.
+     */
+    private ZipCentralDirectory centralDirectory() {
+        ZipCentralDirectory result = cen;
+        if (result != null) {
+            return result;
+        }
+        synchronized (cenLock) {
+            if (cen == null && !cenUnavailable) {
+                try {
+                    FileDescriptor fd = new FileDescriptor();
+                    fd.setInt$(getFileDescriptor(jzfile));
+                    cen = ZipCentralDirectory.open(fd, length, total, zc);
+                } catch (IOException e) {
+                    // Fall back to the native accessors.
+                }
+                cenUnavailable = (cen == null);
+            }
+            return cen;
+        }
+    }
+
     private ZipEntry getZipEntry(String name, long jzentry) {
         ZipEntry e = new ZipEntry();
         e.flag = getEntryFlag(jzentry);  // get the flag first
@@ -595,34 +638,36 @@ class ZipFile implements ZipConstants, Closeable {
 
         synchronized (this) {
             // Close streams, release their inflaters
+            // Android-changed: Close the streams without holding the streams
+            // lock. Closing an inflating stream waits for a read in progress
+            // on it, and the read may need that lock to close its source.
+            Map<InputStream, Inflater> copy = null;
             synchronized (streams) {
                 if (false == streams.isEmpty()) {
-                    Map<InputStream, Inflater> copy = new HashMap<>(streams);
+                    copy = new HashMap<>(streams);
                     streams.clear();
-                    for (Map.Entry<InputStream, Inflater> e : copy.entrySet()) {
-                        e.getKey().close();
-                        Inflater inf = e.getValue();
-                        if (inf != null) {
-                            inf.end();
-                        }
-                    }
                 }
             }
-
-            // Release cached inflaters
-            Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
+            if (copy != null) {
+                for (InputStream is : copy.keySet()) {
+                    is.close();
                 }
             }
 
             if (jzfile != 0) {
                 // Close the zip file
-                long zf = this.jzfile;
-                jzfile = 0;
-
-                close(zf);
+                jzfileLock.writeLock().lock();
+                try {
+                    long zf = this.jzfile;
+                    jzfile = 0;
+
+                    close(zf);
+                    if (cen != null) {
+                        cen.close();
+                    }
+                } finally {
+                    jzfileLock.writeLock().unlock();
+                }
             }
 
             // Android-changed, explicit delete for OPEN_DELETE ZipFile.
@@ -679,14 +724,18 @@ class ZipFile implements ZipConstants, Closeable {
    private class ZipFileInputStream extends InputStream {
         private volatile boolean closeRequested = false;
         protected long jzentry; // address of jzentry data
+        private   long start;   // offset of the entry data within the file
         private   long pos;     // current position within entry data
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
 
-        ZipFileInputStream(long jzentry) {
+        ZipFileInputStream(long jzentry) throws ZipException {
             pos = 0;
             rem = getEntryCSize(jzentry);
             size = getEntrySize(jzentry);
+            // Android changed, resolve the data offset up front so that reads
+            // are positional and need no lock on the zip file.
+            start = getEntryDataOffset(ZipFile.this.jzfile, jzentry);
             this.jzentry = jzentry;
         }
 
@@ -704,9 +753,13 @@ class ZipFile implements ZipConstants, Closeable {
             if (len > rem) {
                 len = (int) rem;
             }
-            synchronized (ZipFile.this) {
-                len = ZipFile.read(ZipFile.this.jzfile, jzentry, pos, b,
-                                   off, len);
+            jzfileLock.readLock().lock();
+            try {
+                ensureOpenOrZipException();
+                len = ZipFile.readAt(ZipFile.this.jzfile, start + pos, b,
+                                     off, len);
+            } finally {
+                jzfileLock.readLock().unlock();
             }
             if (len > 0) {
                 pos += len;
@@ -752,11 +805,14 @@ class ZipFile implements ZipConstants, Closeable {
             closeRequested = true;
 
             rem = 0;
-            synchronized (ZipFile.this) {
+            jzfileLock.readLock().lock();
+            try {
                 if (jzentry != 0 && ZipFile.this.jzfile != 0) {
                     freeEntry(ZipFile.this.jzfile, jzentry);
                     jzentry = 0;
                 }
+            } finally {
+                jzfileLock.readLock().unlock();
             }
             synchronized (streams) {
                 streams.remove(this);
@@ -790,8 +846,10 @@ class ZipFile implements ZipConstants, Closeable {
                                     boolean usemmap) throws IOException;
     private static native int getTotal(long jzfile);
     private static native boolean startsWithLOC(long jzfile);
-    private static native int read(long jzfile, long jzentry,
-                                   long pos, byte[] b, int off, int len);
+    private static native long getEntryDataOffset(long jzfile, long jzentry)
+            throws ZipException;
+    private static native int readAt(long jzfile, long offset, byte[] b,
+                                     int off, int len) throws IOException;
 
     // access to the native zentry object
     private static native long getEntryTime(long jzentry);
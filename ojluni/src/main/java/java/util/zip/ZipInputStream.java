@@ -96,11 +96,16 @@ class ZipInputStream extends InflaterInputStream implements ZipConstants {
      */
     public ZipInputStream(InputStream in, Charset charset) {
         super(new PushbackInputStream(in, 512), new Inflater(true), 512);
+        // Android-changed: End the inflater before rejecting the arguments,
+        // rather than leaving its native memory to finalization.
         if(in == null) {
+            inf.end();
             throw new NullPointerException("in is null");
         }
-        if (charset == null)
+        if (charset == null) {
+            inf.end();
             throw new NullPointerException("charset is null");
+        }
         this.zc = ZipCoder.get(charset);
     }
 
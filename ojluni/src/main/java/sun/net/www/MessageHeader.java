@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Set;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import libcore.internal.ConcurrentStringPool;
 
 /** An RFC 844 or MIME message header.  Includes methods
     for parsing headers from incoming streams, fetching
@@ -491,7 +492,8 @@ class MessageHeader {
                 k = null;
                 keyend = 0;
             } else {
-                k = String.copyValueOf(s, 0, keyend);
+                // Android-changed: Share header names through the string pool.
+                k = ConcurrentStringPool.getDefault().get(s, 0, keyend);
                 if (keyend < len && s[keyend] == ':')
                     keyend++;
                 while (keyend < len && s[keyend] <= ' ')
@@ -41,7 +41,9 @@ public class ThreadLocalCoders {
     private static abstract class Cache {
 
         // Thread-local reference to array of cached objects, in LRU order
-        private ThreadLocal cache = new ThreadLocal();
+        // Android-changed: Use a fast ThreadLocal slot; Caches are only
+        // created for the static decoderCache and encoderCache.
+        private ThreadLocal cache = new ThreadLocal(true /* fastSlot */);
         private final int size;
 
         Cache(int size) {
@@ -183,21 +183,32 @@ public class GetInstance {
 
     public static Instance getInstance(String type, Class clazz,
             String algorithm, Object param) throws NoSuchAlgorithmException {
-        List<Service> services = getServices(type, algorithm);
-        NoSuchAlgorithmException failure = null;
-        for (Service s : services) {
+        // Android-changed: Try the first service before building the list of
+        // all of them, as getInstance(String, Class, String) does.
+        ProviderList list = Providers.getProviderList();
+        Service firstService = list.getService(type, algorithm);
+        if (firstService == null) {
+            throw new NoSuchAlgorithmException
+                    (algorithm + " " + type + " not available");
+        }
+        NoSuchAlgorithmException failure;
+        try {
+            return getInstance(firstService, clazz, param);
+        } catch (NoSuchAlgorithmException e) {
+            failure = e;
+        }
+        for (Service s : list.getServices(type, algorithm)) {
+            if (s == firstService) {
+                // do not retry initial failed service
+                continue;
+            }
             try {
                 return getInstance(s, clazz, param);
             } catch (NoSuchAlgorithmException e) {
                 failure = e;
             }
         }
-        if (failure != null) {
-            throw failure;
-        } else {
-            throw new NoSuchAlgorithmException
-                    (algorithm + " " + type + " not available");
-        }
+        throw failure;
     }
 
     public static Instance getInstance(String type, Class clazz,
@@ -35,6 +35,7 @@ import sun.security.provider.certpath.X509CertPath;
 import sun.security.provider.certpath.X509CertificatePair;
 import sun.security.util.DerValue;
 import sun.security.util.Cache;
+import sun.security.util.ConcurrentMemoryCache;
 import sun.misc.BASE64Decoder;
 import sun.security.pkcs.ParsingException;
 
@@ -64,8 +65,12 @@ public class X509Factory extends CertificateFactorySpi {
 
     private static final int ENC_MAX_LENGTH = 4096 * 1024; // 4 MB MAX
 
-    private static final Cache certCache = Cache.newSoftMemoryCache(750);
-    private static final Cache crlCache = Cache.newSoftMemoryCache(750);
+    // Android-changed: Use concurrent caches. Every thread that parses a
+    // certificate, e.g. during each TLS handshake, looks in certCache.
+    private static final ConcurrentMemoryCache<Object, Object> certCache =
+            new ConcurrentMemoryCache<>(true, 750);
+    private static final ConcurrentMemoryCache<Object, Object> crlCache =
+            new ConcurrentMemoryCache<>(true, 750);
 
     /**
      * Generates an X.509 certificate object and initializes it with
@@ -130,8 +135,9 @@ public class X509Factory extends CertificateFactorySpi {
      * Return an interned X509CertImpl for the given certificate.
      * If the given X509Certificate or X509CertImpl is already present
      * in the cert cache, the cached object is returned. Otherwise,
-     * if it is a X509Certificate, it is first converted to a X509CertImpl.
-     * Then the X509CertImpl is added to the cache and returned.
+     * if it is a X509CertImpl, it is added to the cache and returned, and
+     * if it is another X509Certificate, it is converted to a lazily decoded
+     * X509CertImpl, which is returned without being cached.
      *
      * Note that all certificates created via generateCertificate(InputStream)
      * are already interned and this method does not need to be called.
@@ -158,8 +164,13 @@ public class X509Factory extends CertificateFactorySpi {
         if (isImpl) {
             newC = (X509CertImpl)c;
         } else {
-            newC = new X509CertImpl(encoding);
-            encoding = newC.getEncodedInternal();
+            // BEGIN Android-changed: Decode lazily. The certificate was
+            // already decoded by its implementation, and X509CertImpl.toImpl()
+            // callers such as the certification path code use few fields.
+            // The lazy instance is not cached, so that certificates returned
+            // by engineGenerateCertificate() are always decoded eagerly.
+            return new X509CertImpl(encoding, true);
+            // END Android-changed: Decode lazily.
         }
         addToCache(certCache, encoding, newC);
         return newC;
@@ -198,7 +209,8 @@ public class X509Factory extends CertificateFactorySpi {
     /**
      * Get the X509CertImpl or X509CRLImpl from the cache.
      */
-    private static synchronized Object getFromCache(Cache cache,
+    // Android-changed: Not synchronized, the caches are thread safe.
+    private static Object getFromCache(Cache<Object, Object> cache,
             byte[] encoding) {
         Object key = new Cache.EqualByteArray(encoding);
         Object value = cache.get(key);
@@ -208,7 +220,8 @@ public class X509Factory extends CertificateFactorySpi {
     /**
      * Add the X509CertImpl or X509CRLImpl to the cache.
      */
-    private static synchronized void addToCache(Cache cache, byte[] encoding,
+    // Android-changed: Not synchronized, the caches are thread safe.
+    private static void addToCache(Cache<Object, Object> cache, byte[] encoding,
             Object value) {
         if (encoding.length > ENC_MAX_LENGTH) {
             return;
@@ -48,6 +48,7 @@ import sun.security.x509.AccessDescription;
 import sun.security.x509.AuthorityInfoAccessExtension;
 import static sun.security.x509.PKIXExtensions.*;
 import sun.security.x509.X500Name;
+import sun.security.x509.X509CertImpl;
 import sun.security.x509.AuthorityKeyIdentifierExtension;
 
 /**
@@ -807,8 +808,9 @@ class ForwardBuilder extends Builder {
             X500Principal principal = anchor.getCA();
             PublicKey publicKey = anchor.getCAPublicKey();
 
+            // Android-changed: Match encoded names before decoding them.
             if (principal != null && publicKey != null &&
-                    principal.equals(cert.getSubjectX500Principal())) {
+                    X509CertImpl.subjectEquals(cert, principal)) {
                 if (publicKey.equals(cert.getPublicKey())) {
                     // the cert itself is a trust anchor
                     this.trustAnchor = anchor;
@@ -818,8 +820,9 @@ class ForwardBuilder extends Builder {
             }
 
             // Check subject/issuer name chaining
+            // Android-changed: Match encoded names before decoding them.
             if (principal == null ||
-                    !principal.equals(cert.getIssuerX500Principal())) {
+                    !X509CertImpl.issuerEquals(cert, principal)) {
                 continue;
             }
 
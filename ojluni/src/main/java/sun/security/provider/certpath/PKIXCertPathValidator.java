@@ -92,6 +92,17 @@ public final class PKIXCertPathValidator extends CertPathValidatorSpi {
         if (!certList.isEmpty()) {
             selector = new AdaptableX509CertSelector();
             X509Certificate firstCert = certList.get(0);
+            // BEGIN Android-changed: Use the X509CertImpl form of the first
+            // certificate throughout. Its issuer name keeps its encoding, so
+            // that the selector can match it against the encoded names of the
+            // trusted certificates without decoding them.
+            X509CertImpl firstCertImpl = null;
+            try {
+                firstCertImpl = X509CertImpl.toImpl(firstCert);
+                firstCert = firstCertImpl;
+            } catch (CertificateException e) {
+                // ignore
+            }
             // check trusted certificate's subject
             selector.setSubject(firstCert.getIssuerX500Principal());
             // check the validity period
@@ -101,13 +112,16 @@ public final class PKIXCertPathValidator extends CertPathValidatorSpi {
              * Facilitate certification path construction with authority
              * key identifier and subject key identifier.
              */
-            try {
-                X509CertImpl firstCertImpl = X509CertImpl.toImpl(firstCert);
-                selector.parseAuthorityKeyIdentifierExtension(
+            if (firstCertImpl != null) {
+                try {
+                    selector.parseAuthorityKeyIdentifierExtension(
                             firstCertImpl.getAuthorityKeyIdentifierExtension());
-            } catch (CertificateException | IOException e) {
-                // ignore
+                } catch (IOException e) {
+                    // ignore
+                }
             }
+            // END Android-changed: Use the X509CertImpl form of the first
+            // certificate throughout.
         }
 
         CertPathValidatorException lastException = null;
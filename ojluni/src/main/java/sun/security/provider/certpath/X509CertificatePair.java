@@ -37,6 +37,7 @@ import javax.security.auth.x500.X500Principal;
 import sun.security.util.DerOutputStream;
 import sun.security.util.DerValue;
 import sun.security.util.Cache;
+import sun.security.util.ConcurrentMemoryCache;
 import sun.security.x509.X509CertImpl;
 import sun.security.provider.X509Factory;
 
@@ -79,8 +80,9 @@ public class X509CertificatePair {
     private X509Certificate reverse;
     private byte[] encoded;
 
+    // Android-changed: Use a concurrent cache.
     private static final Cache<Object, X509CertificatePair> cache
-        = Cache.newSoftMemoryCache(750);
+        = new ConcurrentMemoryCache<>(true, 750);
 
     /**
      * Creates an empty instance of X509CertificatePair.
@@ -128,7 +130,8 @@ public class X509CertificatePair {
     /**
      * Clear the cache for debugging.
      */
-    public static synchronized void clearCache() {
+    // Android-changed: Not synchronized, the cache is thread safe.
+    public static void clearCache() {
         cache.clear();
     }
 
@@ -136,7 +139,9 @@ public class X509CertificatePair {
      * Create a X509CertificatePair from its encoding. Uses cache lookup
      * if possible.
      */
-    public static synchronized X509CertificatePair generateCertificatePair
+    // Android-changed: Not synchronized, the cache is thread safe. Threads
+    // that race to decode the same pair may each cache their own instance.
+    public static X509CertificatePair generateCertificatePair
             (byte[] encoded) throws CertificateException {
         Object key = new Cache.EqualByteArray(encoded);
         X509CertificatePair pair = cache.get(key);
@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.security.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A memory cache with the same soft reference, maximum size and lifetime
+ * semantics as the caches returned by {@link Cache#newSoftMemoryCache} and
+ * {@link Cache#newHardMemoryCache}, for caches that are shared by many
+ * threads.
+ *
+ * Entries live in a ConcurrentHashMap, so that a get() that hits does not
+ * take a lock. Writes lock one of up to 16 segments, chosen by the hash of
+ * the key, each of which holds an equal share of the maximum size.
+ * Replacements are made in approximate LRU order within a segment: a get()
+ * marks its entry as referenced, and eviction gives referenced entries a
+ * second chance (the CLOCK algorithm) instead of moving them on every read.
+ *
+ * The cache also counts hits and misses of get().
+ *
+ * @hide
+ */
+public final class ConcurrentMemoryCache<K,V> extends Cache<K,V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    // segments are not split below this many entries each, so that the
+    // LRU approximation of small caches does not suffer
+    private static final int MIN_SEGMENT_CAPACITY = 32;
+
+    private final ConcurrentHashMap<K, Entry<K,V>> cacheMap;
+    private final Segment<K,V>[] segments;
+
+    private volatile int maxSize;
+    private volatile long lifetime;
+
+    // null unless the values are held by SoftReferences
+    private final ReferenceQueue<V> queue;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create a cache with the specified maximum size, or no maximum if
+     * maxSize is not positive, and unlimited lifetime for entries.
+     */
+    public ConcurrentMemoryCache(boolean soft, int maxSize) {
+        this(soft, maxSize, 0);
+    }
+
+    /**
+     * Create a cache with the specified maximum size, or no maximum if
+     * maxSize is not positive, and maximum lifetime (in seconds), or
+     * unlimited lifetime if lifetime is 0.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMemoryCache(boolean soft, int maxSize, int lifetime) {
+        this.maxSize = (maxSize > 0) ? maxSize : 0;
+        this.lifetime = lifetime * 1000L;
+        this.queue = soft ? new ReferenceQueue<V>() : null;
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && (this.maxSize == 0
+                || segmentCount * 2 * MIN_SEGMENT_CAPACITY <= this.maxSize)) {
+            segmentCount *= 2;
+        }
+        segments = (Segment<K,V>[]) new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        cacheMap = new ConcurrentHashMap<>(
+                (this.maxSize == 0) ? 16 : this.maxSize, 0.75f, segmentCount);
+        distributeCapacity(this.maxSize);
+    }
+
+    public int size() {
+        expungeExpiredEntries();
+        int size = 0;
+        for (Segment<K,V> segment : segments) {
+            synchronized (segment) {
+                size += segment.count;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment<K,V> segment : segments) {
+            synchronized (segment) {
+                for (Entry<K,V> entry : segment.clock) {
+                    if (entry.removed == false) {
+                        cacheMap.remove(entry.key, entry);
+                        entry.removed = true;
+                        entry.invalidate();
+                    }
+                }
+                segment.clock.clear();
+                segment.count = 0;
+            }
+        }
+        if (queue != null) {
+            // the entries were cleared before the GC could enqueue them,
+            // but drop any that it already had
+            while (queue.poll() != null) {
+                // empty
+            }
+        }
+    }
+
+    public void put(K key, V value) {
+        emptyQueue();
+        long lifetime = this.lifetime;
+        long expirationTime = (lifetime == 0) ? 0 :
+                                        System.currentTimeMillis() + lifetime;
+        Segment<K,V> segment = segmentFor(key);
+        Entry<K,V> newEntry = new Entry<>(key, value, expirationTime, queue);
+        synchronized (segment) {
+            Entry<K,V> oldEntry = cacheMap.put(key, newEntry);
+            if (oldEntry != null) {
+                oldEntry.removed = true;
+                oldEntry.invalidate();
+            } else {
+                segment.count++;
+            }
+            segment.clock.addLast(newEntry);
+            segment.evict(cacheMap, segment.capacity);
+            segment.purgeRemoved();
+        }
+    }
+
+    public V get(Object key) {
+        Entry<K,V> entry = cacheMap.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long time = (lifetime == 0) ? 0 : System.currentTimeMillis();
+        V value = entry.getValue();
+        if (value == null || entry.isValid(time) == false) {
+            // expired, or the GC cleared the value
+            removeEntry(entry);
+            misses.increment();
+            return null;
+        }
+        if (entry.referenced == false) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return value;
+    }
+
+    public void remove(Object key) {
+        emptyQueue();
+        Segment<K,V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<K,V> entry = cacheMap.remove(key);
+            if (entry != null) {
+                entry.removed = true;
+                entry.invalidate();
+                segment.count--;
+                segment.purgeRemoved();
+            }
+        }
+    }
+
+    public void setCapacity(int size) {
+        expungeExpiredEntries();
+        maxSize = (size > 0) ? size : 0;
+        distributeCapacity(maxSize);
+    }
+
+    public void setTimeout(int timeout) {
+        emptyQueue();
+        lifetime = (timeout > 0) ? timeout * 1000L : 0L;
+    }
+
+    // it is a heavyweight method.
+    public void accept(CacheVisitor<K,V> visitor) {
+        expungeExpiredEntries();
+        Map<K,V> cached = new HashMap<>(cacheMap.size());
+        long time = (lifetime == 0) ? 0 : System.currentTimeMillis();
+        for (Entry<K,V> entry : cacheMap.values()) {
+            V value = entry.getValue();
+            if (value != null && entry.isValid(time)) {
+                cached.put(entry.key, value);
+            }
+        }
+        visitor.visit(cached);
+    }
+
+    /**
+     * Return the number of calls to get() that returned a value.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Return the number of calls to get() that returned null.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Return the fraction of calls to get() that returned a value, or 0 if
+     * there have been none.
+     */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return (total == 0) ? 0.0 : (double) h / total;
+    }
+
+    public String toString() {
+        return "ConcurrentMemoryCache[maxSize=" + maxSize
+                + ", segments=" + segments.length
+                + ", hits=" + hitCount() + ", misses=" + missCount() + "]";
+    }
+
+    /**
+     * Share the maximum size between the segments, and evict entries from
+     * segments that are over their new share.
+     */
+    private void distributeCapacity(int maxSize) {
+        for (int i = 0; i < segments.length; i++) {
+            Segment<K,V> segment = segments[i];
+            int capacity = Integer.MAX_VALUE;
+            if (maxSize > 0) {
+                // if maxSize is smaller than the number of segments, some
+                // segments get no share and keep no entries at all
+                capacity = maxSize / segments.length;
+                if (i < maxSize % segments.length) {
+                    capacity++;
+                }
+            }
+            synchronized (segment) {
+                segment.capacity = capacity;
+                segment.evict(cacheMap, capacity);
+                segment.purgeRemoved();
+            }
+        }
+    }
+
+    private Segment<K,V> segmentFor(Object key) {
+        // spread the high bits down, as HashMap does
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Remove the entry if it is still the entry for its key.
+     */
+    private void removeEntry(Entry<K,V> entry) {
+        Segment<K,V> segment = segmentFor(entry.key);
+        synchronized (segment) {
+            if (entry.removed == false) {
+                cacheMap.remove(entry.key, entry);
+                entry.removed = true;
+                entry.invalidate();
+                segment.count--;
+            }
+        }
+    }
+
+    /**
+     * Remove the entries whose values the GC has cleared.
+     */
+    private void emptyQueue() {
+        if (queue == null) {
+            return;
+        }
+        while (true) {
+            @SuppressWarnings("unchecked")
+            ValueReference<K,V> ref = (ValueReference<K,V>)queue.poll();
+            if (ref == null) {
+                break;
+            }
+            removeEntry(ref.entry);
+        }
+    }
+
+    /**
+     * Remove all expired entries.
+     */
+    private void expungeExpiredEntries() {
+        emptyQueue();
+        if (lifetime == 0) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        for (Entry<K,V> entry : cacheMap.values()) {
+            if (entry.isValid(time) == false) {
+                removeEntry(entry);
+            }
+        }
+    }
+
+    /**
+     * The entries whose keys hash to one segment. All fields are guarded by
+     * the segment's lock.
+     */
+    private static final class Segment<K,V> {
+        // the segment's entries in insertion order, with entries that got a
+        // second chance moved to the end; may also hold removed entries
+        final ArrayDeque<Entry<K,V>> clock = new ArrayDeque<>();
+        // the number of entries in the segment that have not been removed
+        int count;
+        // the maximum number of entries
+        int capacity;
+
+        /**
+         * Remove entries until at most capacity remain, first those that
+         * are no longer valid, then the least recently used ones.
+         */
+        void evict(Map<K, Entry<K,V>> cacheMap, int capacity) {
+            while (count > capacity) {
+                Entry<K,V> entry = clock.pollFirst();
+                if (entry.removed) {
+                    continue;
+                }
+                if (entry.referenced && entry.getValue() != null) {
+                    entry.referenced = false;
+                    clock.addLast(entry);
+                    continue;
+                }
+                cacheMap.remove(entry.key, entry);
+                entry.removed = true;
+                entry.invalidate();
+                count--;
+            }
+        }
+
+        /**
+         * Drop removed entries from the clock once they outnumber the live
+         * ones, so that replacing the same keys cannot grow it forever.
+         */
+        void purgeRemoved() {
+            if (clock.size() <= 2 * count + MIN_SEGMENT_CAPACITY) {
+                return;
+            }
+            for (Iterator<Entry<K,V>> t = clock.iterator(); t.hasNext(); ) {
+                if (t.next().removed) {
+                    t.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Entry<K,V> {
+
+        final K key;
+        private final long expirationTime;
+
+        // exactly one of value and ref is null
+        private final V value;
+        private final ValueReference<K,V> ref;
+
+        // set by get(), cleared by eviction. Not volatile: a lost update
+        // only costs the entry its second chance.
+        boolean referenced;
+
+        // guarded by the lock of the entry's segment
+        boolean removed;
+
+        Entry(K key, V value, long expirationTime, ReferenceQueue<V> queue) {
+            this.key = key;
+            this.expirationTime = expirationTime;
+            if (queue != null) {
+                this.value = null;
+                this.ref = new ValueReference<>(value, queue, this);
+            } else {
+                this.value = value;
+                this.ref = null;
+            }
+        }
+
+        V getValue() {
+            return (ref != null) ? ref.get() : value;
+        }
+
+        boolean isValid(long currentTime) {
+            return currentTime <= expirationTime;
+        }
+
+        void invalidate() {
+            // a cleared reference is not enqueued by the GC
+            if (ref != null) {
+                ref.clear();
+            }
+        }
+    }
+
+    private static final class ValueReference<K,V> extends SoftReference<V> {
+
+        final Entry<K,V> entry;
+
+        ValueReference(V value, ReferenceQueue<V> queue, Entry<K,V> entry) {
+            super(value, queue);
+            this.entry = entry;
+        }
+    }
+}
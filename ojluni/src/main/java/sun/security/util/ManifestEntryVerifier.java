@@ -191,8 +191,9 @@ public class ManifestEntryVerifier {
      *
      *
      */
-    public CodeSigner[] verify(Hashtable<String, CodeSigner[]> verifiedSigners,
-                Hashtable<String, CodeSigner[]> sigFileSigners)
+    // Android-changed: Map rather than Hashtable, for JarVerifier's concurrent maps.
+    public CodeSigner[] verify(Map<String, CodeSigner[]> verifiedSigners,
+                Map<String, CodeSigner[]> sigFileSigners)
         throws JarException
     {
         if (skip) {
@@ -222,9 +223,12 @@ public class ManifestEntryVerifier {
         }
 
         // take it out of sigFileSigners and put it in verifiedSigners...
-        signers = sigFileSigners.remove(name);
+        // Android-changed: publish to verifiedSigners before removing from
+        // sigFileSigners, so that concurrent readers always find the entry.
+        signers = sigFileSigners.get(name);
         if (signers != null) {
             verifiedSigners.put(name, signers);
+            sigFileSigners.remove(name);
         }
         return signers;
     }
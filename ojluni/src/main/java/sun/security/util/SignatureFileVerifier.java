@@ -180,7 +180,8 @@ public class SignatureFileVerifier {
      *
      *
      */
-    public void process(Hashtable<String, CodeSigner[]> signers,
+    // Android-changed: Map rather than Hashtable, for JarVerifier's concurrent maps.
+    public void process(Map<String, CodeSigner[]> signers,
             List manifestDigests)
         throws IOException, SignatureException, NoSuchAlgorithmException,
             JarException, CertificateException
@@ -197,7 +198,7 @@ public class SignatureFileVerifier {
 
     }
 
-    private void processImpl(Hashtable<String, CodeSigner[]> signers,
+    private void processImpl(Map<String, CodeSigner[]> signers,
             List manifestDigests)
         throws IOException, SignatureException, NoSuchAlgorithmException,
             JarException, CertificateException
@@ -665,7 +666,7 @@ public class SignatureFileVerifier {
     }
 
     void updateSigners(CodeSigner[] newSigners,
-        Hashtable<String, CodeSigner[]> signers, String name) {
+        Map<String, CodeSigner[]> signers, String name) {
 
         CodeSigner[] oldSigners = signers.get(name);
 
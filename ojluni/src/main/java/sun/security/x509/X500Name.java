@@ -318,6 +318,22 @@ public class X500Name implements GeneralNameInterface, Principal {
         parseDER(in);
     }
 
+    // Android-added: Keep the encoding of names decoded from certificates.
+    /**
+     * Constructs a name from an ASN.1 encoded byte array, which is kept as
+     * the name's encoding if <code>keepEncoding</code> is true. The array
+     * must not be modified afterwards.
+     *
+     * @param name DER-encoded byte array holding an X.500 name.
+     * @param keepEncoding whether to keep the array as the encoding.
+     */
+    X500Name(byte[] name, boolean keepEncoding) throws IOException {
+        this(name);
+        if (keepEncoding) {
+            encoded = name;
+        }
+    }
+
     /**
      * Return an immutable List of all RDNs in this X500Name.
      */
@@ -398,6 +414,11 @@ public class X500Name implements GeneralNameInterface, Principal {
             return false;
         }
         X500Name other = (X500Name)obj;
+        // Android-added: Names with the same encoding are equal.
+        if ((this.encoded != null) && (other.encoded != null)
+                && Arrays.equals(this.encoded, other.encoded)) {
+            return true;
+        }
         // if we already have the canonical forms, compare now
         if ((this.canonicalDn != null) && (other.canonicalDn != null)) {
             return this.canonicalDn.equals(other.canonicalDn);
@@ -127,7 +127,9 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
 
     // Certificate data, and its envelope
     private byte[]              signedCert = null;
-    protected X509CertInfo      info = null;
+    // Android-changed: volatile, as a lazily parsed certificate decodes it
+    // on first use.
+    protected volatile X509CertInfo info = null;
     protected AlgorithmId       algId = null;
     protected byte[]            signature = null;
 
@@ -173,6 +175,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      */
     private boolean verificationResult;
 
+    // Android-added: The fields of a certificate parsed with lazy decoding,
+    // or null if the certificate was decoded eagerly.
+    private LazyFields lazy;
+
     /**
      * Default constructor.
      */
@@ -199,6 +205,38 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
         }
     }
 
+    // BEGIN Android-added: Lazy decoding.
+    /**
+     * Unmarshals a certificate from its encoded form, like
+     * {@link #X509CertImpl(byte[])}. If <code>decodeLazily</code> is true,
+     * only the structure of the certificate, its signature algorithm, version,
+     * serial number, validity and extensions are decoded here. The names and
+     * public key are each decoded when first used, and the remaining fields
+     * when any of them is first used. Errors in fields that are decoded
+     * later are reported as if the fields were absent. The extensions are
+     * decoded up front so that a malformed extension, which the
+     * certification path checks would otherwise take to be missing, is
+     * rejected here.
+     *
+     * <p>This suits certificates that are already known to be well formed,
+     * such as those being converted from other X509Certificate
+     * implementations, whose users typically need only a few of their fields.
+     *
+     * @param certData the encoded bytes, with no trailing padding.
+     * @param decodeLazily whether to defer decoding of most fields.
+     * @exception CertificateException on parsing and initialization errors.
+     */
+    public X509CertImpl(byte[] certData, boolean decodeLazily)
+            throws CertificateException {
+        try {
+            parse(new DerValue(certData), null, decodeLazily);
+        } catch (IOException e) {
+            signedCert = null;
+            throw new CertificateException("Unable to initialize, " + e, e);
+        }
+    }
+    // END Android-added: Lazy decoding.
+
     /**
      * unmarshals an X.509 certificate from an input stream.  If the
      * certificate is RFC1421 hex-encoded, then it must begin with
@@ -456,7 +494,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
         }
         sigVerf.initVerify(key);
 
-        byte[] rawCert = info.getEncodedInfo();
+        // Android-changed: Use the TBSCertificate of a lazily parsed
+        // certificate without decoding it.
+        byte[] rawCert = (lazy != null)
+                ? lazy.tbsCertificate : getInfo().getEncodedInfo();
         sigVerf.update(rawCert, 0, rawCert.length);
 
         // verify may throw SignatureException for invalid encodings, etc.
@@ -501,7 +542,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
         }
         sigVerf.initVerify(key);
 
-        byte[] rawCert = info.getEncodedInfo();
+        // Android-changed: Use the TBSCertificate of a lazily parsed
+        // certificate without decoding it.
+        byte[] rawCert = (lazy != null)
+                ? lazy.tbsCertificate : getInfo().getEncodedInfo();
         sigVerf.update(rawCert, 0, rawCert.length);
 
         // verify may throw SignatureException for invalid encodings, etc.
@@ -639,7 +683,9 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
 
         CertificateValidity interval = null;
         try {
-            interval = (CertificateValidity)info.get(CertificateValidity.NAME);
+            // Android-changed: Support lazily parsed certificates.
+            interval = (lazy != null) ? lazy.validity
+                    : (CertificateValidity)getInfo().get(CertificateValidity.NAME);
         } catch (Exception e) {
             throw new CertificateNotYetValidException("Incorrect validity period");
         }
@@ -671,6 +717,8 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
         id = attr.getPrefix();
 
         if (id.equalsIgnoreCase(INFO)) {
+            // Android-changed: Decode the info of a lazily parsed certificate.
+            X509CertInfo info = getInfo();
             if (info == null) {
                 return null;
             }
@@ -815,6 +863,8 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * before this function may be called.
      */
     public String toString() {
+        // Android-changed: Decode the info of a lazily parsed certificate.
+        X509CertInfo info = getInfo();
         if (info == null || algId == null || signature == null)
             return "";
 
@@ -839,6 +889,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the publickey.
      */
     public PublicKey getPublicKey() {
+        // Android-added: Decode only the key of a lazily parsed certificate.
+        if (lazy != null) {
+            return lazy.getPublicKey();
+        }
         if (info == null)
             return null;
         try {
@@ -856,6 +910,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the version number, i.e. 1, 2 or 3.
      */
     public int getVersion() {
+        // Android-added: Support lazily parsed certificates.
+        if (lazy != null) {
+            return lazy.version + 1;
+        }
         if (info == null)
             return -1;
         try {
@@ -885,6 +943,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the serial number.
      */
     public SerialNumber getSerialNumberObject() {
+        // Android-added: Support lazily parsed certificates.
+        if (lazy != null) {
+            return lazy.serialNumber;
+        }
         if (info == null)
             return null;
         try {
@@ -904,6 +966,11 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the subject name.
      */
     public Principal getSubjectDN() {
+        // Android-added: Decode only the name of a lazily parsed certificate.
+        if (lazy != null) {
+            X500Principal subject = lazy.getSubject();
+            return (subject == null) ? null : X500Name.asX500Name(subject);
+        }
         if (info == null)
             return null;
         try {
@@ -921,6 +988,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * also aware of X509CertImpl mutability.
      */
     public X500Principal getSubjectX500Principal() {
+        // Android-added: Decode only the name of a lazily parsed certificate.
+        if (lazy != null) {
+            return lazy.getSubject();
+        }
         if (info == null) {
             return null;
         }
@@ -940,6 +1011,11 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the issuer name.
      */
     public Principal getIssuerDN() {
+        // Android-added: Decode only the name of a lazily parsed certificate.
+        if (lazy != null) {
+            X500Principal issuer = lazy.getIssuer();
+            return (issuer == null) ? null : X500Name.asX500Name(issuer);
+        }
         if (info == null)
             return null;
         try {
@@ -957,6 +1033,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * also aware of X509CertImpl mutability.
      */
     public X500Principal getIssuerX500Principal() {
+        // Android-added: Decode only the name of a lazily parsed certificate.
+        if (lazy != null) {
+            return lazy.getIssuer();
+        }
         if (info == null) {
             return null;
         }
@@ -976,6 +1056,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the start date of the validity period.
      */
     public Date getNotBefore() {
+        // Android-added: Support lazily parsed certificates.
+        if (lazy != null) {
+            return lazy.getValidityDate(CertificateValidity.NOT_BEFORE);
+        }
         if (info == null)
             return null;
         try {
@@ -993,6 +1077,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the end date of the validity period.
      */
     public Date getNotAfter() {
+        // Android-added: Support lazily parsed certificates.
+        if (lazy != null) {
+            return lazy.getValidityDate(CertificateValidity.NOT_AFTER);
+        }
         if (info == null)
             return null;
         try {
@@ -1013,6 +1101,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @exception CertificateEncodingException if an encoding error occurs.
      */
     public byte[] getTBSCertificate() throws CertificateEncodingException {
+        // Android-added: Support lazily parsed certificates.
+        if (lazy != null) {
+            return lazy.tbsCertificate.clone();
+        }
         if (info != null) {
             return info.getEncodedInfo();
         } else
@@ -1081,6 +1173,8 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the Issuer Unique Identity.
      */
     public boolean[] getIssuerUniqueID() {
+        // Android-changed: Decode the info of a lazily parsed certificate.
+        X509CertInfo info = getInfo();
         if (info == null)
             return null;
         try {
@@ -1101,6 +1195,8 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * @return the Subject Unique Identity.
      */
     public boolean[] getSubjectUniqueID() {
+        // Android-changed: Decode the info of a lazily parsed certificate.
+        X509CertInfo info = getInfo();
         if (info == null)
             return null;
         try {
@@ -1266,11 +1362,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * not supported, otherwise return false.
      */
     public boolean hasUnsupportedCriticalExtension() {
-        if (info == null)
-            return false;
         try {
-            CertificateExtensions exts = (CertificateExtensions)info.get(
-                                         CertificateExtensions.NAME);
+            // Android-changed: Decode only the extensions of a lazily parsed
+            // certificate.
+            CertificateExtensions exts = getCertificateExtensions();
             if (exts == null)
                 return false;
             return exts.hasUnsupportedCriticalExtension();
@@ -1288,12 +1383,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * certificate that are marked critical.
      */
     public Set<String> getCriticalExtensionOIDs() {
-        if (info == null) {
-            return null;
-        }
         try {
-            CertificateExtensions exts = (CertificateExtensions)info.get(
-                                         CertificateExtensions.NAME);
+            // Android-changed: Decode only the extensions of a lazily parsed
+            // certificate.
+            CertificateExtensions exts = getCertificateExtensions();
             if (exts == null) {
                 return null;
             }
@@ -1318,12 +1411,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * certificate that are NOT marked critical.
      */
     public Set<String> getNonCriticalExtensionOIDs() {
-        if (info == null) {
-            return null;
-        }
         try {
-            CertificateExtensions exts = (CertificateExtensions)info.get(
-                                         CertificateExtensions.NAME);
+            // Android-changed: Decode only the extensions of a lazily parsed
+            // certificate.
+            CertificateExtensions exts = getCertificateExtensions();
             if (exts == null) {
                 return null;
             }
@@ -1348,13 +1439,12 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      *         extension
      */
     public Extension getExtension(ObjectIdentifier oid) {
-        if (info == null) {
-            return null;
-        }
         try {
             CertificateExtensions extensions;
             try {
-                extensions = (CertificateExtensions)info.get(CertificateExtensions.NAME);
+                // Android-changed: Decode only the extensions of a lazily
+                // parsed certificate.
+                extensions = getCertificateExtensions();
             } catch (CertificateException ce) {
                 return null;
             }
@@ -1380,13 +1470,12 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
     }
 
     public Extension getUnparseableExtension(ObjectIdentifier oid) {
-        if (info == null) {
-            return null;
-        }
         try {
             CertificateExtensions extensions;
             try {
-                extensions = (CertificateExtensions)info.get(CertificateExtensions.NAME);
+                // Android-changed: Decode only the extensions of a lazily
+                // parsed certificate.
+                extensions = getCertificateExtensions();
             } catch (CertificateException ce) {
                 return null;
             }
@@ -1411,8 +1500,9 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
             ObjectIdentifier findOID = new ObjectIdentifier(oid);
             String extAlias = OIDMap.getName(findOID);
             Extension certExt = null;
-            CertificateExtensions exts = (CertificateExtensions)info.get(
-                                     CertificateExtensions.NAME);
+            // Android-changed: Decode only the extensions of a lazily parsed
+            // certificate.
+            CertificateExtensions exts = getCertificateExtensions();
 
             if (extAlias == null) { // may be unknown
                 // get the extensions, search thru' for this oid
@@ -1428,10 +1518,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
                     }
                 }
             } else { // there's sub-class that can handle this extension
-                try {
-                    certExt = (Extension)this.get(extAlias);
-                } catch (CertificateException e) {
-                    // get() throws an Exception instead of returning null, ignore
+                // Android-changed: Look the extension up directly rather
+                // than through get(), which decodes the whole info.
+                if (exts != null) {
+                    certExt = exts.getExtension(extAlias);
                 }
             }
             if (certExt == null) {
@@ -1465,7 +1555,10 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
             if (extAlias == null)
                 return null;
 
-            KeyUsageExtension certExt = (KeyUsageExtension)this.get(extAlias);
+            // Android-changed: Use getExtension() rather than get(), which
+            // decodes the whole info of a lazily parsed certificate.
+            KeyUsageExtension certExt =
+                    (KeyUsageExtension)getExtension(PKIXExtensions.KeyUsage_Id);
             if (certExt == null)
                 return null;
 
@@ -1535,8 +1628,9 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
             String extAlias = OIDMap.getName(PKIXExtensions.BasicConstraints_Id);
             if (extAlias == null)
                 return -1;
-            BasicConstraintsExtension certExt =
-                        (BasicConstraintsExtension)this.get(extAlias);
+            // Android-changed: Use getExtension() rather than get(), which
+            // decodes the whole info of a lazily parsed certificate.
+            BasicConstraintsExtension certExt = getBasicConstraintsExtension();
             if (certExt == null)
                 return -1;
 
@@ -1805,6 +1899,13 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * parts away for later verification.
      */
     private void parse(DerValue val, byte[] originalEncodedForm)
+    throws CertificateException, IOException {
+        // Android-changed: Delegate to parse(DerValue, byte[], boolean).
+        parse(val, originalEncodedForm, false);
+    }
+
+    private void parse(DerValue val, byte[] originalEncodedForm,
+            boolean decodeLazily)
     throws CertificateException, IOException {
         // check if can over write the certificate
         if (readOnly)
@@ -1841,19 +1942,269 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
         if (seq[2].data.available() != 0)
             throw new CertificateParsingException("signed fields overrun");
 
-        // The CertificateInfo
-        info = new X509CertInfo(seq[0]);
+        // BEGIN Android-changed: Lazy decoding.
+        AlgorithmId infoSigAlg;
+        if (decodeLazily) {
+            lazy = new LazyFields(seq[0]);
+            infoSigAlg = lazy.sigAlg;
+        } else {
+            // The CertificateInfo
+            info = new X509CertInfo(seq[0]);
+
+            infoSigAlg = (AlgorithmId)info.get(CertificateAlgorithmId.NAME
+                                               + DOT +
+                                               CertificateAlgorithmId.ALGORITHM);
+        }
+        // END Android-changed: Lazy decoding.
 
         // the "inner" and "outer" signature algorithms must match
-        AlgorithmId infoSigAlg = (AlgorithmId)info.get(
-                                              CertificateAlgorithmId.NAME
-                                              + DOT +
-                                              CertificateAlgorithmId.ALGORITHM);
         if (! algId.equals(infoSigAlg))
             throw new CertificateException("Signature algorithm mismatch");
         readOnly = true;
     }
 
+    // BEGIN Android-added: Lazy decoding.
+    /**
+     * Returns the certificate info, decoding it first if this certificate
+     * was parsed lazily, or null if there is none or it cannot be decoded.
+     */
+    private X509CertInfo getInfo() {
+        X509CertInfo i = info;
+        if (i == null && lazy != null) {
+            i = decodeInfo();
+        }
+        return i;
+    }
+
+    private synchronized X509CertInfo decodeInfo() {
+        if (info == null) {
+            try {
+                info = new X509CertInfo(lazy.tbsCertificate);
+            } catch (CertificateException e) {
+                return null;
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Returns the certificate's extensions, or null if it has none. The rest
+     * of the info is not decoded if this certificate was parsed lazily.
+     */
+    private CertificateExtensions getCertificateExtensions()
+            throws CertificateException, IOException {
+        if (lazy != null) {
+            return lazy.extensions;
+        }
+        X509CertInfo info = this.info;
+        if (info == null) {
+            return null;
+        }
+        return (CertificateExtensions)info.get(CertificateExtensions.NAME);
+    }
+
+    /**
+     * Returns the DER encoding of the issuer name, or null if there is none.
+     * The array is not cloned: callers must neither modify it nor expose it
+     * to untrusted code.
+     */
+    public byte[] getEncodedIssuerInternal() {
+        return getEncodedNameInternal(true);
+    }
+
+    /**
+     * Returns the DER encoding of the subject name, or null if there is none.
+     * The array is not cloned: callers must neither modify it nor expose it
+     * to untrusted code.
+     */
+    public byte[] getEncodedSubjectInternal() {
+        return getEncodedNameInternal(false);
+    }
+
+    private byte[] getEncodedNameInternal(boolean issuer) {
+        if (lazy != null) {
+            return issuer ? lazy.encodedIssuer : lazy.encodedSubject;
+        }
+        try {
+            X500Name name = (X500Name)getInfo().get(
+                    (issuer ? X509CertInfo.ISSUER : X509CertInfo.SUBJECT)
+                    + DOT + X509CertInfo.DN_NAME);
+            return (name == null) ? null : name.getEncodedInternal();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the issuer of the certificate is the given name.
+     * Names with the same DER encoding are matched without decoding the
+     * certificate's name; others are compared as by X500Principal.equals().
+     */
+    public static boolean issuerEquals(X509Certificate cert,
+            X500Principal name) {
+        return nameEquals(cert, name, true);
+    }
+
+    /**
+     * Returns true if the subject of the certificate is the given name.
+     * Names with the same DER encoding are matched without decoding the
+     * certificate's name; others are compared as by X500Principal.equals().
+     */
+    public static boolean subjectEquals(X509Certificate cert,
+            X500Principal name) {
+        return nameEquals(cert, name, false);
+    }
+
+    private static boolean nameEquals(X509Certificate cert,
+            X500Principal name, boolean issuer) {
+        if (cert instanceof X509CertImpl) {
+            byte[] encoded =
+                    ((X509CertImpl)cert).getEncodedNameInternal(issuer);
+            if (encoded != null) {
+                try {
+                    byte[] nameEncoded =
+                            X500Name.asX500Name(name).getEncodedInternal();
+                    if (Arrays.equals(encoded, nameEncoded)) {
+                        return true;
+                    }
+                } catch (IOException e) {
+                    // compare the decoded names below
+                }
+            }
+        }
+        return name.equals(issuer ? cert.getIssuerX500Principal()
+                                  : cert.getSubjectX500Principal());
+    }
+
+    /**
+     * The fields of a lazily parsed certificate. The constructor frames the
+     * TBSCertificate, checking that it is a well formed sequence of the
+     * expected fields, and decodes the small ones and the extensions. The
+     * names and the public key are each decoded and cached on first use.
+     */
+    private static final class LazyFields {
+        final byte[] tbsCertificate;
+        // the version as encoded, i.e. 0 for a v1 certificate
+        final int version;
+        final SerialNumber serialNumber;
+        final AlgorithmId sigAlg;
+        final byte[] encodedIssuer;
+        final CertificateValidity validity;
+        final byte[] encodedSubject;
+        final byte[] encodedKey;
+        // null if there are no extensions
+        final CertificateExtensions extensions;
+
+        private volatile X500Principal issuer;
+        private volatile X500Principal subject;
+        private volatile PublicKey publicKey;
+
+        LazyFields(DerValue val) throws CertificateException, IOException {
+            if (val.tag != DerValue.tag_Sequence) {
+                throw new CertificateParsingException("signed fields invalid");
+            }
+            tbsCertificate = val.toByteArray();
+            DerInputStream in = val.data;
+
+            DerValue tmp = in.getDerValue();
+            CertificateVersion certVersion = new CertificateVersion();
+            if (tmp.isContextSpecific((byte)0)) {
+                certVersion = new CertificateVersion(tmp);
+                tmp = in.getDerValue();
+            }
+            version = ((Integer)certVersion.get(
+                    CertificateVersion.VERSION)).intValue();
+            serialNumber = (SerialNumber)new CertificateSerialNumber(tmp).get(
+                    CertificateSerialNumber.NUMBER);
+            sigAlg = AlgorithmId.parse(in.getDerValue());
+            encodedIssuer = getSequence(in).toByteArray();
+            validity = new CertificateValidity(in);
+            encodedSubject = getSequence(in).toByteArray();
+            encodedKey = getSequence(in).toByteArray();
+
+            CertificateExtensions exts = null;
+            if (in.available() != 0) {
+                if (version == CertificateVersion.V1) {
+                    throw new CertificateParsingException(
+                              "no more data allowed for version 1 certificate");
+                }
+                // skip the unique identities, which are decoded with the info
+                tmp = in.getDerValue();
+                if (tmp.isContextSpecific((byte)1) && in.available() != 0) {
+                    tmp = in.getDerValue();
+                }
+                if (tmp.isContextSpecific((byte)2) && in.available() != 0) {
+                    tmp = in.getDerValue();
+                }
+                if (tmp.isConstructed() && tmp.isContextSpecific((byte)3)) {
+                    if (version != CertificateVersion.V3) {
+                        throw new CertificateParsingException(
+                                  "Extensions not allowed in v2 certificate");
+                    }
+                    exts = new CertificateExtensions(tmp.data);
+                }
+            }
+            extensions = exts;
+        }
+
+        private static DerValue getSequence(DerInputStream in)
+                throws IOException {
+            DerValue val = in.getDerValue();
+            if (val.tag != DerValue.tag_Sequence) {
+                throw new CertificateParsingException("signed fields invalid");
+            }
+            return val;
+        }
+
+        Date getValidityDate(String name) {
+            try {
+                return (Date)validity.get(name);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        X500Principal getIssuer() {
+            X500Principal p = issuer;
+            if (p == null) {
+                p = decodeName(encodedIssuer);
+                issuer = p;
+            }
+            return p;
+        }
+
+        X500Principal getSubject() {
+            X500Principal p = subject;
+            if (p == null) {
+                p = decodeName(encodedSubject);
+                subject = p;
+            }
+            return p;
+        }
+
+        private static X500Principal decodeName(byte[] encoded) {
+            try {
+                return new X500Name(encoded, true).asX500Principal();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        PublicKey getPublicKey() {
+            PublicKey key = publicKey;
+            if (key == null) {
+                try {
+                    key = X509Key.parse(new DerValue(encodedKey));
+                } catch (IOException e) {
+                    return null;
+                }
+                publicKey = key;
+            }
+            return key;
+        }
+    }
+    // END Android-added: Lazy decoding.
+
     /**
      * Extract the subject or issuer X500Principal from an X509Certificate.
      * Parses the encoded form of the cert to preserve the principal's
@@ -1940,6 +2291,15 @@ public class X509CertImpl extends X509Certificate implements DerEncoder {
      * the case iff the subject and issuer X500Principals are equal.
      */
     public static boolean isSelfIssued(X509Certificate cert) {
+        // Android-added: Compare the encoded names before decoding them.
+        if (cert instanceof X509CertImpl) {
+            X509CertImpl impl = (X509CertImpl)cert;
+            byte[] subject = impl.getEncodedSubjectInternal();
+            if (subject != null && Arrays.equals(subject,
+                    impl.getEncodedIssuerInternal())) {
+                return true;
+            }
+        }
         X500Principal subject = cert.getSubjectX500Principal();
         X500Principal issuer = cert.getIssuerX500Principal();
         return subject.equals(issuer);
@@ -28,6 +28,7 @@
  */
 
 #include "JNIHelp.h"
+#include "jlong.h"
 #include "jni.h"
 #include "jni_util.h"
 #include <zlib.h>
@@ -57,6 +58,18 @@ CRC32_updateBytes(JNIEnv *env, jclass cls, jint crc,
     return crc;
 }
 
+// Android added, for CRC32.update(ByteBuffer) with a direct buffer.
+JNIEXPORT jint JNICALL
+CRC32_updateByteBuffer(JNIEnv *env, jclass cls, jint crc,
+                       jlong address, jint off, jint len)
+{
+    Bytef *buf = (Bytef *)jlong_to_ptr(address);
+    if (buf) {
+        crc = crc32(crc, buf + off, len);
+    }
+    return crc;
+}
+
 JNIEXPORT jint ZIP_CRC32(jint crc, const jbyte *buf, jint len)
 {
     return crc32(crc, (Bytef*)buf, len);
@@ -65,6 +78,7 @@ JNIEXPORT jint ZIP_CRC32(jint crc, const jbyte *buf, jint len)
 static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(CRC32, update, "(II)I"),
   NATIVE_METHOD(CRC32, updateBytes, "(I[BII)I"),
+  NATIVE_METHOD(CRC32, updateByteBuffer, "(IJII)I"),
 };
 
 void register_java_util_zip_CRC32(JNIEnv* env) {
@@ -116,6 +116,46 @@ Deflater_setDictionary(JNIEnv *env, jclass cls, jlong addr,
     }
 }
 
+// Android changed, the handling of the results of deflateParams() and
+// deflate() is shared by deflateBytes and deflateDirect.
+static jint deflateResult(JNIEnv *env, jobject this, z_stream *strm,
+                          jboolean params, int res,
+                          jint this_off, jint this_len, jint len)
+{
+    if (params) {
+        switch (res) {
+        case Z_OK:
+            (*env)->SetBooleanField(env, this, setParamsID, JNI_FALSE);
+            this_off += this_len - strm->avail_in;
+            (*env)->SetIntField(env, this, offID, this_off);
+            (*env)->SetIntField(env, this, lenID, strm->avail_in);
+            return len - strm->avail_out;
+        case Z_BUF_ERROR:
+            (*env)->SetBooleanField(env, this, setParamsID, JNI_FALSE);
+            return 0;
+        default:
+            JNU_ThrowInternalError(env, strm->msg);
+            return 0;
+        }
+    } else {
+        switch (res) {
+        case Z_STREAM_END:
+            (*env)->SetBooleanField(env, this, finishedID, JNI_TRUE);
+            /* fall through */
+        case Z_OK:
+            this_off += this_len - strm->avail_in;
+            (*env)->SetIntField(env, this, offID, this_off);
+            (*env)->SetIntField(env, this, lenID, strm->avail_in);
+            return len - strm->avail_out;
+        case Z_BUF_ERROR:
+            return 0;
+        default:
+            JNU_ThrowInternalError(env, strm->msg);
+            return 0;
+        }
+    }
+}
+
 JNIEXPORT jint JNICALL
 Deflater_deflateBytes(JNIEnv *env, jobject this, jlong addr,
                                          jarray b, jint off, jint len, jint flush)
@@ -154,20 +194,7 @@ Deflater_deflateBytes(JNIEnv *env, jobject this, jlong addr,
         (*env)->ReleasePrimitiveArrayCritical(env, b, out_buf, 0);
         (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
 
-        switch (res) {
-        case Z_OK:
-            (*env)->SetBooleanField(env, this, setParamsID, JNI_FALSE);
-            this_off += this_len - strm->avail_in;
-            (*env)->SetIntField(env, this, offID, this_off);
-            (*env)->SetIntField(env, this, lenID, strm->avail_in);
-            return len - strm->avail_out;
-        case Z_BUF_ERROR:
-            (*env)->SetBooleanField(env, this, setParamsID, JNI_FALSE);
-            return 0;
-        default:
-            JNU_ThrowInternalError(env, strm->msg);
-            return 0;
-        }
+        return deflateResult(env, this, strm, JNI_TRUE, res, this_off, this_len, len);
     } else {
         jboolean finish = (*env)->GetBooleanField(env, this, finishID);
         in_buf = (*env)->GetPrimitiveArrayCritical(env, this_buf, 0);
@@ -193,22 +220,73 @@ Deflater_deflateBytes(JNIEnv *env, jobject this, jlong addr,
         (*env)->ReleasePrimitiveArrayCritical(env, b, out_buf, 0);
         (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
 
-        switch (res) {
-        case Z_STREAM_END:
-            (*env)->SetBooleanField(env, this, finishedID, JNI_TRUE);
-            /* fall through */
-        case Z_OK:
-            this_off += this_len - strm->avail_in;
-            (*env)->SetIntField(env, this, offID, this_off);
-            (*env)->SetIntField(env, this, lenID, strm->avail_in);
-            return len - strm->avail_out;
-        case Z_BUF_ERROR:
+        return deflateResult(env, this, strm, JNI_FALSE, res, this_off, this_len, len);
+    }
+}
+
+// Android added, deflates from or to native memory, for direct ByteBuffers.
+// The input is read from in_address rather than the buf field, and the
+// output written to out_address rather than b, when they are non-zero.
+JNIEXPORT jint JNICALL
+Deflater_deflateDirect(JNIEnv *env, jobject this, jlong addr, jlong in_address,
+                       jarray b, jlong out_address, jint off, jint len,
+                       jint flush)
+{
+    z_stream *strm = jlong_to_ptr(addr);
+    jarray this_buf = NULL;
+    jint this_off = (*env)->GetIntField(env, this, offID);
+    jint this_len = (*env)->GetIntField(env, this, lenID);
+    jboolean params = (*env)->GetBooleanField(env, this, setParamsID);
+    jboolean finish = (*env)->GetBooleanField(env, this, finishID);
+    int level = 0;
+    int strategy = 0;
+    jbyte *in_buf;
+    jbyte *out_buf;
+    int res;
+
+    if (params) {
+        level = (*env)->GetIntField(env, this, levelID);
+        strategy = (*env)->GetIntField(env, this, strategyID);
+    }
+    if (in_address == 0) {
+        this_buf = (*env)->GetObjectField(env, this, bufID);
+        in_buf = (*env)->GetPrimitiveArrayCritical(env, this_buf, 0);
+        if (in_buf == NULL) {
+            if (this_len != 0)
+                JNU_ThrowOutOfMemoryError(env, 0);
             return 0;
-            default:
-            JNU_ThrowInternalError(env, strm->msg);
+        }
+    } else {
+        in_buf = jlong_to_ptr(in_address);
+    }
+    if (out_address == 0) {
+        out_buf = (*env)->GetPrimitiveArrayCritical(env, b, 0);
+        if (out_buf == NULL) {
+            if (this_buf != NULL)
+                (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
+            if (len != 0)
+                JNU_ThrowOutOfMemoryError(env, 0);
             return 0;
         }
+    } else {
+        out_buf = jlong_to_ptr(out_address);
     }
+
+    strm->next_in = (Bytef *) (in_buf + this_off);
+    strm->next_out = (Bytef *) (out_buf + off);
+    strm->avail_in = this_len;
+    strm->avail_out = len;
+    if (params) {
+        res = deflateParams(strm, level, strategy);
+    } else {
+        res = deflate(strm, finish ? Z_FINISH : flush);
+    }
+    if (out_address == 0)
+        (*env)->ReleasePrimitiveArrayCritical(env, b, out_buf, 0);
+    if (this_buf != NULL)
+        (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
+
+    return deflateResult(env, this, strm, params, res, this_off, this_len, len);
 }
 
 JNIEXPORT jint JNICALL
@@ -239,6 +317,7 @@ static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(Deflater, init, "(IIZ)J"),
   NATIVE_METHOD(Deflater, setDictionary, "(J[BII)V"),
   NATIVE_METHOD(Deflater, deflateBytes, "(J[BIII)I"),
+  NATIVE_METHOD(Deflater, deflateDirect, "(JJ[BJIII)I"),
   NATIVE_METHOD(Deflater, getAdler, "(J)I"),
   NATIVE_METHOD(Deflater, reset, "(J)V"),
   NATIVE_METHOD(Deflater, end, "(J)V"),
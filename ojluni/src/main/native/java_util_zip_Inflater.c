@@ -106,6 +106,41 @@ Inflater_setDictionary(JNIEnv *env, jclass cls, jlong addr,
     }
 }
 
+// Android changed, the handling of inflate()'s result is shared by
+// inflateBytes and inflateDirect.
+static jint inflateResult(JNIEnv *env, jobject this, z_stream *strm, int ret,
+                          jint this_off, jint this_len, jint len)
+{
+    switch (ret) {
+    case Z_STREAM_END:
+        (*env)->SetBooleanField(env, this, finishedID, JNI_TRUE);
+        /* fall through */
+    case Z_OK:
+        this_off += this_len - strm->avail_in;
+        (*env)->SetIntField(env, this, offID, this_off);
+        (*env)->SetIntField(env, this, lenID, strm->avail_in);
+        return len - strm->avail_out;
+    case Z_NEED_DICT:
+        (*env)->SetBooleanField(env, this, needDictID, JNI_TRUE);
+        /* Might have consumed some input here! */
+        this_off += this_len - strm->avail_in;
+        (*env)->SetIntField(env, this, offID, this_off);
+        (*env)->SetIntField(env, this, lenID, strm->avail_in);
+        return 0;
+    case Z_BUF_ERROR:
+        return 0;
+    case Z_DATA_ERROR:
+        ThrowDataFormatException(env, strm->msg);
+        return 0;
+    case Z_MEM_ERROR:
+        JNU_ThrowOutOfMemoryError(env, 0);
+        return 0;
+    default:
+        JNU_ThrowInternalError(env, strm->msg);
+        return 0;
+    }
+}
+
 JNIEXPORT jint JNICALL
 Inflater_inflateBytes(JNIEnv *env, jobject this, jlong addr,
                                          jarray b, jint off, jint len)
@@ -140,34 +175,59 @@ Inflater_inflateBytes(JNIEnv *env, jobject this, jlong addr,
     (*env)->ReleasePrimitiveArrayCritical(env, b, out_buf, 0);
     (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
 
-    switch (ret) {
-    case Z_STREAM_END:
-        (*env)->SetBooleanField(env, this, finishedID, JNI_TRUE);
-        /* fall through */
-    case Z_OK:
-        this_off += this_len - strm->avail_in;
-        (*env)->SetIntField(env, this, offID, this_off);
-        (*env)->SetIntField(env, this, lenID, strm->avail_in);
-        return len - strm->avail_out;
-    case Z_NEED_DICT:
-        (*env)->SetBooleanField(env, this, needDictID, JNI_TRUE);
-        /* Might have consumed some input here! */
-        this_off += this_len - strm->avail_in;
-        (*env)->SetIntField(env, this, offID, this_off);
-        (*env)->SetIntField(env, this, lenID, strm->avail_in);
-        return 0;
-    case Z_BUF_ERROR:
-        return 0;
-    case Z_DATA_ERROR:
-        ThrowDataFormatException(env, strm->msg);
-        return 0;
-    case Z_MEM_ERROR:
-        JNU_ThrowOutOfMemoryError(env, 0);
-        return 0;
-    default:
-        JNU_ThrowInternalError(env, strm->msg);
-        return 0;
+    return inflateResult(env, this, strm, ret, this_off, this_len, len);
+}
+
+// Android added, inflates from or to native memory, for direct ByteBuffers.
+// The input is read from in_address rather than the buf field, and the
+// output written to out_address rather than b, when they are non-zero.
+JNIEXPORT jint JNICALL
+Inflater_inflateDirect(JNIEnv *env, jobject this, jlong addr, jlong in_address,
+                       jarray b, jlong out_address, jint off, jint len)
+{
+    z_stream *strm = jlong_to_ptr(addr);
+    jarray this_buf = NULL;
+    jint this_off = (*env)->GetIntField(env, this, offID);
+    jint this_len = (*env)->GetIntField(env, this, lenID);
+
+    jbyte *in_buf;
+    jbyte *out_buf;
+    int ret;
+
+    if (in_address == 0) {
+        this_buf = (jarray)(*env)->GetObjectField(env, this, bufID);
+        in_buf = (*env)->GetPrimitiveArrayCritical(env, this_buf, 0);
+        if (in_buf == NULL) {
+            if (this_len != 0)
+                JNU_ThrowOutOfMemoryError(env, 0);
+            return 0;
+        }
+    } else {
+        in_buf = jlong_to_ptr(in_address);
     }
+    if (out_address == 0) {
+        out_buf = (*env)->GetPrimitiveArrayCritical(env, b, 0);
+        if (out_buf == NULL) {
+            if (this_buf != NULL)
+                (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
+            if (len != 0)
+                JNU_ThrowOutOfMemoryError(env, 0);
+            return 0;
+        }
+    } else {
+        out_buf = jlong_to_ptr(out_address);
+    }
+    strm->next_in  = (Bytef *) (in_buf + this_off);
+    strm->next_out = (Bytef *) (out_buf + off);
+    strm->avail_in  = this_len;
+    strm->avail_out = len;
+    ret = inflate(strm, Z_PARTIAL_FLUSH);
+    if (out_address == 0)
+        (*env)->ReleasePrimitiveArrayCritical(env, b, out_buf, 0);
+    if (this_buf != NULL)
+        (*env)->ReleasePrimitiveArrayCritical(env, this_buf, in_buf, 0);
+
+    return inflateResult(env, this, strm, ret, this_off, this_len, len);
 }
 
 JNIEXPORT jint JNICALL
@@ -198,6 +258,7 @@ static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(Inflater, init, "(Z)J"),
   NATIVE_METHOD(Inflater, setDictionary, "(J[BII)V"),
   NATIVE_METHOD(Inflater, inflateBytes, "(J[BII)I"),
+  NATIVE_METHOD(Inflater, inflateDirect, "(JJ[BJII)I"),
   NATIVE_METHOD(Inflater, getAdler, "(J)I"),
   NATIVE_METHOD(Inflater, reset, "(J)V"),
   NATIVE_METHOD(Inflater, end, "(J)V"),
@@ -303,14 +303,42 @@ ZipFile_getEntryBytes(JNIEnv *env, jclass cls, jlong zentry, jint type)
     return jba;
 }
 
-JNIEXPORT jint JNICALL
-ZipFile_read(JNIEnv *env, jclass cls, jlong zfile,
-             jlong zentry, jlong pos, jbyteArray bytes,
-             jint off, jint len)
+// Android changed, entry data is read with pread(2) at an offset resolved
+// once per stream, so that streams over the same zip file do not serialize
+// on the zip lock.
+JNIEXPORT jlong JNICALL
+ZipFile_getEntryDataOffset(JNIEnv *env, jclass cls, jlong zfile,
+                           jlong zentry)
 {
     jzfile *zip = jlong_to_ptr(zfile);
+    jzentry *ze = jlong_to_ptr(zentry);
+    jlong entry_size = (ze->csize != 0) ? ze->csize : ze->size;
+    jlong start;
     char *msg;
 
+    ZIP_Lock(zip);
+    zip->msg = NULL;
+    start = ZIP_GetEntryDataOffset(zip, ze);
+    msg = zip->msg;
+    ZIP_Unlock(zip);
+
+    if (start < 0) {
+        ThrowZipException(env, msg != NULL ? msg : "error reading zip file");
+        return -1;
+    }
+    if (start + entry_size > zip->len) {
+        ThrowZipException(env, "corrupt zip file: invalid entry size");
+        return -1;
+    }
+    return start;
+}
+
+JNIEXPORT jint JNICALL
+ZipFile_readAt(JNIEnv *env, jclass cls, jlong zfile, jlong offset,
+               jbyteArray bytes, jint off, jint len)
+{
+    jzfile *zip = jlong_to_ptr(zfile);
+
 #define BUFSIZE 8192
     /* copy via tmp stack buffer: */
     jbyte buf[BUFSIZE];
@@ -319,25 +347,14 @@ ZipFile_read(JNIEnv *env, jclass cls, jlong zfile,
         len = BUFSIZE;
     }
 
-    ZIP_Lock(zip);
-    len = ZIP_Read(zip, jlong_to_ptr(zentry), pos, buf, len);
-    msg = zip->msg;
-    ZIP_Unlock(zip);
-    if (len != -1) {
-        (*env)->SetByteArrayRegion(env, bytes, off, len, buf);
-    }
-
-    if (len == -1) {
-        if (msg != 0) {
-            ThrowZipException(env, msg);
-        } else {
-            char errmsg[128];
-            snprintf(errmsg, sizeof(errmsg), "errno: %d, error: %s\n", errno,
-                     "Error reading ZIP file");
-            JNU_ThrowIOExceptionWithLastError(env, errmsg);
-        }
+    if (ZIP_ReadAt(zip, offset, buf, len) == -1) {
+        char errmsg[128];
+        snprintf(errmsg, sizeof(errmsg), "errno: %d, error: %s\n", errno,
+                 "Error reading ZIP file");
+        JNU_ThrowIOExceptionWithLastError(env, errmsg);
+        return -1;
     }
-
+    (*env)->SetByteArrayRegion(env, bytes, off, len, buf);
     return len;
 }
 
@@ -404,7 +421,8 @@ static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(ZipFile, open, "(Ljava/lang/String;IJZ)J"),
   NATIVE_METHOD(ZipFile, getTotal, "(J)I"),
   NATIVE_METHOD(ZipFile, startsWithLOC, "(J)Z"),
-  NATIVE_METHOD(ZipFile, read, "(JJJ[BII)I"),
+  NATIVE_METHOD(ZipFile, getEntryDataOffset, "(JJ)J"),
+  NATIVE_METHOD(ZipFile, readAt, "(JJ[BII)I"),
   NATIVE_METHOD(ZipFile, getEntryTime, "(J)J"),
   NATIVE_METHOD(ZipFile, getEntryCrc, "(J)J"),
   NATIVE_METHOD(ZipFile, getEntryCSize, "(J)J"),
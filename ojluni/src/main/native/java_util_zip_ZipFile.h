@@ -107,11 +107,19 @@ JNIEXPORT jboolean JNICALL ZipFile_startsWithLOC
 
 /*
  * Class:     java_util_zip_ZipFile
- * Method:    read
- * Signature: (JJJ[BII)I
+ * Method:    getEntryDataOffset
+ * Signature: (JJ)J
  */
-JNIEXPORT jint JNICALL ZipFile_read
-  (JNIEnv *, jclass, jlong, jlong, jlong, jbyteArray, jint, jint);
+JNIEXPORT jlong JNICALL ZipFile_getEntryDataOffset
+  (JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     java_util_zip_ZipFile
+ * Method:    readAt
+ * Signature: (JJ[BII)I
+ */
+JNIEXPORT jint JNICALL ZipFile_readAt
+  (JNIEnv *, jclass, jlong, jlong, jbyteArray, jint, jint);
 
 /*
  * Class:     java_util_zip_ZipFile
@@ -1356,6 +1356,23 @@ ZIP_Read(jzfile *zip, jzentry *entry, jlong pos, void *buf, jint len)
     return len;
 }
 
+// Android added, positional reads for concurrent ZipFile input streams.
+/*
+ * Reads len bytes at the specified offset within the zip file. Unlike
+ * ZIP_Read this neither requires the zip file lock nor sets zip->msg, so
+ * it may be called by many threads at once. The caller is responsible for
+ * checking the offset against the bounds of the entry being read.
+ * Returns len, or -1 if an I/O error occurred.
+ */
+jint
+ZIP_ReadAt(jzfile *zip, jlong offset, void *buf, jint len)
+{
+    if (readFullyAt(zip->zfd, buf, len, offset) == -1) {
+        return -1;
+    }
+    return len;
+}
+
 
 /* The maximum size of a stack-allocated buffer.
  */
@@ -709,7 +709,11 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/util/StringJoiner.java \
     ojluni/src/main/java/java/util/Tripwire.java \
     ojluni/src/main/java/java/util/DoubleSummaryStatistics.java \
+    ojluni/src/main/java/java/util/IntHashMap.java \
+    ojluni/src/main/java/java/util/IntHashSet.java \
     ojluni/src/main/java/java/util/IntSummaryStatistics.java \
+    ojluni/src/main/java/java/util/LongHashMap.java \
+    ojluni/src/main/java/java/util/LongHashSet.java \
     ojluni/src/main/java/java/util/LongSummaryStatistics.java \
     ojluni/src/main/java/java/util/function/BiConsumer.java \
     ojluni/src/main/java/java/util/function/BiFunction.java \
@@ -886,6 +890,7 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/util/XMLUtils.java \
     ojluni/src/main/java/java/util/regex/PatternSyntaxException.java \
     ojluni/src/main/java/java/util/regex/Pattern.java \
+    ojluni/src/main/java/java/util/regex/SimplePattern.java \
     ojluni/src/main/java/java/util/regex/Matcher.java \
     ojluni/src/main/java/java/util/regex/MatchResult.java \
     ojluni/src/main/java/java/util/zip/Adler32.java \
@@ -902,6 +907,7 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/util/zip/InflaterInputStream.java \
     ojluni/src/main/java/java/util/zip/Inflater.java \
     ojluni/src/main/java/java/util/zip/InflaterOutputStream.java \
+    ojluni/src/main/java/java/util/zip/ZipCentralDirectory.java \
     ojluni/src/main/java/java/util/zip/ZipCoder.java \
     ojluni/src/main/java/java/util/zip/ZipConstants.java \
     ojluni/src/main/java/java/util/zip/ZipConstants64.java \
@@ -911,6 +917,7 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/util/zip/ZipFile.java \
     ojluni/src/main/java/java/util/zip/ZipInputStream.java \
     ojluni/src/main/java/java/util/zip/ZipOutputStream.java \
+    ojluni/src/main/java/java/util/zip/ZStreamPool.java \
     ojluni/src/main/java/java/util/zip/ZStreamRef.java \
     ojluni/src/main/java/javax/crypto/AEADBadTagException.java \
     ojluni/src/main/java/javax/crypto/BadPaddingException.java \
@@ -1309,6 +1316,7 @@ openjdk_java_files := \
     ojluni/src/main/java/sun/security/util/ByteArrayLexOrder.java \
     ojluni/src/main/java/sun/security/util/ByteArrayTagOrder.java \
     ojluni/src/main/java/sun/security/util/Cache.java \
+    ojluni/src/main/java/sun/security/util/ConcurrentMemoryCache.java \
     ojluni/src/main/java/sun/security/util/Debug.java \
     ojluni/src/main/java/sun/security/util/DerEncoder.java \
     ojluni/src/main/java/sun/security/util/DerIndefLenConverter.java \
@@ -181,7 +181,7 @@ public class KXmlParser implements XmlPullParser, Closeable {
 
     private boolean unresolved;
 
-    public final StringPool stringPool = new StringPool();
+    public final StringPool stringPool = StringPool.getShared();
 
     /**
      * Retains namespace attributes like {@code xmlns="http://foo"} or {@code xmlns:foo="http:foo"}